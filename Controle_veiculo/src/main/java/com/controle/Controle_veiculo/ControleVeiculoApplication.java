@@ -2,13 +2,16 @@ package com.controle.Controle_veiculo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * A classe principal que serve como ponto de entrada para a aplicação Spring Boot.
  * A anotação {@code @SpringBootApplication} habilita a autoconfiguração do Spring Boot,
  * a varredura de componentes e a configuração da aplicação.
+ * A anotação {@code @EnableScheduling} habilita as tarefas periódicas (ex: sincronização do modo edge).
  */
 @SpringBootApplication
+@EnableScheduling
 public class ControleVeiculoApplication {
 
     /**
@@ -0,0 +1,75 @@
+package com.controle.Controle_veiculo.config;
+
+import com.controle.Controle_veiculo.services.compartimento.ClasseCarga;
+import com.controle.Controle_veiculo.services.compartimento.Compartimento;
+import com.controle.Controle_veiculo.services.compartimento.CompartimentoInterceptor;
+import com.controle.Controle_veiculo.services.compartimento.RoteadorConexoes;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Compartimentos de conexões: um pool por classe de carga e o interceptor que define a classe
+ * nos métodos marcados com {@link Compartimento}.
+ *
+ * O pool interativo usa exatamente a configuração {@code spring.datasource.hikari.*}; os pools de
+ * escrita e de lote usam a mesma configuração com os tamanhos {@code compartimentos.*.conexoes}.
+ * Com {@code compartimentos.habilitado=false}, volta o pool único do Spring Boot.
+ */
+@Configuration
+public class CompartimentosConfig {
+
+    /**
+     * Interceptor dos métodos marcados, executado antes do de transações (maior precedência).
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor compartimentoAdvisor() {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                new AnnotationMatchingPointcut(null, Compartimento.class, true), new CompartimentoInterceptor());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "compartimentos.habilitado", havingValue = "true", matchIfMissing = true)
+    public RoteadorConexoes dataSource(DataSourceProperties propriedades, Environment ambiente,
+            @Value("${compartimentos.escrita.conexoes:4}") int conexoesEscrita,
+            @Value("${compartimentos.lote.conexoes:2}") int conexoesLote) {
+        Binder binder = Binder.get(ambiente);
+        Map<ClasseCarga, HikariDataSource> pools = new EnumMap<>(ClasseCarga.class);
+        pools.put(ClasseCarga.ESCRITA, pool(propriedades, binder, ClasseCarga.ESCRITA, conexoesEscrita));
+        pools.put(ClasseCarga.INTERATIVA, pool(propriedades, binder, ClasseCarga.INTERATIVA, null));
+        pools.put(ClasseCarga.LOTE, pool(propriedades, binder, ClasseCarga.LOTE, conexoesLote));
+        return new RoteadorConexoes(pools);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties propriedades, Binder binder, ClasseCarga classe, Integer conexoes) {
+        HikariDataSource pool = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName("conexoes-" + classe.name().toLowerCase());
+        if (conexoes != null) {
+            pool.setMaximumPoolSize(conexoes);
+            pool.setMinimumIdle(Math.min(pool.getMinimumIdle() < 0 ? conexoes : pool.getMinimumIdle(), conexoes));
+        }
+        return pool;
+    }
+}
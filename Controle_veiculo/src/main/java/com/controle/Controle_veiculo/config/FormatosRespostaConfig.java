@@ -0,0 +1,52 @@
+package com.controle.Controle_veiculo.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Formatos de resposta negociados pelo cabeçalho Accept.
+ *
+ * Além do JSON, a API responde em CBOR ({@code application/cbor}) e Smile
+ * ({@code application/x-jackson-smile}), formatos binários bem menores para os terminais
+ * de portaria em links lentos. Os três conversores usam o mesmo {@link Jackson2ObjectMapperBuilder}
+ * do Spring Boot, então anotações como {@code @JsonFormat} e {@code @JsonIgnore} valem em todos.
+ *
+ * A compressão gzip das respostas acima de um tamanho mínimo é configurada em
+ * {@code server.compression.*} no application.properties.
+ */
+@Configuration
+public class FormatosRespostaConfig {
+
+    /**
+     * Gera (de)serializadores por bytecode em vez de reflexão, reduzindo o custo de CPU
+     * da serialização de {@code Movimentacao} e {@code Veiculo}. O Spring Boot registra
+     * automaticamente todo {@link Module} declarado como bean.
+     *
+     * Na imagem nativa não é possível gerar classes em tempo de execução; lá o Jackson continua
+     * usando reflexão (registrada em {@link RuntimeHintsConfig}).
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return NativeDetector.inNativeImage() ? new SimpleModule("sem-blackbird") : new BlackbirdModule();
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,87 @@
+package com.controle.Controle_veiculo.config;
+
+import com.controle.Controle_veiculo.dto.CorrectionRequiredResponse;
+import com.controle.Controle_veiculo.dto.DefinicaoRelatorio;
+import com.controle.Controle_veiculo.dto.DivergenciaVeiculo;
+import com.controle.Controle_veiculo.dto.JwtResponse;
+import com.controle.Controle_veiculo.dto.LeituraPlaca;
+import com.controle.Controle_veiculo.dto.LinhaRelatorio;
+import com.controle.Controle_veiculo.dto.LoginRequest;
+import com.controle.Controle_veiculo.dto.MotoristaSugestao;
+import com.controle.Controle_veiculo.dto.MovimentacaoEncontrada;
+import com.controle.Controle_veiculo.dto.MovimentacaoSincronizada;
+import com.controle.Controle_veiculo.dto.PaginaFrota;
+import com.controle.Controle_veiculo.dto.PontoOcupacao;
+import com.controle.Controle_veiculo.dto.ResultadoIngestao;
+import com.controle.Controle_veiculo.model.CheckpointOcupacao;
+import com.controle.Controle_veiculo.model.EntregaOutbox;
+import com.controle.Controle_veiculo.model.EventoOutbox;
+import com.controle.Controle_veiculo.model.Motorista;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.Papel;
+import com.controle.Controle_veiculo.model.Porteiro;
+import com.controle.Controle_veiculo.model.RegistroAuditoria;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.model.Usuario;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.model.Viagem;
+import com.controle.Controle_veiculo.model.converter.StatusVeiculoConverter;
+import com.controle.Controle_veiculo.model.converter.TipoMovimentoConverter;
+import com.controle.Controle_veiculo.services.relatorio.TrabalhoRelatorio;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.stream.Stream;
+
+/**
+ * Dicas de reflexão e recursos para o processamento AOT e a imagem nativa (perfis "cds" e "native").
+ *
+ * O Spring já registra sozinho as entidades JPA, os repositórios do Spring Data (inclusive os proxies
+ * JDK) e os tipos de retorno declarados nos controllers. Aqui ficam apenas os casos que ele não
+ * consegue deduzir:
+ * - Classes serializadas pelo Jackson a partir de {@code ResponseEntity<?>}, {@code Page} e {@code Map}.
+ * - Os {@code AttributeConverter} instanciados pelo Hibernate.
+ * - As implementações do jjwt, carregadas por nome ou pelo {@code ServiceLoader}.
+ */
+@Configuration
+@ImportRuntimeHints(RuntimeHintsConfig.Dicas.class)
+@RegisterReflectionForBinding({
+        Veiculo.class, Movimentacao.class, Viagem.class, Motorista.class, Porteiro.class, Usuario.class, Unidade.class,
+        TipoMovimento.class, StatusVeiculo.class, Papel.class, EventoOutbox.class, EntregaOutbox.class, RegistroAuditoria.class, CheckpointOcupacao.class,
+        MotoristaSugestao.class, MovimentacaoSincronizada.class, DivergenciaVeiculo.class, MovimentacaoEncontrada.class, DefinicaoRelatorio.class, LinhaRelatorio.class, TrabalhoRelatorio.class, PontoOcupacao.class, PaginaFrota.class, LeituraPlaca.class, ResultadoIngestao.class, CorrectionRequiredResponse.class, LoginRequest.class, JwtResponse.class,
+        PageImpl.class
+})
+public class RuntimeHintsConfig {
+
+    static class Dicas implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            Stream.of(TipoMovimentoConverter.class, StatusVeiculoConverter.class)
+                    .forEach(tipo -> hints.reflection().registerType(tipo, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS));
+
+            Stream.of(
+                    "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                    "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                    "io.jsonwebtoken.impl.DefaultJwtParser",
+                    "io.jsonwebtoken.impl.DefaultClaims",
+                    "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+                    "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+                    "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                    "io.jsonwebtoken.jackson.io.JacksonDeserializer")
+                    .forEach(nome -> hints.reflection().registerType(TypeReference.of(nome),
+                            MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+        }
+    }
+}
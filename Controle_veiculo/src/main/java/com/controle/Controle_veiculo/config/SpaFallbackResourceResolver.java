@@ -0,0 +1,88 @@
+package com.controle.Controle_veiculo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Resolve as rotas da SPA (Angular) para o HTML correto, sem passar pelo tratamento de erros.
+ *
+ * Ordem de resolução para um caminho sem extensão (ex: "/historico"):
+ * 1. O próprio arquivo, se existir.
+ * 2. A página pré-renderizada da rota ("historico/index.html"), quando o build gerou uma.
+ * 3. O index.html raiz, para o Angular Router tratar a rota no navegador.
+ *
+ * O index.html raiz é lido uma única vez e servido a partir da memória.
+ * Caminhos da API ("api/...") e arquivos inexistentes com extensão continuam retornando 404.
+ */
+public class SpaFallbackResourceResolver extends AbstractResourceResolver {
+
+    private static final String INDEX = "index.html";
+
+    private final Resource index;
+
+    /**
+     * @param indexOriginal O index.html do build (ex: classpath:/static/index.html).
+     */
+    public SpaFallbackResourceResolver(Resource indexOriginal) {
+        this.index = indexOriginal.exists() ? emMemoria(indexOriginal) : null;
+    }
+
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+            List<? extends Resource> locations, ResourceResolverChain chain) {
+        if (index != null && (requestPath.isEmpty() || requestPath.equals(INDEX))) {
+            return index;
+        }
+
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource != null || !isRotaDaSpa(requestPath)) {
+            return resource;
+        }
+
+        Resource preRenderizada = chain.resolveResource(request, requestPath + "/" + INDEX, locations);
+        return preRenderizada != null ? preRenderizada : index;
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    /**
+     * Rotas do Angular não têm extensão e não pertencem à API.
+     */
+    private boolean isRotaDaSpa(String requestPath) {
+        return !requestPath.startsWith("api/") && StringUtils.getFilenameExtension(requestPath) == null;
+    }
+
+    private static Resource emMemoria(Resource original) {
+        try (InputStream entrada = original.getInputStream()) {
+            byte[] conteudo = entrada.readAllBytes();
+            long modificadoEm = System.currentTimeMillis();
+            return new ByteArrayResource(conteudo, "index.html em memória") {
+                @Override
+                public String getFilename() {
+                    return INDEX;
+                }
+
+                @Override
+                public long lastModified() {
+                    return modificadoEm;
+                }
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível carregar o index.html da SPA.", e);
+        }
+    }
+}
@@ -1,12 +1,23 @@
 package com.controle.Controle_veiculo.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private static final String ESTATICOS = "classpath:/static/";
+
+    // Arquivos do build do Angular com hash no nome (ex: main-4MVY72FX.js): o conteúdo nunca muda
+    private static final String BUNDLE_COM_HASH = "/{arquivo:[a-z0-9-]+-[A-Z0-9]{8}\\.(?:js|css)}";
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**") // Permite CORS para todos os endpoints
@@ -15,4 +26,35 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*") // Permite todos os cabeçalhos
                 .allowCredentials(true);
     }
-}
\ No newline at end of file
+
+    /**
+     * Serve o front-end Angular empacotado em src/main/resources/static.
+     *
+     * As variantes .br/.gz geradas a cada {@code npm run build} (não versionadas) são enviadas quando o
+     * navegador as aceita, então nenhum arquivo é comprimido a cada requisição. Os bundles com
+     * hash são cacheados pelo navegador por um ano; o HTML é sempre revalidado, para que um novo
+     * deploy seja percebido no próximo carregamento.
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(BUNDLE_COM_HASH)
+                .addResourceLocations(ESTATICOS)
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+
+        registry.addResourceHandler("/assets/**")
+                .addResourceLocations(ESTATICOS + "assets/")
+                .setCacheControl(CacheControl.maxAge(7, TimeUnit.DAYS).cachePublic())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+
+        // Demais arquivos e rotas da SPA (/historico, /registro, ...), sem passar pelo /error
+        registry.addResourceHandler("/**")
+                .addResourceLocations(ESTATICOS)
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(true)
+                .addResolver(new SpaFallbackResourceResolver(new ClassPathResource("static/index.html")))
+                .addResolver(new EncodedResourceResolver());
+    }
+}
@@ -1,20 +1,88 @@
 package com.controle.Controle_veiculo.config;
 
+import com.controle.Controle_veiculo.model.Papel;
+import com.controle.Controle_veiculo.services.security.jwt.AuthTokenFilter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 public class WebSecurityConfig {
 
-    
+    // Desligada por padrão enquanto o front-end Angular não tem tela de login (o login da API já funciona)
+    @Value("${jwt.enabled:false}")
+    private boolean jwtHabilitado;
+
+    @Bean
+    public AuthTokenFilter authenticationJwtTokenFilter() {
+        return new AuthTokenFilter();
+    }
+
+    /**
+     * Impede que o Spring Boot registre o filtro JWT também na cadeia de filtros do servlet;
+     * ele deve rodar apenas dentro da cadeia do Spring Security.
+     */
+    @Bean
+    public FilterRegistrationBean<AuthTokenFilter> authTokenFilterRegistration(AuthTokenFilter filter) {
+        FilterRegistrationBean<AuthTokenFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    @Bean
+    public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
+        return authConfig.getAuthenticationManager();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-        http.cors() // habilita o CORS configurado no WebConfig
-        .and()
-        .csrf().disable()
-        .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+        http.cors(Customizer.withDefaults()) // habilita o CORS configurado no WebConfig
+        .csrf(csrf -> csrf.disable())
+        .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+
+        if (!jwtHabilitado) {
+            http.authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+            return http.build();
+        }
+
+        String admin = Papel.ROLE_ADMIN.name();
+        http.authorizeHttpRequests(auth -> auth
+                .requestMatchers("/api/auth/login").permitAll()
+                // Cadastros, manutenção e operações de administração: somente administradores (claim "roles" do token)
+                .requestMatchers("/api/admissao/**", "/api/compartimentos/**").hasAuthority(admin)
+                .requestMatchers(HttpMethod.POST, "/api/unidades", "/api/veiculos/reconciliar", "/api/movimentacoes/busca/reindexar",
+                        "/api/movimentacoes/*/revisao", "/api/viagens/reconstruir", "/api/ocupacao/recalcular", "/api/outbox/drenar",
+                        "/api/sincronizacao/executar", "/api/analises/arquivos/**").hasAuthority(admin)
+                .requestMatchers(HttpMethod.PUT, "/api/motoristas/**", "/api/unidades/**").hasAuthority(admin)
+                .requestMatchers(HttpMethod.DELETE, "/api/**").hasAuthority(admin)
+                // Recebimento das portarias em modo edge: usuário de sincronização ou administração
+                .requestMatchers(HttpMethod.POST, "/api/sincronizacao/movimentacoes").hasAnyAuthority(admin, Papel.ROLE_SINCRONIZACAO.name())
+                .requestMatchers(HttpMethod.GET, "/api/sincronizacao/veiculos").hasAnyAuthority(admin, Papel.ROLE_SINCRONIZACAO.name())
+                // Demais endpoints da API: portaria ou administração
+                .requestMatchers("/api/**").hasAnyAuthority(admin, Papel.ROLE_PORTEIRO.name())
+                // Front-end Angular (arquivos estáticos e rotas da SPA)
+                .anyRequest().permitAll())
+            .exceptionHandling(e -> e.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+            .addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 }
@@ -0,0 +1,35 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.services.admissao.ControleAdmissaoFilter;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST de acompanhamento do controle de admissão (limites por cliente e descarte de leituras).
+ */
+@RestController
+@RequestMapping("/api/admissao")
+public class AdmissaoController {
+
+    @Autowired
+    private ObjectProvider<ControleAdmissaoFilter> controleAdmissao;
+
+    /**
+     * Métricas por classe de requisição (portaria, leitura, outras) e ocupação do pool de conexões.
+     *
+     * @return 200 com as métricas, ou 404 (Not Found) se o controle de admissão estiver desabilitado.
+     */
+    @GetMapping("/estado")
+    public ResponseEntity<Map<String, Object>> estado() {
+        ControleAdmissaoFilter filtro = controleAdmissao.getIfAvailable();
+        if (filtro == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(filtro.estado());
+    }
+}
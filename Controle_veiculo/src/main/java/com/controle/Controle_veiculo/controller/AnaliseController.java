@@ -0,0 +1,108 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.services.arquivo.ArquivoMovimentacoesService;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST das análises de longo prazo das movimentações e do arquivo dos meses fechados.
+ *
+ * As análises consultam juntos os meses arquivados (arquivos colunares no disco) e a tabela de
+ * movimentações; o resultado é o mesmo com ou sem meses arquivados.
+ */
+@RestController
+@RequestMapping("/api/analises")
+public class AnaliseController {
+
+    @Autowired
+    private ArquivoMovimentacoesService arquivoService;
+
+    /**
+     * Quilometragem rodada por veículo no período.
+     *
+     * @param dataInicio Primeiro dia do período (opcional).
+     * @param dataFim    Último dia do período, incluído inteiro (opcional).
+     * @return 200 com uma linha por placa (placa, kmInicial, kmFinal, km, leituras), da maior
+     *         quilometragem para a menor.
+     */
+    @GetMapping("/km-por-veiculo")
+    public ResponseEntity<List<Map<String, Object>>> getKmPorVeiculo(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dataFim) {
+        return ResponseEntity.ok(arquivoService.kmPorVeiculo(dataInicio, diaSeguinte(dataFim)));
+    }
+
+    /**
+     * Entradas e saídas por hora do dia no período.
+     *
+     * @param dataInicio Primeiro dia do período (opcional).
+     * @param dataFim    Último dia do período, incluído inteiro (opcional).
+     * @return 200 com 24 linhas (hora, entradas, saidas, total).
+     */
+    @GetMapping("/movimentacoes-por-hora")
+    public ResponseEntity<List<Map<String, Object>>> getMovimentacoesPorHora(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dataFim) {
+        return ResponseEntity.ok(arquivoService.movimentacoesPorHora(dataInicio, diaSeguinte(dataFim)));
+    }
+
+    /**
+     * Lista os meses arquivados da unidade.
+     *
+     * @return 200 com mês, linhas, blocos e tamanho de cada arquivo.
+     */
+    @GetMapping("/arquivos")
+    public ResponseEntity<List<Map<String, Object>>> listarArquivos() {
+        return ResponseEntity.ok(arquivoService.listar());
+    }
+
+    /**
+     * Arquiva (ou arquiva de novo, depois de correções) um mês fechado da unidade.
+     *
+     * @param mes Mês no formato aaaa-mm.
+     * @return 200 com o resumo do arquivo gravado, ou 400 se o mês for inválido ou ainda estiver aberto.
+     */
+    @PostMapping("/arquivos/{mes}")
+    public ResponseEntity<?> arquivar(@PathVariable String mes) {
+        try {
+            return ResponseEntity.ok(arquivoService.arquivar(mes));
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Descarta o arquivo de um mês: as análises voltam a ler o mês da tabela.
+     *
+     * @param mes Mês no formato aaaa-mm.
+     * @return 204 (No Content), 404 se o mês não estava arquivado ou 400 se o mês for inválido.
+     */
+    @DeleteMapping("/arquivos/{mes}")
+    public ResponseEntity<?> descartar(@PathVariable String mes) {
+        try {
+            return arquivoService.descartar(mes) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static Date diaSeguinte(Date dia) {
+        if (dia == null) {
+            return null;
+        }
+        // O fim do período vai até a meia-noite seguinte ao último dia
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(dia);
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        return cal.getTime();
+    }
+}
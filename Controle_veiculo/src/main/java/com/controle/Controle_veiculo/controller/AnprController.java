@@ -0,0 +1,49 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.dto.LeituraPlaca;
+import com.controle.Controle_veiculo.services.anpr.IngestaoAnprService;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST das câmeras de reconhecimento de placas (ANPR) da portaria.
+ */
+@RestController
+@RequestMapping("/api/anpr")
+public class AnprController {
+
+    @Autowired
+    private IngestaoAnprService ingestaoAnprService;
+
+    /**
+     * Recebe um lote de leituras de placas e registra uma movimentação por passagem de veículo.
+     *
+     * @param leituras Leituras das câmeras (várias por veículo, em qualquer ordem).
+     * @return 200 com as quantidades por categoria e os IDs das movimentações registradas, ou
+     *         400 (Bad Request) se o lote for inválido.
+     */
+    @PostMapping("/leituras")
+    public ResponseEntity<?> receberLeituras(@RequestBody List<LeituraPlaca> leituras) {
+        try {
+            return ResponseEntity.ok(ingestaoAnprService.ingerir(leituras));
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Totais da ingestão e estado do índice de placas (filtro de Bloom, buscas aproximadas).
+     *
+     * @return 200 com as métricas.
+     */
+    @GetMapping("/estado")
+    public ResponseEntity<Map<String, Object>> estado() {
+        return ResponseEntity.ok(ingestaoAnprService.estado());
+    }
+}
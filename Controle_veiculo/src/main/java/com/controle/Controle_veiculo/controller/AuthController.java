@@ -0,0 +1,71 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.dto.JwtResponse;
+import com.controle.Controle_veiculo.dto.LoginRequest;
+import com.controle.Controle_veiculo.services.security.jwt.AuthTokenFilter;
+import com.controle.Controle_veiculo.services.security.jwt.JwtUtils;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST de autenticação: emissão e revogação de tokens JWT.
+ */
+@RestController
+@RequestMapping("/api/auth")
+public class AuthController {
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    /**
+     * Autentica o usuário e emite um token JWT com os seus papéis.
+     *
+     * @param loginRequest Credenciais (username e password).
+     * @return O token (HTTP 200) ou erro de autenticação (HTTP 401).
+     */
+    @PostMapping("/login")
+    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+
+            String jwt = jwtUtils.generateJwtToken(authentication);
+            List<String> roles = authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList();
+            return ResponseEntity.ok(new JwtResponse(jwt, authentication.getName(), roles));
+        } catch (AuthenticationException e) {
+            return new ResponseEntity<>(Map.of("error", "Usuário ou senha inválidos."), HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    /**
+     * Revoga o token enviado no cabeçalho Authorization.
+     *
+     * @return 204 (No Content) se o token foi revogado, ou 400 (Bad Request) se o token for inválido.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(HttpServletRequest request) {
+        String jwt = AuthTokenFilter.parseJwt(request);
+        if (jwt != null && jwtUtils.revogar(jwt)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.badRequest().build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.services.compartimento.RoteadorConexoes;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST de acompanhamento dos pools de conexões por classe de carga (escrita, interativa, lote).
+ */
+@RestController
+@RequestMapping("/api/compartimentos")
+public class CompartimentosController {
+
+    @Autowired
+    private ObjectProvider<RoteadorConexoes> roteador;
+
+    /**
+     * Ocupação e tempo de espera por conexão de cada pool.
+     *
+     * @return 200 com as métricas, ou 404 (Not Found) se os compartimentos estiverem desabilitados.
+     */
+    @GetMapping("/estado")
+    public ResponseEntity<Map<String, Object>> estado() {
+        RoteadorConexoes conexoes = roteador.getIfAvailable();
+        if (conexoes == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(conexoes.estado());
+    }
+}
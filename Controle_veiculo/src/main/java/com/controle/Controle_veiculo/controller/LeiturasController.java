@@ -0,0 +1,30 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.services.LeituraCompartilhadaService;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST de acompanhamento das leituras compartilhadas (consultas iguais e simultâneas).
+ */
+@RestController
+@RequestMapping("/api/leituras")
+public class LeiturasController {
+
+    @Autowired
+    private LeituraCompartilhadaService leituras;
+
+    /**
+     * Chamadas, consultas executadas no banco e taxa de compartilhamento.
+     *
+     * @return 200 com as métricas.
+     */
+    @GetMapping("/estado")
+    public ResponseEntity<Map<String, Object>> estado() {
+        return ResponseEntity.ok(leituras.estado());
+    }
+}
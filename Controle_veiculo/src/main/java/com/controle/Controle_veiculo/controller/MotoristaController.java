@@ -0,0 +1,91 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.dto.MotoristaSugestao;
+import com.controle.Controle_veiculo.model.Motorista;
+import com.controle.Controle_veiculo.services.MotoristaService;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller REST para o cadastro de motoristas e o preenchimento automático (typeahead).
+ */
+@RestController
+@RequestMapping("/api/motoristas")
+public class MotoristaController {
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    /**
+     * Sugere motoristas para o texto digitado, ignorando acentos e maiúsculas/minúsculas.
+     * Atendido pelo índice em memória, sem acesso ao banco de dados.
+     *
+     * @param q      Texto digitado pelo usuário.
+     * @param limite Quantidade máxima de sugestões (padrão: 10).
+     * @return Lista de sugestões no formato {"id": 1, "nome": "MÁRCIO"}.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<MotoristaSugestao>> autocompletar(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(motoristaService.autocompletar(q, limite));
+    }
+
+    /**
+     * Retorna todos os motoristas cadastrados (ativos e inativos).
+     * @return um ResponseEntity contendo a lista de motoristas.
+     */
+    @GetMapping
+    public ResponseEntity<List<Motorista>> listarMotoristas() {
+        return ResponseEntity.ok(motoristaService.listarTodos());
+    }
+
+    /**
+     * Cadastra um novo motorista.
+     * @param motorista O motorista enviado no corpo da requisição.
+     * @return um ResponseEntity com o motorista criado (HTTP 201) ou erro de validação (HTTP 400).
+     */
+    @PostMapping
+    public ResponseEntity<?> cadastrarMotorista(@RequestBody Motorista motorista) {
+        try {
+            return new ResponseEntity<>(motoristaService.salvarMotorista(motorista), HttpStatus.CREATED);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Atualiza o nome ou a situação de um motorista.
+     * @param id    O ID do motorista.
+     * @param dados Os novos dados.
+     * @return um ResponseEntity com o motorista atualizado (HTTP 200) ou erro (HTTP 400).
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<?> atualizarMotorista(@PathVariable Long id, @RequestBody Motorista dados) {
+        try {
+            return ResponseEntity.ok(motoristaService.atualizarMotorista(id, dados));
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Desativa um motorista. O histórico de movimentações é preservado.
+     * @param id O ID do motorista.
+     * @return 204 (No Content) em caso de sucesso, ou 404 (Not Found) se o motorista não existir.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> desativarMotorista(@PathVariable Long id) {
+        if (motoristaService.buscarPorId(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        motoristaService.desativar(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,13 +2,22 @@ package com.controle.Controle_veiculo.controller;
 
 import com.controle.Controle_veiculo.dto.CorrectionRequiredResponse;
 import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.RegistroAuditoria;
 import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.busca.IndiceBuscaService;
+import com.controle.Controle_veiculo.services.correcao.PoliticaCorrecaoService;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -29,12 +38,18 @@ public class MovimentacaoController {
     @Autowired
     private MovimentacaoService movimentacaoService;
 
+    @Autowired
+    private ObjectProvider<IndiceBuscaService> indiceBuscaService;
+
+    @Autowired
+    private PoliticaCorrecaoService politicaCorrecao;
+
     /**
      * Registra uma nova movimentação (entrada ou saída).
      *
      * @param movimentacao Objeto contendo os dados da movimentação (veículo, motorista, tipo, data/hora, etc).
-     * @return ResponseEntity com a movimentação registrada (HTTP 201), 
-     *         uma resposta de correção (HTTP 409) ou erro genérico.
+     * @return ResponseEntity com a movimentação registrada (HTTP 201; "correcaoAplicada" indica a
+     *         correção feita pela política automática), uma resposta de correção (HTTP 409) ou erro genérico.
      */
     @PostMapping
     public ResponseEntity<?> registrarMovimentacao(@RequestBody Movimentacao movimentacao) {
@@ -93,6 +108,50 @@ public class MovimentacaoController {
         return ResponseEntity.ok(historico);
     }
 
+    /**
+     * Busca textual nas movimentações (placa, modelo, marca, cor, motorista, porteiro e tipo),
+     * opcionalmente restrita a um período. Ex: {@code ?q=strada branca roberto&dataInicio=2024-05-01}.
+     *
+     * @param q          (Opcional) Texto livre; todos os termos são obrigatórios.
+     * @param dataInicio (Opcional) Data/hora inicial (ISO, ex: 2024-05-01 ou 2024-05-01T08:00:00).
+     * @param dataFim    (Opcional) Data/hora final; uma data sem hora inclui o dia inteiro.
+     * @param page       Número da página (padrão: 0).
+     * @param size       Quantidade de resultados por página (padrão: 20).
+     * @return 200 com total, tempo da busca e resultados (IDs e trechos destacados),
+     *         400 (Bad Request) para uma busca inválida ou 404 se a busca estiver desabilitada.
+     */
+    @GetMapping("/busca")
+    public ResponseEntity<?> buscar(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String dataInicio,
+            @RequestParam(required = false) String dataFim,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        IndiceBuscaService indice = indiceBuscaService.getIfAvailable();
+        if (indice == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(indice.buscar(q, dataHora(dataInicio, false), dataHora(dataFim, true), page, Math.min(size, 100)));
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Reconstrói o índice de busca a partir do banco (ex: depois de uma importação direta no banco).
+     *
+     * @return 200 com a quantidade de movimentações indexadas e a duração, ou 404 se a busca estiver desabilitada.
+     */
+    @PostMapping("/busca/reindexar")
+    public ResponseEntity<Map<String, Object>> reindexar() {
+        IndiceBuscaService indice = indiceBuscaService.getIfAvailable();
+        if (indice == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(indice.reconstruir());
+    }
+
     /**
      * Retorna a quantidade total de movimentações de ENTRADA registradas no dia atual.
      *
@@ -130,6 +189,22 @@ public class MovimentacaoController {
         return ResponseEntity.ok(movimentacaoAtualizada);
     }
 
+    /**
+     * Retorna o histórico de edições de uma movimentação (quem alterou, quando e o que mudou).
+     *
+     * @param id   ID da movimentação.
+     * @param page Número da página (padrão: 0).
+     * @param size Quantidade de registros por página (padrão: 20).
+     * @return Página de registros de auditoria, dos mais recentes para os mais antigos.
+     */
+    @GetMapping("/{id}/edicoes")
+    public ResponseEntity<Page<RegistroAuditoria>> getEdicoes(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(movimentacaoService.listarEdicoes(id, page, size));
+    }
+
     /**
      * Retorna a última quilometragem registrada de um veículo específico.
      *
@@ -165,4 +240,62 @@ public class MovimentacaoController {
     public List<String> getMotoristas() {
         return movimentacaoService.listarMotoristas();
     }
+
+    /**
+     * Lista as correções automáticas da unidade que ainda aguardam revisão.
+     *
+     * @param page Número da página (padrão: 0).
+     * @param size Quantidade de registros por página (padrão: 20).
+     * @return Página de movimentações criadas pela correção automática.
+     */
+    @GetMapping("/correcoes")
+    public ResponseEntity<Page<Movimentacao>> listarCorrecoesPendentes(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(movimentacaoService.listarCorrecoesPendentes(page, size));
+    }
+
+    /**
+     * Marca uma correção automática como revisada.
+     *
+     * @param id ID da movimentação criada pela correção.
+     * @return 200 com a movimentação revisada, ou 400 se ela não existir ou não estiver pendente.
+     */
+    @PostMapping("/{id}/revisao")
+    public ResponseEntity<?> revisarCorrecao(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(movimentacaoService.revisarCorrecao(id));
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Métricas das correções: política em vigor, tentativas por resultado (sem conflito, 409,
+     * confirmada, automática), taxas de correção e correções aguardando revisão.
+     *
+     * @return 200 com as métricas totais e por unidade.
+     */
+    @GetMapping("/correcoes/estado")
+    public ResponseEntity<Map<String, Object>> estadoCorrecoes() {
+        return ResponseEntity.ok(politicaCorrecao.estado());
+    }
+
+    /**
+     * Converte um parâmetro de período (data ou data/hora ISO, no fuso do servidor).
+     * Uma data sem hora no fim do período inclui o dia inteiro.
+     */
+    private static Date dataHora(String valor, boolean fimDoPeriodo) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            LocalDateTime dataHora = valor.length() <= 10
+                    ? (fimDoPeriodo ? LocalDate.parse(valor).atTime(LocalTime.MAX) : LocalDate.parse(valor).atStartOfDay())
+                    : LocalDateTime.parse(valor);
+            return Date.from(dataHora.atZone(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Data inválida: " + valor);
+        }
+    }
 }
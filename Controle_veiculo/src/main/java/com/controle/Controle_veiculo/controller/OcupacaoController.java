@@ -0,0 +1,59 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.services.OcupacaoService;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST da ocupação do pátio ao longo do tempo (planejamento de capacidade).
+ */
+@RestController
+@RequestMapping("/api/ocupacao")
+public class OcupacaoController {
+
+    @Autowired
+    private OcupacaoService ocupacaoService;
+
+    /**
+     * Retorna a série de ocupação hora a hora de um período, para os gráficos do dashboard.
+     *
+     * @param dataInicio Primeiro dia do período.
+     * @param dataFim    Último dia do período (incluído inteiro).
+     * @return 200 com pico, instante do pico, média e um ponto por hora (ocupação inicial, pico,
+     *         média, entradas e saídas), ou 400 (Bad Request) para um período inválido.
+     */
+    @GetMapping
+    public ResponseEntity<?> getSerie(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dataInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dataFim) {
+        // O fim do período vai até a meia-noite seguinte ao último dia
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(dataFim);
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+
+        try {
+            return ResponseEntity.ok(ocupacaoService.calcularSerie(dataInicio, cal.getTime()));
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Descarta os checkpoints diários de ocupação, que são refeitos na próxima consulta
+     * (necessário só depois de alterações feitas direto no banco).
+     *
+     * @return 200 com a quantidade de checkpoints descartados.
+     */
+    @PostMapping("/recalcular")
+    public ResponseEntity<Map<String, Object>> recalcular() {
+        return ResponseEntity.ok(Map.of("checkpointsDescartados", ocupacaoService.recalcular()));
+    }
+}
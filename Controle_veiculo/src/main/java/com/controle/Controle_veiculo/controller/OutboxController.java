@@ -0,0 +1,49 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.services.outbox.RelayOutboxService;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST de acompanhamento da outbox transacional (entrega de eventos às integrações).
+ */
+@RestController
+@RequestMapping("/api/outbox")
+public class OutboxController {
+
+    @Autowired
+    private ObjectProvider<RelayOutboxService> relayOutboxService;
+
+    /**
+     * Métricas de cada destino: eventos pendentes, entregas, falhas e último erro.
+     *
+     * @return 200 com as métricas, ou 404 (Not Found) se a outbox estiver desabilitada.
+     */
+    @GetMapping("/estado")
+    public ResponseEntity<Map<String, Object>> estado() {
+        RelayOutboxService relay = relayOutboxService.getIfAvailable();
+        if (relay == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(relay.estado());
+    }
+
+    /**
+     * Força a entrega imediata dos eventos pendentes (destinos em backoff continuam aguardando).
+     *
+     * @return 200 com a quantidade de eventos entregues, ou 404 se a outbox estiver desabilitada.
+     */
+    @PostMapping("/drenar")
+    public ResponseEntity<Map<String, Object>> drenar() {
+        RelayOutboxService relay = relayOutboxService.getIfAvailable();
+        if (relay == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("eventosEntregues", relay.drenar()));
+    }
+}
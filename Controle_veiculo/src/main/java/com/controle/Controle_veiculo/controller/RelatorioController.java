@@ -0,0 +1,92 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.dto.DefinicaoRelatorio;
+import com.controle.Controle_veiculo.services.relatorio.RelatorioService;
+import com.controle.Controle_veiculo.services.relatorio.TrabalhoRelatorio;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controlador REST dos relatórios de movimentações (por veículo, motorista, porteiro ou dia).
+ *
+ * O relatório é calculado em segundo plano: o cliente envia a definição, recebe o ID do trabalho,
+ * acompanha o andamento (consultando o status ou por Server-Sent Events) e baixa o resultado.
+ */
+@RestController
+@RequestMapping("/api/relatorios")
+public class RelatorioController {
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    /**
+     * Solicita um relatório.
+     *
+     * @param definicao Agrupamento e período (ex: {"agrupamento": "DIA", "dataInicio": "2024-05-01", "dataFim": "2024-06-01"}).
+     * @return 202 (Accepted) com o trabalho (já CONCLUIDO se o resultado estava em cache),
+     *         400 para uma definição inválida ou 503 se a fila de relatórios estiver cheia.
+     */
+    @PostMapping
+    public ResponseEntity<?> solicitar(@RequestBody DefinicaoRelatorio definicao) {
+        try {
+            return ResponseEntity.accepted().body(relatorioService.submeter(definicao));
+        } catch (RejectedExecutionException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Retorna o status de um trabalho (estado, partições concluídas, duração, erro).
+     *
+     * @param id ID do trabalho.
+     * @return 200 com o status, ou 404 se o trabalho não existir (ou já tiver expirado).
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<TrabalhoRelatorio> getStatus(@PathVariable String id) {
+        return ResponseEntity.of(relatorioService.buscar(id));
+    }
+
+    /**
+     * Acompanha o andamento de um trabalho por Server-Sent Events (eventos "progresso",
+     * "concluido" e "falhou", cada um com o status do trabalho).
+     *
+     * @param id ID do trabalho.
+     * @return Fluxo de eventos, ou 404 se o trabalho não existir.
+     */
+    @GetMapping(value = "/{id}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> acompanhar(@PathVariable String id) {
+        return relatorioService.buscar(id)
+                .map(trabalho -> ResponseEntity.ok(relatorioService.acompanhar(trabalho)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Retorna o resultado de um trabalho: as linhas do relatório com entradas, saídas e total.
+     *
+     * @param id ID do trabalho.
+     * @return 200 com as linhas, 202 com o status se ainda estiver executando,
+     *         400 com o erro se tiver falhado ou 404 se o trabalho não existir.
+     */
+    @GetMapping("/{id}/resultado")
+    public ResponseEntity<?> getResultado(@PathVariable String id) {
+        TrabalhoRelatorio trabalho = relatorioService.buscar(id).orElse(null);
+        if (trabalho == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return switch (trabalho.getEstado()) {
+            case CONCLUIDO -> ResponseEntity.ok(trabalho.getResultado());
+            case FALHOU -> new ResponseEntity<>(Map.of("error", trabalho.getErro()), HttpStatus.BAD_REQUEST);
+            default -> ResponseEntity.accepted().body(trabalho);
+        };
+    }
+}
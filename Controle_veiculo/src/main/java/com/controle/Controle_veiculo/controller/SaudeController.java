@@ -0,0 +1,59 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.services.aquecimento.AquecimentoService;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Sondas de vida e de prontidão para o orquestrador ou o balanceador de carga. Ficam fora de
+ * {@code /api} para não exigirem token nem passarem pelo controle de admissão.
+ */
+@RestController
+@RequestMapping("/saude")
+public class SaudeController {
+
+    @Autowired
+    private ApplicationAvailability disponibilidade;
+
+    @Autowired
+    private AquecimentoService aquecimentoService;
+
+    /**
+     * Sonda de vida: a aplicação está funcionando (inclusive durante o aquecimento, para não ser
+     * reiniciada enquanto aquece).
+     *
+     * @return 200 se o estado de vida for CORRECT, ou 503 (Service Unavailable) se for BROKEN.
+     */
+    @GetMapping("/vivo")
+    public ResponseEntity<Map<String, Object>> vivo() {
+        LivenessState estado = disponibilidade.getLivenessState();
+        Map<String, Object> corpo = new LinkedHashMap<>();
+        corpo.put("estado", estado);
+        corpo.put("aquecimentoConcluido", aquecimentoService.isConcluido());
+        return new ResponseEntity<>(corpo, estado == LivenessState.CORRECT ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Sonda de prontidão: a aplicação terminou o aquecimento e aceita tráfego.
+     *
+     * @return 200 com o resultado do aquecimento, ou 503 (Service Unavailable) enquanto ele não terminar.
+     */
+    @GetMapping("/pronto")
+    public ResponseEntity<Map<String, Object>> pronto() {
+        ReadinessState estado = disponibilidade.getReadinessState();
+        boolean pronto = estado == ReadinessState.ACCEPTING_TRAFFIC && aquecimentoService.isConcluido();
+        Map<String, Object> corpo = new LinkedHashMap<>();
+        corpo.put("estado", pronto ? ReadinessState.ACCEPTING_TRAFFIC : ReadinessState.REFUSING_TRAFFIC);
+        corpo.put("aquecimento", aquecimentoService.estado());
+        return new ResponseEntity<>(corpo, pronto ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
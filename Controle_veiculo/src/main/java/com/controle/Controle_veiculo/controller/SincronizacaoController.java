@@ -0,0 +1,91 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.dto.MovimentacaoSincronizada;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.services.SincronizacaoEdgeService;
+import com.controle.Controle_veiculo.services.SincronizacaoService;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST da sincronização entre as portarias em modo edge e o servidor central.
+ *
+ * Os endpoints de recebimento são atendidos pelo servidor central; {@code /estado} e
+ * {@code /executar} só existem na portaria ({@code edge.habilitado=true}).
+ */
+@RestController
+@RequestMapping("/api/sincronizacao")
+public class SincronizacaoController {
+
+    @Autowired
+    private SincronizacaoService sincronizacaoService;
+
+    @Autowired
+    private ObjectProvider<SincronizacaoEdgeService> sincronizacaoEdgeService;
+
+    /**
+     * Recebe um lote de movimentações de uma portaria.
+     *
+     * @param lote Movimentações registradas na portaria.
+     * @return UUIDs processados (HTTP 200) ou erro de validação (HTTP 400).
+     */
+    @PostMapping("/movimentacoes")
+    public ResponseEntity<?> receberMovimentacoes(@RequestBody List<MovimentacaoSincronizada> lote) {
+        try {
+            return ResponseEntity.ok(sincronizacaoService.receberMovimentacoes(lote));
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Lista os veículos alterados desde um instante.
+     *
+     * @param desde (opcional) Instante em milissegundos; sem ele, devolve todo o cadastro.
+     * @return Lista de veículos alterados.
+     */
+    @GetMapping("/veiculos")
+    public ResponseEntity<List<Veiculo>> listarVeiculosAlterados(@RequestParam(required = false) Long desde) {
+        return ResponseEntity.ok(sincronizacaoService.listarVeiculosAlterados(desde != null ? new Date(desde) : null));
+    }
+
+    /**
+     * Situação da sincronização da portaria (pendências, última sincronização e último erro).
+     *
+     * @return 200 com a situação, ou 404 (Not Found) se a aplicação não estiver em modo edge.
+     */
+    @GetMapping("/estado")
+    public ResponseEntity<Map<String, Object>> estado() {
+        SincronizacaoEdgeService edge = sincronizacaoEdgeService.getIfAvailable();
+        if (edge == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(edge.estado());
+    }
+
+    /**
+     * Força uma sincronização imediata da portaria com o servidor central.
+     *
+     * @return 200 com o resumo, 404 se não estiver em modo edge, ou 503 se o servidor central não responder.
+     */
+    @PostMapping("/executar")
+    public ResponseEntity<?> executar() {
+        SincronizacaoEdgeService edge = sincronizacaoEdgeService.getIfAvailable();
+        if (edge == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(edge.sincronizar());
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+}
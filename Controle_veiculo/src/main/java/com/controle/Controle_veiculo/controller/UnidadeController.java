@@ -0,0 +1,77 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.services.unidade.UnidadeService;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST das unidades (pátios). As demais rotas da API usam a unidade do cabeçalho
+ * {@code X-Unidade} (ID ou código); sem ele, a unidade do usuário ou, se ele não tiver uma, a padrão.
+ */
+@RestController
+@RequestMapping("/api/unidades")
+public class UnidadeController {
+
+    @Autowired
+    private UnidadeService unidadeService;
+
+    /**
+     * Lista as unidades cadastradas.
+     *
+     * @return 200 com as unidades, em ordem de ID.
+     */
+    @GetMapping
+    public ResponseEntity<List<Unidade>> listar() {
+        return ResponseEntity.ok(unidadeService.listar());
+    }
+
+    /**
+     * Cadastra uma unidade.
+     *
+     * @param unidade Código (único) e nome da unidade.
+     * @return 201 com a unidade cadastrada, ou 400 se o código estiver vazio ou já existir.
+     */
+    @PostMapping
+    public ResponseEntity<?> criar(@RequestBody Unidade unidade) {
+        try {
+            return new ResponseEntity<>(unidadeService.criar(unidade), HttpStatus.CREATED);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Vincula um usuário a uma unidade (ou, com "unidadeId" nulo, libera o acesso a todas). Vale a
+     * partir do próximo login do usuário.
+     *
+     * @param username Nome de login do usuário.
+     * @param corpo    {"unidadeId": ID da unidade ou null}.
+     * @return 204 (No Content), ou 400 se o usuário ou a unidade não existirem.
+     */
+    @PutMapping("/usuarios/{username}")
+    public ResponseEntity<?> vincularUsuario(@PathVariable String username, @RequestBody Map<String, Long> corpo) {
+        try {
+            unidadeService.vincularUsuario(username, corpo.get("unidadeId"));
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Visão consolidada: presentes, ausentes, entradas e saídas do dia de cada unidade e os totais.
+     *
+     * @return 200 com a lista "unidades" e o "total".
+     */
+    @GetMapping("/resumo")
+    public ResponseEntity<Map<String, Object>> resumo() {
+        return ResponseEntity.ok(unidadeService.resumo());
+    }
+}
@@ -1,13 +1,21 @@
 package com.controle.Controle_veiculo.controller;
 
+import com.controle.Controle_veiculo.dto.ConsultaFrota;
+import com.controle.Controle_veiculo.dto.DivergenciaVeiculo;
 import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.services.ConsultaFrotaService;
+import com.controle.Controle_veiculo.services.ReconciliacaoService;
 import com.controle.Controle_veiculo.services.VeiculoService;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -21,6 +29,12 @@ public class VeiculoController {
     @Autowired
     private VeiculoService veiculoService;
 
+    @Autowired
+    private ReconciliacaoService reconciliacaoService;
+
+    @Autowired
+    private ConsultaFrotaService consultaFrotaService;
+
     /**
      * Cria um novo registro de veículo no sistema.
      * @param veiculo O objeto Veiculo enviado no corpo da requisição.
@@ -45,13 +59,47 @@ public class VeiculoController {
     }
 
     /**
-     * Retorna uma lista com todos os veículos cadastrados no sistema.
-     * @return um ResponseEntity contendo a lista de todos os veículos.
+     * Lista os veículos, com filtros, ordenação e seleção de campos opcionais.
+     *
+     * Sem {@code size}, a frota inteira é transmitida como um array JSON, lida do banco aos poucos
+     * (a memória não cresce com o tamanho da frota). Com {@code size}, devolve uma página
+     * ({@code {"itens": [...], "proximo": "<cursor>"}}); a seguinte é pedida com {@code apos=<cursor>}.
+     *
+     * @param status     (Opcional) "Presente" ou "Ausente".
+     * @param marca      (Opcional) Marca exata (sem diferenciar maiúsculas/minúsculas).
+     * @param modelo     (Opcional) Modelo exato.
+     * @param cor        (Opcional) Cor exata.
+     * @param ordenarPor Campo de ordenação (padrão: id).
+     * @param direcao    "asc" (padrão) ou "desc".
+     * @param campos     (Opcional) Campos retornados, separados por vírgula (ex: id,placa,status).
+     * @param size       (Opcional) Tamanho da página; sem ele, a lista não é paginada.
+     * @param apos       (Opcional) Cursor devolvido na página anterior.
+     * @return um ResponseEntity com a lista (ou a página) de veículos, ou 400 para um parâmetro inválido.
      */
     @GetMapping
-    public ResponseEntity<List<Veiculo>> listarVeiculos() {
-        List<Veiculo> veiculos = veiculoService.listarTodos();
-        return new ResponseEntity<>(veiculos, HttpStatus.OK);
+    public ResponseEntity<?> listarVeiculos(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String marca,
+            @RequestParam(required = false) String modelo,
+            @RequestParam(required = false) String cor,
+            @RequestParam(required = false) String ordenarPor,
+            @RequestParam(required = false) String direcao,
+            @RequestParam(required = false) List<String> campos,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String apos) {
+        ConsultaFrota consulta = new ConsultaFrota(status, marca, modelo, cor, ordenarPor, direcao, campos);
+        // A transmissão roda em outra thread: a unidade da requisição vai junto com a consulta
+        consulta.setUnidadeId(UnidadeContexto.obter());
+        try {
+            if (size != null || apos != null) {
+                return ResponseEntity.ok(consultaFrotaService.pagina(consulta, apos, size != null ? size : 100));
+            }
+            consultaFrotaService.validar(consulta);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+        StreamingResponseBody corpo = saida -> consultaFrotaService.transmitir(consulta, saida);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(corpo);
     }
 
     /**
@@ -86,6 +134,16 @@ public class VeiculoController {
         return ResponseEntity.ok(count);
     }
 
+    /**
+     * Retorna a contagem de veículos que estão atualmente com o status "Ausente".
+     * @return um ResponseEntity com o número de veículos ausentes.
+     */
+    @GetMapping("/ausentes/count")
+    public ResponseEntity<Long> getVeiculosAusentesCount(){
+        long count = veiculoService.countVeiculosAusentes();
+        return ResponseEntity.ok(count);
+    }
+
     /**
      * Retorna uma lista de veículos que estão atualmente com o status "Presente".
      * @return um ResponseEntity contendo a lista de veículos presentes.
@@ -106,6 +164,24 @@ public class VeiculoController {
         return ResponseEntity.ok(veiculos);
     }
 
+    /**
+     * Relatório dos veículos cujo status ou última movimentação diverge do histórico de movimentações.
+     * @return um ResponseEntity com a lista de divergências (vazia se a frota estiver consistente).
+     */
+    @GetMapping("/divergencias")
+    public ResponseEntity<List<DivergenciaVeiculo>> getDivergencias() {
+        return ResponseEntity.ok(reconciliacaoService.relatorioDivergencias());
+    }
+
+    /**
+     * Reconcilia a frota inteira com o histórico, corrigindo apenas os veículos divergentes.
+     * @return um ResponseEntity com o resumo da reconciliação (corrigidos, duração e divergências).
+     */
+    @PostMapping("/reconciliar")
+    public ResponseEntity<Map<String, Object>> reconciliar() {
+        return ResponseEntity.ok(reconciliacaoService.reconciliarFrota());
+    }
+
     /**
      * Deleta um veículo do sistema com base no seu ID.
      * @param id O ID do veículo a ser deletado.
@@ -0,0 +1,90 @@
+package com.controle.Controle_veiculo.controller;
+
+import com.controle.Controle_veiculo.model.Viagem;
+import com.controle.Controle_veiculo.services.ViagemService;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST para consulta das viagens (pares saída → entrada) dos veículos.
+ *
+ * Responde perguntas como "quanto tempo o veículo ficou fora e quantos km rodou"
+ * sem que o front-end precise parear o histórico de movimentações.
+ */
+@RestController
+@RequestMapping("/api/viagens")
+public class ViagemController {
+
+    @Autowired
+    private ViagemService viagemService;
+
+    /**
+     * Retorna as viagens em aberto (veículos que saíram e ainda não retornaram).
+     *
+     * @return Lista de viagens abertas, das mais antigas para as mais recentes.
+     */
+    @GetMapping("/abertas")
+    public ResponseEntity<List<Viagem>> getViagensAbertas() {
+        return ResponseEntity.ok(viagemService.listarAbertas());
+    }
+
+    /**
+     * Retorna as viagens concluídas mais longas.
+     *
+     * @param limite Quantidade máxima de viagens (padrão: 10).
+     * @return Lista de viagens ordenadas pela duração.
+     */
+    @GetMapping("/mais-longas")
+    public ResponseEntity<List<Viagem>> getViagensMaisLongas(@RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(viagemService.listarMaisLongas(limite));
+    }
+
+    /**
+     * Retorna as viagens de um motorista de forma paginada.
+     *
+     * @param motorista Nome do motorista.
+     * @param page      Número da página (padrão: 0).
+     * @param size      Quantidade de registros por página (padrão: 20).
+     * @return Página de viagens do motorista.
+     */
+    @GetMapping("/motorista/{motorista}")
+    public ResponseEntity<Page<Viagem>> getViagensPorMotorista(
+            @PathVariable String motorista,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(viagemService.listarPorMotorista(motorista, page, size));
+    }
+
+    /**
+     * Retorna as viagens de um veículo de forma paginada.
+     *
+     * @param veiculoId ID do veículo.
+     * @param page      Número da página (padrão: 0).
+     * @param size      Quantidade de registros por página (padrão: 20).
+     * @return Página de viagens do veículo.
+     */
+    @GetMapping("/veiculo/{veiculoId}")
+    public ResponseEntity<Page<Viagem>> getViagensPorVeiculo(
+            @PathVariable Long veiculoId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(viagemService.listarPorVeiculo(veiculoId, page, size));
+    }
+
+    /**
+     * Regenera todas as viagens a partir do histórico de movimentações.
+     *
+     * @return JSON no formato {"viagens": total}.
+     */
+    @PostMapping("/reconstruir")
+    public ResponseEntity<?> reconstruirViagens() {
+        int total = viagemService.reconstruirTodas();
+        return ResponseEntity.ok(Map.of("viagens", total));
+    }
+}
@@ -0,0 +1,70 @@
+package com.controle.Controle_veiculo.dto;
+
+import java.util.List;
+
+/**
+ * Classe DTO com os parâmetros de uma listagem da frota: filtros, ordenação e campos retornados.
+ *
+ * Exemplo: {@code ?status=Presente&marca=Fiat&ordenarPor=ultimaMovimentacao&direcao=desc&campos=id,placa,status}.
+ * Filtros vazios são ignorados; sem campos, cada veículo vem com todos os campos. Sem unidade, vale a
+ * unidade da requisição.
+ */
+public class ConsultaFrota {
+
+    private String status;
+
+    private String marca;
+
+    private String modelo;
+
+    private String cor;
+
+    private String ordenarPor = "id";
+
+    private String direcao = "asc";
+
+    private List<String> campos;
+
+    private Long unidadeId;
+
+    public ConsultaFrota() {
+    }
+
+    public ConsultaFrota(String status, String marca, String modelo, String cor, String ordenarPor, String direcao, List<String> campos) {
+        this.status = status;
+        this.marca = marca;
+        this.modelo = modelo;
+        this.cor = cor;
+        if (ordenarPor != null && !ordenarPor.isBlank()) {
+            this.ordenarPor = ordenarPor;
+        }
+        if (direcao != null && !direcao.isBlank()) {
+            this.direcao = direcao;
+        }
+        this.campos = campos;
+    }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getMarca() { return marca; }
+    public void setMarca(String marca) { this.marca = marca; }
+
+    public String getModelo() { return modelo; }
+    public void setModelo(String modelo) { this.modelo = modelo; }
+
+    public String getCor() { return cor; }
+    public void setCor(String cor) { this.cor = cor; }
+
+    public String getOrdenarPor() { return ordenarPor; }
+    public void setOrdenarPor(String ordenarPor) { this.ordenarPor = ordenarPor; }
+
+    public String getDirecao() { return direcao; }
+    public void setDirecao(String direcao) { this.direcao = direcao; }
+
+    public List<String> getCampos() { return campos; }
+    public void setCampos(List<String> campos) { this.campos = campos; }
+
+    public Long getUnidadeId() { return unidadeId; }
+    public void setUnidadeId(Long unidadeId) { this.unidadeId = unidadeId; }
+}
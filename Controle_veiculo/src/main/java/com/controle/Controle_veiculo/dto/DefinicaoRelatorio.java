@@ -0,0 +1,63 @@
+package com.controle.Controle_veiculo.dto;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Classe DTO com a definição de um relatório de movimentações: como agrupar e qual período.
+ *
+ * Exemplo: {@code {"agrupamento": "MOTORISTA", "dataInicio": "2024-05-01", "dataFim": "2024-06-01"}}
+ * conta as entradas e saídas de cada motorista em maio. O período inclui o início e exclui o fim;
+ * sem datas, vale o histórico inteiro.
+ */
+public class DefinicaoRelatorio {
+
+    /**
+     * Dimensão pela qual as movimentações são contadas.
+     */
+    public enum Agrupamento { VEICULO, MOTORISTA, PORTEIRO, DIA }
+
+    private Agrupamento agrupamento;
+
+    private Date dataInicio;
+
+    private Date dataFim;
+
+    /**
+     * Construtor padrão vazio, exigido pelo Jackson.
+     */
+    public DefinicaoRelatorio() {
+    }
+
+    public DefinicaoRelatorio(Agrupamento agrupamento, Date dataInicio, Date dataFim) {
+        this.agrupamento = agrupamento;
+        this.dataInicio = dataInicio;
+        this.dataFim = dataFim;
+    }
+
+    /**
+     * Identifica a definição no cache de resultados (definições iguais têm a mesma chave).
+     */
+    public String chave() {
+        return agrupamento + ":" + (dataInicio != null ? dataInicio.getTime() : "") + ":" + (dataFim != null ? dataFim.getTime() : "");
+    }
+
+    public Agrupamento getAgrupamento() { return agrupamento; }
+    public void setAgrupamento(Agrupamento agrupamento) { this.agrupamento = agrupamento; }
+
+    public Date getDataInicio() { return dataInicio; }
+    public void setDataInicio(Date dataInicio) { this.dataInicio = dataInicio; }
+
+    public Date getDataFim() { return dataFim; }
+    public void setDataFim(Date dataFim) { this.dataFim = dataFim; }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DefinicaoRelatorio outra && chave().equals(outra.chave());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(chave());
+    }
+}
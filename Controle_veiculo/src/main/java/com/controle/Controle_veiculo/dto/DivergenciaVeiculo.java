@@ -0,0 +1,51 @@
+package com.controle.Controle_veiculo.dto;
+
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.util.Date;
+
+/**
+ * Classe DTO com a divergência entre o status gravado de um veículo e o status calculado a partir
+ * da sua movimentação mais recente (relatório da reconciliação).
+ */
+public class DivergenciaVeiculo {
+
+    private final Long veiculoId;
+
+    private final String placa;
+
+    // Valores gravados no cadastro do veículo
+    private final StatusVeiculo statusAtual;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
+    private final Date ultimaMovimentacaoAtual;
+
+    // Valores resultantes da movimentação mais recente
+    private final StatusVeiculo statusCalculado;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
+    private final Date ultimaMovimentacaoCalculada;
+
+    public DivergenciaVeiculo(Long veiculoId, String placa, StatusVeiculo statusAtual, Date ultimaMovimentacaoAtual,
+                              StatusVeiculo statusCalculado, Date ultimaMovimentacaoCalculada) {
+        this.veiculoId = veiculoId;
+        this.placa = placa;
+        this.statusAtual = statusAtual;
+        this.ultimaMovimentacaoAtual = ultimaMovimentacaoAtual;
+        this.statusCalculado = statusCalculado;
+        this.ultimaMovimentacaoCalculada = ultimaMovimentacaoCalculada;
+    }
+
+    public Long getVeiculoId() { return veiculoId; }
+
+    public String getPlaca() { return placa; }
+
+    public StatusVeiculo getStatusAtual() { return statusAtual; }
+
+    public Date getUltimaMovimentacaoAtual() { return ultimaMovimentacaoAtual; }
+
+    public StatusVeiculo getStatusCalculado() { return statusCalculado; }
+
+    public Date getUltimaMovimentacaoCalculada() { return ultimaMovimentacaoCalculada; }
+}
@@ -0,0 +1,47 @@
+package com.controle.Controle_veiculo.dto;
+
+import java.util.List;
+
+/**
+ * Classe DTO devolvida após um login bem-sucedido.
+ *
+ * O front-end deve enviar o token em todas as requisições seguintes,
+ * no cabeçalho {@code Authorization: Bearer <token>}.
+ */
+public class JwtResponse {
+
+    // Token JWT assinado
+    private final String token;
+
+    // Tipo do token, sempre "Bearer"
+    private final String type = "Bearer";
+
+    // Nome de login do usuário autenticado
+    private final String username;
+
+    // Papéis do usuário (também presentes no token)
+    private final List<String> roles;
+
+    /**
+     * @param token Token JWT assinado.
+     * @param username Nome de login.
+     * @param roles Papéis do usuário.
+     */
+    public JwtResponse(String token, String username, List<String> roles) {
+        this.token = token;
+        this.username = username;
+        this.roles = roles;
+    }
+
+    /** @return Token JWT assinado. */
+    public String getToken() { return token; }
+
+    /** @return Sempre "Bearer". */
+    public String getType() { return type; }
+
+    /** @return Nome de login do usuário. */
+    public String getUsername() { return username; }
+
+    /** @return Papéis do usuário. */
+    public List<String> getRoles() { return roles; }
+}
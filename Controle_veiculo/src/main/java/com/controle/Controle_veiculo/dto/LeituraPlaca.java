@@ -0,0 +1,46 @@
+package com.controle.Controle_veiculo.dto;
+
+import java.util.Date;
+
+/**
+ * Classe DTO com uma leitura de placa enviada por uma câmera da portaria (ANPR).
+ *
+ * Cada veículo que passa gera várias leituras em poucos segundos, às vezes com caracteres
+ * trocados pelo OCR; a ingestão as agrupa em uma única passagem.
+ */
+public class LeituraPlaca {
+
+    // Placa como reconhecida pela câmera (ex: "ABC1D23", "abc-1234")
+    private String placa;
+
+    // Instante da leitura no relógio da câmera (se ausente, o instante do recebimento)
+    private Date dataHora;
+
+    // Identificação da câmera (ex: "portaria-1")
+    private String camera;
+
+    // Confiança do OCR, de 0 a 1 (opcional)
+    private Double confianca;
+
+    public LeituraPlaca() {
+    }
+
+    public LeituraPlaca(String placa, Date dataHora, String camera, Double confianca) {
+        this.placa = placa;
+        this.dataHora = dataHora;
+        this.camera = camera;
+        this.confianca = confianca;
+    }
+
+    public String getPlaca() { return placa; }
+    public void setPlaca(String placa) { this.placa = placa; }
+
+    public Date getDataHora() { return dataHora; }
+    public void setDataHora(Date dataHora) { this.dataHora = dataHora; }
+
+    public String getCamera() { return camera; }
+    public void setCamera(String camera) { this.camera = camera; }
+
+    public Double getConfianca() { return confianca; }
+    public void setConfianca(Double confianca) { this.confianca = confianca; }
+}
@@ -0,0 +1,75 @@
+package com.controle.Controle_veiculo.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.util.Date;
+
+/**
+ * Classe DTO com uma linha do relatório de movimentações: os totais de um veículo (placa),
+ * motorista, porteiro ou dia (yyyy-MM-dd), conforme o agrupamento da definição.
+ */
+public class LinhaRelatorio {
+
+    private final String chave;
+
+    private long entradas;
+
+    private long saidas;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
+    private Date primeira;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
+    private Date ultima;
+
+    public LinhaRelatorio(String chave) {
+        this.chave = chave;
+    }
+
+    /**
+     * Conta uma movimentação.
+     *
+     * @param entrada true para ENTRADA, false para SAÍDA.
+     * @param dataHora Data/hora da movimentação.
+     */
+    public void contar(boolean entrada, Date dataHora) {
+        if (entrada) {
+            entradas++;
+        } else {
+            saidas++;
+        }
+        if (primeira == null || dataHora.before(primeira)) {
+            primeira = dataHora;
+        }
+        if (ultima == null || dataHora.after(ultima)) {
+            ultima = dataHora;
+        }
+    }
+
+    /**
+     * Soma os totais de outra linha com a mesma chave (vinda de outra partição).
+     */
+    public LinhaRelatorio somar(LinhaRelatorio outra) {
+        entradas += outra.entradas;
+        saidas += outra.saidas;
+        if (primeira == null || (outra.primeira != null && outra.primeira.before(primeira))) {
+            primeira = outra.primeira;
+        }
+        if (ultima == null || (outra.ultima != null && outra.ultima.after(ultima))) {
+            ultima = outra.ultima;
+        }
+        return this;
+    }
+
+    public String getChave() { return chave; }
+
+    public long getEntradas() { return entradas; }
+
+    public long getSaidas() { return saidas; }
+
+    public long getTotal() { return entradas + saidas; }
+
+    public Date getPrimeira() { return primeira; }
+
+    public Date getUltima() { return ultima; }
+}
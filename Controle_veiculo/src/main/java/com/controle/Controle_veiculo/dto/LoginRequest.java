@@ -0,0 +1,21 @@
+package com.controle.Controle_veiculo.dto;
+
+/**
+ * Classe DTO com as credenciais enviadas para {@code POST /api/auth/login}.
+ */
+public class LoginRequest {
+
+    // Nome de login do usuário
+    private String username;
+
+    // Senha em texto puro (trafega apenas no login)
+    private String password;
+
+    public String getUsername() { return username; }
+
+    public void setUsername(String username) { this.username = username; }
+
+    public String getPassword() { return password; }
+
+    public void setPassword(String password) { this.password = password; }
+}
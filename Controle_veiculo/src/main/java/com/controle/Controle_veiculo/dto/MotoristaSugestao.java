@@ -0,0 +1,30 @@
+package com.controle.Controle_veiculo.dto;
+
+/**
+ * Classe DTO utilizada nas respostas de preenchimento automático (typeahead) de motoristas.
+ *
+ * Contém apenas o necessário para o front-end exibir a sugestão e referenciar o motorista pelo ID.
+ */
+public class MotoristaSugestao {
+
+    // Identificador do motorista cadastrado
+    private final Long id;
+
+    // Nome do motorista como deve ser exibido
+    private final String nome;
+
+    /**
+     * @param id ID do motorista.
+     * @param nome Nome de exibição do motorista.
+     */
+    public MotoristaSugestao(Long id, String nome) {
+        this.id = id;
+        this.nome = nome;
+    }
+
+    /** @return ID do motorista. */
+    public Long getId() { return id; }
+
+    /** @return Nome de exibição do motorista. */
+    public String getNome() { return nome; }
+}
@@ -0,0 +1,46 @@
+package com.controle.Controle_veiculo.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Classe DTO com um resultado da busca textual de movimentações.
+ *
+ * Traz apenas o ID (o front-end abre o registro completo se precisar) e os trechos que
+ * explicam o resultado, com os termos encontrados marcados com {@code <mark>}.
+ */
+public class MovimentacaoEncontrada {
+
+    private final Long id;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
+    private final Date dataHora;
+
+    private final String placa;
+
+    // Relevância do resultado para a busca
+    private final float pontuacao;
+
+    // Campo → trecho com os termos destacados (ex: "cor" → "<mark>Branca</mark>")
+    private final Map<String, String> destaques;
+
+    public MovimentacaoEncontrada(Long id, Date dataHora, String placa, float pontuacao, Map<String, String> destaques) {
+        this.id = id;
+        this.dataHora = dataHora;
+        this.placa = placa;
+        this.pontuacao = pontuacao;
+        this.destaques = destaques;
+    }
+
+    public Long getId() { return id; }
+
+    public Date getDataHora() { return dataHora; }
+
+    public String getPlaca() { return placa; }
+
+    public float getPontuacao() { return pontuacao; }
+
+    public Map<String, String> getDestaques() { return destaques; }
+}
@@ -0,0 +1,71 @@
+package com.controle.Controle_veiculo.dto;
+
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+
+import java.util.Date;
+
+/**
+ * Classe DTO com uma movimentação enviada por uma portaria (modo edge) ao servidor central.
+ *
+ * O veículo é identificado pela placa, pois os IDs locais da portaria não coincidem com os do
+ * servidor central. Motorista e porteiro seguem como texto e entram nos dicionários do destino.
+ * O mesmo formato é o conteúdo dos eventos de movimentação da outbox.
+ */
+public class MovimentacaoSincronizada {
+
+    // Identificador global gerado na portaria
+    private String uuid;
+
+    // Placa do veículo movimentado
+    private String placa;
+
+    private TipoMovimento tipoMovimento;
+
+    private Date dataHora;
+
+    private Double quilometragem;
+
+    private String motorista;
+
+    private String porteiro;
+
+    /**
+     * Monta o DTO a partir de uma movimentação local (veículo, motorista e porteiro já carregados).
+     *
+     * @param movimentacao Movimentação registrada na portaria.
+     * @return O DTO correspondente.
+     */
+    public static MovimentacaoSincronizada de(Movimentacao movimentacao) {
+        MovimentacaoSincronizada dto = new MovimentacaoSincronizada();
+        dto.uuid = movimentacao.getUuid();
+        dto.placa = movimentacao.getVeiculo().getPlaca();
+        dto.tipoMovimento = movimentacao.getTipoMovimento();
+        dto.dataHora = movimentacao.getDataHora();
+        dto.quilometragem = movimentacao.getQuilometragem();
+        dto.motorista = movimentacao.getMotorista();
+        dto.porteiro = movimentacao.getPorteiro();
+        return dto;
+    }
+
+    public String getUuid() { return uuid; }
+    public void setUuid(String uuid) { this.uuid = uuid; }
+
+    public String getPlaca() { return placa; }
+    public void setPlaca(String placa) { this.placa = placa; }
+
+    public TipoMovimento getTipoMovimento() { return tipoMovimento; }
+    public void setTipoMovimento(TipoMovimento tipoMovimento) { this.tipoMovimento = tipoMovimento; }
+
+    public Date getDataHora() { return dataHora; }
+    public void setDataHora(Date dataHora) { this.dataHora = dataHora; }
+
+    public Double getQuilometragem() { return quilometragem; }
+    public void setQuilometragem(Double quilometragem) { this.quilometragem = quilometragem; }
+
+    public String getMotorista() { return motorista; }
+    public void setMotorista(String motorista) { this.motorista = motorista; }
+
+    public String getPorteiro() { return porteiro; }
+    public void setPorteiro(String porteiro) { this.porteiro = porteiro; }
+}
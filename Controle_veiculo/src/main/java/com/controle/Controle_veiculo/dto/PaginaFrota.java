@@ -0,0 +1,26 @@
+package com.controle.Controle_veiculo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe DTO com uma página da listagem da frota (paginação por chave, sem OFFSET).
+ *
+ * {@code proximo} é o cursor a ser enviado no parâmetro {@code apos} para buscar a página
+ * seguinte; é nulo na última página.
+ */
+public class PaginaFrota {
+
+    private List<Map<String, Object>> itens;
+
+    private String proximo;
+
+    public PaginaFrota(List<Map<String, Object>> itens, String proximo) {
+        this.itens = itens;
+        this.proximo = proximo;
+    }
+
+    public List<Map<String, Object>> getItens() { return itens; }
+
+    public String getProximo() { return proximo; }
+}
@@ -0,0 +1,48 @@
+package com.controle.Controle_veiculo.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.util.Date;
+
+/**
+ * Classe DTO com a ocupação do pátio em uma hora da série (gráfico do dashboard).
+ */
+public class PontoOcupacao {
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
+    private final Date inicio;
+
+    // Veículos no pátio no início da hora
+    private final int ocupacaoInicial;
+
+    // Maior ocupação durante a hora
+    private final int pico;
+
+    // Ocupação média ponderada pelo tempo (ex: 10 veículos por meia hora e 20 pela outra meia = 15)
+    private final double media;
+
+    private final int entradas;
+
+    private final int saidas;
+
+    public PontoOcupacao(Date inicio, int ocupacaoInicial, int pico, double media, int entradas, int saidas) {
+        this.inicio = inicio;
+        this.ocupacaoInicial = ocupacaoInicial;
+        this.pico = pico;
+        this.media = media;
+        this.entradas = entradas;
+        this.saidas = saidas;
+    }
+
+    public Date getInicio() { return inicio; }
+
+    public int getOcupacaoInicial() { return ocupacaoInicial; }
+
+    public int getPico() { return pico; }
+
+    public double getMedia() { return media; }
+
+    public int getEntradas() { return entradas; }
+
+    public int getSaidas() { return saidas; }
+}
@@ -0,0 +1,71 @@
+package com.controle.Controle_veiculo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe DTO com o resultado da ingestão de um lote de leituras das câmeras.
+ *
+ * Cada leitura recebida cai em exatamente uma das categorias: inválida, baixa confiança,
+ * desconhecida, atrasada, agrupada numa passagem já aberta ou início de uma passagem nova. Cada
+ * passagem nova termina registrada, em conflito (a regra de movimentação pediu correção) ou em falha.
+ */
+public class ResultadoIngestao {
+
+    private int recebidas;
+
+    private int invalidas;
+
+    private int baixaConfianca;
+
+    private int desconhecidas;
+
+    private int atrasadas;
+
+    private int agrupadas;
+
+    // Leituras aceitas com um caractere corrigido pela busca aproximada
+    private int aproximadas;
+
+    private int registradas;
+
+    private int conflitos;
+
+    private int falhas;
+
+    // IDs das movimentações registradas
+    private List<Long> movimentacoes = new ArrayList<>();
+
+    public int getRecebidas() { return recebidas; }
+    public void setRecebidas(int recebidas) { this.recebidas = recebidas; }
+
+    public int getInvalidas() { return invalidas; }
+    public void setInvalidas(int invalidas) { this.invalidas = invalidas; }
+
+    public int getBaixaConfianca() { return baixaConfianca; }
+    public void setBaixaConfianca(int baixaConfianca) { this.baixaConfianca = baixaConfianca; }
+
+    public int getDesconhecidas() { return desconhecidas; }
+    public void setDesconhecidas(int desconhecidas) { this.desconhecidas = desconhecidas; }
+
+    public int getAtrasadas() { return atrasadas; }
+    public void setAtrasadas(int atrasadas) { this.atrasadas = atrasadas; }
+
+    public int getAgrupadas() { return agrupadas; }
+    public void setAgrupadas(int agrupadas) { this.agrupadas = agrupadas; }
+
+    public int getAproximadas() { return aproximadas; }
+    public void setAproximadas(int aproximadas) { this.aproximadas = aproximadas; }
+
+    public int getRegistradas() { return registradas; }
+    public void setRegistradas(int registradas) { this.registradas = registradas; }
+
+    public int getConflitos() { return conflitos; }
+    public void setConflitos(int conflitos) { this.conflitos = conflitos; }
+
+    public int getFalhas() { return falhas; }
+    public void setFalhas(int falhas) { this.falhas = falhas; }
+
+    public List<Long> getMovimentacoes() { return movimentacoes; }
+    public void setMovimentacoes(List<Long> movimentacoes) { this.movimentacoes = movimentacoes; }
+}
@@ -0,0 +1,65 @@
+package com.controle.Controle_veiculo.model;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+/**
+ * Entidade com a ocupação do pátio no início de um dia (00:00, fuso do servidor).
+ *
+ * Permite calcular a ocupação de qualquer período percorrendo só as movimentações a partir do
+ * checkpoint anterior, sem reler o histórico inteiro. Guarda os veículos presentes (e não só a
+ * contagem) para que entradas ou saídas repetidas de um mesmo veículo não distorçam o total.
+ * Os checkpoints posteriores a uma movimentação registrada, editada ou sincronizada são descartados
+ * e recalculados na próxima consulta.
+ */
+@Entity
+@Table(name = "ocupacao_checkpoints")
+public class CheckpointOcupacao {
+
+    /**
+     * O dia; a ocupação vale para 00:00 desse dia.
+     */
+    @Id
+    @Temporal(TemporalType.DATE)
+    @Column(name = "dia")
+    private Date dia;
+
+    /**
+     * Quantidade de veículos no pátio às 00:00.
+     */
+    @Column(name = "ocupacao", nullable = false)
+    private int ocupacao;
+
+    /**
+     * IDs dos veículos no pátio às 00:00, separados por vírgula.
+     */
+    @Lob
+    @Column(name = "presentes")
+    private String presentes;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "calculado_em")
+    private Date calculadoEm;
+
+    public CheckpointOcupacao() {
+    }
+
+    public CheckpointOcupacao(Date dia, int ocupacao, String presentes) {
+        this.dia = dia;
+        this.ocupacao = ocupacao;
+        this.presentes = presentes;
+        this.calculadoEm = new Date();
+    }
+
+    public Date getDia() { return dia; }
+    public void setDia(Date dia) { this.dia = dia; }
+
+    public int getOcupacao() { return ocupacao; }
+    public void setOcupacao(int ocupacao) { this.ocupacao = ocupacao; }
+
+    public String getPresentes() { return presentes; }
+    public void setPresentes(String presentes) { this.presentes = presentes; }
+
+    public Date getCalculadoEm() { return calculadoEm; }
+    public void setCalculadoEm(Date calculadoEm) { this.calculadoEm = calculadoEm; }
+}
@@ -0,0 +1,41 @@
+package com.controle.Controle_veiculo.model;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+/**
+ * Entidade com a posição de uma sincronização incremental da portaria (modo edge) com o servidor
+ * central, gravada no banco local para que uma reinicialização continue de onde parou.
+ */
+@Entity
+@Table(name = "sincronizacao_cursores")
+public class CursorSincronizacao {
+
+    /**
+     * O que é sincronizado (ex: "veiculos").
+     */
+    @Id
+    @Column(name = "nome", length = 50)
+    private String nome;
+
+    /**
+     * Instante da última alteração já recebida do servidor central.
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "posicao")
+    private Date posicao;
+
+    public CursorSincronizacao() {
+    }
+
+    public CursorSincronizacao(String nome, Date posicao) {
+        this.nome = nome;
+        this.posicao = posicao;
+    }
+
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+
+    public Date getPosicao() { return posicao; }
+    public void setPosicao(Date posicao) { this.posicao = posicao; }
+}
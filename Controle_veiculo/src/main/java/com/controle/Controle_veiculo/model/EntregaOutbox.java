@@ -0,0 +1,85 @@
+package com.controle.Controle_veiculo.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Entidade que registra a entrega de um evento da outbox a um destino.
+ *
+ * Cada destino avança no seu próprio ritmo: um webhook fora do ar não atrasa a gravação em
+ * arquivo nem os ouvintes internos. Como a entrega é registrada por evento (e não por um ID de
+ * "último entregue"), um evento confirmado depois de outros com ID maior continua pendente até
+ * ser entregue. Após um reinício, o envio recomeça dos eventos sem registro (entrega "pelo menos
+ * uma vez": o destino deve ignorar IDs repetidos).
+ */
+@Entity
+@Table(name = "outbox_entregas")
+@IdClass(EntregaOutbox.Chave.class)
+public class EntregaOutbox {
+
+    /**
+     * Nome do destino (ex: "webhook", "arquivo", "listener").
+     */
+    @Id
+    @Column(name = "destino", length = 40)
+    private String destino;
+
+    /**
+     * ID do evento entregue.
+     */
+    @Id
+    @Column(name = "evento_id")
+    private Long eventoId;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "entregue_em")
+    private Date entregueEm;
+
+    public EntregaOutbox() {
+    }
+
+    public EntregaOutbox(String destino, Long eventoId) {
+        this.destino = destino;
+        this.eventoId = eventoId;
+        this.entregueEm = new Date();
+    }
+
+    public String getDestino() { return destino; }
+    public void setDestino(String destino) { this.destino = destino; }
+
+    public Long getEventoId() { return eventoId; }
+    public void setEventoId(Long eventoId) { this.eventoId = eventoId; }
+
+    public Date getEntregueEm() { return entregueEm; }
+    public void setEntregueEm(Date entregueEm) { this.entregueEm = entregueEm; }
+
+    /**
+     * Chave composta: destino + evento.
+     */
+    public static class Chave implements Serializable {
+
+        private String destino;
+
+        private Long eventoId;
+
+        public Chave() {
+        }
+
+        public Chave(String destino, Long eventoId) {
+            this.destino = destino;
+            this.eventoId = eventoId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Chave outra && Objects.equals(destino, outra.destino) && Objects.equals(eventoId, outra.eventoId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(destino, eventoId);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.controle.Controle_veiculo.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import java.util.Date;
+
+/**
+ * Entidade que representa um evento pendente de publicação para as integrações (outbox transacional).
+ *
+ * O evento é gravado na mesma transação que a alteração que o originou (movimentação ou veículo),
+ * então ou os dois são gravados, ou nenhum. A entrega aos destinos (webhook, arquivo, ouvintes
+ * internos) acontece depois, em segundo plano, pelo {@code RelayOutboxService}, na ordem do ID.
+ */
+@Entity
+@Table(name = "outbox_eventos", indexes = {
+        @Index(name = "idx_outbox_eventos_criado_em", columnList = "criado_em")
+})
+public class EventoOutbox {
+
+    /**
+     * Identificador do evento; define a ordem de entrega.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Tipo do evento (ex: "MOVIMENTACAO_REGISTRADA", "VEICULO_SALVO").
+     */
+    @Column(name = "tipo", length = 40, nullable = false)
+    private String tipo;
+
+    /**
+     * ID da movimentação ou do veículo que originou o evento.
+     */
+    @Column(name = "agregado_id")
+    private Long agregadoId;
+
+    /**
+     * Conteúdo do evento em JSON (enviado como objeto, não como texto).
+     */
+    @JsonRawValue
+    @Column(name = "payload", length = 4000, nullable = false)
+    private String payload;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "criado_em", nullable = false)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
+    private Date criadoEm;
+
+    public EventoOutbox() {
+    }
+
+    public EventoOutbox(String tipo, Long agregadoId, String payload) {
+        this.tipo = tipo;
+        this.agregadoId = agregadoId;
+        this.payload = payload;
+    }
+
+    @PrePersist
+    private void marcarCriacao() {
+        if (criadoEm == null) {
+            criadoEm = new Date();
+        }
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+
+    public Long getAgregadoId() { return agregadoId; }
+    public void setAgregadoId(Long agregadoId) { this.agregadoId = agregadoId; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public Date getCriadoEm() { return criadoEm; }
+    public void setCriadoEm(Date criadoEm) { this.criadoEm = criadoEm; }
+}
@@ -0,0 +1,93 @@
+package com.controle.Controle_veiculo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Entidade que representa um motorista cadastrado.
+ * Cada instância desta classe corresponde a uma linha na tabela "motoristas".
+ *
+ * Substitui a lista fixa de nomes usada no preenchimento automático do front-end.
+ */
+@Entity
+@Table(name = "motoristas")
+public class Motorista {
+
+    /**
+     * Identificador único do motorista, gerado automaticamente pelo banco de dados.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * O nome do motorista, como exibido nas telas (ex: "MÁRCIO"). É único e não pode ser nulo.
+     */
+    @Column(unique = true, nullable = false)
+    private String nome;
+
+    /**
+     * O nome sem acentos, em maiúsculas e com espaços simples (ex: "MARCIO"), usado nas buscas do
+     * dicionário. É único: "Márcio" e "MARCIO" são o mesmo motorista.
+     */
+    @Column(name = "nome_normalizado", unique = true)
+    private String nomeNormalizado;
+
+    /**
+     * Indica se o motorista ainda aparece nas sugestões de preenchimento.
+     */
+    @Column(nullable = false)
+    private Boolean ativo = true;
+
+    /**
+     * Construtor padrão vazio, exigido pelo JPA.
+     */
+    public Motorista() {
+    }
+
+    /**
+     * Construtor para criar um novo motorista ativo.
+     * @param nome O nome do motorista.
+     */
+    public Motorista(String nome) {
+        this.nome = nome;
+    }
+
+    // --- Getters e Setters ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    public String getNomeNormalizado() {
+        return nomeNormalizado;
+    }
+
+    public void setNomeNormalizado(String nomeNormalizado) {
+        this.nomeNormalizado = nomeNormalizado;
+    }
+
+    public Boolean getAtivo() {
+        return ativo;
+    }
+
+    public void setAtivo(Boolean ativo) {
+        this.ativo = ativo;
+    }
+}
@@ -1,15 +1,29 @@
 package com.controle.Controle_veiculo.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.controle.Controle_veiculo.model.converter.TipoMovimentoConverter;
 import jakarta.persistence.*;
 import java.util.Date;
+import java.util.UUID;
 
 /**
  * Entidade que representa um registro de movimentação (entrada ou saída) de um veículo.
  * Cada instância desta classe corresponde a uma linha na tabela "movimentacoes".
+ *
+ * A linha é gravada de forma compacta: o tipo ocupa um CHAR(1) e motorista/porteiro são
+ * chaves estrangeiras para os dicionários "motoristas" e "porteiros". No JSON os campos
+ * continuam aparecendo como texto ("entrada", nome do motorista, nome do porteiro).
  */
 @Entity
-@Table(name = "movimentacoes")
+@Table(name = "movimentacoes", indexes = {
+        @Index(name = "idx_movimentacoes_data_tipo", columnList = "data_hora, tipo"),
+        @Index(name = "idx_movimentacoes_unidade_data_tipo", columnList = "unidade_id, data_hora, tipo"),
+        @Index(name = "idx_movimentacoes_veiculo_data", columnList = "veiculo_id, data_hora"),
+        @Index(name = "idx_movimentacoes_sincronizada", columnList = "sincronizada_em, id"),
+        @Index(name = "idx_movimentacoes_correcao", columnList = "correcao_pendente, unidade_id, id")
+})
 public class Movimentacao {
 
     /**
@@ -19,6 +33,31 @@ public class Movimentacao {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Identificador global da movimentação, gerado na portaria onde ela foi registrada.
+     * Permite que o servidor central receba a mesma movimentação mais de uma vez sem duplicá-la.
+     */
+    @Column(name = "uuid", length = 36, unique = true, updatable = false)
+    private String uuid;
+
+    /**
+     * Momento em que a movimentação foi enviada ao (ou recebida pelo) servidor central.
+     * No modo edge, movimentações com este campo nulo ainda aguardam sincronização.
+     */
+    @JsonIgnore
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "sincronizada_em")
+    private Date sincronizadaEm;
+
+    /**
+     * Quantidade de edições da movimentação (nulo = nunca editada). No modo edge, a confirmação do
+     * servidor central só marca como sincronizada a revisão que foi enviada: uma edição feita durante
+     * o envio continua pendente e vai no próximo ciclo.
+     */
+    @JsonIgnore
+    @Column(name = "revisao")
+    private Integer revisao;
+
     /**
      * A quilometragem do veículo registrada no momento da movimentação.
      */
@@ -30,24 +69,46 @@ public class Movimentacao {
      * A anotação @JsonFormat instrui o Spring/Jackson sobre como ler a data que vem do front-end.
      */
     @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "data_hora")
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
     private Date dataHora;
 
     /**
      * O tipo da movimentação, que pode ser "entrada" ou "saida".
+     * Gravado como um único caractere ("E"/"S") na coluna "tipo".
      */
-    private String tipoMovimento;
+    @Convert(converter = TipoMovimentoConverter.class)
+    @Column(name = "tipo", columnDefinition = "CHAR(1)")
+    private TipoMovimento tipoMovimento;
 
     /**
-     * O nome do motorista principal associado ao veículo.
+     * O nome do motorista informado pelo front-end (não é gravado; ver {@link #motoristaCadastro}).
      */
+    @Transient
     private String motorista;
 
     /**
-     * O nome do porteiro principal associado à movimentação.
+     * O motorista da movimentação, gravado como chave estrangeira para o dicionário de motoristas.
      */
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "motorista_id")
+    private Motorista motoristaCadastro;
+
+    /**
+     * O nome do porteiro informado pelo front-end (não é gravado; ver {@link #porteiroCadastro}).
+     */
+    @Transient
     private String porteiro;
 
+    /**
+     * O porteiro da movimentação, gravado como chave estrangeira para o dicionário de porteiros.
+     */
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "porteiro_id")
+    private Porteiro porteiroCadastro;
+
     
 
     /**
@@ -59,8 +120,30 @@ public class Movimentacao {
     @JoinColumn(name = "veiculo_id", nullable = false)
     private Veiculo veiculo;
 
+    /**
+     * A unidade (pátio) onde a movimentação ocorreu, copiada do veículo na primeira gravação.
+     * Repetida aqui para que as listagens e contagens de uma unidade usem só o próprio trecho do índice.
+     */
+    @Column(name = "unidade_id", nullable = false, updatable = false, columnDefinition = "BIGINT DEFAULT 1")
+    private Long unidadeId;
+
     @Transient // Importante se o campo não for para o banco de dados
     private Boolean forceCorrection = false; 
+
+    /**
+     * Indica uma movimentação criada pela correção automática (sem confirmação do porteiro) que
+     * ainda não foi revisada. Nulo nas movimentações normais.
+     */
+    @Column(name = "correcao_pendente")
+    private Boolean correcaoPendente;
+
+    /**
+     * Correção aplicada junto com esta movimentação ("entradaAutomatica" ou "saidaAutomatica"),
+     * devolvida ao front-end na resposta do registro. Não é gravada.
+     */
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String correcaoAplicada;
     
   
 
@@ -70,6 +153,19 @@ public class Movimentacao {
     public Movimentacao() {
     }
 
+    /**
+     * Gera o identificador global e copia a unidade do veículo antes da primeira gravação.
+     */
+    @PrePersist
+    private void gerarUuid() {
+        if (uuid == null) {
+            uuid = UUID.randomUUID().toString();
+        }
+        if (unidadeId == null) {
+            unidadeId = veiculo != null && veiculo.getUnidadeId() != null ? veiculo.getUnidadeId() : Unidade.PADRAO;
+        }
+    }
+
     // Getters e Setters
     public Long getId() {
         return id;
@@ -79,6 +175,22 @@ public class Movimentacao {
         this.id = id;
     }
 
+    public String getUuid() {
+        return uuid;
+    }
+
+    public void setUuid(String uuid) {
+        this.uuid = uuid;
+    }
+
+    public Date getSincronizadaEm() {
+        return sincronizadaEm;
+    }
+
+    public void setSincronizadaEm(Date sincronizadaEm) {
+        this.sincronizadaEm = sincronizadaEm;
+    }
+
     public Double getQuilometragem() {
         return quilometragem;
     }
@@ -95,14 +207,22 @@ public class Movimentacao {
         this.dataHora = dataHora;
     }
 
-    public String getTipoMovimento() {
+    public TipoMovimento getTipoMovimento() {
         return tipoMovimento;
     }
 
-    public void setTipoMovimento(String tipoMovimento) {
+    public void setTipoMovimento(TipoMovimento tipoMovimento) {
         this.tipoMovimento = tipoMovimento;
     }
 
+    public Long getUnidadeId() {
+        return unidadeId;
+    }
+
+    public void setUnidadeId(Long unidadeId) {
+        this.unidadeId = unidadeId;
+    }
+
     public Veiculo getVeiculo() {
         return veiculo;
     }
@@ -111,7 +231,11 @@ public class Movimentacao {
         this.veiculo = veiculo;
     }
 
-     public String getMotorista() {
+    /** @return O nome informado ou, se não houver, o nome do motorista cadastrado. */
+    public String getMotorista() {
+        if (motorista == null && motoristaCadastro != null) {
+            return motoristaCadastro.getNome();
+        }
         return motorista;
     }
 
@@ -119,7 +243,37 @@ public class Movimentacao {
         this.motorista = motorista;
     }
 
+    public Motorista getMotoristaCadastro() {
+        return motoristaCadastro;
+    }
+
+    public void setMotoristaCadastro(Motorista motoristaCadastro) {
+        this.motoristaCadastro = motoristaCadastro;
+    }
+
+    /** @return ID do motorista no dicionário, ou null se a movimentação não tem motorista. */
+    public Long getMotoristaId() {
+        return motoristaCadastro != null ? motoristaCadastro.getId() : null;
+    }
+
+    /**
+     * Permite ao front-end informar o motorista pelo ID ({"motoristaId": 1}).
+     * A referência é resolvida pelo serviço antes de gravar.
+     */
+    public void setMotoristaId(Long motoristaId) {
+        if (motoristaId == null) {
+            this.motoristaCadastro = null;
+        } else {
+            this.motoristaCadastro = new Motorista();
+            this.motoristaCadastro.setId(motoristaId);
+        }
+    }
+
+    /** @return O nome informado ou, se não houver, o nome do porteiro cadastrado. */
     public String getPorteiro() {
+        if (porteiro == null && porteiroCadastro != null) {
+            return porteiroCadastro.getNome();
+        }
         return porteiro;
     }
 
@@ -127,6 +281,19 @@ public class Movimentacao {
         this.porteiro = porteiro;
     }
 
+    public Porteiro getPorteiroCadastro() {
+        return porteiroCadastro;
+    }
+
+    public void setPorteiroCadastro(Porteiro porteiroCadastro) {
+        this.porteiroCadastro = porteiroCadastro;
+    }
+
+    /** @return ID do porteiro no dicionário, ou null se a movimentação não tem porteiro. */
+    public Long getPorteiroId() {
+        return porteiroCadastro != null ? porteiroCadastro.getId() : null;
+    }
+
       public Boolean getForceCorrection() {
         return forceCorrection;
     }
@@ -134,4 +301,28 @@ public class Movimentacao {
     public void setForceCorrection(Boolean forceCorrection) {
         this.forceCorrection = forceCorrection;
     }
-}
\ No newline at end of file
+
+    public Integer getRevisao() {
+        return revisao;
+    }
+
+    public void setRevisao(Integer revisao) {
+        this.revisao = revisao;
+    }
+
+    public Boolean getCorrecaoPendente() {
+        return correcaoPendente;
+    }
+
+    public void setCorrecaoPendente(Boolean correcaoPendente) {
+        this.correcaoPendente = correcaoPendente;
+    }
+
+    public String getCorrecaoAplicada() {
+        return correcaoAplicada;
+    }
+
+    public void setCorrecaoAplicada(String correcaoAplicada) {
+        this.correcaoAplicada = correcaoAplicada;
+    }
+}
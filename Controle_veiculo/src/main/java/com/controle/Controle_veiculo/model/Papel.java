@@ -0,0 +1,17 @@
+package com.controle.Controle_veiculo.model;
+
+/**
+ * Papéis (perfis de acesso) que podem ser atribuídos a um {@link Usuario}.
+ * O nome de cada constante segue a convenção do Spring Security ("ROLE_...").
+ */
+public enum Papel {
+
+    /** Acesso completo, incluindo cadastros e manutenção. */
+    ROLE_ADMIN,
+
+    /** Acesso da portaria: registro e consulta de movimentações. */
+    ROLE_PORTEIRO,
+
+    /** Usuário de uma portaria em modo edge no servidor central: apenas os endpoints de sincronização. */
+    ROLE_SINCRONIZACAO
+}
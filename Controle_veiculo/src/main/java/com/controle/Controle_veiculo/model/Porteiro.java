@@ -0,0 +1,62 @@
+package com.controle.Controle_veiculo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Entidade que representa um porteiro.
+ * Cada instância desta classe corresponde a uma linha na tabela "porteiros", usada como
+ * dicionário: as movimentações guardam apenas a chave estrangeira para o nome.
+ */
+@Entity
+@Table(name = "porteiros")
+public class Porteiro {
+
+    /**
+     * Identificador único do porteiro, gerado automaticamente pelo banco de dados.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * O nome do porteiro. É único e não pode ser nulo.
+     */
+    @Column(unique = true, nullable = false)
+    private String nome;
+
+    /**
+     * Construtor padrão vazio, exigido pelo JPA.
+     */
+    public Porteiro() {
+    }
+
+    /**
+     * @param nome O nome do porteiro.
+     */
+    public Porteiro(String nome) {
+        this.nome = nome;
+    }
+
+    // --- Getters e Setters ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+}
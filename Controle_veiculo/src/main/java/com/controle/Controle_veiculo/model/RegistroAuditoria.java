@@ -0,0 +1,79 @@
+package com.controle.Controle_veiculo.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import java.util.Date;
+
+/**
+ * Entidade que representa uma linha da trilha de auditoria (somente inclusão).
+ *
+ * Cada edição de um registro gera uma linha com o usuário, o momento e a diferença entre os
+ * valores antigos e novos dos campos alterados, em JSON: {@code {"campo": {"antes": ..., "depois": ...}}}.
+ * As linhas nunca são alteradas nem removidas pela aplicação.
+ */
+@Entity
+@Immutable
+@Table(name = "auditoria", indexes = {
+        @Index(name = "idx_auditoria_entidade", columnList = "entidade, entidade_id, data_hora")
+})
+public class RegistroAuditoria {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Tipo do registro alterado (ex: "Movimentacao").
+     */
+    @Column(name = "entidade", length = 40, nullable = false, updatable = false)
+    private String entidade;
+
+    /**
+     * ID do registro alterado.
+     */
+    @Column(name = "entidade_id", nullable = false, updatable = false)
+    private Long entidadeId;
+
+    /**
+     * Usuário autenticado que fez a alteração.
+     */
+    @Column(name = "usuario", length = 100, updatable = false)
+    private String usuario;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "data_hora", nullable = false, updatable = false)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
+    private Date dataHora;
+
+    /**
+     * Campos alterados, com os valores antes e depois da edição (JSON).
+     */
+    @JsonRawValue
+    @Column(name = "alteracoes", length = 4000, nullable = false, updatable = false)
+    private String alteracoes;
+
+    public RegistroAuditoria() {
+    }
+
+    public RegistroAuditoria(String entidade, Long entidadeId, String usuario, Date dataHora, String alteracoes) {
+        this.entidade = entidade;
+        this.entidadeId = entidadeId;
+        this.usuario = usuario;
+        this.dataHora = dataHora;
+        this.alteracoes = alteracoes;
+    }
+
+    public Long getId() { return id; }
+
+    public String getEntidade() { return entidade; }
+
+    public Long getEntidadeId() { return entidadeId; }
+
+    public String getUsuario() { return usuario; }
+
+    public Date getDataHora() { return dataHora; }
+
+    public String getAlteracoes() { return alteracoes; }
+}
@@ -0,0 +1,71 @@
+package com.controle.Controle_veiculo.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Situação de um veículo em relação à empresa.
+ *
+ * No banco de dados é gravada com um único caractere ({@link #getCodigo()}), enquanto no JSON
+ * continua sendo representada como "Presente" ou "Ausente".
+ */
+public enum StatusVeiculo {
+
+    PRESENTE("Presente", "P"),
+    AUSENTE("Ausente", "A");
+
+    // Valor usado no JSON
+    private final String rotulo;
+
+    // Valor gravado na coluna CHAR(1)
+    private final String codigo;
+
+    StatusVeiculo(String rotulo, String codigo) {
+        this.rotulo = rotulo;
+        this.codigo = codigo;
+    }
+
+    /** @return Valor exibido no JSON ("Presente" ou "Ausente"). */
+    @JsonValue
+    public String getRotulo() {
+        return rotulo;
+    }
+
+    /** @return Código de um caractere gravado no banco ("P" ou "A"). */
+    public String getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Converte o texto recebido do front-end (ignorando maiúsculas/minúsculas) ou o código do banco.
+     *
+     * @param valor "Presente", "Ausente", "P" ou "A".
+     * @return O status correspondente, ou null se o valor for nulo/vazio.
+     * @throws RuntimeException se o valor não corresponder a nenhum status.
+     */
+    @JsonCreator
+    public static StatusVeiculo de(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        for (StatusVeiculo status : values()) {
+            if (status.rotulo.equalsIgnoreCase(valor.trim()) || status.codigo.equalsIgnoreCase(valor.trim())) {
+                return status;
+            }
+        }
+        throw new RuntimeException("Status de veículo inválido: " + valor);
+    }
+
+    /**
+     * @param tipo Tipo da movimentação registrada.
+     * @return O status resultante da movimentação (entrada → Presente, saída → Ausente).
+     */
+    public static StatusVeiculo apos(TipoMovimento tipo) {
+        return tipo == TipoMovimento.ENTRADA ? PRESENTE : AUSENTE;
+    }
+
+    @Override
+    public String toString() {
+        return rotulo;
+    }
+}
@@ -0,0 +1,69 @@
+package com.controle.Controle_veiculo.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Tipos de movimentação de um veículo.
+ *
+ * No banco de dados cada tipo é gravado com um único caractere ({@link #getCodigo()}),
+ * enquanto no JSON continua sendo representado como "entrada" ou "saida", mantendo a
+ * compatibilidade com o front-end.
+ */
+public enum TipoMovimento {
+
+    ENTRADA("entrada", "E"),
+    SAIDA("saida", "S");
+
+    // Valor usado no JSON
+    private final String rotulo;
+
+    // Valor gravado na coluna CHAR(1)
+    private final String codigo;
+
+    TipoMovimento(String rotulo, String codigo) {
+        this.rotulo = rotulo;
+        this.codigo = codigo;
+    }
+
+    /** @return Valor exibido no JSON ("entrada" ou "saida"). */
+    @JsonValue
+    public String getRotulo() {
+        return rotulo;
+    }
+
+    /** @return Código de um caractere gravado no banco ("E" ou "S"). */
+    public String getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Converte o texto recebido do front-end (ignorando maiúsculas/minúsculas) ou o código do banco.
+     *
+     * @param valor "entrada", "saida", "E" ou "S".
+     * @return O tipo correspondente, ou null se o valor for nulo/vazio.
+     * @throws RuntimeException se o valor não corresponder a nenhum tipo.
+     */
+    @JsonCreator
+    public static TipoMovimento de(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        for (TipoMovimento tipo : values()) {
+            if (tipo.rotulo.equalsIgnoreCase(valor.trim()) || tipo.codigo.equalsIgnoreCase(valor.trim())) {
+                return tipo;
+            }
+        }
+        throw new RuntimeException("Tipo de movimentação inválido: " + valor);
+    }
+
+    /** @return O tipo oposto (entrada ↔ saída). */
+    public TipoMovimento oposto() {
+        return this == ENTRADA ? SAIDA : ENTRADA;
+    }
+
+    @Override
+    public String toString() {
+        return rotulo;
+    }
+}
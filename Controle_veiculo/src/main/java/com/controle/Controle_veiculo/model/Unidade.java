@@ -0,0 +1,84 @@
+package com.controle.Controle_veiculo.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Entidade que representa uma unidade (pátio) da empresa.
+ * Cada instância desta classe corresponde a uma linha na tabela "unidades".
+ *
+ * Veículos e movimentações guardam a chave da unidade na coluna "unidade_id", primeira coluna
+ * dos seus índices: as consultas de uma unidade não percorrem os dados das outras.
+ */
+@Entity
+@Table(name = "unidades")
+public class Unidade {
+
+    /**
+     * Unidade dos registros gravados antes do suporte a várias unidades e das requisições sem unidade.
+     */
+    public static final long PADRAO = 1L;
+
+    /**
+     * Identificador único da unidade, gerado automaticamente pelo banco de dados.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Código curto da unidade (ex: "SP01"). É único e não pode ser nulo.
+     */
+    @Column(unique = true, nullable = false, length = 20)
+    private String codigo;
+
+    /**
+     * O nome da unidade (ex: "Pátio Guarulhos").
+     */
+    private String nome;
+
+    /**
+     * Construtor padrão vazio, exigido pelo JPA.
+     */
+    public Unidade() {
+    }
+
+    /**
+     * @param codigo Código curto da unidade.
+     * @param nome   Nome da unidade.
+     */
+    public Unidade(String codigo, String nome) {
+        this.codigo = codigo;
+        this.nome = nome;
+    }
+
+    // --- Getters e Setters ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public void setCodigo(String codigo) {
+        this.codigo = codigo;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+}
@@ -0,0 +1,113 @@
+package com.controle.Controle_veiculo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Entidade que representa um usuário com acesso à API.
+ * Cada instância desta classe corresponde a uma linha na tabela "usuarios".
+ */
+@Entity
+@Table(name = "usuarios")
+public class Usuario {
+
+    /**
+     * Identificador único do usuário, gerado automaticamente pelo banco de dados.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * O nome de login do usuário. É único e não pode ser nulo.
+     */
+    @Column(unique = true, nullable = false)
+    private String username;
+
+    /**
+     * O hash BCrypt da senha. Nunca é exposto no JSON.
+     */
+    @JsonIgnore
+    @Column(nullable = false)
+    private String senha;
+
+    /**
+     * Os papéis do usuário, gravados na tabela "usuario_papeis".
+     * São copiados para o token JWT no login, para que as requisições seguintes não consultem o banco.
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "usuario_papeis", joinColumns = @JoinColumn(name = "usuario_id"))
+    @Enumerated(EnumType.STRING)
+    @Column(name = "papel", nullable = false)
+    private Set<Papel> papeis = new HashSet<>();
+
+    /**
+     * A unidade (pátio) a que o usuário está vinculado: ele só acessa os dados dessa unidade.
+     * Nulo para a administração central, que escolhe a unidade pelo cabeçalho X-Unidade.
+     * Também é copiada para o token JWT no login.
+     */
+    @Column(name = "unidade_id")
+    private Long unidadeId;
+
+    /**
+     * Construtor padrão vazio, exigido pelo JPA.
+     */
+    public Usuario() {
+    }
+
+    /**
+     * @param username O nome de login.
+     * @param senha O hash da senha.
+     * @param papeis Os papéis do usuário.
+     */
+    public Usuario(String username, String senha, Set<Papel> papeis) {
+        this.username = username;
+        this.senha = senha;
+        this.papeis = papeis;
+    }
+
+    // --- Getters e Setters ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getSenha() {
+        return senha;
+    }
+
+    public void setSenha(String senha) {
+        this.senha = senha;
+    }
+
+    public Set<Papel> getPapeis() {
+        return papeis;
+    }
+
+    public void setPapeis(Set<Papel> papeis) {
+        this.papeis = papeis;
+    }
+
+    public Long getUnidadeId() {
+        return unidadeId;
+    }
+
+    public void setUnidadeId(Long unidadeId) {
+        this.unidadeId = unidadeId;
+    }
+}
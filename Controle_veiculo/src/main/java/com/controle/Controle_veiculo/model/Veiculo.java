@@ -2,11 +2,17 @@ package com.controle.Controle_veiculo.model;
 
 import java.util.Date;
 
+import com.controle.Controle_veiculo.model.converter.StatusVeiculoConverter;
+
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
@@ -16,7 +22,10 @@ import jakarta.persistence.TemporalType;
  * Cada instância desta classe corresponde a uma linha na tabela "veiculos".
  */
 @Entity
-@Table(name = "veiculos")
+@Table(name = "veiculos", indexes = {
+        @Index(name = "idx_veiculos_unidade_situacao_ultima", columnList = "unidade_id, situacao, ultima_movimentacao"),
+        @Index(name = "idx_veiculos_atualizado_em", columnList = "atualizado_em")
+})
 public class Veiculo {
 
     /**
@@ -32,6 +41,12 @@ public class Veiculo {
     @Column(unique = true, nullable = false)
     private String placa;
 
+    /**
+     * A unidade (pátio) do veículo. Registros anteriores às unidades ficam na unidade padrão.
+     */
+    @Column(name = "unidade_id", nullable = false, columnDefinition = "BIGINT DEFAULT 1")
+    private Long unidadeId;
+
     /**
      * O modelo do veículo (ex: "Corolla", "Strada").
      */
@@ -55,10 +70,13 @@ public class Veiculo {
 
     /**
      * O status atual do veículo, indicando se está "Presente" na empresa ou "Ausente".
-     * O valor padrão no banco de dados é "Presente".
+     * Gravado como um único caractere ("P"/"A") na coluna "situacao"; fica nulo até a primeira
+     * movimentação. A coluna não tem valor padrão no banco, para que as linhas anteriores à migração
+     * fiquem nulas até serem convertidas.
      */
-    @Column(columnDefinition = "VARCHAR(255) DEFAULT 'Presente'")
-    private String status;
+    @Convert(converter = StatusVeiculoConverter.class)
+    @Column(name = "situacao", columnDefinition = "CHAR(1)")
+    private StatusVeiculo status;
 
     /**
      * A data e hora em que o registro do veículo foi criado no sistema.
@@ -71,8 +89,17 @@ public class Veiculo {
      * Este campo é atualizado a cada novo registro de movimentação.
      */
     @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "ultima_movimentacao")
     private Date ultimaMovimentacao;
 
+    /**
+     * A data e hora da última alteração do registro (dados cadastrais ou status).
+     * Usada pelas portarias em modo edge para baixar apenas os veículos alterados.
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "atualizado_em")
+    private Date atualizadoEm;
+
     /**
      * Construtor padrão vazio, exigido pelo JPA para a criação de instâncias da entidade.
      */
@@ -95,6 +122,18 @@ public class Veiculo {
         this.cor = cor;
     }
 
+    /**
+     * Registra o momento da alteração a cada inclusão ou atualização (e a unidade padrão, se não informada).
+     */
+    @PrePersist
+    @PreUpdate
+    private void marcarAtualizacao() {
+        atualizadoEm = new Date();
+        if (unidadeId == null) {
+            unidadeId = Unidade.PADRAO;
+        }
+    }
+
     // --- Getters e Setters ---
 
     public Long getId() {
@@ -113,6 +152,14 @@ public class Veiculo {
         this.placa = placa;
     }
 
+    public Long getUnidadeId() {
+        return unidadeId;
+    }
+
+    public void setUnidadeId(Long unidadeId) {
+        this.unidadeId = unidadeId;
+    }
+
     public String getModelo() {
         return modelo;
     }
@@ -155,11 +202,19 @@ public class Veiculo {
         this.ultimaMovimentacao = ultimaMovimentacao;
     }
     
-    public String getStatus() {
+    public Date getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(Date atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    public StatusVeiculo getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(StatusVeiculo status) {
         this.status = status;
     }
 }
\ No newline at end of file
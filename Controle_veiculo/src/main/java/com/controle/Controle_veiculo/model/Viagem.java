@@ -0,0 +1,229 @@
+package com.controle.Controle_veiculo.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.util.Date;
+
+/**
+ * Entidade que representa uma viagem de um veículo: o intervalo entre uma SAÍDA
+ * e a ENTRADA seguinte do mesmo veículo.
+ *
+ * As viagens são uma materialização do histórico de movimentações, mantida pelo
+ * {@code ViagemService} a cada registro ou edição. Enquanto a entrada não acontece,
+ * a viagem fica "aberta" (campos de entrada, duração e distância nulos).
+ */
+@Entity
+@Table(name = "viagens", indexes = {
+        @Index(name = "idx_viagens_abertas", columnList = "data_entrada, data_saida"),
+        @Index(name = "idx_viagens_duracao", columnList = "duracao_segundos"),
+        @Index(name = "idx_viagens_motorista", columnList = "motorista, data_saida"),
+        @Index(name = "idx_viagens_veiculo", columnList = "veiculo_id, data_saida")
+})
+public class Viagem {
+
+    /**
+     * Identificador único da viagem, gerado automaticamente pelo banco de dados.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * O veículo que realizou a viagem.
+     */
+    @ManyToOne
+    @JoinColumn(name = "veiculo_id", nullable = false)
+    private Veiculo veiculo;
+
+    /**
+     * A movimentação de SAÍDA que abriu a viagem.
+     */
+    @JsonIgnore
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "saida_id", nullable = false, unique = true)
+    private Movimentacao saida;
+
+    /**
+     * A movimentação de ENTRADA que fechou a viagem (nula enquanto a viagem está aberta).
+     */
+    @JsonIgnore
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "entrada_id", unique = true)
+    private Movimentacao entrada;
+
+    /**
+     * O motorista registrado na saída do veículo.
+     */
+    @Column(name = "motorista")
+    private String motorista;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "data_saida", nullable = false)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
+    private Date dataSaida;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "data_entrada")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
+    private Date dataEntrada;
+
+    /**
+     * Quilometragem registrada na saída.
+     */
+    private Double kmSaida;
+
+    /**
+     * Quilometragem registrada na entrada.
+     */
+    private Double kmEntrada;
+
+    /**
+     * Duração da viagem em segundos (entrada - saída).
+     */
+    @Column(name = "duracao_segundos")
+    private Long duracaoSegundos;
+
+    /**
+     * Distância percorrida em km (km de entrada - km de saída).
+     */
+    private Double distancia;
+
+    /**
+     * Construtor padrão vazio, exigido pelo JPA.
+     */
+    public Viagem() {
+    }
+
+    /**
+     * Abre uma nova viagem a partir de uma movimentação de SAÍDA.
+     *
+     * @param saida A movimentação de saída.
+     */
+    public Viagem(Movimentacao saida) {
+        this.veiculo = saida.getVeiculo();
+        this.saida = saida;
+        this.motorista = saida.getMotorista();
+        this.dataSaida = saida.getDataHora();
+        this.kmSaida = saida.getQuilometragem();
+    }
+
+    /**
+     * Fecha a viagem com a movimentação de ENTRADA, calculando duração e distância.
+     *
+     * @param entrada A movimentação de entrada.
+     */
+    public void fechar(Movimentacao entrada) {
+        this.entrada = entrada;
+        this.dataEntrada = entrada.getDataHora();
+        this.kmEntrada = entrada.getQuilometragem();
+        this.duracaoSegundos = (dataEntrada.getTime() - dataSaida.getTime()) / 1000;
+        this.distancia = (kmSaida != null && kmEntrada != null) ? kmEntrada - kmSaida : null;
+    }
+
+    /**
+     * @return true se a viagem ainda não recebeu a entrada correspondente.
+     */
+    public boolean isAberta() {
+        return entrada == null;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Veiculo getVeiculo() {
+        return veiculo;
+    }
+
+    public void setVeiculo(Veiculo veiculo) {
+        this.veiculo = veiculo;
+    }
+
+    public Movimentacao getSaida() {
+        return saida;
+    }
+
+    public void setSaida(Movimentacao saida) {
+        this.saida = saida;
+    }
+
+    public Movimentacao getEntrada() {
+        return entrada;
+    }
+
+    public void setEntrada(Movimentacao entrada) {
+        this.entrada = entrada;
+    }
+
+    /** @return ID da movimentação de saída (exposto no JSON no lugar da entidade). */
+    public Long getSaidaId() {
+        return saida != null ? saida.getId() : null;
+    }
+
+    /** @return ID da movimentação de entrada, ou null se a viagem estiver aberta. */
+    public Long getEntradaId() {
+        return entrada != null ? entrada.getId() : null;
+    }
+
+    public String getMotorista() {
+        return motorista;
+    }
+
+    public void setMotorista(String motorista) {
+        this.motorista = motorista;
+    }
+
+    public Date getDataSaida() {
+        return dataSaida;
+    }
+
+    public void setDataSaida(Date dataSaida) {
+        this.dataSaida = dataSaida;
+    }
+
+    public Date getDataEntrada() {
+        return dataEntrada;
+    }
+
+    public void setDataEntrada(Date dataEntrada) {
+        this.dataEntrada = dataEntrada;
+    }
+
+    public Double getKmSaida() {
+        return kmSaida;
+    }
+
+    public void setKmSaida(Double kmSaida) {
+        this.kmSaida = kmSaida;
+    }
+
+    public Double getKmEntrada() {
+        return kmEntrada;
+    }
+
+    public void setKmEntrada(Double kmEntrada) {
+        this.kmEntrada = kmEntrada;
+    }
+
+    public Long getDuracaoSegundos() {
+        return duracaoSegundos;
+    }
+
+    public void setDuracaoSegundos(Long duracaoSegundos) {
+        this.duracaoSegundos = duracaoSegundos;
+    }
+
+    public Double getDistancia() {
+        return distancia;
+    }
+
+    public void setDistancia(Double distancia) {
+        this.distancia = distancia;
+    }
+}
@@ -0,0 +1,22 @@
+package com.controle.Controle_veiculo.model.converter;
+
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Converte {@link StatusVeiculo} para o código de um caractere gravado na coluna CHAR(1).
+ */
+@Converter
+public class StatusVeiculoConverter implements AttributeConverter<StatusVeiculo, String> {
+
+    @Override
+    public String convertToDatabaseColumn(StatusVeiculo status) {
+        return status != null ? status.getCodigo() : null;
+    }
+
+    @Override
+    public StatusVeiculo convertToEntityAttribute(String codigo) {
+        return StatusVeiculo.de(codigo);
+    }
+}
@@ -0,0 +1,22 @@
+package com.controle.Controle_veiculo.model.converter;
+
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Converte {@link TipoMovimento} para o código de um caractere gravado na coluna CHAR(1).
+ */
+@Converter
+public class TipoMovimentoConverter implements AttributeConverter<TipoMovimento, String> {
+
+    @Override
+    public String convertToDatabaseColumn(TipoMovimento tipo) {
+        return tipo != null ? tipo.getCodigo() : null;
+    }
+
+    @Override
+    public TipoMovimento convertToEntityAttribute(String codigo) {
+        return TipoMovimento.de(codigo);
+    }
+}
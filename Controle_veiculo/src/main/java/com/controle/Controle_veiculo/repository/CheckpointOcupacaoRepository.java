@@ -0,0 +1,41 @@
+package com.controle.Controle_veiculo.repository;
+
+import com.controle.Controle_veiculo.model.CheckpointOcupacao;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositório dos checkpoints diários de ocupação do pátio.
+ */
+@Repository
+public interface CheckpointOcupacaoRepository extends JpaRepository<CheckpointOcupacao, Date> {
+
+    /**
+     * Busca o checkpoint mais recente até um dia (ponto de partida da varredura).
+     */
+    Optional<CheckpointOcupacao> findTopByDiaLessThanEqualOrderByDiaDesc(Date dia);
+
+    /**
+     * Lista os dias que já têm checkpoint num intervalo.
+     */
+    @Query("SELECT c.dia FROM CheckpointOcupacao c WHERE c.dia > :de AND c.dia <= :ate")
+    List<Date> findDias(@Param("de") Date de, @Param("ate") Date ate);
+
+    /**
+     * Descarta os checkpoints afetados por uma movimentação (todos os dias posteriores ao dela).
+     *
+     * @param dia Dia da movimentação.
+     * @return Quantidade de checkpoints descartados.
+     */
+    @Modifying
+    @Query("DELETE FROM CheckpointOcupacao c WHERE c.dia > :dia")
+    int deleteDepoisDe(@Param("dia") Date dia);
+}
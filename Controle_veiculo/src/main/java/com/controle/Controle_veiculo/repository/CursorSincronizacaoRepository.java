@@ -0,0 +1,13 @@
+package com.controle.Controle_veiculo.repository;
+
+import com.controle.Controle_veiculo.model.CursorSincronizacao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositório das posições das sincronizações incrementais do modo edge.
+ */
+@Repository
+public interface CursorSincronizacaoRepository extends JpaRepository<CursorSincronizacao, String> {
+}
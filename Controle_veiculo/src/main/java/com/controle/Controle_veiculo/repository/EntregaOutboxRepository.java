@@ -0,0 +1,24 @@
+package com.controle.Controle_veiculo.repository;
+
+import com.controle.Controle_veiculo.model.EntregaOutbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositório das entregas da outbox (um registro por evento entregue a cada destino).
+ */
+@Repository
+public interface EntregaOutboxRepository extends JpaRepository<EntregaOutbox, EntregaOutbox.Chave> {
+
+    /**
+     * Remove os registros de entrega de eventos que já saíram da outbox.
+     *
+     * @return Quantidade de registros removidos.
+     */
+    @Modifying
+    @Query("DELETE FROM EntregaOutbox x WHERE NOT EXISTS (SELECT 1 FROM EventoOutbox e WHERE e.id = x.eventoId)")
+    int deleteOrfas();
+}
@@ -0,0 +1,58 @@
+package com.controle.Controle_veiculo.repository;
+
+import com.controle.Controle_veiculo.model.EventoOutbox;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositório dos eventos da outbox transacional.
+ *
+ * Um evento está pendente para um destino enquanto não houver registro da sua entrega a ele
+ * ({@code EntregaOutbox}); a tabela só guarda os eventos ainda não entregues a todos os destinos.
+ */
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    /**
+     * Busca o próximo lote de eventos pendentes de um destino.
+     *
+     * @param destino Nome do destino.
+     * @param criadosAntesDe Só considera eventos criados antes deste instante (ver {@code outbox.relay.atraso-minimo-ms}).
+     * @param pageable Tamanho do lote.
+     * @return Eventos ainda não entregues ao destino, em ordem de ID.
+     */
+    @Query("SELECT e FROM EventoOutbox e WHERE e.criadoEm < :criadosAntesDe " +
+           "AND NOT EXISTS (SELECT 1 FROM EntregaOutbox x WHERE x.eventoId = e.id AND x.destino = :destino) ORDER BY e.id")
+    List<EventoOutbox> findPendentes(@Param("destino") String destino, @Param("criadosAntesDe") Date criadosAntesDe, Pageable pageable);
+
+    /**
+     * Conta os eventos ainda não entregues a um destino.
+     *
+     * @param destino Nome do destino.
+     * @return Quantidade de eventos pendentes.
+     */
+    @Query("SELECT COUNT(e) FROM EventoOutbox e " +
+           "WHERE NOT EXISTS (SELECT 1 FROM EntregaOutbox x WHERE x.eventoId = e.id AND x.destino = :destino)")
+    long countPendentes(@Param("destino") String destino);
+
+    /**
+     * Remove os eventos já entregues a todos os destinos.
+     *
+     * @param destinos Nomes dos destinos ativos.
+     * @param quantidade Quantidade de destinos ativos.
+     * @return Quantidade de eventos removidos.
+     */
+    @Modifying
+    @Query("DELETE FROM EventoOutbox e WHERE " +
+           "(SELECT COUNT(x) FROM EntregaOutbox x WHERE x.eventoId = e.id AND x.destino IN :destinos) = :quantidade")
+    int deleteEntregues(@Param("destinos") Collection<String> destinos, @Param("quantidade") long quantidade);
+}
@@ -0,0 +1,54 @@
+package com.controle.Controle_veiculo.repository;
+
+import com.controle.Controle_veiculo.model.Motorista;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositório para a entidade Motorista.
+ * Fornece as operações CRUD padrão e as consultas usadas para montar o índice de preenchimento automático.
+ */
+@Repository
+public interface MotoristaRepository extends JpaRepository<Motorista, Long> {
+
+    /**
+     * Busca um motorista pelo nome exato.
+     *
+     * @param nome O nome do motorista.
+     * @return um {@link Optional<Motorista>} contendo o motorista se encontrado.
+     */
+    Optional<Motorista> findByNome(String nome);
+
+    /**
+     * Busca um motorista pelo nome normalizado (sem acentos, em maiúsculas).
+     *
+     * @param nomeNormalizado O nome já normalizado.
+     * @return um {@link Optional<Motorista>} contendo o motorista se encontrado.
+     */
+    Optional<Motorista> findByNomeNormalizado(String nomeNormalizado);
+
+    /**
+     * Lista os motoristas gravados sem o nome normalizado (cadastros anteriores à coluna ou
+     * incluídos direto no banco, como na migração do histórico).
+     *
+     * @return Motoristas sem o nome normalizado.
+     */
+    List<Motorista> findByNomeNormalizadoIsNull();
+
+    /**
+     * Lista os motoristas ativos em ordem alfabética.
+     *
+     * @return uma {@link List<Motorista>} com os motoristas ativos.
+     */
+    List<Motorista> findByAtivoTrueOrderByNomeAsc();
+
+    /**
+     * Conta os motoristas ativos.
+     *
+     * @return Quantidade de motoristas ativos.
+     */
+    long countByAtivoTrue();
+}
@@ -1,14 +1,18 @@
 package com.controle.Controle_veiculo.repository;
 
 import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.TipoMovimento;
 import com.controle.Controle_veiculo.model.Veiculo;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable; // Interface para paginação dinâmica
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,38 +27,72 @@ import org.springframework.stereotype.Repository;
 public interface MovimentacaoRepository extends JpaRepository<Movimentacao, Long> {
 
     /**
-     * Conta o número de movimentações de um tipo específico dentro de um intervalo de tempo.
+     * Conta o número de movimentações de um tipo específico de uma unidade dentro de um intervalo de tempo.
      * 
-     * Exemplo de uso: contar quantas "entradas" ocorreram hoje.
+     * Exemplo de uso: contar quantas "entradas" ocorreram hoje no pátio.
      * 
+     * @param unidadeId ID da unidade.
      * @param start Data/hora de início do intervalo.
      * @param end Data/hora de fim do intervalo.
-     * @param tipoMovimento Tipo de movimento a ser filtrado (ex: "entrada" ou "saida").
+     * @param tipoMovimento Tipo de movimento a ser filtrado (ex: ENTRADA ou SAIDA).
      * @return Quantidade total de movimentações encontradas.
      */
-    long countByDataHoraBetweenAndTipoMovimento(Date start, Date end, String tipoMovimento);
+    long countByUnidadeIdAndDataHoraBetweenAndTipoMovimento(Long unidadeId, Date start, Date end, TipoMovimento tipoMovimento);
 
     /**
-     * Busca movimentações de forma paginada e filtrada por placa e/ou período.
+     * Busca movimentações de uma unidade de forma paginada e filtrada por placa e/ou período.
      * 
-     * A consulta ignora filtros nulos, permitindo flexibilidade nas buscas.
+     * A consulta ignora filtros nulos, permitindo flexibilidade nas buscas. A unidade é sempre
+     * informada e lidera o índice (unidade_id, data_hora, tipo): o período é lido só no trecho da unidade.
+     * Veículo, motorista e porteiro são carregados no mesmo SELECT para evitar
+     * uma consulta extra por linha na serialização.
      * 
+     * @param unidadeId ID da unidade.
      * @param placa Placa parcial ou completa do veículo (pode ser nula).
      * @param dataInicio Data mínima da movimentação (pode ser nula).
      * @param dataFim Data máxima da movimentação (pode ser nula).
      * @param pageable Configurações de paginação (página, tamanho e ordenação).
      * @return Página de resultados contendo as movimentações filtradas.
      */
-    @Query("SELECT m FROM Movimentacao m WHERE " +
+    @Query(value = "SELECT m FROM Movimentacao m JOIN FETCH m.veiculo v " +
+           "LEFT JOIN FETCH m.motoristaCadastro LEFT JOIN FETCH m.porteiroCadastro WHERE " +
+           "m.unidadeId = :unidadeId AND " +
+           "(:placa IS NULL OR v.placa LIKE %:placa%) AND " +
+           "(:dataInicio IS NULL OR m.dataHora >= :dataInicio) AND " +
+           "(:dataFim IS NULL OR m.dataHora <= :dataFim)",
+           countQuery = "SELECT COUNT(m) FROM Movimentacao m WHERE " +
+           "m.unidadeId = :unidadeId AND " +
            "(:placa IS NULL OR m.veiculo.placa LIKE %:placa%) AND " +
            "(:dataInicio IS NULL OR m.dataHora >= :dataInicio) AND " +
            "(:dataFim IS NULL OR m.dataHora <= :dataFim)")
     Page<Movimentacao> findWithFilters(
+            @Param("unidadeId") Long unidadeId,
             @Param("placa") String placa,
             @Param("dataInicio") Date dataInicio,
             @Param("dataFim") Date dataFim,
             Pageable pageable);
 
+    /**
+     * Busca as correções automáticas de uma unidade que ainda aguardam revisão, das mais antigas para
+     * as mais recentes. Percorre o índice (correcao_pendente, unidade_id, id).
+     *
+     * @param unidadeId ID da unidade.
+     * @param pageable Configurações de paginação.
+     * @return Página com as correções pendentes e os respectivos veículos.
+     */
+    @Query(value = "SELECT m FROM Movimentacao m JOIN FETCH m.veiculo " +
+           "LEFT JOIN FETCH m.motoristaCadastro LEFT JOIN FETCH m.porteiroCadastro " +
+           "WHERE m.correcaoPendente = true AND m.unidadeId = :unidadeId ORDER BY m.id",
+           countQuery = "SELECT COUNT(m) FROM Movimentacao m WHERE m.correcaoPendente = true AND m.unidadeId = :unidadeId")
+    Page<Movimentacao> findCorrecoesPendentes(@Param("unidadeId") Long unidadeId, Pageable pageable);
+
+    /**
+     * Conta as correções automáticas que aguardam revisão em todas as unidades.
+     *
+     * @return Quantidade de correções pendentes.
+     */
+    long countByCorrecaoPendenteTrue();
+
     /**
      * Obtém a última quilometragem registrada para um determinado veículo.
      * 
@@ -72,13 +110,15 @@ public interface MovimentacaoRepository extends JpaRepository<Movimentacao, Long
      * Obtém o nome do último motorista associado a um determinado veículo.
      * 
      * Segue a mesma lógica da consulta de quilometragem — ordenando por ID descrescente
-     * para garantir que o resultado represente o registro mais recente.
+     * para garantir que o resultado represente o registro mais recente. O LEFT JOIN mantém a
+     * movimentação mais recente mesmo sem motorista (o resultado é null, e não o motorista
+     * de uma movimentação anterior).
      * 
      * @param veiculoId ID do veículo alvo.
      * @param pageable Pageable para limitar a quantidade de resultados (geralmente 1).
      * @return Lista contendo o nome do último motorista (ou vazia se não houver registros).
      */
-    @Query("SELECT m.motorista FROM Movimentacao m WHERE m.veiculo.id = :veiculoId ORDER BY m.id DESC")
+    @Query("SELECT d.nome FROM Movimentacao m LEFT JOIN m.motoristaCadastro d WHERE m.veiculo.id = :veiculoId ORDER BY m.id DESC")
     List<String> findUltimoMotorista(@Param("veiculoId") Long veiculoId, Pageable pageable);
 
     /**
@@ -87,8 +127,74 @@ public interface MovimentacaoRepository extends JpaRepository<Movimentacao, Long
      * Usa a convenção de Derived Query Method — o Spring Data JPA interpreta o nome do método
      * e gera automaticamente a consulta SQL correspondente.
      * 
+     * Empates na data/hora são resolvidos pelo ID (a registrada por último vence), o mesmo
+     * critério da reconciliação da frota ({@code ReconciliacaoService}).
+     *
      * @param veiculo Objeto Veiculo a ser consultado.
      * @return A movimentação mais recente, ou null se não houver registros.
      */
-    Movimentacao findTopByVeiculoOrderByDataHoraDesc(Veiculo veiculo);
+    Movimentacao findTopByVeiculoOrderByDataHoraDescIdDesc(Veiculo veiculo);
+
+    /**
+     * Retorna o histórico completo de um veículo em ordem cronológica.
+     * 
+     * Usado para refazer o pareamento saída → entrada das viagens.
+     * 
+     * @param veiculo Objeto Veiculo a ser consultado.
+     * @return Movimentações do veículo ordenadas por data/hora e ID.
+     */
+    List<Movimentacao> findByVeiculoOrderByDataHoraAscIdAsc(Veiculo veiculo);
+
+    /**
+     * Busca uma movimentação pelo identificador global gerado na portaria.
+     *
+     * @param uuid Identificador global.
+     * @return A movimentação, se já foi recebida.
+     */
+    Optional<Movimentacao> findByUuid(String uuid);
+
+    /**
+     * Retorna a movimentação mais recente de um veículo, com desempate determinístico pelo
+     * identificador global (não depende da ordem em que as portarias sincronizaram).
+     *
+     * @param veiculo Objeto Veiculo a ser consultado.
+     * @return A movimentação mais recente, ou null se não houver registros.
+     */
+    Movimentacao findTopByVeiculoOrderByDataHoraDescUuidDesc(Veiculo veiculo);
+
+    /**
+     * Lista as movimentações que ainda não foram enviadas ao servidor central (modo edge),
+     * na ordem em que foram registradas, já com veículo, motorista e porteiro carregados.
+     *
+     * @param pageable Limita o tamanho do lote.
+     * @return Movimentações pendentes.
+     */
+    @Query("SELECT m FROM Movimentacao m JOIN FETCH m.veiculo " +
+           "LEFT JOIN FETCH m.motoristaCadastro LEFT JOIN FETCH m.porteiroCadastro " +
+           "WHERE m.sincronizadaEm IS NULL AND m.uuid IS NOT NULL ORDER BY m.id")
+    List<Movimentacao> findPendentesSincronizacao(Pageable pageable);
+
+    /**
+     * Marca as movimentações como sincronizadas, desde que não tenham sido editadas depois do envio.
+     *
+     * @param uuids   Identificadores globais confirmados pelo servidor central.
+     * @param revisao Revisão enviada (0 = nunca editada); linhas com outra revisão continuam pendentes.
+     * @param agora   Momento da confirmação.
+     * @return Quantidade de linhas atualizadas.
+     */
+    @Modifying
+    @Query("UPDATE Movimentacao m SET m.sincronizadaEm = :agora " +
+           "WHERE m.uuid IN :uuids AND COALESCE(m.revisao, 0) = :revisao AND m.sincronizadaEm IS NULL")
+    int marcarSincronizadas(@Param("uuids") Collection<String> uuids, @Param("revisao") int revisao, @Param("agora") Date agora);
+
+    /**
+     * @return Quantidade de movimentações aguardando envio ao servidor central.
+     */
+    long countBySincronizadaEmIsNull();
+
+    /**
+     * @param veiculo Veículo consultado.
+     * @return true se o veículo tem movimentações locais ainda não enviadas ao servidor central.
+     */
+    boolean existsByVeiculoAndSincronizadaEmIsNull(Veiculo veiculo);
 }
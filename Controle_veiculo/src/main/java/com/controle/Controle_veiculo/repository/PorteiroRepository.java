@@ -0,0 +1,22 @@
+package com.controle.Controle_veiculo.repository;
+
+import com.controle.Controle_veiculo.model.Porteiro;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repositório para a entidade Porteiro (dicionário de nomes de porteiros).
+ */
+@Repository
+public interface PorteiroRepository extends JpaRepository<Porteiro, Long> {
+
+    /**
+     * Busca um porteiro pelo nome exato.
+     *
+     * @param nome O nome do porteiro.
+     * @return um {@link Optional<Porteiro>} contendo o porteiro se encontrado.
+     */
+    Optional<Porteiro> findByNome(String nome);
+}
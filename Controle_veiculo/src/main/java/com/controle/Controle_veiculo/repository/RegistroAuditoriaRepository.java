@@ -0,0 +1,28 @@
+package com.controle.Controle_veiculo.repository;
+
+import com.controle.Controle_veiculo.model.RegistroAuditoria;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositório de leitura da trilha de auditoria.
+ *
+ * As inclusões do modo assíncrono são feitas em lote pelo {@code AuditoriaService} via JDBC.
+ */
+@Repository
+public interface RegistroAuditoriaRepository extends JpaRepository<RegistroAuditoria, Long> {
+
+    /**
+     * Histórico de edições de um registro, das mais recentes para as mais antigas
+     * (atendido pelo índice "idx_auditoria_entidade").
+     *
+     * @param entidade Tipo do registro (ex: "Movimentacao").
+     * @param entidadeId ID do registro.
+     * @param pageable Configurações de paginação.
+     * @return Página de registros de auditoria.
+     */
+    Page<RegistroAuditoria> findByEntidadeAndEntidadeIdOrderByDataHoraDescIdDesc(String entidade, Long entidadeId, Pageable pageable);
+}
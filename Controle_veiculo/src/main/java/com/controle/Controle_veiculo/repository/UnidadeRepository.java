@@ -0,0 +1,22 @@
+package com.controle.Controle_veiculo.repository;
+
+import com.controle.Controle_veiculo.model.Unidade;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repositório para a entidade Unidade (pátios da empresa).
+ */
+@Repository
+public interface UnidadeRepository extends JpaRepository<Unidade, Long> {
+
+    /**
+     * Busca uma unidade pelo código.
+     *
+     * @param codigo O código da unidade.
+     * @return um {@link Optional<Unidade>} contendo a unidade se encontrada.
+     */
+    Optional<Unidade> findByCodigo(String codigo);
+}
@@ -0,0 +1,23 @@
+package com.controle.Controle_veiculo.repository;
+
+import com.controle.Controle_veiculo.model.Usuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repositório para a entidade Usuario.
+ * Consultado apenas no login; as requisições autenticadas usam os dados do token JWT.
+ */
+@Repository
+public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+
+    /**
+     * Busca um usuário pelo nome de login.
+     *
+     * @param username O nome de login.
+     * @return um {@link Optional<Usuario>} contendo o usuário se encontrado.
+     */
+    Optional<Usuario> findByUsername(String username);
+}
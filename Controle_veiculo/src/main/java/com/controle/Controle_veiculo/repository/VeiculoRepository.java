@@ -1,9 +1,12 @@
 package com.controle.Controle_veiculo.repository;
 
+import com.controle.Controle_veiculo.model.StatusVeiculo;
 import com.controle.Controle_veiculo.model.Veiculo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,22 +27,56 @@ public interface VeiculoRepository extends JpaRepository<Veiculo, Long> {
      */
     Optional<Veiculo> findByPlaca(String placa);
 
-    List<Veiculo> findByStatusOrderByUltimaMovimentacaoDesc(String status);
+    /**
+     * Lista os veículos de uma unidade com um status, da última movimentação mais recente para a mais antiga.
+     * Usa o índice (unidade_id, situacao, ultima_movimentacao), sem ler veículos de outras unidades.
+     *
+     * @param unidadeId ID da unidade.
+     * @param status    O status dos veículos (ex: PRESENTE, AUSENTE).
+     * @return uma {@link List<Veiculo>} com os veículos encontrados.
+     */
+    List<Veiculo> findByUnidadeIdAndStatusOrderByUltimaMovimentacaoDesc(Long unidadeId, StatusVeiculo status);
 
+    /**
+     * Conta o número de veículos de uma unidade com um status específico.
+     *
+     * @param unidadeId ID da unidade.
+     * @param status    O status a ser contado (ex: PRESENTE, AUSENTE).
+     * @return O número total de veículos da unidade com o status fornecido.
+     */
+    long countByUnidadeIdAndStatus(Long unidadeId, StatusVeiculo status);
 
     /**
-     * Conta o número de veículos com um status específico.
+     * Conta os veículos cadastrados em uma unidade.
      *
-     * @param status O status a ser contado (ex: "Presente", "Ausente").
-     * @return O número total de veículos com o status fornecido.
+     * @param unidadeId ID da unidade.
+     * @return O número de veículos da unidade.
      */
-    long countByStatus(String status);
+    long countByUnidadeId(Long unidadeId);
 
     /**
      * Retorna uma lista de todos os veículos que correspondem a um status específico.
      *
-     * @param status O status dos veículos a serem buscados (ex: "Presente", "Ausente").
+     * @param status O status dos veículos a serem buscados (ex: PRESENTE, AUSENTE).
      * @return uma {@link List<Veiculo>} contendo os veículos encontrados.
      */
-    List<Veiculo> findByStatus(String status);
-}
\ No newline at end of file
+    List<Veiculo> findByStatus(StatusVeiculo status);
+
+    /**
+     * Retorna apenas os IDs de todos os veículos, sem carregar as entidades.
+     *
+     * @return uma {@link List<Long>} com os IDs dos veículos.
+     */
+    @Query("SELECT v.id FROM Veiculo v")
+    List<Long> findAllIds();
+
+    /**
+     * Lista os veículos de uma unidade alterados a partir de um instante, do mais antigo para o mais recente.
+     * Usado pelas portarias em modo edge para baixar apenas as alterações.
+     *
+     * @param unidadeId ID da unidade da portaria.
+     * @param desde     Instante da última alteração já recebida.
+     * @return uma {@link List<Veiculo>} com os veículos alterados.
+     */
+    List<Veiculo> findByUnidadeIdAndAtualizadoEmGreaterThanEqualOrderByAtualizadoEmAsc(Long unidadeId, Date desde);
+}
@@ -0,0 +1,74 @@
+package com.controle.Controle_veiculo.repository;
+
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.model.Viagem;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositório responsável por acessar as viagens materializadas (pares saída → entrada).
+ *
+ * As consultas abaixo são atendidas pelos índices declarados na entidade {@link Viagem}.
+ */
+@Repository
+public interface ViagemRepository extends JpaRepository<Viagem, Long> {
+
+    /**
+     * Lista as viagens ainda abertas (veículos fora da empresa), das mais antigas para as mais recentes.
+     *
+     * @return Viagens sem entrada registrada.
+     */
+    List<Viagem> findByDataEntradaIsNullOrderByDataSaidaAsc();
+
+    /**
+     * Lista as viagens concluídas ordenadas pela duração (mais longas primeiro).
+     *
+     * @param pageable Pageable para limitar a quantidade de resultados.
+     * @return Viagens mais longas.
+     */
+    List<Viagem> findByDuracaoSegundosIsNotNullOrderByDuracaoSegundosDesc(Pageable pageable);
+
+    /**
+     * Busca as viagens de um motorista, das mais recentes para as mais antigas.
+     *
+     * @param motorista Nome do motorista.
+     * @param pageable Configurações de paginação.
+     * @return Página de viagens do motorista.
+     */
+    Page<Viagem> findByMotoristaOrderByDataSaidaDesc(String motorista, Pageable pageable);
+
+    /**
+     * Lista as viagens de um veículo, das mais recentes para as mais antigas.
+     *
+     * @param veiculoId ID do veículo.
+     * @param pageable Configurações de paginação.
+     * @return Página de viagens do veículo.
+     */
+    Page<Viagem> findByVeiculoIdOrderByDataSaidaDesc(Long veiculoId, Pageable pageable);
+
+    /**
+     * Retorna a viagem mais recente (aberta ou fechada) de um veículo.
+     *
+     * @param veiculo Veículo a ser consultado.
+     * @return A viagem mais recente, ou null se não houver registros.
+     */
+    Viagem findTopByVeiculoOrderByDataSaidaDescIdDesc(Veiculo veiculo);
+
+    /**
+     * Remove todas as viagens de um veículo (usado antes de refazer o pareamento).
+     *
+     * @param veiculo Veículo cujas viagens serão removidas.
+     * @return Quantidade de viagens removidas.
+     */
+    @Modifying
+    @Query("DELETE FROM Viagem v WHERE v.veiculo = :veiculo")
+    int deleteByVeiculo(@Param("veiculo") Veiculo veiculo);
+}
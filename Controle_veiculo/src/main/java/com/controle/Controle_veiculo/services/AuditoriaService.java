@@ -0,0 +1,269 @@
+package com.controle.Controle_veiculo.services;
+
+import com.controle.Controle_veiculo.model.RegistroAuditoria;
+import com.controle.Controle_veiculo.repository.RegistroAuditoriaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trilha de auditoria (somente inclusão) das edições de registros.
+ *
+ * Modos ({@code auditoria.modo}):
+ * - "assincrono" (padrão): depois do commit da edição, o registro entra numa fila em memória
+ *   limitada ({@code auditoria.fila.capacidade}) e uma thread em segundo plano grava os registros
+ *   acumulados em lote, com um único commit por lote (group commit). A edição não espera pela
+ *   gravação da auditoria. Se a fila estiver cheia, o registro é gravado na hora (nada é descartado).
+ *   Registros ainda na fila são perdidos apenas se o processo morrer sem o desligamento normal.
+ * - "sincrono": o registro é gravado na mesma transação da edição (durável e atômico, ao custo de
+ *   mais um INSERT por edição).
+ */
+@Service
+public class AuditoriaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditoriaService.class);
+
+    private static final String INSERT =
+            "INSERT INTO auditoria (entidade, entidade_id, usuario, data_hora, alteracoes) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private RegistroAuditoriaRepository registroAuditoriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${auditoria.modo:assincrono}")
+    private String modo;
+
+    @Value("${auditoria.fila.capacidade:10000}")
+    private int capacidade;
+
+    @Value("${auditoria.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    private BlockingQueue<RegistroAuditoria> fila;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Thread gravador;
+
+    private volatile boolean parando;
+
+    // Registros aceitos e ainda não gravados (na fila ou no lote em gravação)
+    private final AtomicLong pendentes = new AtomicLong();
+
+    @PostConstruct
+    public void inicializar() {
+        // Transação própria: com a fila cheia, o lote é gravado de dentro do afterCommit da edição, quando a
+        // transação dela já foi confirmada e não aceita mais escritas
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (!isSincrono()) {
+            this.fila = new ArrayBlockingQueue<>(capacidade);
+            this.gravador = new Thread(this::gravarContinuamente, "auditoria-gravador");
+            this.gravador.setDaemon(true);
+            this.gravador.start();
+        }
+    }
+
+    /**
+     * No desligamento, grava o que ainda estiver na fila antes de encerrar.
+     */
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        parando = true;
+        if (gravador != null) {
+            gravador.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * Registra a edição de um registro, guardando apenas os campos que mudaram.
+     *
+     * @param entidade Tipo do registro (ex: "Movimentacao").
+     * @param entidadeId ID do registro.
+     * @param antes Valores dos campos antes da edição.
+     * @param depois Valores dos campos depois da edição.
+     */
+    public void registrarAlteracao(String entidade, Long entidadeId, Map<String, Object> antes, Map<String, Object> depois) {
+        Map<String, Map<String, Object>> alteracoes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> campo : depois.entrySet()) {
+            Object anterior = normalizar(antes.get(campo.getKey()));
+            Object novo = normalizar(campo.getValue());
+            if (!Objects.equals(anterior, novo)) {
+                Map<String, Object> diferenca = new LinkedHashMap<>();
+                diferenca.put("antes", anterior);
+                diferenca.put("depois", novo);
+                alteracoes.put(campo.getKey(), diferenca);
+            }
+        }
+        if (alteracoes.isEmpty()) {
+            return;
+        }
+
+        RegistroAuditoria registro;
+        try {
+            registro = new RegistroAuditoria(entidade, entidadeId, usuarioAtual(), new Date(), objectMapper.writeValueAsString(alteracoes));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Não foi possível serializar a auditoria de " + entidade + " " + entidadeId, e);
+        }
+
+        if (isSincrono()) {
+            registroAuditoriaRepository.save(registro);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Só audita o que foi de fato confirmado
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enfileirar(registro);
+                }
+            });
+        } else {
+            enfileirar(registro);
+        }
+    }
+
+    /**
+     * Histórico de edições de um registro, das mais recentes para as mais antigas.
+     *
+     * @param entidade Tipo do registro (ex: "Movimentacao").
+     * @param entidadeId ID do registro.
+     * @param page Número da página (base 0).
+     * @param size Registros por página.
+     * @return Página com os registros de auditoria.
+     */
+    public Page<RegistroAuditoria> historico(String entidade, Long entidadeId, int page, int size) {
+        return registroAuditoriaRepository.findByEntidadeAndEntidadeIdOrderByDataHoraDescIdDesc(entidade, entidadeId, PageRequest.of(page, size));
+    }
+
+    /**
+     * Aguarda a gravação dos registros já aceitos (ex: para ler o histórico logo após uma edição).
+     *
+     * @param timeoutMs Tempo máximo de espera.
+     * @return true se não restar nada pendente.
+     */
+    public boolean aguardarGravacao(long timeoutMs) throws InterruptedException {
+        long limite = System.currentTimeMillis() + timeoutMs;
+        while (pendentes.get() > 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(5);
+        }
+        return pendentes.get() == 0;
+    }
+
+    private void enfileirar(RegistroAuditoria registro) {
+        pendentes.incrementAndGet();
+        if (!fila.offer(registro)) {
+            // Fila cheia: grava na hora, em vez de descartar o registro
+            try {
+                gravarLote(List.of(registro));
+            } finally {
+                pendentes.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Laço da thread gravadora: espera o primeiro registro e grava junto tudo o que já estiver na fila.
+     */
+    private void gravarContinuamente() {
+        List<RegistroAuditoria> lote = new ArrayList<>(tamanhoLote);
+        while (!parando || !fila.isEmpty() || !lote.isEmpty()) {
+            try {
+                if (lote.isEmpty()) {
+                    RegistroAuditoria primeiro = fila.poll(200, TimeUnit.MILLISECONDS);
+                    if (primeiro == null) {
+                        continue;
+                    }
+                    lote.add(primeiro);
+                    fila.drainTo(lote, tamanhoLote - 1);
+                }
+                gravarLote(lote);
+                pendentes.addAndGet(-lote.size());
+                lote.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Mantém o lote e tenta de novo (o banco pode estar temporariamente fora)
+                logger.warn("Falha ao gravar {} registros de auditoria: {}", lote.size(), e.getMessage());
+                if (parando) {
+                    logger.error("{} registros de auditoria não gravados no desligamento.", lote.size() + fila.size());
+                    return;
+                }
+                esperar(1000);
+            }
+        }
+    }
+
+    private void gravarLote(List<RegistroAuditoria> lote) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, lote, lote.size(), (ps, registro) -> {
+            ps.setString(1, registro.getEntidade());
+            ps.setLong(2, registro.getEntidadeId());
+            ps.setString(3, registro.getUsuario());
+            ps.setTimestamp(4, new Timestamp(registro.getDataHora().getTime()));
+            ps.setString(5, registro.getAlteracoes());
+        }));
+    }
+
+    private static Object normalizar(Object valor) {
+        // Datas lidas do banco chegam como java.sql.Timestamp; as do JSON, como java.util.Date
+        return valor instanceof Date data ? data.toInstant() : valor;
+    }
+
+    private static String usuarioAtual() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao == null || autenticacao instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return autenticacao.getName();
+    }
+
+    private boolean isSincrono() {
+        return "sincrono".equalsIgnoreCase(modo);
+    }
+
+    private static void esperar(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.controle.Controle_veiculo.services;
+
+import com.controle.Controle_veiculo.dto.ConsultaFrota;
+import com.controle.Controle_veiculo.dto.PaginaFrota;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.services.compartimento.ClasseCarga;
+import com.controle.Controle_veiculo.services.compartimento.Compartimento;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Listagem da frota com filtros (status, marca, modelo, cor), ordenação no banco e seleção de campos.
+ *
+ * Dois modos, ambos sem carregar entidades JPA:
+ * - Paginado ({@link #pagina}): paginação por chave ("keyset"). A página seguinte começa depois do
+ *   último veículo da anterior ({@code WHERE (chave, id) > (?, ?)}), então o custo não cresce com a
+ *   posição na lista, como acontece com OFFSET, e inclusões/exclusões não fazem itens pularem páginas.
+ * - Transmissão ({@link #transmitir}): sem paginação, as linhas são lidas do cursor do banco (fetch
+ *   size) e escritas uma a uma no {@link JsonGenerator}; a memória usada não depende do tamanho da frota.
+ *
+ * Cada veículo sai com os mesmos nomes e formatos do JSON da entidade {@code Veiculo}.
+ */
+@Service
+public class ConsultaFrotaService {
+
+    // Substitui os valores nulos na ordenação por chave (nulos ficam antes de qualquer valor)
+    private static final String TEXTO_NULO = "";
+    private static final String DATA_NULA = "1900-01-01 00:00:00";
+
+    /**
+     * Campos do JSON do veículo, com a coluna correspondente.
+     */
+    private enum Campo {
+        id("id"), placa("placa"), modelo("modelo"), marca("marca"), cor("cor"), status("situacao"),
+        ultimaMovimentacao("ultima_movimentacao"), atualizadoEm("atualizado_em");
+
+        final String coluna;
+
+        Campo(String coluna) {
+            this.coluna = coluna;
+        }
+
+        boolean data() {
+            return this == ultimaMovimentacao || this == atualizadoEm;
+        }
+
+        Object ler(ResultSet rs) throws SQLException {
+            return switch (this) {
+                case id -> rs.getLong(coluna);
+                case status -> StatusVeiculo.de(rs.getString(coluna));
+                case ultimaMovimentacao, atualizadoEm -> {
+                    Timestamp valor = rs.getTimestamp(coluna);
+                    yield valor != null ? new Date(valor.getTime()) : null;
+                }
+                default -> rs.getString(coluna);
+            };
+        }
+
+        static Campo de(String nome) {
+            for (Campo campo : values()) {
+                if (campo.name().equalsIgnoreCase(nome.trim())) {
+                    return campo;
+                }
+            }
+            throw new RuntimeException("Campo desconhecido: " + nome);
+        }
+    }
+
+    /**
+     * Consulta pronta para execução: SQL, parâmetros e campos que vão para a resposta.
+     */
+    private record Plano(String sql, List<Object> parametros, List<Campo> campos, Campo ordem, boolean crescente) {
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${frota.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${frota.pagina.tamanho-maximo:500}")
+    private int tamanhoMaximo;
+
+    // Consultas com fetch size, para ler as linhas aos poucos
+    private JdbcTemplate leitura;
+
+    // Mesmo formato do ObjectMapper da aplicação, mas sem flush a cada valor escrito: o corpo sai
+    // em blocos do buffer do gerador, e não um envio ao cliente por campo
+    private ObjectMapper transmissao;
+
+    @PostConstruct
+    public void inicializar() {
+        leitura = new JdbcTemplate(dataSource);
+        leitura.setFetchSize(fetchSize);
+        transmissao = objectMapper.copy().disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Confere os filtros, a ordenação e os campos (para recusar a requisição antes de começar a transmitir).
+     *
+     * @param consulta Parâmetros da listagem.
+     * @throws RuntimeException se algum parâmetro for inválido.
+     */
+    public void validar(ConsultaFrota consulta) {
+        planejar(consulta, null, 0);
+    }
+
+    /**
+     * Busca uma página da frota.
+     *
+     * @param consulta Filtros, ordenação e campos.
+     * @param apos     Cursor devolvido na página anterior (null para a primeira página).
+     * @param tamanho  Quantidade de veículos (até {@code frota.pagina.tamanho-maximo}).
+     * @return Os veículos da página e o cursor da próxima (null na última).
+     * @throws RuntimeException se algum parâmetro ou o cursor for inválido.
+     */
+    @Compartimento(ClasseCarga.INTERATIVA)
+    public PaginaFrota pagina(ConsultaFrota consulta, String apos, int tamanho) {
+        if (tamanho < 1 || tamanho > tamanhoMaximo) {
+            throw new RuntimeException("O tamanho da página deve estar entre 1 e " + tamanhoMaximo + ".");
+        }
+        // Uma linha a mais indica se existe página seguinte
+        Plano plano = planejar(consulta, apos, tamanho + 1);
+        List<Map<String, Object>> itens = new ArrayList<>();
+        Object[] ultimaChave = new Object[2];
+        leitura.query(plano.sql(), rs -> {
+            if (itens.size() == tamanho) {
+                itens.add(null);
+                return;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (Campo campo : plano.campos()) {
+                item.put(campo.name(), campo.ler(rs));
+            }
+            itens.add(item);
+            ultimaChave[0] = plano.ordem().ler(rs);
+            ultimaChave[1] = rs.getLong("id");
+        }, plano.parametros().toArray());
+
+        String proximo = null;
+        if (itens.size() > tamanho) {
+            itens.remove(tamanho);
+            proximo = cursor(plano, ultimaChave[0], (Long) ultimaChave[1]);
+        }
+        return new PaginaFrota(itens, proximo);
+    }
+
+    /**
+     * Escreve a frota inteira (filtrada e ordenada) como um array JSON, lendo do cursor do banco.
+     *
+     * @param consulta Filtros, ordenação e campos.
+     * @param saida    Corpo da resposta.
+     * @throws IOException se a escrita falhar (ex: cliente desconectado).
+     */
+    @Compartimento(ClasseCarga.LOTE)
+    public void transmitir(ConsultaFrota consulta, OutputStream saida) throws IOException {
+        Plano plano = planejar(consulta, null, 0);
+        try (JsonGenerator gerador = transmissao.getFactory().createGenerator(saida)) {
+            gerador.writeStartArray();
+            leitura.query(plano.sql(), rs -> {
+                try {
+                    gerador.writeStartObject();
+                    for (Campo campo : plano.campos()) {
+                        gerador.writeFieldName(campo.name());
+                        gerador.writeObject(campo.ler(rs));
+                    }
+                    gerador.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, plano.parametros().toArray());
+            gerador.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Plano planejar(ConsultaFrota consulta, String apos, int limite) {
+        List<Campo> campos = new ArrayList<>();
+        if (consulta.getCampos() == null || consulta.getCampos().isEmpty()) {
+            campos.addAll(List.of(Campo.values()));
+        } else {
+            for (String nome : consulta.getCampos()) {
+                Campo campo = Campo.de(nome);
+                if (!campos.contains(campo)) {
+                    campos.add(campo);
+                }
+            }
+        }
+        Campo ordem = Campo.de(consulta.getOrdenarPor());
+        boolean crescente = switch (consulta.getDirecao().toLowerCase()) {
+            case "asc" -> true;
+            case "desc" -> false;
+            default -> throw new RuntimeException("Direção inválida: " + consulta.getDirecao() + " (use asc ou desc).");
+        };
+
+        // A unidade lidera o índice (unidade_id, situacao, ultima_movimentacao): só o trecho da unidade é lido
+        StringBuilder sql = new StringBuilder("SELECT id, placa, modelo, marca, cor, situacao, ultima_movimentacao, atualizado_em FROM veiculos WHERE unidade_id = ?");
+        List<Object> parametros = new ArrayList<>();
+        parametros.add(consulta.getUnidadeId() != null ? consulta.getUnidadeId() : UnidadeContexto.obter());
+        StatusVeiculo status = StatusVeiculo.de(consulta.getStatus());
+        if (status != null) {
+            sql.append(" AND situacao = ?");
+            parametros.add(status.getCodigo());
+        }
+        filtrar(sql, parametros, "marca", consulta.getMarca());
+        filtrar(sql, parametros, "modelo", consulta.getModelo());
+        filtrar(sql, parametros, "cor", consulta.getCor());
+
+        String chave = expressaoChave(ordem);
+        String comparacao = crescente ? ">" : "<";
+        if (apos != null && !apos.isBlank()) {
+            Object[] posicao = lerCursor(apos, ordem, crescente);
+            if (ordem == Campo.id) {
+                sql.append(" AND id ").append(comparacao).append(" ?");
+                parametros.add(posicao[1]);
+            } else {
+                sql.append(" AND (").append(chave).append(' ').append(comparacao).append(" ? OR (")
+                        .append(chave).append(" = ? AND id ").append(comparacao).append(" ?))");
+                parametros.add(posicao[0]);
+                parametros.add(posicao[0]);
+                parametros.add(posicao[1]);
+            }
+        }
+
+        String direcao = crescente ? " ASC" : " DESC";
+        sql.append(" ORDER BY ");
+        if (ordem != Campo.id) {
+            sql.append(chave).append(direcao).append(", ");
+        }
+        sql.append("id").append(direcao);
+        if (limite > 0) {
+            sql.append(" LIMIT ").append(limite);
+        }
+        return new Plano(sql.toString(), parametros, campos, ordem, crescente);
+    }
+
+    private static void filtrar(StringBuilder sql, List<Object> parametros, String coluna, String valor) {
+        if (valor != null && !valor.isBlank()) {
+            sql.append(" AND LOWER(").append(coluna).append(") = LOWER(?)");
+            parametros.add(valor.trim());
+        }
+    }
+
+    private static String expressaoChave(Campo ordem) {
+        if (ordem == Campo.id || ordem == Campo.placa) {
+            return ordem.coluna;
+        }
+        return "COALESCE(" + ordem.coluna + ", " + (ordem.data() ? "TIMESTAMP '" + DATA_NULA + "'" : "'" + TEXTO_NULO + "'") + ")";
+    }
+
+    /**
+     * Cursor opaco: ordenação, direção e a chave do último veículo da página.
+     */
+    private static String cursor(Plano plano, Object valor, long id) {
+        String chave;
+        if (plano.ordem().data()) {
+            chave = String.valueOf(valor != null ? ((Date) valor).getTime() : Timestamp.valueOf(DATA_NULA).getTime());
+        } else if (valor instanceof StatusVeiculo status) {
+            chave = status.getCodigo();
+        } else {
+            chave = valor != null ? valor.toString() : TEXTO_NULO;
+        }
+        String conteudo = plano.ordem().name() + "\n" + (plano.crescente() ? "asc" : "desc") + "\n" + id + "\n" + chave;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object[] lerCursor(String cursor, Campo ordem, boolean crescente) {
+        String[] partes;
+        try {
+            partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 4);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Cursor inválido.");
+        }
+        if (partes.length != 4 || !partes[0].equals(ordem.name()) || !partes[1].equals(crescente ? "asc" : "desc")) {
+            throw new RuntimeException("Cursor inválido para esta ordenação.");
+        }
+        try {
+            long id = Long.parseLong(partes[2]);
+            Object valor = ordem.data() ? new Timestamp(Long.parseLong(partes[3])) : partes[3];
+            return new Object[] {valor, id};
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Cursor inválido.");
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.controle.Controle_veiculo.services;
+
+import com.controle.Controle_veiculo.dto.MotoristaSugestao;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Índice imutável em memória para o preenchimento automático de motoristas.
+ *
+ * Os nomes são normalizados (sem acentos, em maiúsculas e com espaços simples), de modo que
+ * "marcio", "Márcio" e "MÁRCIO" encontram o mesmo registro. Cada palavra do nome gera uma
+ * chave, permitindo buscar também pelo sobrenome ("ELIAS" encontra "ROBERTO ELIAS").
+ *
+ * As chaves ficam em um array ordenado e a busca por prefixo é feita com busca binária,
+ * sem acesso ao banco de dados. Para refletir alterações, um novo índice é construído e
+ * substitui o anterior (ver {@link MotoristaService}).
+ */
+public final class IndiceMotoristas {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    // Chaves normalizadas em ordem crescente
+    private final String[] chaves;
+
+    // Motorista correspondente a cada chave (mesma posição do array de chaves)
+    private final MotoristaSugestao[] alvos;
+
+    // Indica se a chave é o nome completo (true) ou começa em uma palavra intermediária (false)
+    private final boolean[] nomeCompleto;
+
+    // Índice por nome completo normalizado, para resolver nomes digitados livremente
+    private final Map<String, MotoristaSugestao> porNome;
+
+    // Nomes de exibição em ordem alfabética
+    private final List<String> nomes;
+
+    /**
+     * Constrói o índice a partir dos motoristas informados.
+     *
+     * @param motoristas Motoristas a indexar.
+     */
+    public IndiceMotoristas(List<MotoristaSugestao> motoristas) {
+        List<Entrada> entradas = new ArrayList<>();
+        Map<String, MotoristaSugestao> mapa = new HashMap<>();
+
+        for (MotoristaSugestao motorista : motoristas) {
+            String normalizado = normalizar(motorista.getNome());
+            if (normalizado.isEmpty()) {
+                continue;
+            }
+            mapa.put(normalizado, motorista);
+
+            // Uma chave por palavra: "ROBERTO ELIAS" e "ELIAS"
+            entradas.add(new Entrada(normalizado, motorista, true));
+            for (int i = normalizado.indexOf(' '); i >= 0; i = normalizado.indexOf(' ', i + 1)) {
+                entradas.add(new Entrada(normalizado.substring(i + 1), motorista, false));
+            }
+        }
+
+        entradas.sort(Comparator.comparing(Entrada::chave));
+        this.chaves = new String[entradas.size()];
+        this.alvos = new MotoristaSugestao[entradas.size()];
+        this.nomeCompleto = new boolean[entradas.size()];
+        for (int i = 0; i < entradas.size(); i++) {
+            chaves[i] = entradas.get(i).chave();
+            alvos[i] = entradas.get(i).alvo();
+            nomeCompleto[i] = entradas.get(i).nomeCompleto();
+        }
+
+        this.porNome = mapa;
+        this.nomes = mapa.values().stream()
+                .map(MotoristaSugestao::getNome)
+                .sorted(Comparator.comparing(IndiceMotoristas::normalizar))
+                .toList();
+    }
+
+    /**
+     * Normaliza um nome para comparação: remove acentos, converte para maiúsculas
+     * e reduz espaços repetidos.
+     *
+     * @param texto Texto original (pode ser nulo).
+     * @return Texto normalizado, ou vazio se nulo.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.trim()).replaceAll(" ").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Busca motoristas cujo nome (ou alguma palavra do nome) começa com o prefixo informado.
+     * Nomes que começam com o prefixo aparecem antes dos que só casam pelo sobrenome.
+     *
+     * @param prefixo Texto digitado pelo usuário.
+     * @param limite  Quantidade máxima de sugestões.
+     * @return Sugestões encontradas, sem repetição.
+     */
+    public List<MotoristaSugestao> buscar(String prefixo, int limite) {
+        String chave = normalizar(prefixo);
+        if (chave.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        Map<Long, MotoristaSugestao> inicioDoNome = new LinkedHashMap<>();
+        Map<Long, MotoristaSugestao> outrasPalavras = new LinkedHashMap<>();
+
+        for (int i = limiteInferior(chave); i < chaves.length && chaves[i].startsWith(chave); i++) {
+            MotoristaSugestao alvo = alvos[i];
+            if (nomeCompleto[i]) {
+                inicioDoNome.putIfAbsent(alvo.getId(), alvo);
+            } else {
+                outrasPalavras.putIfAbsent(alvo.getId(), alvo);
+            }
+        }
+
+        List<MotoristaSugestao> resultado = new ArrayList<>(inicioDoNome.values());
+        for (MotoristaSugestao alvo : outrasPalavras.values()) {
+            if (!inicioDoNome.containsKey(alvo.getId())) {
+                resultado.add(alvo);
+            }
+        }
+        return resultado.size() > limite ? resultado.subList(0, limite) : resultado;
+    }
+
+    /**
+     * Resolve um nome digitado livremente para o motorista cadastrado, ignorando acentos e caixa.
+     *
+     * @param nome Nome informado.
+     * @return O motorista correspondente, se existir.
+     */
+    public Optional<MotoristaSugestao> buscarExato(String nome) {
+        return Optional.ofNullable(porNome.get(normalizar(nome)));
+    }
+
+    /**
+     * @return Nomes de exibição de todos os motoristas indexados, em ordem alfabética.
+     */
+    public List<String> getNomes() {
+        return nomes;
+    }
+
+    private record Entrada(String chave, MotoristaSugestao alvo, boolean nomeCompleto) {
+    }
+
+    /**
+     * Primeira posição cuja chave é maior ou igual ao prefixo.
+     */
+    private int limiteInferior(String chave) {
+        int posicao = Arrays.binarySearch(chaves, chave);
+        if (posicao < 0) {
+            return -posicao - 1;
+        }
+        // Chaves iguais podem se repetir (homônimos): volta até a primeira ocorrência
+        while (posicao > 0 && chaves[posicao - 1].equals(chave)) {
+            posicao--;
+        }
+        return posicao;
+    }
+}
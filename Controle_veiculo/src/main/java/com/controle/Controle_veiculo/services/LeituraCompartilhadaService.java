@@ -0,0 +1,230 @@
+package com.controle.Controle_veiculo.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Compartilhamento ("single-flight") das consultas de leitura mais frequentes.
+ *
+ * Na troca de turno, dezenas de telas atualizam ao mesmo tempo e pedem as mesmas contagens. Chamadas
+ * simultâneas com a mesma chave (método + argumentos) esperam uma única execução no banco e recebem o
+ * mesmo resultado. Depois de concluído, o resultado ainda é reaproveitado por
+ * {@code leituras.compartilhadas.ttl-ms} (0 = apenas enquanto a consulta está em andamento).
+ *
+ * Qualquer escrita chama {@link #invalidar()}: depois do COMMIT, muda a geração e as chamadas seguintes
+ * voltam ao banco, sem esperar o TTL e sem aproveitar execuções iniciadas antes da escrita.
+ *
+ * As contagens de uma unidade (pátio) são obtidas com {@link #obter(Long, String, Supplier)} e têm geração
+ * própria: {@link #invalidar(Long)} descarta só as leituras da unidade alterada (e as que não são de
+ * nenhuma unidade, como a última quilometragem de um veículo), sem afetar as demais unidades.
+ *
+ * Só para resultados imutáveis (contagens, números, textos): o mesmo objeto vai para todas as chamadas.
+ */
+@Service
+public class LeituraCompartilhadaService {
+
+    @Value("${leituras.compartilhadas.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${leituras.compartilhadas.ttl-ms:500}")
+    private long ttlMs;
+
+    // Escopo das leituras que não pertencem a uma unidade
+    private static final long SEM_UNIDADE = 0L;
+
+    private final AtomicLong geracao = new AtomicLong();
+
+    private final Map<Long, AtomicLong> geracoesPorUnidade = new ConcurrentHashMap<>();
+
+    private final Map<String, Execucao> execucoes = new ConcurrentHashMap<>();
+
+    // Métricas
+    private final AtomicLong chamadas = new AtomicLong();
+    private final AtomicLong consultas = new AtomicLong();
+    private final AtomicLong compartilhadas = new AtomicLong();
+    private final AtomicLong reaproveitadas = new AtomicLong();
+    private final AtomicLong invalidacoes = new AtomicLong();
+
+    /**
+     * Uma execução da consulta, com o resultado compartilhado entre as chamadas.
+     */
+    private static class Execucao {
+        final long geracao;
+        final long escopo;
+        final long geracaoEscopo;
+        final CompletableFuture<Object> resultado = new CompletableFuture<>();
+        volatile long concluidaEm;
+
+        Execucao(long geracao, long escopo, long geracaoEscopo) {
+            this.geracao = geracao;
+            this.escopo = escopo;
+            this.geracaoEscopo = geracaoEscopo;
+        }
+    }
+
+    /**
+     * Executa a consulta ou se junta a uma execução igual (mesma chave) em andamento ou recente.
+     *
+     * @param chave    Método e argumentos (ex: "movimentacoes.entradasHoje:2024-05-01").
+     * @param consulta Consulta ao banco, executada no máximo uma vez por chave ao mesmo tempo.
+     * @return Resultado da consulta.
+     */
+    public <T> T obter(String chave, Supplier<T> consulta) {
+        return obter(null, chave, consulta);
+    }
+
+    /**
+     * Executa a consulta de uma unidade ou se junta a uma execução igual em andamento ou recente.
+     *
+     * @param unidade  ID da unidade consultada (null = leitura que não pertence a uma unidade).
+     * @param chave    Método e argumentos (ex: "movimentacoes.entradasHoje:2024-05-01").
+     * @param consulta Consulta ao banco, executada no máximo uma vez por unidade e chave ao mesmo tempo.
+     * @return Resultado da consulta.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obter(Long unidade, String chave, Supplier<T> consulta) {
+        chamadas.incrementAndGet();
+        if (!habilitado) {
+            consultas.incrementAndGet();
+            return consulta.get();
+        }
+        long escopo = unidade != null ? unidade : SEM_UNIDADE;
+        String chaveEscopo = escopo + "|" + chave;
+        while (true) {
+            long atual = geracao.get();
+            long atualEscopo = geracaoDe(escopo).get();
+            Execucao nova = new Execucao(atual, escopo, atualEscopo);
+            Execucao existente = execucoes.putIfAbsent(chaveEscopo, nova);
+            if (existente == null) {
+                return (T) executar(chaveEscopo, nova, consulta);
+            }
+            if (invalida(existente) || expirada(existente)) {
+                execucoes.remove(chaveEscopo, existente);
+                continue;
+            }
+            (existente.resultado.isDone() ? reaproveitadas : compartilhadas).incrementAndGet();
+            try {
+                return (T) existente.resultado.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException erro ? erro : e;
+            }
+        }
+    }
+
+    /**
+     * Descarta os resultados compartilhados depois do COMMIT da transação atual (ou na hora, fora de transação).
+     */
+    public void invalidar() {
+        depoisDoCommit(this::novaGeracao);
+    }
+
+    /**
+     * Descarta, depois do COMMIT, os resultados da unidade alterada e os que não pertencem a uma unidade.
+     *
+     * @param unidade ID da unidade alterada (null = todas).
+     */
+    public void invalidar(Long unidade) {
+        if (unidade == null) {
+            invalidar();
+            return;
+        }
+        depoisDoCommit(() -> novaGeracao(unidade));
+    }
+
+    /**
+     * Métricas: chamadas, consultas executadas no banco, chamadas que esperaram uma execução em
+     * andamento ou reaproveitaram uma recente, e a taxa de compartilhamento (1 - consultas/chamadas).
+     *
+     * @return Mapa com as métricas.
+     */
+    public Map<String, Object> estado() {
+        long totalChamadas = chamadas.get();
+        long totalConsultas = consultas.get();
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("habilitado", habilitado);
+        estado.put("ttlMs", ttlMs);
+        estado.put("chamadas", totalChamadas);
+        estado.put("consultas", totalConsultas);
+        estado.put("compartilhadas", compartilhadas.get());
+        estado.put("reaproveitadas", reaproveitadas.get());
+        estado.put("taxaCompartilhamento", totalChamadas == 0 ? 0.0 : 1.0 - (double) totalConsultas / totalChamadas);
+        estado.put("invalidacoes", invalidacoes.get());
+        estado.put("chavesEmMemoria", execucoes.size());
+        return estado;
+    }
+
+    /**
+     * Remove os resultados expirados (chaves com argumentos que não se repetem, como um ID de veículo).
+     */
+    @Scheduled(fixedDelayString = "${leituras.compartilhadas.limpeza-ms:60000}")
+    public void limpar() {
+        execucoes.values().removeIf(execucao -> invalida(execucao) || expirada(execucao));
+    }
+
+    private Object executar(String chave, Execucao execucao, Supplier<?> consulta) {
+        consultas.incrementAndGet();
+        try {
+            Object valor = consulta.get();
+            execucao.concluidaEm = System.currentTimeMillis();
+            execucao.resultado.complete(valor);
+            if (ttlMs <= 0) {
+                execucoes.remove(chave, execucao);
+            }
+            return valor;
+        } catch (RuntimeException e) {
+            // Falhas não são reaproveitadas: quem estava esperando recebe o erro e a próxima chamada tenta de novo
+            execucoes.remove(chave, execucao);
+            execucao.resultado.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private boolean expirada(Execucao execucao) {
+        return execucao.resultado.isDone() && System.currentTimeMillis() - execucao.concluidaEm >= ttlMs;
+    }
+
+    private boolean invalida(Execucao execucao) {
+        return execucao.geracao != geracao.get() || execucao.geracaoEscopo != geracaoDe(execucao.escopo).get();
+    }
+
+    private AtomicLong geracaoDe(long escopo) {
+        return geracoesPorUnidade.computeIfAbsent(escopo, e -> new AtomicLong());
+    }
+
+    private void depoisDoCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    private void novaGeracao() {
+        geracao.incrementAndGet();
+        invalidacoes.incrementAndGet();
+        execucoes.clear();
+    }
+
+    private void novaGeracao(long unidade) {
+        geracaoDe(unidade).incrementAndGet();
+        geracaoDe(SEM_UNIDADE).incrementAndGet();
+        invalidacoes.incrementAndGet();
+        execucoes.values().removeIf(execucao -> execucao.escopo == unidade || execucao.escopo == SEM_UNIDADE);
+    }
+}
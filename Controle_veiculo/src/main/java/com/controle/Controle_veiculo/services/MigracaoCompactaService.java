@@ -0,0 +1,137 @@
+package com.controle.Controle_veiculo.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migração dos dados antigos para a representação compacta das tabelas.
+ *
+ * Versões anteriores gravavam o tipo da movimentação, o motorista e o porteiro como VARCHAR(255)
+ * e o status do veículo como "Presente"/"Ausente". O Hibernate ({@code ddl-auto=update}) cria as
+ * novas colunas ("tipo", "motorista_id", "porteiro_id" e "situacao"); esta classe preenche essas
+ * colunas a partir das antigas.
+ *
+ * As colunas novas não têm valor padrão no banco: ao serem criadas ficam nulas nas linhas existentes,
+ * e é isso que marca uma linha como ainda não convertida (a versão atual sempre as preenche).
+ *
+ * A migração é feita em lotes por faixa de ID, cada lote em sua própria instrução (autocommit),
+ * para não manter bloqueios longos na tabela de movimentações. Ela é idempotente: só toca linhas
+ * cujas colunas novas ainda estão nulas, e cada etapa é ignorada se a coluna antiga não existir.
+ * As colunas antigas não são mais gravadas (ficam com os valores da última versão que as usava), por
+ * isso não servem para voltar à versão anterior; podem ser removidas manualmente depois da migração.
+ */
+@Service
+public class MigracaoCompactaService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigracaoCompactaService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${migracao.compacta.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${migracao.compacta.tamanho-lote:5000}")
+    private int tamanhoLote;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!habilitada) {
+            return;
+        }
+
+        if (existeColuna("veiculos", "status")) {
+            int linhas = jdbcTemplate.update(
+                    "UPDATE veiculos SET situacao = CASE WHEN LOWER(TRIM(status)) = 'ausente' THEN 'A' ELSE 'P' END " +
+                    "WHERE situacao IS NULL AND status IS NOT NULL");
+            logger.info("Migração compacta: {} veículos com status convertido.", linhas);
+            // A coluna antiga não é mais gravada: sem isto, o padrão 'Presente' preencheria os veículos novos
+            // (ainda sem status) e a próxima execução os converteria para 'P'
+            jdbcTemplate.execute("ALTER TABLE veiculos ALTER COLUMN status DROP DEFAULT");
+        }
+
+        if (existeColuna("movimentacoes", "tipo_movimento")) {
+            migrarEmLotes("tipo",
+                    "UPDATE movimentacoes SET tipo = CASE WHEN LOWER(TRIM(tipo_movimento)) = 'entrada' THEN 'E' ELSE 'S' END " +
+                    "WHERE tipo IS NULL AND tipo_movimento IS NOT NULL AND id BETWEEN ? AND ?");
+        }
+
+        if (existeColuna("movimentacoes", "motorista")) {
+            // Nomes que não estão no cadastro entram no dicionário como inativos
+            jdbcTemplate.update(
+                    "INSERT INTO motoristas (nome, ativo) SELECT DISTINCT TRIM(m.motorista), FALSE FROM movimentacoes m " +
+                    "WHERE m.motorista IS NOT NULL AND TRIM(m.motorista) <> '' " +
+                    "AND NOT EXISTS (SELECT 1 FROM motoristas d WHERE d.nome = TRIM(m.motorista))");
+            migrarEmLotes("motorista_id",
+                    "UPDATE movimentacoes SET motorista_id = " +
+                    "(SELECT d.id FROM motoristas d WHERE d.nome = TRIM(movimentacoes.motorista)) " +
+                    "WHERE motorista_id IS NULL AND motorista IS NOT NULL AND id BETWEEN ? AND ?");
+        }
+
+        if (existeColuna("movimentacoes", "porteiro")) {
+            jdbcTemplate.update(
+                    "INSERT INTO porteiros (nome) SELECT DISTINCT TRIM(m.porteiro) FROM movimentacoes m " +
+                    "WHERE m.porteiro IS NOT NULL AND TRIM(m.porteiro) <> '' " +
+                    "AND NOT EXISTS (SELECT 1 FROM porteiros p WHERE p.nome = TRIM(m.porteiro))");
+            migrarEmLotes("porteiro_id",
+                    "UPDATE movimentacoes SET porteiro_id = " +
+                    "(SELECT p.id FROM porteiros p WHERE p.nome = TRIM(movimentacoes.porteiro)) " +
+                    "WHERE porteiro_id IS NULL AND porteiro IS NOT NULL AND id BETWEEN ? AND ?");
+        }
+    }
+
+    /**
+     * Executa o UPDATE informado em faixas consecutivas de ID de movimentações.
+     *
+     * @param coluna Nome da coluna migrada (apenas para o log).
+     * @param sql    UPDATE com dois parâmetros: início e fim da faixa de IDs.
+     */
+    private void migrarEmLotes(String coluna, String sql) {
+        Map<String, Object> limites = jdbcTemplate.queryForMap("SELECT MIN(id) AS minimo, MAX(id) AS maximo FROM movimentacoes");
+        if (limites.get("minimo") == null) {
+            return;
+        }
+        long minimo = ((Number) limites.get("minimo")).longValue();
+        long maximo = ((Number) limites.get("maximo")).longValue();
+
+        long total = 0;
+        for (long inicio = minimo; inicio <= maximo; inicio += tamanhoLote) {
+            total += jdbcTemplate.update(sql, inicio, inicio + tamanhoLote - 1);
+        }
+        if (total > 0) {
+            logger.info("Migração compacta: {} movimentações com a coluna '{}' preenchida.", total, coluna);
+        }
+    }
+
+    /**
+     * Verifica, pelos metadados JDBC, se uma coluna existe na tabela.
+     * Tenta os nomes em minúsculas e maiúsculas, pois cada banco guarda os identificadores de um jeito.
+     */
+    private boolean existeColuna(String tabela, String coluna) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) conexao -> {
+            DatabaseMetaData metadados = conexao.getMetaData();
+            for (String nomeTabela : List.of(tabela, tabela.toUpperCase())) {
+                for (String nomeColuna : List.of(coluna, coluna.toUpperCase())) {
+                    try (ResultSet colunas = metadados.getColumns(conexao.getCatalog(), null, nomeTabela, nomeColuna)) {
+                        if (colunas.next()) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
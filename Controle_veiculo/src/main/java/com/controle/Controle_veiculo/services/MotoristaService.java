@@ -0,0 +1,384 @@
+package com.controle.Controle_veiculo.services;
+
+import com.controle.Controle_veiculo.dto.MotoristaSugestao;
+import com.controle.Controle_veiculo.model.Motorista;
+import com.controle.Controle_veiculo.repository.MotoristaRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Camada de serviço responsável pelo cadastro de motoristas e pelo índice de preenchimento automático.
+ *
+ * O índice ({@link IndiceMotoristas}) e o mapa de nomes do dicionário são imutáveis e ficam em memória:
+ * cada alteração no cadastro monta uma nova versão a partir da anterior, depois do COMMIT e sob um
+ * único lock, e a publica por meio de um campo volátil, de modo que as buscas nunca consultam o banco
+ * de dados nem bloqueiam. O banco só é lido inteiro na inicialização.
+ *
+ * A tabela de motoristas também funciona como dicionário das movimentações: nomes digitados
+ * que ainda não existem são cadastrados como inativos ({@link #obterOuCriar(String)}), para
+ * que toda movimentação guarde apenas a chave estrangeira. Nomes que diferem só em acentos,
+ * caixa ou espaços ("Márcio" e "MARCIO") são o mesmo motorista: o nome normalizado é único.
+ */
+@Service
+public class MotoristaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MotoristaService.class);
+
+    /**
+     * Motoristas cadastrados automaticamente na primeira inicialização (antiga lista fixa).
+     */
+    private static final List<String> MOTORISTAS_INICIAIS = List.of(
+        "JOAQUIM", "ROBERTO ELIAS", "LEONARDO DIAS", "MÁRCIO", "TALES", "EDMAR",
+        "GERALDO PEREIRA", "CARLOS DONIZETE", "SANDER", "JEFERSON", "HELIO MACHADO",
+        "MARCOS PAULO", "GUSTAVO GUZZO", "CÉSAR", "RICARDO", "ANDRÉ", "CLEIBER",
+        "ZE MARIA", "RODOLFO", "FLÁVIO", "GILMAR", "DANIEL", "DÁRIO", "AHILTON",
+        "ALEXANDRE", "ÁLVARO", "ANTONIO DINIZ", "CÉLIO RAIMUNDO", "DANIEL RONILSON",
+        "ENILTON", "HEVERALDO", "ITAMAR", "JOSÉ GERALDO", "LEONARDO ISALTINO",
+        "LÚCIO CACHOEIRINHA", "MARCILÊNIO", "ROGÉRIO MARTINS", "RUBEM", "DANIEL GONÇALVES"
+    );
+
+    @Autowired
+    private MotoristaRepository motoristaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Nome e situação de um motorista, como conhecidos pelo dicionário em memória.
+     */
+    private record Cadastro(String nome, boolean ativo) {
+    }
+
+    /**
+     * Estrutura publicada para as buscas; trocada inteira a cada alteração.
+     *
+     * @param porId      Todos os motoristas (ativos e inativos), por ID.
+     * @param idsPorNome Nome normalizado → ID, para gravar a chave estrangeira das movimentações.
+     * @param indice     Índice de preenchimento dos motoristas ativos.
+     */
+    private record Dicionario(Map<Long, Cadastro> porId, Map<String, Long> idsPorNome, IndiceMotoristas indice) {
+
+        static Dicionario montar(Map<Long, Cadastro> porId) {
+            Map<String, Long> ids = new HashMap<>();
+            List<MotoristaSugestao> ativos = new ArrayList<>();
+            for (Map.Entry<Long, Cadastro> motorista : porId.entrySet()) {
+                // Em ordem de ID: entre nomes legados repetidos, vale o cadastro mais antigo
+                ids.putIfAbsent(IndiceMotoristas.normalizar(motorista.getValue().nome()), motorista.getKey());
+                if (motorista.getValue().ativo()) {
+                    ativos.add(new MotoristaSugestao(motorista.getKey(), motorista.getValue().nome()));
+                }
+            }
+            return new Dicionario(porId, ids, new IndiceMotoristas(ativos));
+        }
+    }
+
+    private volatile Dicionario dicionario = Dicionario.montar(new TreeMap<>());
+
+    // Alterações recebidas enquanto a reconstrução lia o banco (reaplicadas no dicionário novo)
+    private List<Motorista> pendentes;
+
+    /**
+     * Cadastra os motoristas iniciais (se não houver nenhum ativo) e monta o índice na inicialização.
+     * Nomes iniciais que já existem no dicionário (ex: vindos da migração do histórico) são reativados.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        preencherNomesNormalizados();
+        if (motoristaRepository.countByAtivoTrue() == 0) {
+            for (String nome : MOTORISTAS_INICIAIS) {
+                Motorista motorista = motoristaRepository.findByNomeNormalizado(IndiceMotoristas.normalizar(nome))
+                        .orElseGet(() -> new Motorista(nome));
+                motorista.setNomeNormalizado(IndiceMotoristas.normalizar(nome));
+                motorista.setAtivo(true);
+                motoristaRepository.save(motorista);
+            }
+        }
+        reconstruirIndice();
+    }
+
+    /**
+     * Preenche o nome normalizado dos cadastros que ainda não o têm. Quando dois nomes antigos
+     * coincidem após a normalização, só o mais antigo recebe a chave; o outro fica de fora do
+     * dicionário até ser renomeado ou desativado pelo cadastro.
+     */
+    private void preencherNomesNormalizados() {
+        List<Motorista> semNormalizado = motoristaRepository.findByNomeNormalizadoIsNull();
+        if (semNormalizado.isEmpty()) {
+            return;
+        }
+        Set<String> usados = new HashSet<>();
+        for (Motorista motorista : motoristaRepository.findAll()) {
+            if (motorista.getNomeNormalizado() != null) {
+                usados.add(motorista.getNomeNormalizado());
+            }
+        }
+        semNormalizado.sort(Comparator.comparing(Motorista::getId));
+        for (Motorista motorista : semNormalizado) {
+            String normalizado = IndiceMotoristas.normalizar(motorista.getNome());
+            if (!usados.add(normalizado)) {
+                logger.warn("Motorista {} ('{}') tem o mesmo nome normalizado de outro cadastro.", motorista.getId(), motorista.getNome());
+                continue;
+            }
+            motorista.setNomeNormalizado(normalizado);
+            motoristaRepository.save(motorista);
+        }
+    }
+
+    /**
+     * Reconstrói o índice a partir dos motoristas do banco.
+     */
+    public void reconstruirIndice() {
+        synchronized (this) {
+            pendentes = new ArrayList<>();
+        }
+        List<Motorista> todos;
+        try {
+            todos = motoristaRepository.findAll();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendentes = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            Map<Long, Cadastro> porId = new TreeMap<>();
+            for (Motorista motorista : todos) {
+                porId.put(motorista.getId(), new Cadastro(motorista.getNome(), Boolean.TRUE.equals(motorista.getAtivo())));
+            }
+            for (Motorista alterado : pendentes) {
+                porId.put(alterado.getId(), new Cadastro(alterado.getNome(), Boolean.TRUE.equals(alterado.getAtivo())));
+            }
+            pendentes = null;
+            dicionario = Dicionario.montar(porId);
+        }
+    }
+
+    /**
+     * Retorna o motorista do dicionário correspondente ao nome (ignorando acentos e caixa),
+     * cadastrando-o como inativo se ainda não existir.
+     *
+     * O cadastro ocorre em uma transação própria, para que a chave fique disponível mesmo
+     * se duas portarias registrarem o mesmo nome novo ao mesmo tempo.
+     *
+     * @param nome Nome informado na movimentação.
+     * @return Referência ao motorista, ou null se o nome estiver vazio.
+     */
+    public Motorista obterOuCriar(String nome) {
+        String normalizado = IndiceMotoristas.normalizar(nome);
+        if (normalizado.isEmpty()) {
+            return null;
+        }
+        Long id = dicionario.idsPorNome().get(normalizado);
+        if (id == null) {
+            // Já gravado pela transação própria: entra no dicionário sem esperar a transação do registro
+            Motorista cadastrado = cadastrarNoDicionario(nome.trim(), normalizado);
+            aplicar(cadastrado);
+            id = cadastrado.getId();
+        }
+        return referencia(id);
+    }
+
+    /**
+     * Cadastra o nome como motorista inativo, ou retorna o cadastro que já tem o mesmo nome normalizado.
+     */
+    private Motorista cadastrarNoDicionario(String nome, String normalizado) {
+        TransactionTemplate novaTransacao = new TransactionTemplate(transactionManager);
+        novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            return novaTransacao.execute(status -> motoristaRepository.findByNomeNormalizado(normalizado)
+                    .orElseGet(() -> {
+                        Motorista novo = new Motorista(nome);
+                        novo.setNomeNormalizado(normalizado);
+                        novo.setAtivo(false);
+                        return motoristaRepository.save(novo);
+                    }));
+        } catch (DataIntegrityViolationException e) {
+            // Outra requisição cadastrou o mesmo nome primeiro
+            return novaTransacao.execute(status -> motoristaRepository.findByNomeNormalizado(normalizado)
+                    .orElseThrow(() -> new RuntimeException("Não foi possível cadastrar o motorista: " + nome)));
+        }
+    }
+
+    /**
+     * Sugestões de motoristas para o texto digitado (sem acesso ao banco).
+     *
+     * @param prefixo Texto digitado.
+     * @param limite  Quantidade máxima de sugestões.
+     * @return Motoristas cujo nome ou sobrenome começa com o texto.
+     */
+    public List<MotoristaSugestao> autocompletar(String prefixo, int limite) {
+        return dicionario.indice().buscar(prefixo, limite);
+    }
+
+    /**
+     * @return Nomes de todos os motoristas ativos, em ordem alfabética (sem acesso ao banco).
+     */
+    public List<String> listarNomes() {
+        return dicionario.indice().getNomes();
+    }
+
+    /**
+     * Resolve um nome digitado livremente para o motorista cadastrado, ignorando acentos e caixa.
+     *
+     * @param nome Nome informado.
+     * @return A sugestão correspondente, se existir um motorista ativo com esse nome.
+     */
+    public Optional<MotoristaSugestao> resolverPorNome(String nome) {
+        return dicionario.indice().buscarExato(nome);
+    }
+
+    /**
+     * Lista todos os motoristas cadastrados (ativos e inativos).
+     */
+    public List<Motorista> listarTodos() {
+        return motoristaRepository.findAll();
+    }
+
+    /**
+     * Busca um motorista pelo ID.
+     */
+    public Optional<Motorista> buscarPorId(Long id) {
+        return motoristaRepository.findById(id);
+    }
+
+    /**
+     * Retorna uma referência ao motorista sem carregá-lo do banco (usada para gravar a chave estrangeira).
+     */
+    public Motorista referencia(Long id) {
+        return motoristaRepository.getReferenceById(id);
+    }
+
+    /**
+     * Cadastra um novo motorista e atualiza o índice depois do COMMIT.
+     *
+     * Se o nome já existir no dicionário apenas como inativo (cadastrado a partir de uma
+     * movimentação), esse cadastro é reaproveitado: recebe o nome informado e é ativado.
+     *
+     * @param motorista Motorista a ser salvo.
+     * @return Instância salva do motorista.
+     * @throws RuntimeException se o nome estiver vazio ou já pertencer a um motorista ativo.
+     */
+    public Motorista salvarMotorista(Motorista motorista) {
+        String normalizado = IndiceMotoristas.normalizar(motorista.getNome());
+        if (normalizado.isEmpty()) {
+            throw new RuntimeException("O nome do motorista é obrigatório.");
+        }
+        Optional<Motorista> existente = motoristaRepository.findByNomeNormalizado(normalizado);
+        if (existente.isPresent()) {
+            if (Boolean.TRUE.equals(existente.get().getAtivo())) {
+                throw new RuntimeException("Já existe um motorista com este nome: " + existente.get().getNome());
+            }
+            motorista.setId(existente.get().getId());
+            motorista.setAtivo(true);
+        }
+        motorista.setNome(motorista.getNome().trim());
+        motorista.setNomeNormalizado(normalizado);
+        return gravar(motorista);
+    }
+
+    /**
+     * Atualiza o nome e a situação de um motorista existente e atualiza o índice depois do COMMIT.
+     *
+     * @param id    ID do motorista.
+     * @param dados Novos dados.
+     * @return Motorista atualizado.
+     * @throws RuntimeException caso o motorista não seja encontrado ou o nome já pertença a outro motorista.
+     */
+    public Motorista atualizarMotorista(Long id, Motorista dados) {
+        Motorista existente = motoristaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Motorista não encontrado com o ID: " + id));
+        String normalizado = IndiceMotoristas.normalizar(dados.getNome());
+        if (normalizado.isEmpty()) {
+            throw new RuntimeException("O nome do motorista é obrigatório.");
+        }
+        Optional<Motorista> homonimo = motoristaRepository.findByNomeNormalizado(normalizado);
+        if (homonimo.isPresent() && !homonimo.get().getId().equals(id)) {
+            throw new RuntimeException("Já existe um motorista com este nome: " + homonimo.get().getNome());
+        }
+        existente.setNome(dados.getNome().trim());
+        existente.setNomeNormalizado(normalizado);
+        if (dados.getAtivo() != null) {
+            existente.setAtivo(dados.getAtivo());
+        }
+        return gravar(existente);
+    }
+
+    /**
+     * Desativa um motorista (ele deixa de aparecer nas sugestões, mas o histórico é preservado).
+     *
+     * @param id ID do motorista.
+     * @throws RuntimeException se o motorista não for encontrado.
+     */
+    public void desativar(Long id) {
+        Motorista existente = motoristaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Motorista não encontrado com o ID: " + id));
+        existente.setAtivo(false);
+        gravar(existente);
+    }
+
+    /**
+     * Salva o cadastro e agenda a atualização do dicionário para depois do COMMIT.
+     *
+     * @throws RuntimeException se outra requisição gravou o mesmo nome primeiro.
+     */
+    private Motorista gravar(Motorista motorista) {
+        Motorista salvo;
+        try {
+            salvo = motoristaRepository.save(motorista);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Já existe um motorista com este nome: " + motorista.getNome());
+        }
+        Motorista copia = new Motorista(salvo.getNome());
+        copia.setId(salvo.getId());
+        copia.setAtivo(salvo.getAtivo());
+        depoisDoCommit(() -> aplicar(copia));
+        return salvo;
+    }
+
+    /**
+     * Aplica o cadastro no dicionário publicado e, durante uma reconstrução, guarda-o para o dicionário novo.
+     */
+    private synchronized void aplicar(Motorista motorista) {
+        Map<Long, Cadastro> porId = new TreeMap<>(dicionario.porId());
+        porId.put(motorista.getId(), new Cadastro(motorista.getNome(), Boolean.TRUE.equals(motorista.getAtivo())));
+        dicionario = Dicionario.montar(porId);
+        if (pendentes != null) {
+            pendentes.add(motorista);
+        }
+    }
+
+    private void depoisDoCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
@@ -1,13 +1,28 @@
 package com.controle.Controle_veiculo.services;
 
+import com.controle.Controle_veiculo.model.Motorista;
 import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.RegistroAuditoria;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.TipoMovimento;
 import com.controle.Controle_veiculo.model.Veiculo;
 import com.controle.Controle_veiculo.repository.MovimentacaoRepository;
 import com.controle.Controle_veiculo.repository.VeiculoRepository;
 import com.controle.Controle_veiculo.dto.CorrectionRequiredResponse;
+import com.controle.Controle_veiculo.dto.MovimentacaoSincronizada;
+import com.controle.Controle_veiculo.services.arquivo.ArquivoMovimentacoesService;
+import com.controle.Controle_veiculo.services.compartimento.ClasseCarga;
+import com.controle.Controle_veiculo.services.compartimento.Compartimento;
+import com.controle.Controle_veiculo.services.correcao.PoliticaCorrecaoService;
+import com.controle.Controle_veiculo.services.outbox.OutboxService;
+import com.controle.Controle_veiculo.services.relatorio.RelatorioService;
+import com.controle.Controle_veiculo.services.transacao.TransacaoLeitura;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
 
 import jakarta.transaction.Transactional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -15,9 +30,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Camada de serviço responsável pela lógica de negócio das movimentações de veículos.
@@ -28,14 +46,52 @@ import java.util.List;
 @Service
 public class MovimentacaoService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MovimentacaoService.class);
+
     @Autowired
     private VeiculoRepository veiculoRepository;
 
     @Autowired
     private MovimentacaoRepository movimentacaoRepository;
 
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Autowired
+    private PorteiroService porteiroService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private ReconciliacaoService reconciliacaoService;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private OcupacaoService ocupacaoService;
+
+    @Autowired
+    private ProjecaoPatioService projecaoPatio;
+
+    @Autowired
+    private LeituraCompartilhadaService leituras;
+
+    @Autowired
+    private ArquivoMovimentacoesService arquivoMovimentacoes;
+
+    @Autowired
+    private PoliticaCorrecaoService politicaCorrecao;
+
     /**
-     * Retorna uma lista paginada de movimentações com filtros opcionais.
+     * Retorna uma lista paginada das movimentações da unidade da requisição, com filtros opcionais.
      * 
      * A busca pode ser filtrada por placa e intervalo de datas, além de incluir
      * ordenação decrescente por data/hora e ID.
@@ -47,10 +103,12 @@ public class MovimentacaoService {
      * @param size       número de registros por página.
      * @return Página contendo as movimentações filtradas.
      */
+    @Compartimento(ClasseCarga.LOTE)
+    @TransacaoLeitura
     public Page<Movimentacao> listarTodas(String placa, Date dataInicio, Date dataFim, int page, int size) {
         Sort sort = Sort.by(Sort.Direction.DESC, "dataHora", "id");
         Pageable pageable = PageRequest.of(page, size, sort);
-        return movimentacaoRepository.findWithFilters(placa, dataInicio, dataFim, pageable);
+        return movimentacaoRepository.findWithFilters(UnidadeContexto.obter(), placa, dataInicio, dataFim, pageable);
     }
 
     /**
@@ -65,55 +123,53 @@ public class MovimentacaoService {
      * @return A movimentação registrada, ou uma resposta de correção (409).
      */
     @Transactional
+    @Compartimento(ClasseCarga.ESCRITA)
     public Object registrarMovimentacao(Movimentacao movimentacaoRequest) {
         // Busca o veículo vinculado à movimentação
         Veiculo veiculo = veiculoRepository.findById(movimentacaoRequest.getVeiculo().getId())
                 .orElseThrow(() -> new RuntimeException("Veículo associado à movimentação não encontrado!"));
+        // A portaria de uma unidade só movimenta os veículos do próprio pátio
+        UnidadeContexto.verificar(veiculo.getUnidadeId());
 
         // Define a data/hora atual caso não seja informada
         if (movimentacaoRequest.getDataHora() == null) {
             movimentacaoRequest.setDataHora(new Date());
         }
 
-        String tipoMovimento = movimentacaoRequest.getTipoMovimento();
+        if (movimentacaoRequest.getTipoMovimento() == null) {
+            throw new RuntimeException("O tipo da movimentação (entrada ou saida) é obrigatório.");
+        }
+
+        // Converte motorista e porteiro para as chaves dos dicionários
+        vincularMotorista(movimentacaoRequest);
+        vincularPorteiro(movimentacaoRequest);
+
+        TipoMovimento tipoMovimento = movimentacaoRequest.getTipoMovimento();
 
         // ===============================
         // 🔁 Lógica de correção automática
         // ===============================
-        // Se o veículo está AUSENTE mas foi solicitada uma SAÍDA, há conflito
-        if ("saida".equalsIgnoreCase(tipoMovimento) && "Ausente".equalsIgnoreCase(veiculo.getStatus())) {
-
-            // Caso o front tenha confirmado a correção, registra uma ENTRADA automática antes
-            if (Boolean.TRUE.equals(movimentacaoRequest.getForceCorrection())) {
-                System.out.println("CORREÇÃO: Registrando uma ENTRADA automática antes da SAÍDA.");
-                Movimentacao entradaAutomatica = new Movimentacao();
-                entradaAutomatica.setVeiculo(veiculo);
-                entradaAutomatica.setMotorista(movimentacaoRequest.getMotorista());
-                entradaAutomatica.setQuilometragem(movimentacaoRequest.getQuilometragem());
-                entradaAutomatica.setTipoMovimento("entrada");
-                entradaAutomatica.setDataHora(movimentacaoRequest.getDataHora());
-                movimentacaoRepository.save(entradaAutomatica);
-            } else {
-                String msg = "O veículo está AUSENTE. Deseja registrar uma ENTRADA automática?";
-                return new CorrectionRequiredResponse(msg, "entradaAutomatica");
-            }
-        }
-
-        // Se o veículo está PRESENTE mas foi solicitada uma ENTRADA, há conflito
-        else if ("entrada".equalsIgnoreCase(tipoMovimento) && "Presente".equalsIgnoreCase(veiculo.getStatus())) {
-            if (Boolean.TRUE.equals(movimentacaoRequest.getForceCorrection())) {
-                System.out.println("CORREÇÃO: Registrando uma SAÍDA automática antes da ENTRADA.");
-                Movimentacao saidaAutomatica = new Movimentacao();
-                saidaAutomatica.setVeiculo(veiculo);
-                saidaAutomatica.setMotorista(movimentacaoRequest.getMotorista());
-                saidaAutomatica.setQuilometragem(movimentacaoRequest.getQuilometragem());
-                saidaAutomatica.setTipoMovimento("saida");
-                saidaAutomatica.setDataHora(movimentacaoRequest.getDataHora());
-                movimentacaoRepository.save(saidaAutomatica);
-            } else {
-                String msg = "O veículo está PRESENTE. Deseja registrar uma SAÍDA automática antes da ENTRADA?";
-                return new CorrectionRequiredResponse(msg, "saidaAutomatica");
+        // SAÍDA de um veículo AUSENTE (falta a entrada) ou ENTRADA de um veículo PRESENTE (falta a saída)
+        long unidade = veiculo.getUnidadeId() != null ? veiculo.getUnidadeId() : UnidadeContexto.obter();
+        TipoMovimento faltante = tipoMovimento == TipoMovimento.SAIDA && veiculo.getStatus() == StatusVeiculo.AUSENTE ? TipoMovimento.ENTRADA
+                : tipoMovimento == TipoMovimento.ENTRADA && veiculo.getStatus() == StatusVeiculo.PRESENTE ? TipoMovimento.SAIDA
+                : null;
+        if (faltante == null) {
+            politicaCorrecao.registrar(unidade, PoliticaCorrecaoService.Resultado.SEM_CONFLITO);
+        } else {
+            String correcao = faltante == TipoMovimento.ENTRADA ? "entradaAutomatica" : "saidaAutomatica";
+            // Confirmada pelo porteiro (reenvio após o 409) ou aplicada direto pela política da portaria
+            boolean confirmada = Boolean.TRUE.equals(movimentacaoRequest.getForceCorrection());
+            if (!confirmada && !politicaCorrecao.corrigirAutomaticamente(unidade, movimentacaoRequest.getPorteiro())) {
+                politicaCorrecao.registrar(unidade, PoliticaCorrecaoService.Resultado.PERGUNTADA);
+                String msg = faltante == TipoMovimento.ENTRADA
+                        ? "O veículo está AUSENTE. Deseja registrar uma ENTRADA automática?"
+                        : "O veículo está PRESENTE. Deseja registrar uma SAÍDA automática antes da ENTRADA?";
+                return new CorrectionRequiredResponse(msg, correcao);
             }
+            politicaCorrecao.registrar(unidade, confirmada ? PoliticaCorrecaoService.Resultado.CONFIRMADA : PoliticaCorrecaoService.Resultado.AUTOMATICA);
+            registrarCorrecao(veiculo, movimentacaoRequest, faltante, !confirmada);
+            movimentacaoRequest.setCorrecaoAplicada(correcao);
         }
 
         // ===============================
@@ -121,16 +177,81 @@ public class MovimentacaoService {
         // ===============================
 
         // Atualiza o status do veículo conforme o tipo de movimentação
-        String novoStatus = "entrada".equalsIgnoreCase(tipoMovimento) ? "Presente" : "Ausente";
-        veiculo.setStatus(novoStatus);
+        veiculo.setStatus(StatusVeiculo.apos(tipoMovimento));
         veiculo.setUltimaMovimentacao(movimentacaoRequest.getDataHora());
         veiculoRepository.save(veiculo);
+        projecaoPatio.registrarAlteracao(veiculo);
 
         // Garante integridade e evita repetição de correções
         movimentacaoRequest.setVeiculo(veiculo);
         movimentacaoRequest.setForceCorrection(false);
 
-        return movimentacaoRepository.save(movimentacaoRequest);
+        Movimentacao registrada = movimentacaoRepository.save(movimentacaoRequest);
+
+        // Abre ou fecha a viagem correspondente na mesma transação
+        viagemService.registrarMovimentacao(registrada);
+
+        // Evento para as integrações, gravado na outbox na mesma transação
+        publicar(OutboxService.MOVIMENTACAO_REGISTRADA, registrada);
+
+        return registrada;
+    }
+
+    /**
+     * Grava a movimentação que faltava antes do registro solicitado (a entrada antes de uma saída, ou
+     * a saída antes de uma entrada), na mesma transação do registro.
+     *
+     * A correção fica 1 ms antes do registro: com instantes distintos, o par tem a mesma ordem em
+     * todos os critérios (status no servidor central, status vindo do central na portaria,
+     * reconciliação da frota e pareamento das viagens), em vez de depender do desempate de cada um.
+     *
+     * @param veiculo    Veículo já carregado para o registro.
+     * @param requisicao Movimentação solicitada pela portaria.
+     * @param tipo       Tipo da movimentação que faltava.
+     * @param pendente   true se a correção foi aplicada sem confirmação e deve ser revisada depois.
+     */
+    private void registrarCorrecao(Veiculo veiculo, Movimentacao requisicao, TipoMovimento tipo, boolean pendente) {
+        logger.info("CORREÇÃO: registrando uma {} automática para o veículo {}.", tipo, veiculo.getPlaca());
+        Movimentacao correcao = new Movimentacao();
+        correcao.setVeiculo(veiculo);
+        correcao.setMotorista(requisicao.getMotorista());
+        correcao.setMotoristaCadastro(requisicao.getMotoristaCadastro());
+        correcao.setQuilometragem(requisicao.getQuilometragem());
+        correcao.setTipoMovimento(tipo);
+        correcao.setDataHora(new Date(requisicao.getDataHora().getTime() - 1));
+        correcao.setCorrecaoPendente(pendente ? Boolean.TRUE : null);
+        movimentacaoRepository.save(correcao);
+        viagemService.registrarMovimentacao(correcao);
+        publicar(OutboxService.MOVIMENTACAO_REGISTRADA, correcao);
+    }
+
+    /**
+     * Registra a passagem de um veículo identificada por uma câmera: o tipo (entrada ou saída) é
+     * deduzido do status atual do veículo e o registro segue as mesmas regras de
+     * {@link #registrarMovimentacao}, sem correção automática.
+     *
+     * @param veiculoId ID do veículo reconhecido.
+     * @param dataHora  Instante da passagem (primeira leitura da câmera).
+     * @param porteiro  Identificação da câmera, gravada como porteiro.
+     * @return A movimentação registrada, ou uma resposta de correção (409).
+     * @throws RuntimeException se o veículo não existir ou se a passagem for anterior à última movimentação.
+     */
+    @Transactional
+    @Compartimento(ClasseCarga.ESCRITA)
+    public Object registrarPassagem(Long veiculoId, Date dataHora, String porteiro) {
+        Veiculo veiculo = veiculoRepository.findById(veiculoId)
+                .orElseThrow(() -> new RuntimeException("Veículo associado à movimentação não encontrado!"));
+        // Leitura atrasada: o status atual já reflete movimentações posteriores a ela
+        if (veiculo.getUltimaMovimentacao() != null && dataHora.before(veiculo.getUltimaMovimentacao())) {
+            throw new RuntimeException("Passagem anterior à última movimentação do veículo " + veiculo.getPlaca() + ".");
+        }
+
+        Movimentacao movimentacao = new Movimentacao();
+        movimentacao.setVeiculo(veiculo);
+        movimentacao.setTipoMovimento(veiculo.getStatus() == StatusVeiculo.PRESENTE ? TipoMovimento.SAIDA : TipoMovimento.ENTRADA);
+        movimentacao.setDataHora(dataHora);
+        movimentacao.setPorteiro(porteiro);
+        return registrarMovimentacao(movimentacao);
     }
 
     /**
@@ -141,39 +262,106 @@ public class MovimentacaoService {
      * @return Movimentação atualizada após o salvamento.
      */
     @Transactional
+    @Compartimento(ClasseCarga.ESCRITA)
     public Movimentacao atualizarMovimentacao(Long id, Movimentacao dadosAtualizados) {
         // 1️⃣ Busca o registro original
         Movimentacao movimentacaoExistente = movimentacaoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Movimentação não encontrada com o ID: " + id));
+        UnidadeContexto.verificar(movimentacaoExistente.getUnidadeId());
+        if (dadosAtualizados.getTipoMovimento() == null) {
+            throw new RuntimeException("O tipo da movimentação (entrada ou saida) é obrigatório.");
+        }
+        Map<String, Object> antes = camposAuditados(movimentacaoExistente);
 
         // 2️⃣ Atualiza apenas os campos editáveis
+        vincularMotorista(dadosAtualizados);
+        vincularPorteiro(dadosAtualizados);
         movimentacaoExistente.setQuilometragem(dadosAtualizados.getQuilometragem());
         movimentacaoExistente.setDataHora(dadosAtualizados.getDataHora());
         movimentacaoExistente.setMotorista(dadosAtualizados.getMotorista());
+        movimentacaoExistente.setMotoristaCadastro(dadosAtualizados.getMotoristaCadastro());
         movimentacaoExistente.setTipoMovimento(dadosAtualizados.getTipoMovimento());
         movimentacaoExistente.setPorteiro(dadosAtualizados.getPorteiro());
+        movimentacaoExistente.setPorteiroCadastro(dadosAtualizados.getPorteiroCadastro());
+        // No modo edge, a alteração precisa ser reenviada ao servidor central (mesmo se a versão
+        // anterior estiver sendo enviada agora: a confirmação dela não vale para a nova revisão)
+        movimentacaoExistente.setSincronizadaEm(null);
+        movimentacaoExistente.setRevisao(movimentacaoExistente.getRevisao() == null ? 1 : movimentacaoExistente.getRevisao() + 1);
 
-        // 3️⃣ Persiste as alterações
+        // 3️⃣ Persiste as alterações e registra na auditoria o que mudou
         Movimentacao atualizada = movimentacaoRepository.save(movimentacaoExistente);
+        auditoriaService.registrarAlteracao("Movimentacao", id, antes, camposAuditados(atualizada));
 
-        // 4️⃣ Atualiza o campo de "última movimentação" do veículo, se necessário
+        // 4️⃣ Recalcula o status e a "última movimentação" do veículo (a edição pode ter mudado a mais recente)
         Veiculo veiculo = movimentacaoExistente.getVeiculo();
         if (veiculo != null) {
-            Movimentacao ultima = movimentacaoRepository.findTopByVeiculoOrderByDataHoraDesc(veiculo);
-            if (ultima != null) {
-                veiculo.setUltimaMovimentacao(ultima.getDataHora());
-                veiculoRepository.save(veiculo);
-            }
+            reconciliacaoService.reconciliarVeiculo(veiculo);
         }
 
+        // 5️⃣ Refaz o pareamento das viagens, pois a data ou o tipo podem ter mudado
+        if (veiculo != null) {
+            viagemService.reparearVeiculo(veiculo);
+        }
+
+        publicar(OutboxService.MOVIMENTACAO_ATUALIZADA, atualizada);
+        ocupacaoService.invalidarAPartirDe((Date) antes.get("dataHora"));
+        arquivoMovimentacoes.invalidar(atualizada.getUnidadeId(), (Date) antes.get("dataHora"));
+
         return atualizada;
     }
 
     /**
-     * Conta o número de movimentações de ENTRADA realizadas no dia atual.
+     * Lista as correções automáticas da unidade da requisição que ainda aguardam revisão.
+     *
+     * @param page Página solicitada.
+     * @param size Quantidade de registros por página.
+     * @return Página com as correções pendentes, das mais antigas para as mais recentes.
+     */
+    @Compartimento(ClasseCarga.INTERATIVA)
+    @TransacaoLeitura
+    public Page<Movimentacao> listarCorrecoesPendentes(int page, int size) {
+        return movimentacaoRepository.findCorrecoesPendentes(UnidadeContexto.obter(), PageRequest.of(page, size));
+    }
+
+    /**
+     * Marca uma correção automática como revisada, registrando a revisão na auditoria. Para desfazer
+     * a correção, a movimentação pode ser editada ou excluída normalmente.
+     *
+     * @param id ID da movimentação criada pela correção.
+     * @return A movimentação revisada.
+     * @throws RuntimeException se a movimentação não existir ou não for uma correção pendente.
+     */
+    @Transactional
+    @Compartimento(ClasseCarga.ESCRITA)
+    public Movimentacao revisarCorrecao(Long id) {
+        Movimentacao movimentacao = movimentacaoRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Movimentação não encontrada com o ID: " + id));
+        UnidadeContexto.verificar(movimentacao.getUnidadeId());
+        if (!Boolean.TRUE.equals(movimentacao.getCorrecaoPendente())) {
+            throw new RuntimeException("A movimentação " + id + " não é uma correção pendente de revisão.");
+        }
+        movimentacao.setCorrecaoPendente(false);
+        Movimentacao revisada = movimentacaoRepository.save(movimentacao);
+        auditoriaService.registrarAlteracao("Movimentacao", id, Map.<String, Object>of("correcaoPendente", true), Map.<String, Object>of("correcaoPendente", false));
+        return revisada;
+    }
+
+    /**
+     * Conta o número de movimentações de ENTRADA realizadas no dia atual na unidade da requisição.
      * @return Quantidade total de entradas do dia.
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
     public long countEntradasHoje() {
+        return countEntradasHoje(UnidadeContexto.obter());
+    }
+
+    /**
+     * Conta o número de movimentações de ENTRADA realizadas no dia atual em uma unidade.
+     * @param unidade ID da unidade.
+     * @return Quantidade total de entradas do dia na unidade.
+     */
+    @Compartimento(ClasseCarga.INTERATIVA)
+    public long countEntradasHoje(long unidade) {
         Calendar cal = Calendar.getInstance();
         cal.set(Calendar.HOUR_OF_DAY, 0);
         cal.set(Calendar.MINUTE, 0);
@@ -185,7 +373,9 @@ public class MovimentacaoService {
         cal.set(Calendar.SECOND, 59);
         Date endOfDay = cal.getTime();
 
-        return movimentacaoRepository.countByDataHoraBetweenAndTipoMovimento(startOfDay, endOfDay, "entrada");
+        // Consultada por todas as telas ao mesmo tempo: chamadas simultâneas compartilham uma única consulta
+        return leituras.obter(unidade, "movimentacoes.entradasHoje:" + LocalDate.now(),
+                () -> movimentacaoRepository.countByUnidadeIdAndDataHoraBetweenAndTipoMovimento(unidade, startOfDay, endOfDay, TipoMovimento.ENTRADA));
     }
 
     /**
@@ -193,10 +383,13 @@ public class MovimentacaoService {
      * @param veiculoId ID do veículo.
      * @return Última quilometragem ou null se não houver registros.
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
     public Double getUltimaQuilometragem(Long veiculoId) {
-        Pageable topOne = PageRequest.of(0, 1);
-        List<Double> result = movimentacaoRepository.findUltimaQuilometragem(veiculoId, topOne);
-        return result.isEmpty() ? null : result.get(0);
+        return leituras.obter("movimentacoes.ultimaQuilometragem:" + veiculoId, () -> {
+            Pageable topOne = PageRequest.of(0, 1);
+            List<Double> result = movimentacaoRepository.findUltimaQuilometragem(veiculoId, topOne);
+            return result.isEmpty() ? null : result.get(0);
+        });
     }
 
     /**
@@ -204,17 +397,31 @@ public class MovimentacaoService {
      * @param veiculoId ID do veículo.
      * @return Nome do motorista ou null se não houver registros.
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
     public String getUltimoMotorista(Long veiculoId) {
-        Pageable topOne = PageRequest.of(0, 1);
-        List<String> result = movimentacaoRepository.findUltimoMotorista(veiculoId, topOne);
-        return result.isEmpty() ? null : result.get(0);
+        return leituras.obter("movimentacoes.ultimoMotorista:" + veiculoId, () -> {
+            Pageable topOne = PageRequest.of(0, 1);
+            List<String> result = movimentacaoRepository.findUltimoMotorista(veiculoId, topOne);
+            return result.isEmpty() ? null : result.get(0);
+        });
     }
 
     /**
-     * Conta o número de movimentações de SAÍDA realizadas no dia atual.
+     * Conta o número de movimentações de SAÍDA realizadas no dia atual na unidade da requisição.
      * @return Quantidade total de saídas do dia.
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
     public long countSaidasHoje() {
+        return countSaidasHoje(UnidadeContexto.obter());
+    }
+
+    /**
+     * Conta o número de movimentações de SAÍDA realizadas no dia atual em uma unidade.
+     * @param unidade ID da unidade.
+     * @return Quantidade total de saídas do dia na unidade.
+     */
+    @Compartimento(ClasseCarga.INTERATIVA)
+    public long countSaidasHoje(long unidade) {
         Calendar cal = Calendar.getInstance();
         cal.set(Calendar.HOUR_OF_DAY, 0);
         cal.set(Calendar.MINUTE, 0);
@@ -226,23 +433,94 @@ public class MovimentacaoService {
         cal.set(Calendar.SECOND, 59);
         Date endOfDay = cal.getTime();
 
-        return movimentacaoRepository.countByDataHoraBetweenAndTipoMovimento(startOfDay, endOfDay, "saida");
+        return leituras.obter(unidade, "movimentacoes.saidasHoje:" + LocalDate.now(),
+                () -> movimentacaoRepository.countByUnidadeIdAndDataHoraBetweenAndTipoMovimento(unidade, startOfDay, endOfDay, TipoMovimento.SAIDA));
     }
 
     /**
-     * Retorna a lista de motoristas pré-cadastrados no sistema.
+     * Retorna a lista de motoristas ativos cadastrados no sistema.
      * 
-     * Essa lista é usada como base para o preenchimento automático no front-end.
+     * Essa lista é usada como base para o preenchimento automático no front-end
+     * e vem do índice em memória do {@link MotoristaService} (sem acesso ao banco).
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
     public List<String> listarMotoristas() {
-        return List.of(
-            "JOAQUIM", "ROBERTO ELIAS", "LEONARDO DIAS", "MÁRCIO", "TALES", "EDMAR",
-            "GERALDO PEREIRA", "CARLOS DONIZETE", "SANDER", "JEFERSON", "HELIO MACHADO",
-            "MARCOS PAULO", "GUSTAVO GUZZO", "CÉSAR", "RICARDO", "ANDRÉ", "CLEIBER",
-            "ZE MARIA", "RODOLFO", "FLÁVIO", "GILMAR", "DANIEL", "DÁRIO", "AHILTON",
-            "ALEXANDRE", "ÁLVARO", "ANTONIO DINIZ", "CÉLIO RAIMUNDO", "DANIEL RONILSON",
-            "ENILTON", "HEVERALDO", "ITAMAR", "JOSÉ GERALDO", "LEONARDO ISALTINO",
-            "LÚCIO CACHOEIRINHA", "MARCILÊNIO", "ROGÉRIO MARTINS", "RUBEM", "DANIEL GONÇALVES"
-        );
+        return motoristaService.listarNomes();
+    }
+
+    /**
+     * Associa a movimentação ao motorista do dicionário.
+     * 
+     * O nome digitado tem prioridade: ele é comparado (sem acentos e sem diferenciar maiúsculas)
+     * com o cadastro e, se ainda não existir, é incluído no dicionário. Sem nome, vale o
+     * {@code motoristaId} informado pelo front-end.
+     *
+     * @param movimentacao Movimentação a ser associada.
+     */
+    private void vincularMotorista(Movimentacao movimentacao) {
+        Long motoristaId = movimentacao.getMotoristaId();
+        Motorista motorista;
+        if (!IndiceMotoristas.normalizar(movimentacao.getMotorista()).isEmpty()) {
+            motorista = motoristaService.obterOuCriar(movimentacao.getMotorista());
+        } else if (motoristaId != null) {
+            motorista = motoristaService.buscarPorId(motoristaId)
+                    .orElseThrow(() -> new RuntimeException("Motorista não encontrado com o ID: " + motoristaId));
+        } else {
+            motorista = null;
+        }
+
+        movimentacao.setMotoristaCadastro(motorista);
+        movimentacao.setMotorista(motorista != null ? motorista.getNome() : null);
+    }
+
+    /**
+     * Associa a movimentação ao porteiro do dicionário, cadastrando nomes novos.
+     *
+     * @param movimentacao Movimentação a ser associada.
+     */
+    private void vincularPorteiro(Movimentacao movimentacao) {
+        String nome = movimentacao.getPorteiro();
+        movimentacao.setPorteiroCadastro(porteiroService.obterOuCriar(nome));
+        movimentacao.setPorteiro(movimentacao.getPorteiroCadastro() != null ? nome.trim() : null);
+    }
+
+    /**
+     * Retorna o histórico de edições de uma movimentação (trilha de auditoria).
+     *
+     * @param id ID da movimentação.
+     * @param page Número da página (base 0).
+     * @param size Registros por página.
+     * @return Página de registros de auditoria, dos mais recentes para os mais antigos.
+     */
+    @Compartimento(ClasseCarga.INTERATIVA)
+    @TransacaoLeitura
+    public Page<RegistroAuditoria> listarEdicoes(Long id, int page, int size) {
+        return auditoriaService.historico("Movimentacao", id, page, size);
+    }
+
+    /**
+     * Campos editáveis de uma movimentação, comparados pela auditoria antes e depois da edição.
+     */
+    private Map<String, Object> camposAuditados(Movimentacao movimentacao) {
+        Map<String, Object> campos = new LinkedHashMap<>();
+        campos.put("quilometragem", movimentacao.getQuilometragem());
+        campos.put("dataHora", movimentacao.getDataHora());
+        campos.put("motorista", movimentacao.getMotorista());
+        campos.put("tipoMovimento", movimentacao.getTipoMovimento());
+        campos.put("porteiro", movimentacao.getPorteiro());
+        return campos;
+    }
+
+    /**
+     * Grava na outbox o evento de uma movimentação (entregue depois às integrações) e invalida
+     * os relatórios em cache, as leituras compartilhadas da unidade, os checkpoints de ocupação seguintes
+     * a ela e o arquivo do mês, se ele já estiver arquivado.
+     */
+    private void publicar(String tipo, Movimentacao movimentacao) {
+        outboxService.registrar(tipo, movimentacao.getId(), MovimentacaoSincronizada.de(movimentacao));
+        relatorioService.registrarAlteracao();
+        leituras.invalidar(movimentacao.getUnidadeId());
+        ocupacaoService.invalidarAPartirDe(movimentacao.getDataHora());
+        arquivoMovimentacoes.invalidar(movimentacao.getUnidadeId(), movimentacao.getDataHora());
     }
 }
@@ -0,0 +1,405 @@
+package com.controle.Controle_veiculo.services;
+
+import com.controle.Controle_veiculo.dto.PontoOcupacao;
+import com.controle.Controle_veiculo.model.CheckpointOcupacao;
+import com.controle.Controle_veiculo.repository.CheckpointOcupacaoRepository;
+import com.controle.Controle_veiculo.services.compartimento.ClasseCarga;
+import com.controle.Controle_veiculo.services.compartimento.Compartimento;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Série histórica da ocupação do pátio (quantos veículos estavam dentro a cada hora).
+ *
+ * O cálculo é uma varredura única, em ordem cronológica e em streaming, sobre as movimentações:
+ * uma ENTRADA coloca o veículo no conjunto de presentes e uma SAÍDA o retira. Entre duas
+ * movimentações a ocupação é constante, o que dá o pico e a média ponderada de cada hora. A memória
+ * usada é proporcional à frota, não ao tamanho do histórico.
+ *
+ * Para não reler o histórico inteiro, a varredura parte do checkpoint diário mais recente antes
+ * do período ({@link CheckpointOcupacao}) e grava os checkpoints dos dias que atravessar. Uma
+ * movimentação registrada, editada ou sincronizada descarta os checkpoints dos dias seguintes a ela.
+ * Se um descarte acontecer (ou estiver numa transação em andamento) durante a varredura, os
+ * checkpoints gravados por ela são descartados também: podem não considerar essa movimentação.
+ */
+@Service
+public class OcupacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcupacaoService.class);
+
+    private static final long HORA_MS = 60 * 60 * 1000L;
+
+    private static final String MOVIMENTACOES =
+            "SELECT veiculo_id, tipo, data_hora FROM movimentacoes " +
+            "WHERE tipo IS NOT NULL AND data_hora >= ? AND data_hora < ? ORDER BY data_hora, id";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CheckpointOcupacaoRepository checkpointOcupacaoRepository;
+
+    @Value("${ocupacao.intervalo-maximo-dias:366}")
+    private int intervaloMaximoDias;
+
+    @Value("${ocupacao.fetch-size:1000}")
+    private int fetchSize;
+
+    // Varredura com fetch size, para ler as movimentações aos poucos
+    private JdbcTemplate leitura;
+
+    // Muda a cada descarte de checkpoints (no pedido e no fim da transação que o fez)
+    private final AtomicLong invalidacoes = new AtomicLong();
+
+    // Transações com descarte de checkpoints ainda não concluídas
+    private final AtomicInteger invalidacoesEmAndamento = new AtomicInteger();
+
+    @PostConstruct
+    public void inicializar() {
+        leitura = new JdbcTemplate(dataSource);
+        leitura.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Calcula a ocupação hora a hora de um período.
+     *
+     * @param inicio Início do período (arredondado para o início da hora).
+     * @param fim Fim do período (limitado à hora atual: o futuro não é projetado).
+     * @return Pico e média do período, instante do pico e um ponto por hora.
+     * @throws RuntimeException se o período for inválido ou maior que {@code ocupacao.intervalo-maximo-dias}.
+     */
+    @Compartimento(ClasseCarga.LOTE)
+    public Map<String, Object> calcularSerie(Date inicio, Date fim) {
+        if (inicio == null || fim == null || !inicio.before(fim)) {
+            throw new RuntimeException("Informe um período válido (início anterior ao fim).");
+        }
+        if (fim.getTime() - inicio.getTime() > intervaloMaximoDias * 24 * HORA_MS) {
+            throw new RuntimeException("O período máximo é de " + intervaloMaximoDias + " dias.");
+        }
+        long comeco = System.currentTimeMillis();
+        long invalidacoesNoInicio = invalidacoes.get();
+        ZoneId zona = ZoneId.systemDefault();
+        long inicioSerie = inicio.toInstant().atZone(zona).truncatedTo(ChronoUnit.HOURS).toInstant().toEpochMilli();
+        long fimHoraAtual = Instant.ofEpochMilli(comeco).atZone(zona).truncatedTo(ChronoUnit.HOURS).plusHours(1).toInstant().toEpochMilli();
+        long fimSerie = Math.min(fim.getTime(), fimHoraAtual);
+
+        // Ponto de partida: o checkpoint mais recente até o dia do início, ou o começo do histórico
+        LocalDate diaInicio = Instant.ofEpochMilli(inicioSerie).atZone(zona).toLocalDate();
+        Optional<CheckpointOcupacao> checkpoint = checkpointOcupacaoRepository.findTopByDiaLessThanEqualOrderByDiaDesc(java.sql.Date.valueOf(diaInicio));
+        LocalDate diaPartida = diaInicio;
+        Set<Long> presentes = new HashSet<>();
+        if (checkpoint.isPresent()) {
+            diaPartida = dia(checkpoint.get().getDia());
+            presentes = lerPresentes(checkpoint.get().getPresentes());
+        } else {
+            Timestamp primeira = jdbcTemplate.queryForObject("SELECT MIN(data_hora) FROM movimentacoes", Timestamp.class);
+            if (primeira != null && primeira.toLocalDateTime().toLocalDate().isBefore(diaInicio)) {
+                diaPartida = primeira.toLocalDateTime().toLocalDate();
+            }
+        }
+
+        long partida = diaPartida.atStartOfDay(zona).toInstant().toEpochMilli();
+        Set<LocalDate> existentes = checkpointOcupacaoRepository
+                .findDias(java.sql.Date.valueOf(diaPartida), new Date(Math.max(fimSerie, partida)))
+                .stream().map(OcupacaoService::dia).collect(Collectors.toSet());
+
+        Varredura varredura = new Varredura(zona, presentes, diaPartida, inicioSerie, Math.max(fimSerie, inicioSerie), comeco, existentes);
+        if (fimSerie > partida) {
+            leitura.query(MOVIMENTACOES, rs -> {
+                varredura.aplicar(rs.getLong("veiculo_id"), rs.getString("tipo"), rs.getTimestamp("data_hora").getTime());
+            }, new Timestamp(partida), new Timestamp(fimSerie));
+        }
+        varredura.avancar(varredura.fimSerie);
+
+        int checkpointsCriados = gravarCheckpoints(varredura.checkpoints, invalidacoesNoInicio);
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("inicio", new Date(inicioSerie));
+        resultado.put("fim", new Date(varredura.fimSerie));
+        resultado.put("pico", Math.max(varredura.picoGeral, 0));
+        resultado.put("picoEm", varredura.picoGeral >= 0 ? new Date(varredura.picoEm) : null);
+        resultado.put("media", varredura.mediaGeral());
+        resultado.put("pontos", varredura.pontos());
+        resultado.put("checkpointsCriados", checkpointsCriados);
+        resultado.put("duracaoMs", System.currentTimeMillis() - comeco);
+        return resultado;
+    }
+
+    /**
+     * Descarta os checkpoints dos dias seguintes a uma movimentação (eles não a consideram).
+     * Deve ser chamado na transação que grava a movimentação.
+     *
+     * @param dataHora Data/hora da movimentação registrada, ou a antiga e a nova numa edição.
+     */
+    @Transactional
+    public void invalidarAPartirDe(Date dataHora) {
+        if (dataHora == null) {
+            return;
+        }
+        invalidacoes.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidacoesEmAndamento.incrementAndGet();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidacoes.incrementAndGet();
+                    invalidacoesEmAndamento.decrementAndGet();
+                }
+            });
+        }
+        checkpointOcupacaoRepository.deleteDepoisDe(java.sql.Date.valueOf(
+                dataHora.toInstant().atZone(ZoneId.systemDefault()).toLocalDate()));
+    }
+
+    /**
+     * Descarta todos os checkpoints (ex: depois de uma importação direta no banco).
+     *
+     * @return Quantidade de checkpoints descartados.
+     */
+    @Compartimento(ClasseCarga.LOTE)
+    public long recalcular() {
+        long total = checkpointOcupacaoRepository.count();
+        checkpointOcupacaoRepository.deleteAllInBatch();
+        return total;
+    }
+
+    /**
+     * Grava o checkpoint do dia logo após a meia-noite, para as consultas do dia partirem dele.
+     */
+    @Scheduled(cron = "${ocupacao.checkpoint.cron:0 5 0 * * *}")
+    @Compartimento(ClasseCarga.LOTE)
+    public void atualizarCheckpoints() {
+        try {
+            long agora = System.currentTimeMillis();
+            calcularSerie(new Date(agora - 24 * HORA_MS), new Date(agora));
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao atualizar os checkpoints de ocupação: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Grava os checkpoints da varredura e confere, depois de gravados, se algum descarte aconteceu
+     * desde o início dela ou ainda está em andamento: nesse caso os checkpoints podem não considerar
+     * uma movimentação e são apagados. Um descarte posterior à gravação já os encontra no banco.
+     *
+     * @return Quantidade de checkpoints mantidos.
+     */
+    private int gravarCheckpoints(List<CheckpointOcupacao> checkpoints, long invalidacoesNoInicio) {
+        if (checkpoints.isEmpty()) {
+            return 0;
+        }
+        try {
+            checkpointOcupacaoRepository.saveAll(checkpoints);
+        } catch (RuntimeException e) {
+            // Outra consulta simultânea gravou os mesmos dias
+            logger.debug("Checkpoints de ocupação não gravados: {}", e.getMessage());
+            return 0;
+        }
+        if (invalidacoes.get() == invalidacoesNoInicio && invalidacoesEmAndamento.get() == 0) {
+            return checkpoints.size();
+        }
+        checkpointOcupacaoRepository.deleteAllByIdInBatch(checkpoints.stream().map(CheckpointOcupacao::getDia).toList());
+        logger.debug("Checkpoints de ocupação descartados: movimentação registrada durante a varredura.");
+        return 0;
+    }
+
+    private static LocalDate dia(Date data) {
+        // O Hibernate devolve java.sql.Date, que não converte para Instant
+        return new java.sql.Date(data.getTime()).toLocalDate();
+    }
+
+    private static Set<Long> lerPresentes(String presentes) {
+        Set<Long> ids = new HashSet<>();
+        if (presentes != null && !presentes.isBlank()) {
+            for (String id : presentes.split(",")) {
+                ids.add(Long.valueOf(id));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Estado da varredura: veículos presentes, acumuladores por hora da série e checkpoints novos.
+     */
+    private static final class Varredura {
+
+        private final ZoneId zona;
+
+        private final Set<Long> presentes;
+
+        private final long inicioSerie;
+
+        private final long fimSerie;
+
+        // Só grava checkpoints de meias-noites já passadas
+        private final long limiteCheckpoint;
+
+        private final Set<LocalDate> existentes;
+
+        private final List<CheckpointOcupacao> checkpoints = new ArrayList<>();
+
+        private final int[] inicial;
+
+        private final int[] pico;
+
+        private final int[] entradas;
+
+        private final int[] saidas;
+
+        // Soma de (ocupação × milissegundos) de cada hora, para a média ponderada
+        private final double[] area;
+
+        private long agora;
+
+        private LocalDate proximoDia;
+
+        private long proximaMeiaNoite;
+
+        private int picoGeral = -1;
+
+        private long picoEm;
+
+        Varredura(ZoneId zona, Set<Long> presentes, LocalDate diaPartida, long inicioSerie, long fimSerie,
+                  long limiteCheckpoint, Set<LocalDate> existentes) {
+            this.zona = zona;
+            this.presentes = presentes;
+            this.inicioSerie = inicioSerie;
+            this.fimSerie = fimSerie;
+            this.limiteCheckpoint = limiteCheckpoint;
+            this.existentes = existentes;
+
+            int horas = (int) ((fimSerie - inicioSerie + HORA_MS - 1) / HORA_MS);
+            this.inicial = new int[horas];
+            this.pico = new int[horas];
+            this.entradas = new int[horas];
+            this.saidas = new int[horas];
+            this.area = new double[horas];
+            Arrays.fill(inicial, -1);
+
+            this.agora = diaPartida.atStartOfDay(zona).toInstant().toEpochMilli();
+            this.proximoDia = diaPartida.plusDays(1);
+            this.proximaMeiaNoite = proximoDia.atStartOfDay(zona).toInstant().toEpochMilli();
+        }
+
+        void aplicar(long veiculoId, String tipo, long instante) {
+            avancar(instante);
+            boolean entrada = "E".equals(tipo);
+            if (entrada) {
+                presentes.add(veiculoId);
+            } else {
+                presentes.remove(veiculoId);
+            }
+            if (instante >= inicioSerie && instante < fimSerie) {
+                int hora = hora(instante);
+                if (entrada) {
+                    entradas[hora]++;
+                } else {
+                    saidas[hora]++;
+                }
+                pico[hora] = Math.max(pico[hora], presentes.size());
+                registrarPico(presentes.size(), instante);
+            }
+        }
+
+        /**
+         * Leva a ocupação atual (constante desde a última movimentação) até o instante informado,
+         * antes de aplicar as movimentações desse instante.
+         */
+        void avancar(long ate) {
+            int ocupacao = presentes.size();
+
+            while (proximaMeiaNoite <= ate) {
+                if (proximaMeiaNoite <= limiteCheckpoint && existentes.add(proximoDia)) {
+                    checkpoints.add(new CheckpointOcupacao(java.sql.Date.valueOf(proximoDia), ocupacao, gravarPresentes()));
+                }
+                proximoDia = proximoDia.plusDays(1);
+                proximaMeiaNoite = proximoDia.atStartOfDay(zona).toInstant().toEpochMilli();
+            }
+
+            long de = Math.max(agora, inicioSerie);
+            long ateNaSerie = Math.min(ate, fimSerie);
+            for (int hora = de < fimSerie ? hora(de) : inicial.length; hora < inicial.length && inicioHora(hora) <= ateNaSerie; hora++) {
+                if (inicial[hora] < 0) {
+                    inicial[hora] = ocupacao;
+                    pico[hora] = ocupacao;
+                    registrarPico(ocupacao, inicioHora(hora));
+                }
+                long sobreposicao = Math.min(inicioHora(hora) + HORA_MS, ateNaSerie) - Math.max(inicioHora(hora), de);
+                if (sobreposicao > 0) {
+                    area[hora] += (double) ocupacao * sobreposicao;
+                }
+            }
+            agora = Math.max(agora, ate);
+        }
+
+        List<PontoOcupacao> pontos() {
+            List<PontoOcupacao> pontos = new ArrayList<>(inicial.length);
+            for (int hora = 0; hora < inicial.length; hora++) {
+                long duracao = Math.min(inicioHora(hora) + HORA_MS, fimSerie) - inicioHora(hora);
+                pontos.add(new PontoOcupacao(new Date(inicioHora(hora)), inicial[hora], pico[hora],
+                        arredondar(area[hora] / duracao), entradas[hora], saidas[hora]));
+            }
+            return pontos;
+        }
+
+        double mediaGeral() {
+            return fimSerie > inicioSerie ? arredondar(Arrays.stream(area).sum() / (fimSerie - inicioSerie)) : 0;
+        }
+
+        private void registrarPico(int ocupacao, long instante) {
+            if (ocupacao > picoGeral) {
+                picoGeral = ocupacao;
+                picoEm = instante;
+            }
+        }
+
+        private String gravarPresentes() {
+            return presentes.stream().sorted().map(String::valueOf).collect(Collectors.joining(","));
+        }
+
+        private int hora(long instante) {
+            return (int) ((instante - inicioSerie) / HORA_MS);
+        }
+
+        private long inicioHora(int hora) {
+            return inicioSerie + hora * HORA_MS;
+        }
+
+        private static double arredondar(double valor) {
+            return Math.round(valor * 100) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.controle.Controle_veiculo.services;
+
+import com.controle.Controle_veiculo.model.Porteiro;
+import com.controle.Controle_veiculo.repository.PorteiroRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Camada de serviço responsável pelo dicionário de porteiros.
+ *
+ * As movimentações guardam apenas a chave estrangeira do porteiro; este serviço converte o
+ * nome digitado na portaria para essa chave, mantendo um cache em memória (nome normalizado → ID)
+ * para que o registro de movimentações não precise consultar a tabela a cada requisição.
+ */
+@Service
+public class PorteiroService {
+
+    @Autowired
+    private PorteiroRepository porteiroRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Nome normalizado → ID do porteiro
+    private final Map<String, Long> idsPorNome = new ConcurrentHashMap<>();
+
+    /**
+     * Carrega o dicionário de porteiros para a memória na inicialização.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        for (Porteiro porteiro : porteiroRepository.findAll()) {
+            idsPorNome.put(IndiceMotoristas.normalizar(porteiro.getNome()), porteiro.getId());
+        }
+    }
+
+    /**
+     * Retorna o porteiro do dicionário correspondente ao nome (ignorando acentos e caixa),
+     * cadastrando-o se ainda não existir.
+     *
+     * @param nome Nome informado na movimentação.
+     * @return Referência ao porteiro, ou null se o nome estiver vazio.
+     */
+    public Porteiro obterOuCriar(String nome) {
+        String normalizado = IndiceMotoristas.normalizar(nome);
+        if (normalizado.isEmpty()) {
+            return null;
+        }
+        Long id = idsPorNome.get(normalizado);
+        if (id == null) {
+            // Cadastro fora do mapa: a transação própria não segura o bloqueio do ConcurrentHashMap
+            id = cadastrarNoDicionario(nome.trim());
+            Long anterior = idsPorNome.putIfAbsent(normalizado, id);
+            if (anterior != null) {
+                id = anterior;
+            }
+        }
+        return porteiroRepository.getReferenceById(id);
+    }
+
+    private Long cadastrarNoDicionario(String nome) {
+        TransactionTemplate novaTransacao = new TransactionTemplate(transactionManager);
+        novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            return novaTransacao.execute(status -> porteiroRepository.findByNome(nome)
+                    .orElseGet(() -> porteiroRepository.save(new Porteiro(nome))).getId());
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância cadastrou o mesmo nome primeiro
+            return novaTransacao.execute(status -> porteiroRepository.findByNome(nome)
+                    .orElseThrow(() -> new RuntimeException("Não foi possível cadastrar o porteiro: " + nome)).getId());
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.controle.Controle_veiculo.services;
+
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.transacao.LeituraEmLote;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Projeção em memória do pátio: todos os veículos com status e última movimentação, servindo as
+ * listas de presentes/ausentes e suas contagens sem consultar o banco de dados.
+ *
+ * Funcionamento:
+ * - Carregada uma vez na inicialização ({@link ApplicationReadyEvent}, depois das migrações);
+ *   até lá, as consultas continuam indo ao banco.
+ * - Os serviços que gravam veículos chamam {@link #registrarAlteracao}/{@link #registrarExclusao}
+ *   dentro da transação; as alterações são aplicadas só depois do COMMIT, todas de uma vez.
+ * - As escritas são serializadas e mantêm, por status, um índice ordenado pela última movimentação.
+ *   A cada escrita é publicada uma nova fotografia imutável das listas (copy-on-write), então as
+ *   leituras nunca bloqueiam: apenas leem uma referência volátil.
+ * - Duas transações do mesmo veículo podem chegar fora de ordem ao afterCommit; a versão mais
+ *   recente (pelo "atualizado em") sempre prevalece.
+ * - Índices e fotografias são separados por unidade (pátio): as consultas sem unidade usam a da
+ *   requisição ({@link UnidadeContexto}) e uma escrita republica apenas as listas da sua unidade.
+ */
+@Service
+public class ProjecaoPatioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjecaoPatioService.class);
+
+    // Mais recentes primeiro; veículos sem movimentação no final (como o ORDER BY ... DESC do MySQL)
+    private static final Comparator<Veiculo> ORDEM = Comparator
+            .comparing(Veiculo::getUltimaMovimentacao, Comparator.nullsFirst(Comparator.<Date>naturalOrder()))
+            .thenComparing(Veiculo::getId)
+            .reversed();
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private LeituraEmLote leituraEmLote;
+
+    // Estado das escritas, protegido pelo monitor desta instância
+    private final Map<Long, Veiculo> porId = new HashMap<>();
+
+    private final Map<Long, Map<StatusVeiculo, TreeSet<Veiculo>>> porUnidade = new HashMap<>();
+
+    // Veículos excluídos enquanto a carga inicial ainda lia o banco
+    private final Set<Long> excluidosDuranteCarga = new HashSet<>();
+
+    // Veículos gravados enquanto a carga ainda lia o banco (a leitura pode não incluí-los)
+    private final Map<Long, Veiculo> alteradosDuranteCarga = new HashMap<>();
+
+    private boolean carregando;
+
+    // Fotografias por unidade lidas pelas consultas (null até a primeira carga)
+    private volatile Map<Long, Fotografia> fotografias;
+
+    /**
+     * Listas imutáveis de uma unidade, publicadas a cada escrita.
+     */
+    private record Fotografia(List<Veiculo> presentes, List<Veiculo> ausentes) {
+    }
+
+    private static final Fotografia VAZIA = new Fotografia(List.of(), List.of());
+
+    /**
+     * Carrega a projeção depois da inicialização da aplicação.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0) // antes do aquecimento, que consulta os dados já carregados
+    public void carregar() {
+        try {
+            recarregar();
+        } catch (RuntimeException e) {
+            logger.warn("Projeção do pátio não carregada; as consultas continuam no banco: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recarrega a projeção inteira a partir do banco (ex: depois de uma importação direta no banco).
+     * Alterações confirmadas durante a leitura não se perdem: a versão mais recente de cada veículo
+     * prevalece, e os veículos gravados depois que a leitura passou por eles são incluídos.
+     */
+    public void recarregar() {
+        long inicio = System.currentTimeMillis();
+        synchronized (this) {
+            carregando = true;
+            excluidosDuranteCarga.clear();
+            alteradosDuranteCarga.clear();
+        }
+        List<Veiculo> veiculos;
+        try {
+            veiculos = leituraEmLote.listar(Veiculo.class);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                carregando = false;
+                excluidosDuranteCarga.clear();
+                alteradosDuranteCarga.clear();
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            porId.clear();
+            porUnidade.clear();
+            for (Veiculo veiculo : veiculos) {
+                if (!excluidosDuranteCarga.contains(veiculo.getId())) {
+                    indexar(copia(veiculo));
+                }
+            }
+            // Escritas confirmadas durante a leitura do banco, inclusive de veículos que ela não encontrou
+            for (Veiculo alterado : alteradosDuranteCarga.values()) {
+                Veiculo carregado = porId.get(alterado.getId());
+                if (carregado == null || !maisRecente(carregado, alterado)) {
+                    remover(alterado.getId());
+                    indexar(alterado);
+                }
+            }
+            carregando = false;
+            excluidosDuranteCarga.clear();
+            alteradosDuranteCarga.clear();
+            publicar(porUnidade.keySet(), Map.of());
+        }
+        logger.info("Projeção do pátio carregada: {} veículos em {} ms.", veiculos.size(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Registra que o veículo foi gravado na transação atual (ou aplica na hora, fora de transação).
+     *
+     * @param veiculo Veículo gravado; o estado considerado é o do momento do COMMIT.
+     */
+    public void registrarAlteracao(Veiculo veiculo) {
+        if (veiculo != null && veiculo.getId() != null) {
+            registrar(veiculo.getId(), veiculo);
+        }
+    }
+
+    /**
+     * Registra que o veículo foi excluído na transação atual (ou aplica na hora, fora de transação).
+     *
+     * @param id ID do veículo excluído.
+     */
+    public void registrarExclusao(Long id) {
+        if (id != null) {
+            registrar(id, null);
+        }
+    }
+
+    /**
+     * @return Veículos presentes da unidade da requisição, do mais recente para o mais antigo (lista imutável).
+     */
+    public List<Veiculo> listarPresentes() {
+        return listarPresentes(UnidadeContexto.obter());
+    }
+
+    /**
+     * @return Veículos ausentes da unidade da requisição, do mais recente para o mais antigo (lista imutável).
+     */
+    public List<Veiculo> listarAusentes() {
+        return listarAusentes(UnidadeContexto.obter());
+    }
+
+    /**
+     * @return Quantidade de veículos presentes na unidade da requisição.
+     */
+    public long contarPresentes() {
+        return contarPresentes(UnidadeContexto.obter());
+    }
+
+    /**
+     * @return Quantidade de veículos ausentes da unidade da requisição.
+     */
+    public long contarAusentes() {
+        return contarAusentes(UnidadeContexto.obter());
+    }
+
+    /**
+     * @param unidade ID da unidade.
+     * @return Veículos presentes na unidade, do mais recente para o mais antigo (lista imutável).
+     */
+    public List<Veiculo> listarPresentes(long unidade) {
+        Fotografia atual = fotografia(unidade);
+        return atual != null ? atual.presentes()
+                : veiculoRepository.findByUnidadeIdAndStatusOrderByUltimaMovimentacaoDesc(unidade, StatusVeiculo.PRESENTE);
+    }
+
+    /**
+     * @param unidade ID da unidade.
+     * @return Veículos ausentes da unidade, do mais recente para o mais antigo (lista imutável).
+     */
+    public List<Veiculo> listarAusentes(long unidade) {
+        Fotografia atual = fotografia(unidade);
+        return atual != null ? atual.ausentes()
+                : veiculoRepository.findByUnidadeIdAndStatusOrderByUltimaMovimentacaoDesc(unidade, StatusVeiculo.AUSENTE);
+    }
+
+    /**
+     * @param unidade ID da unidade.
+     * @return Quantidade de veículos presentes na unidade.
+     */
+    public long contarPresentes(long unidade) {
+        Fotografia atual = fotografia(unidade);
+        return atual != null ? atual.presentes().size() : veiculoRepository.countByUnidadeIdAndStatus(unidade, StatusVeiculo.PRESENTE);
+    }
+
+    /**
+     * @param unidade ID da unidade.
+     * @return Quantidade de veículos ausentes da unidade.
+     */
+    public long contarAusentes(long unidade) {
+        Fotografia atual = fotografia(unidade);
+        return atual != null ? atual.ausentes().size() : veiculoRepository.countByUnidadeIdAndStatus(unidade, StatusVeiculo.AUSENTE);
+    }
+
+    /**
+     * @return true depois da primeira carga (as consultas já não vão ao banco).
+     */
+    public boolean isCarregada() {
+        return fotografias != null;
+    }
+
+    /**
+     * Acumula a alteração (null = exclusão) na transação atual; todas são aplicadas juntas no
+     * afterCommit e descartadas no ROLLBACK.
+     */
+    @SuppressWarnings("unchecked")
+    private void registrar(Long id, Veiculo veiculo) {
+        Map<Long, Veiculo> pendentes = new LinkedHashMap<>();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendentes.put(id, veiculo);
+            aplicar(pendentes);
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            pendentes = (Map<Long, Veiculo>) TransactionSynchronizationManager.getResource(this);
+        } else {
+            Map<Long, Veiculo> daTransacao = pendentes;
+            TransactionSynchronizationManager.bindResource(this, daTransacao);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(daTransacao);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProjecaoPatioService.this);
+                }
+            });
+        }
+        pendentes.put(id, veiculo);
+    }
+
+    /**
+     * Aplica as alterações confirmadas (null = exclusão) e publica uma nova fotografia.
+     */
+    private synchronized void aplicar(Map<Long, Veiculo> alteracoes) {
+        Set<Long> unidades = new HashSet<>();
+        for (Map.Entry<Long, Veiculo> alteracao : alteracoes.entrySet()) {
+            Long id = alteracao.getKey();
+            if (alteracao.getValue() == null) {
+                Veiculo removido = remover(id);
+                if (removido != null) {
+                    unidades.add(removido.getUnidadeId());
+                }
+                if (carregando) {
+                    excluidosDuranteCarga.add(id);
+                    alteradosDuranteCarga.remove(id);
+                }
+                continue;
+            }
+            Veiculo novo = copia(alteracao.getValue());
+            if (carregando) {
+                alteradosDuranteCarga.merge(id, novo, (anterior, recebido) -> maisRecente(anterior, recebido) ? anterior : recebido);
+            }
+            Veiculo atual = porId.get(id);
+            if (atual == null || !maisRecente(atual, novo)) {
+                Veiculo removido = remover(id);
+                if (removido != null) {
+                    unidades.add(removido.getUnidadeId());
+                }
+                indexar(novo);
+                unidades.add(novo.getUnidadeId());
+            }
+        }
+        if (fotografias != null) {
+            publicar(unidades, fotografias);
+        }
+    }
+
+    private void indexar(Veiculo veiculo) {
+        porId.put(veiculo.getId(), veiculo);
+        if (veiculo.getStatus() != null) {
+            porStatus(veiculo.getUnidadeId()).get(veiculo.getStatus()).add(veiculo);
+        }
+    }
+
+    private Veiculo remover(Long id) {
+        Veiculo atual = porId.remove(id);
+        if (atual != null && atual.getStatus() != null) {
+            porStatus(atual.getUnidadeId()).get(atual.getStatus()).remove(atual);
+        }
+        return atual;
+    }
+
+    private Map<StatusVeiculo, TreeSet<Veiculo>> porStatus(Long unidade) {
+        return porUnidade.computeIfAbsent(unidade, u -> {
+            Map<StatusVeiculo, TreeSet<Veiculo>> porStatus = new EnumMap<>(StatusVeiculo.class);
+            for (StatusVeiculo status : StatusVeiculo.values()) {
+                porStatus.put(status, new TreeSet<>(ORDEM));
+            }
+            return porStatus;
+        });
+    }
+
+    /**
+     * Republica as listas das unidades alteradas; as fotografias das demais unidades são reaproveitadas.
+     */
+    private void publicar(Set<Long> unidades, Map<Long, Fotografia> anteriores) {
+        Map<Long, Fotografia> novas = new HashMap<>(anteriores);
+        for (Long unidade : unidades) {
+            Map<StatusVeiculo, TreeSet<Veiculo>> porStatus = porStatus(unidade);
+            novas.put(unidade, new Fotografia(
+                    List.copyOf(porStatus.get(StatusVeiculo.PRESENTE)),
+                    List.copyOf(porStatus.get(StatusVeiculo.AUSENTE))));
+        }
+        fotografias = Map.copyOf(novas);
+    }
+
+    /**
+     * @return A fotografia da unidade (vazia se a unidade não tem veículos), ou null antes da primeira carga.
+     */
+    private Fotografia fotografia(long unidade) {
+        Map<Long, Fotografia> atuais = fotografias;
+        return atuais != null ? atuais.getOrDefault(unidade, VAZIA) : null;
+    }
+
+    /**
+     * @return true se {@code a} foi gravado depois de {@code b}.
+     */
+    private static boolean maisRecente(Veiculo a, Veiculo b) {
+        return a.getAtualizadoEm() != null && b.getAtualizadoEm() != null && a.getAtualizadoEm().after(b.getAtualizadoEm());
+    }
+
+    /**
+     * Cópia desanexada do veículo: a entidade da transação pode continuar sendo alterada depois do COMMIT.
+     */
+    private static Veiculo copia(Veiculo veiculo) {
+        Veiculo copia = new Veiculo(veiculo.getPlaca(), veiculo.getModelo(), veiculo.getMarca(), null, veiculo.getCor());
+        copia.setId(veiculo.getId());
+        copia.setUnidadeId(veiculo.getUnidadeId() != null ? veiculo.getUnidadeId() : Unidade.PADRAO);
+        copia.setStatus(veiculo.getStatus());
+        copia.setUltimaMovimentacao(veiculo.getUltimaMovimentacao());
+        copia.setAtualizadoEm(veiculo.getAtualizadoEm());
+        return copia;
+    }
+}
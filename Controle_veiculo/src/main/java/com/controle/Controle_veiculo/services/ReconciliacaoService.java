@@ -0,0 +1,237 @@
+package com.controle.Controle_veiculo.services;
+
+import com.controle.Controle_veiculo.dto.DivergenciaVeiculo;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.MovimentacaoRepository;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.outbox.OutboxService;
+import com.controle.Controle_veiculo.services.relatorio.RelatorioService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reconciliação do status (Presente/Ausente) e da "última movimentação" dos veículos com o
+ * histórico de movimentações.
+ *
+ * O status gravado no veículo é um valor derivado: o resultado da sua movimentação mais recente
+ * (pela data/hora, desempate pelo ID). Edições de movimentações antigas, importações históricas e
+ * correções manuais no banco podem deixá-lo divergente. Há dois modos:
+ * - Por veículo ({@link #reconciliarVeiculo}): chamado a cada edição de movimentação.
+ * - Frota inteira ({@link #reconciliarFrota}): uma única consulta com função de janela
+ *   ({@code ROW_NUMBER() OVER (PARTITION BY veiculo_id ...)}) calcula a movimentação mais recente de
+ *   todos os veículos e já devolve só os divergentes; apenas esses são atualizados, em lotes.
+ *   Pode ser agendada por {@code reconciliacao.cron}.
+ * Nos dois modos, cada veículo corrigido gera um evento {@code VEICULO_SALVO} na outbox e invalida as
+ * leituras compartilhadas da sua unidade e a projeção do pátio, como uma edição pelo cadastro. O índice
+ * de placas não muda: a reconciliação não altera a placa.
+ */
+@Service
+public class ReconciliacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliacaoService.class);
+
+    private static final String DIVERGENTES =
+            "SELECT v.id, v.placa, v.situacao, v.ultima_movimentacao, u.tipo, u.data_hora " +
+            "FROM veiculos v " +
+            "JOIN (SELECT m.veiculo_id, m.tipo, m.data_hora, " +
+            "             ROW_NUMBER() OVER (PARTITION BY m.veiculo_id ORDER BY m.data_hora DESC, m.id DESC) AS posicao " +
+            "      FROM movimentacoes m " +
+            "      WHERE m.tipo IS NOT NULL AND m.data_hora IS NOT NULL) u " +
+            "  ON u.veiculo_id = v.id AND u.posicao = 1 " +
+            "WHERE v.situacao IS NULL " +
+            "   OR v.situacao <> CASE WHEN u.tipo = 'E' THEN 'P' ELSE 'A' END " +
+            "   OR v.ultima_movimentacao IS NULL " +
+            "   OR v.ultima_movimentacao <> u.data_hora";
+
+    // Não sobrescreve um veículo que recebeu uma movimentação mais nova depois da consulta
+    private static final String CORRIGIR =
+            "UPDATE veiculos SET situacao = ?, ultima_movimentacao = ?, atualizado_em = ? " +
+            "WHERE id = ? AND NOT EXISTS (SELECT 1 FROM movimentacoes m WHERE m.veiculo_id = ? AND m.data_hora > ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private MovimentacaoRepository movimentacaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProjecaoPatioService projecaoPatio;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private LeituraCompartilhadaService leituras;
+
+    @Value("${reconciliacao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void inicializar() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Recalcula o status e a última movimentação de um veículo (modo incremental).
+     *
+     * @param veiculo Veículo a ser reconciliado.
+     * @return true se o veículo estava divergente e foi corrigido.
+     */
+    @Transactional
+    public boolean reconciliarVeiculo(Veiculo veiculo) {
+        Movimentacao ultima = movimentacaoRepository.findTopByVeiculoOrderByDataHoraDescIdDesc(veiculo);
+        if (ultima == null || ultima.getTipoMovimento() == null) {
+            return false;
+        }
+        StatusVeiculo calculado = StatusVeiculo.apos(ultima.getTipoMovimento());
+        if (calculado == veiculo.getStatus() && mesmoInstante(ultima.getDataHora(), veiculo.getUltimaMovimentacao())) {
+            return false;
+        }
+        veiculo.setStatus(calculado);
+        veiculo.setUltimaMovimentacao(ultima.getDataHora());
+        publicarCorrecao(veiculoRepository.save(veiculo));
+        relatorioService.registrarAlteracao();
+        return true;
+    }
+
+    /**
+     * Lista os veículos cujo status ou última movimentação diverge do histórico, sem corrigir nada.
+     *
+     * @return Relatório de divergências.
+     */
+    public List<DivergenciaVeiculo> relatorioDivergencias() {
+        return jdbcTemplate.query(DIVERGENTES, (rs, linha) -> new DivergenciaVeiculo(
+                rs.getLong("id"),
+                rs.getString("placa"),
+                StatusVeiculo.de(rs.getString("situacao")),
+                rs.getTimestamp("ultima_movimentacao"),
+                StatusVeiculo.apos(TipoMovimento.de(rs.getString("tipo"))),
+                rs.getTimestamp("data_hora")));
+    }
+
+    /**
+     * Reconcilia a frota inteira: calcula as divergências numa única consulta e atualiza
+     * apenas os veículos divergentes, em lotes de {@code reconciliacao.tamanho-lote}.
+     *
+     * @return Resumo: veículos corrigidos, duração e as divergências encontradas.
+     */
+    public Map<String, Object> reconciliarFrota() {
+        long inicio = System.currentTimeMillis();
+        List<DivergenciaVeiculo> divergencias = relatorioDivergencias();
+
+        int corrigidos = 0;
+        Timestamp agora = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < divergencias.size(); i += tamanhoLote) {
+            List<DivergenciaVeiculo> lote = divergencias.subList(i, Math.min(i + tamanhoLote, divergencias.size()));
+            corrigidos += transactionTemplate.execute(status -> corrigirLote(lote, agora));
+        }
+
+        long duracao = System.currentTimeMillis() - inicio;
+        if (!divergencias.isEmpty()) {
+            logger.info("Reconciliação da frota: {} veículos divergentes, {} corrigidos em {} ms.", divergencias.size(), corrigidos, duracao);
+        }
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("corrigidos", corrigidos);
+        resultado.put("duracaoMs", duracao);
+        resultado.put("divergencias", divergencias);
+        return resultado;
+    }
+
+    /**
+     * Corrige um lote de veículos divergentes na transação atual e publica a correção de cada
+     * veículo efetivamente atualizado.
+     *
+     * @return Quantidade de veículos corrigidos.
+     */
+    private int corrigirLote(List<DivergenciaVeiculo> lote, Timestamp agora) {
+        int[][] linhas = jdbcTemplate.batchUpdate(CORRIGIR, lote, lote.size(), (ps, d) -> {
+            Timestamp ultima = new Timestamp(d.getUltimaMovimentacaoCalculada().getTime());
+            ps.setString(1, d.getStatusCalculado().getCodigo());
+            ps.setTimestamp(2, ultima);
+            ps.setTimestamp(3, agora);
+            ps.setLong(4, d.getVeiculoId());
+            ps.setLong(5, d.getVeiculoId());
+            ps.setTimestamp(6, ultima);
+        });
+        List<Long> corrigidos = new ArrayList<>();
+        int posicao = 0;
+        for (int[] porLote : linhas) {
+            for (int atualizadas : porLote) {
+                // Alguns drivers devolvem SUCCESS_NO_INFO (-2) em vez da contagem
+                if (atualizadas != 0) {
+                    corrigidos.add(lote.get(posicao).getVeiculoId());
+                }
+                posicao++;
+            }
+        }
+        if (corrigidos.isEmpty()) {
+            return 0;
+        }
+        // Carregados depois do UPDATE, na mesma transação: já trazem o status corrigido
+        for (Veiculo veiculo : veiculoRepository.findAllById(corrigidos)) {
+            publicarCorrecao(veiculo);
+        }
+        relatorioService.registrarAlteracao();
+        return corrigidos.size();
+    }
+
+    /**
+     * Grava na outbox o veículo corrigido e invalida, depois do COMMIT, as leituras da sua unidade e a
+     * projeção do pátio.
+     */
+    private void publicarCorrecao(Veiculo veiculo) {
+        outboxService.registrar(OutboxService.VEICULO_SALVO, veiculo.getId(), veiculo);
+        leituras.invalidar(veiculo.getUnidadeId());
+        projecaoPatio.registrarAlteracao(veiculo);
+    }
+
+    /**
+     * Reconciliação agendada da frota (desabilitada por padrão: {@code reconciliacao.cron=-}).
+     */
+    @Scheduled(cron = "${reconciliacao.cron:-}")
+    public void reconciliarPeriodicamente() {
+        try {
+            reconciliarFrota();
+        } catch (RuntimeException e) {
+            logger.warn("Falha na reconciliação da frota: {}", e.getMessage());
+        }
+    }
+
+    private static boolean mesmoInstante(Date a, Date b) {
+        return a == null || b == null ? Objects.equals(a, b) : a.getTime() == b.getTime();
+    }
+}
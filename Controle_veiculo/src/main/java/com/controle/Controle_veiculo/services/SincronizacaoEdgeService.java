@@ -0,0 +1,309 @@
+package com.controle.Controle_veiculo.services;
+
+import com.controle.Controle_veiculo.dto.LoginRequest;
+import com.controle.Controle_veiculo.dto.MovimentacaoSincronizada;
+import com.controle.Controle_veiculo.model.CursorSincronizacao;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.CursorSincronizacaoRepository;
+import com.controle.Controle_veiculo.repository.MovimentacaoRepository;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.anpr.IndicePlacas;
+import com.controle.Controle_veiculo.services.unidade.UnidadeFilter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import jakarta.annotation.PostConstruct;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lado da portaria (modo edge) da sincronização com o servidor central.
+ *
+ * No modo edge a aplicação grava tudo no banco embarcado local (H2), então o registro de uma
+ * movimentação não depende do link com o servidor central nem paga a latência da WAN. Este serviço,
+ * em segundo plano:
+ * 1. Envia as movimentações pendentes em lotes ({@code POST /api/sincronizacao/movimentacoes}) e as
+ *    marca como sincronizadas quando o servidor central confirma o recebimento. Só é marcada a revisão
+ *    enviada: uma movimentação editada durante o envio continua pendente.
+ * 2. Baixa os veículos alterados desde a última sincronização ({@code GET /api/sincronizacao/veiculos}).
+ *    A posição fica gravada no banco local (tabela {@code sincronizacao_cursores}), então uma
+ *    reinicialização da portaria não baixa o cadastro inteiro de novo.
+ *
+ * O cadastro de veículos pertence ao servidor central. O status (Presente/Ausente) vindo dele só é
+ * aplicado se o veículo não tiver movimentações locais pendentes e se a última movimentação do servidor
+ * não for anterior à última movimentação local; assim as duas pontas convergem para o resultado do
+ * evento mais recente. Falhas de comunicação apenas adiam a sincronização para o próximo ciclo.
+ */
+@Service
+@ConditionalOnProperty(name = "edge.habilitado", havingValue = "true")
+public class SincronizacaoEdgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SincronizacaoEdgeService.class);
+
+    /**
+     * Nome do cursor com o instante da última alteração de veículo já recebida.
+     */
+    static final String CURSOR_VEICULOS = "veiculos";
+
+    @Autowired
+    private MovimentacaoRepository movimentacaoRepository;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private CursorSincronizacaoRepository cursorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RestClient.Builder restClientBuilder;
+
+    @Autowired
+    private ProjecaoPatioService projecaoPatio;
+
+    @Autowired
+    private IndicePlacas indicePlacas;
+
+    @Value("${edge.servidor-central.url}")
+    private String urlServidorCentral;
+
+    @Value("${edge.servidor-central.usuario:}")
+    private String usuario;
+
+    @Value("${edge.servidor-central.senha:}")
+    private String senha;
+
+    // Unidade da portaria no servidor central (cabeçalho X-Unidade); vazia: a unidade do usuário
+    @Value("${edge.servidor-central.unidade:}")
+    private String unidade;
+
+    @Value("${edge.sincronizacao.tamanho-lote:200}")
+    private int tamanhoLote;
+
+    private RestClient servidorCentral;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Token JWT do servidor central (obtido no primeiro envio e renovado quando expira)
+    private volatile String token;
+
+    private volatile Date ultimaSincronizacao;
+
+    private volatile String ultimoErro;
+
+    /**
+     * Monta o cliente do servidor central. Com usuário configurado, a senha é obrigatória (não há senha padrão).
+     */
+    @PostConstruct
+    public void inicializar() {
+        if (!usuario.isBlank() && senha.isBlank()) {
+            throw new RuntimeException("Informe 'edge.servidor-central.senha' para o usuário '" + usuario + "' do servidor central.");
+        }
+        RestClient.Builder builder = restClientBuilder.baseUrl(urlServidorCentral);
+        if (!unidade.isBlank()) {
+            builder.defaultHeader(UnidadeFilter.CABECALHO, unidade);
+        }
+        this.servidorCentral = builder.build();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Executa a sincronização periodicamente, no intervalo de {@code edge.sincronizacao.intervalo-ms}.
+     */
+    @Scheduled(fixedDelayString = "${edge.sincronizacao.intervalo-ms:5000}",
+            initialDelayString = "${edge.sincronizacao.intervalo-ms:5000}")
+    public void sincronizarPeriodicamente() {
+        try {
+            sincronizar();
+        } catch (RuntimeException e) {
+            logger.warn("Sincronização com o servidor central falhou: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Envia as movimentações pendentes e baixa as alterações de veículos.
+     *
+     * @return Resumo da sincronização: movimentações enviadas e veículos recebidos.
+     */
+    public synchronized Map<String, Object> sincronizar() {
+        try {
+            int enviadas = enviarMovimentacoes();
+            int veiculos = receberVeiculos();
+            ultimaSincronizacao = new Date();
+            ultimoErro = null;
+            return Map.of("movimentacoesEnviadas", enviadas, "veiculosRecebidos", veiculos);
+        } catch (RuntimeException e) {
+            ultimoErro = e.getMessage();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Situação da sincronização: pendências, última sincronização concluída e último erro.
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("servidorCentral", urlServidorCentral);
+        estado.put("movimentacoesPendentes", movimentacaoRepository.countBySincronizadaEmIsNull());
+        estado.put("ultimaSincronizacao", ultimaSincronizacao);
+        estado.put("ultimoErro", ultimoErro);
+        return estado;
+    }
+
+    /**
+     * Envia as movimentações pendentes em lotes, até não restar nenhuma.
+     */
+    private int enviarMovimentacoes() {
+        int total = 0;
+        while (true) {
+            // Revisão de cada movimentação no momento da leitura (0 = nunca editada)
+            Map<String, Integer> revisoes = new HashMap<>();
+            List<MovimentacaoSincronizada> lote = transactionTemplate.execute(status ->
+                    movimentacaoRepository.findPendentesSincronizacao(PageRequest.of(0, tamanhoLote)).stream()
+                            .peek(m -> revisoes.put(m.getUuid(), m.getRevisao() == null ? 0 : m.getRevisao()))
+                            .map(MovimentacaoSincronizada::de)
+                            .toList());
+            if (lote.isEmpty()) {
+                return total;
+            }
+
+            List<String> confirmadas = chamar(cliente -> cliente.post()
+                    .uri("/api/sincronizacao/movimentacoes")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(lote)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<String>>() {}));
+            if (confirmadas == null || confirmadas.isEmpty()) {
+                return total;
+            }
+
+            Date agora = new Date();
+            Map<Integer, List<String>> porRevisao = confirmadas.stream()
+                    .filter(revisoes::containsKey)
+                    .collect(Collectors.groupingBy(revisoes::get));
+            transactionTemplate.executeWithoutResult(status -> porRevisao.forEach((revisao, uuids) ->
+                    movimentacaoRepository.marcarSincronizadas(uuids, revisao, agora)));
+            total += confirmadas.size();
+            if (lote.size() < tamanhoLote) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * Baixa os veículos alterados no servidor central e os aplica no banco local (pela placa). A nova
+     * posição do cursor é gravada na mesma transação dos veículos.
+     */
+    private int receberVeiculos() {
+        Date desde = cursorRepository.findById(CURSOR_VEICULOS).map(CursorSincronizacao::getPosicao).orElse(null);
+        List<Veiculo> alterados = chamar(cliente -> cliente.get()
+                .uri(uri -> uri.path("/api/sincronizacao/veiculos")
+                        .queryParamIfPresent("desde", Optional.ofNullable(desde).map(Date::getTime))
+                        .build())
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<Veiculo>>() {}));
+        if (alterados == null || alterados.isEmpty()) {
+            return 0;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            alterados.forEach(this::aplicarVeiculo);
+            alterados.stream()
+                    .map(Veiculo::getAtualizadoEm)
+                    .filter(data -> data != null)
+                    .max(Date::compareTo)
+                    .ifPresent(data -> cursorRepository.save(new CursorSincronizacao(CURSOR_VEICULOS, data)));
+        });
+        return alterados.size();
+    }
+
+    private void aplicarVeiculo(Veiculo central) {
+        Veiculo local = veiculoRepository.findByPlaca(central.getPlaca()).orElseGet(Veiculo::new);
+        local.setPlaca(central.getPlaca());
+        local.setModelo(central.getModelo());
+        local.setMarca(central.getMarca());
+        local.setCor(central.getCor());
+        if (central.getUnidadeId() != null) {
+            local.setUnidadeId(central.getUnidadeId());
+        }
+
+        boolean semPendencias = local.getId() == null || !movimentacaoRepository.existsByVeiculoAndSincronizadaEmIsNull(local);
+        boolean centralMaisRecente = local.getUltimaMovimentacao() == null
+                || (central.getUltimaMovimentacao() != null && !central.getUltimaMovimentacao().before(local.getUltimaMovimentacao()));
+        if (local.getStatus() == null || (semPendencias && centralMaisRecente)) {
+            local.setStatus(central.getStatus());
+            local.setUltimaMovimentacao(central.getUltimaMovimentacao());
+        }
+        Veiculo salvo = veiculoRepository.save(local);
+        projecaoPatio.registrarAlteracao(salvo);
+        indicePlacas.registrar(salvo.getId(), salvo.getPlaca());
+    }
+
+    /**
+     * Faz a chamada ao servidor central com o token JWT, autenticando (de novo) se ele for recusado.
+     */
+    private <T> T chamar(Function<RestClient, T> chamada) {
+        if (token == null) {
+            autenticar();
+        }
+        try {
+            return chamada.apply(comToken());
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() != HttpStatus.UNAUTHORIZED || usuario.isBlank()) {
+                throw e;
+            }
+            autenticar();
+            return chamada.apply(comToken());
+        }
+    }
+
+    private RestClient comToken() {
+        if (token == null) {
+            return servidorCentral;
+        }
+        return servidorCentral.mutate().defaultHeader("Authorization", "Bearer " + token).build();
+    }
+
+    /**
+     * Obtém um token no servidor central. Sem usuário configurado, as chamadas seguem sem token
+     * (servidor central com {@code jwt.enabled=false}).
+     */
+    private void autenticar() {
+        if (usuario.isBlank()) {
+            return;
+        }
+        LoginRequest login = new LoginRequest();
+        login.setUsername(usuario);
+        login.setPassword(senha);
+        Map<String, Object> resposta = servidorCentral.post()
+                .uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(login)
+                .retrieve()
+                .body(new ParameterizedTypeReference<Map<String, Object>>() {});
+        token = resposta != null ? (String) resposta.get("token") : null;
+    }
+}
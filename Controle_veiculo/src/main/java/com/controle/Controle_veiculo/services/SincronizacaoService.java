@@ -0,0 +1,182 @@
+package com.controle.Controle_veiculo.services;
+
+import com.controle.Controle_veiculo.dto.MovimentacaoSincronizada;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.MovimentacaoRepository;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.compartimento.ClasseCarga;
+import com.controle.Controle_veiculo.services.compartimento.Compartimento;
+import com.controle.Controle_veiculo.services.arquivo.ArquivoMovimentacoesService;
+import com.controle.Controle_veiculo.services.outbox.OutboxService;
+import com.controle.Controle_veiculo.services.relatorio.RelatorioService;
+import com.controle.Controle_veiculo.services.transacao.LeituraEmLote;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
+
+import jakarta.transaction.Transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lado do servidor central da sincronização com as portarias em modo edge.
+ *
+ * As portarias enviam suas movimentações em lotes e baixam as alterações do cadastro de veículos,
+ * sempre na unidade (pátio) da requisição: uma portaria não grava nem lê veículos de outra unidade.
+ * O recebimento é idempotente (a movimentação é identificada pelo UUID gerado na portaria), então
+ * um lote reenviado após uma falha de rede não gera duplicidade.
+ *
+ * Conflitos de Presente/Ausente entre portarias são resolvidos de forma determinística: o status do
+ * veículo é sempre o resultado da movimentação mais recente pela data/hora do evento (desempate pelo
+ * UUID), independentemente da ordem em que as portarias sincronizaram. Aqui não há o fluxo de
+ * correção automática (409): a portaria já decidiu a movimentação no momento do registro.
+ */
+@Service
+public class SincronizacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SincronizacaoService.class);
+
+    @Autowired
+    private MovimentacaoRepository movimentacaoRepository;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private LeituraEmLote leituraEmLote;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Autowired
+    private PorteiroService porteiroService;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private OcupacaoService ocupacaoService;
+
+    @Autowired
+    private ProjecaoPatioService projecaoPatio;
+
+    @Autowired
+    private LeituraCompartilhadaService leituras;
+
+    @Autowired
+    private ArquivoMovimentacoesService arquivoMovimentacoes;
+
+    /**
+     * Grava (ou atualiza) as movimentações recebidas de uma portaria.
+     *
+     * @param lote Movimentações enviadas pela portaria.
+     * @return UUIDs processados, que a portaria pode marcar como sincronizados. Movimentações de
+     *         veículos que não existem no servidor central também são devolvidas (e registradas no log),
+     *         para não ficarem sendo reenviadas indefinidamente.
+     * @throws RuntimeException se uma movimentação (ou a já gravada com o mesmo UUID) for de outra unidade;
+     *         nesse caso nenhuma movimentação do lote é gravada.
+     */
+    @Transactional
+    @Compartimento(ClasseCarga.ESCRITA)
+    public List<String> receberMovimentacoes(List<MovimentacaoSincronizada> lote) {
+        List<String> processadas = new ArrayList<>();
+        Map<Long, Veiculo> afetados = new LinkedHashMap<>();
+        Date agora = new Date();
+
+        for (MovimentacaoSincronizada dto : lote) {
+            if (dto.getUuid() == null || dto.getTipoMovimento() == null || dto.getDataHora() == null) {
+                throw new RuntimeException("Movimentação sincronizada sem UUID, tipo ou data/hora.");
+            }
+        }
+        List<MovimentacaoSincronizada> ordenadas = new ArrayList<>(lote);
+        ordenadas.sort(Comparator.comparing(MovimentacaoSincronizada::getDataHora));
+
+        for (MovimentacaoSincronizada dto : ordenadas) {
+            Veiculo veiculo = veiculoRepository.findByPlaca(dto.getPlaca()).orElse(null);
+            if (veiculo == null) {
+                logger.warn("Movimentação {} ignorada: veículo {} não cadastrado no servidor central.", dto.getUuid(), dto.getPlaca());
+                processadas.add(dto.getUuid());
+                continue;
+            }
+            UnidadeContexto.verificar(veiculo.getUnidadeId());
+
+            Movimentacao movimentacao = movimentacaoRepository.findByUuid(dto.getUuid()).orElseGet(Movimentacao::new);
+            boolean nova = movimentacao.getId() == null;
+            if (!nova) {
+                UnidadeContexto.verificar(movimentacao.getUnidadeId());
+            }
+            Date dataAnterior = movimentacao.getDataHora();
+            movimentacao.setUuid(dto.getUuid());
+            movimentacao.setVeiculo(veiculo);
+            movimentacao.setTipoMovimento(dto.getTipoMovimento());
+            movimentacao.setDataHora(dto.getDataHora());
+            movimentacao.setQuilometragem(dto.getQuilometragem());
+            movimentacao.setMotoristaCadastro(motoristaService.obterOuCriar(dto.getMotorista()));
+            movimentacao.setPorteiroCadastro(porteiroService.obterOuCriar(dto.getPorteiro()));
+            movimentacao.setSincronizadaEm(agora);
+            movimentacaoRepository.save(movimentacao);
+            outboxService.registrar(nova ? OutboxService.MOVIMENTACAO_REGISTRADA : OutboxService.MOVIMENTACAO_ATUALIZADA,
+                    movimentacao.getId(), dto);
+            relatorioService.registrarAlteracao();
+            leituras.invalidar(movimentacao.getUnidadeId());
+            ocupacaoService.invalidarAPartirDe(dto.getDataHora());
+            ocupacaoService.invalidarAPartirDe(dataAnterior);
+            arquivoMovimentacoes.invalidar(movimentacao.getUnidadeId(), dto.getDataHora(), dataAnterior);
+
+            afetados.put(veiculo.getId(), veiculo);
+            processadas.add(dto.getUuid());
+        }
+
+        for (Veiculo veiculo : afetados.values()) {
+            recalcularStatus(veiculo);
+            viagemService.reparearVeiculo(veiculo);
+        }
+        return processadas;
+    }
+
+    /**
+     * Lista os veículos da unidade da requisição alterados a partir de um instante (todos os da
+     * unidade, se o instante for nulo).
+     *
+     * @param desde Instante da última alteração já recebida pela portaria.
+     * @return Veículos alterados, do mais antigo para o mais recente.
+     */
+    @Compartimento(ClasseCarga.LOTE)
+    public List<Veiculo> listarVeiculosAlterados(Date desde) {
+        long unidade = UnidadeContexto.obter();
+        if (desde == null) {
+            return leituraEmLote.listarDaUnidade(Veiculo.class, unidade);
+        }
+        return veiculoRepository.findByUnidadeIdAndAtualizadoEmGreaterThanEqualOrderByAtualizadoEmAsc(unidade, desde);
+    }
+
+    /**
+     * Aplica ao veículo o status resultante da sua movimentação mais recente.
+     */
+    private void recalcularStatus(Veiculo veiculo) {
+        Movimentacao ultima = movimentacaoRepository.findTopByVeiculoOrderByDataHoraDescUuidDesc(veiculo);
+        if (ultima == null) {
+            return;
+        }
+        veiculo.setStatus(StatusVeiculo.apos(ultima.getTipoMovimento()));
+        veiculo.setUltimaMovimentacao(ultima.getDataHora());
+        veiculoRepository.save(veiculo);
+        projecaoPatio.registrarAlteracao(veiculo);
+    }
+}
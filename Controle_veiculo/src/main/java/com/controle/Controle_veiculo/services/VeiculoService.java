@@ -2,11 +2,21 @@ package com.controle.Controle_veiculo.services;
 
 import com.controle.Controle_veiculo.model.Veiculo;
 import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.anpr.IndicePlacas;
+import com.controle.Controle_veiculo.services.compartimento.ClasseCarga;
+import com.controle.Controle_veiculo.services.compartimento.Compartimento;
+import com.controle.Controle_veiculo.services.outbox.OutboxService;
+import com.controle.Controle_veiculo.services.relatorio.RelatorioService;
+import com.controle.Controle_veiculo.services.transacao.LeituraEmLote;
+import com.controle.Controle_veiculo.services.transacao.TransacaoLeitura;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
+import com.controle.Controle_veiculo.services.unidade.UnidadeService;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,6 +33,27 @@ public class VeiculoService {
     @Autowired
     private VeiculoRepository veiculoRepository; // Injeção de dependência do repositório de veículos.
 
+    @Autowired
+    private LeituraEmLote leituraEmLote;
+
+    @Autowired
+    private OutboxService outboxService; // Eventos para as integrações (gravados na mesma transação).
+
+    @Autowired
+    private RelatorioService relatorioService; // Relatórios em cache mostram a placa do veículo.
+
+    @Autowired
+    private ProjecaoPatioService projecaoPatio; // Listas de presentes/ausentes servidas da memória.
+
+    @Autowired
+    private LeituraCompartilhadaService leituras; // Contagens compartilhadas entre chamadas simultâneas.
+
+    @Autowired
+    private IndicePlacas indicePlacas; // Placas reconhecidas pelas câmeras da portaria.
+
+    @Autowired
+    private UnidadeService unidadeService; // Unidades (pátios) cadastradas.
+
     /**
      * Atualiza os dados de um veículo existente.
      * 
@@ -35,10 +66,12 @@ public class VeiculoService {
      * @throws RuntimeException caso o veículo não seja encontrado.
      */
     @Transactional
+    @Compartimento(ClasseCarga.ESCRITA)
     public Veiculo atualizarVeiculo(Long id, Veiculo dadosVeiculo) {
         // Busca o veículo existente no banco ou lança exceção caso não exista.
         Veiculo veiculoExistente = veiculoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Veículo não encontrado com o ID: " + id));
+        UnidadeContexto.verificar(veiculoExistente.getUnidadeId());
 
         // Atualiza os campos permitidos.
         veiculoExistente.setPlaca(dadosVeiculo.getPlaca());
@@ -48,7 +81,13 @@ public class VeiculoService {
         veiculoExistente.setCor(dadosVeiculo.getCor());
 
         // Persiste as alterações e retorna o veículo atualizado.
-        return veiculoRepository.save(veiculoExistente);
+        Veiculo atualizado = veiculoRepository.save(veiculoExistente);
+        outboxService.registrar(OutboxService.VEICULO_SALVO, atualizado.getId(), atualizado);
+        relatorioService.registrarAlteracao();
+        leituras.invalidar(atualizado.getUnidadeId());
+        projecaoPatio.registrarAlteracao(atualizado);
+        indicePlacas.registrar(atualizado.getId(), atualizado.getPlaca());
+        return atualizado;
     }
 
     /**
@@ -56,12 +95,26 @@ public class VeiculoService {
      * 
      * O Spring Data JPA identifica automaticamente se o objeto possui um ID —
      * caso sim, ele faz um update; caso não, cria um novo registro.
+     * Sem unidade informada, o veículo fica na unidade da requisição.
      *
      * @param veiculo Veículo a ser salvo.
      * @return Instância salva do veículo.
+     * @throws RuntimeException se a unidade não existir ou for diferente da unidade da requisição.
      */
+    @Transactional
+    @Compartimento(ClasseCarga.ESCRITA)
     public Veiculo salvarVeiculo(Veiculo veiculo) {
-        return veiculoRepository.save(veiculo);
+        if (veiculo.getUnidadeId() == null) {
+            veiculo.setUnidadeId(UnidadeContexto.obter());
+        }
+        UnidadeContexto.verificar(veiculo.getUnidadeId());
+        unidadeService.exigir(veiculo.getUnidadeId());
+        Veiculo salvo = veiculoRepository.save(veiculo);
+        outboxService.registrar(OutboxService.VEICULO_SALVO, salvo.getId(), salvo);
+        leituras.invalidar(salvo.getUnidadeId());
+        projecaoPatio.registrarAlteracao(salvo);
+        indicePlacas.registrar(salvo.getId(), salvo.getPlaca());
+        return salvo;
     }
 
     /**
@@ -70,73 +123,93 @@ public class VeiculoService {
      * @param placa Placa a ser consultada.
      * @return Optional contendo o veículo (ou vazio, se não encontrado).
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
+    @TransacaoLeitura
     public Optional<Veiculo> buscarPorPlaca(String placa) {
         return veiculoRepository.findByPlaca(placa);
     }
 
     /**
-     * Lista todos os veículos cadastrados.
+     * Lista todos os veículos cadastrados (lidos por uma sessão sem estado, ver {@link LeituraEmLote}).
      *
-     * @return Lista com todos os registros de veículos.
+     * @return Lista com todos os registros de veículos, desanexados.
      */
+    @Compartimento(ClasseCarga.LOTE)
     public List<Veiculo> listarTodos() {
-        return veiculoRepository.findAll();
+        return leituraEmLote.listar(Veiculo.class);
     }
 
     /**
-     * Retorna a quantidade total de veículos cadastrados.
+     * Retorna a quantidade de veículos cadastrados na unidade da requisição.
      *
-     * @return Total de veículos no banco.
+     * @return Total de veículos da unidade.
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
     public Long countAllVeiculos(){
-        return veiculoRepository.count();
+        long unidade = UnidadeContexto.obter();
+        return leituras.obter(unidade, "veiculos.count", () -> veiculoRepository.countByUnidadeId(unidade));
     }
 
     /**
-     * Retorna a contagem de veículos com o status "Presente".
+     * Retorna a contagem de veículos com o status "Presente" na unidade da requisição (projeção em memória do pátio).
      *
      * @return Quantidade de veículos presentes.
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
     public Long countVeiculosPresentes(){
-        return veiculoRepository.countByStatus("Presente");
+        return projecaoPatio.contarPresentes();
+    }
+
+    /**
+     * Retorna a contagem de veículos com o status "Ausente" na unidade da requisição (projeção em memória do pátio).
+     *
+     * @return Quantidade de veículos ausentes.
+     */
+    @Compartimento(ClasseCarga.INTERATIVA)
+    public Long countVeiculosAusentes(){
+        return projecaoPatio.contarAusentes();
     }
 
     /**
      * Retorna uma lista de veículos com status "Presente",
      * ordenados pela data da última movimentação (mais recentes primeiro).
      *
-     * @return Lista ordenada de veículos presentes.
+     * @return Lista ordenada (e imutável) de veículos presentes.
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
     public List<Veiculo> listarVeiculosPresentesOrdenados() {
-        return veiculoRepository.findByStatusOrderByUltimaMovimentacaoDesc("Presente");
+        return projecaoPatio.listarPresentes();
     }
 
     /**
      * Retorna uma lista de veículos com status "Ausente",
      * também ordenados pela última movimentação.
      *
-     * @return Lista ordenada de veículos ausentes.
+     * @return Lista ordenada (e imutável) de veículos ausentes.
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
     public List<Veiculo> listarVeiculosAusentesOrdenados() {
-        return veiculoRepository.findByStatusOrderByUltimaMovimentacaoDesc("Ausente");
+        return projecaoPatio.listarAusentes();
     }
 
     /**
-     * Lista todos os veículos que estão presentes.
+     * Lista todos os veículos que estão presentes (mais recentes primeiro).
      *
      * @return Lista de veículos com status "Presente".
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
     public List<Veiculo> listarVeiculosPresentes() {
-        return veiculoRepository.findByStatus("Presente");
+        return projecaoPatio.listarPresentes();
     }
 
     /**
-     * Lista todos os veículos que estão ausentes.
+     * Lista todos os veículos que estão ausentes (mais recentes primeiro).
      *
      * @return Lista de veículos com status "Ausente".
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
     public List<Veiculo> listarVeiculosAusentes() {
-        return veiculoRepository.findByStatus("Ausente");
+        return projecaoPatio.listarAusentes();
     }
 
     /**
@@ -145,6 +218,7 @@ public class VeiculoService {
      * @param id ID do veículo.
      * @return true se o veículo existe, false caso contrário.
      */
+    @Compartimento(ClasseCarga.INTERATIVA)
     public boolean existsById(Long id) {
         return veiculoRepository.existsById(id);
     }
@@ -157,11 +231,17 @@ public class VeiculoService {
      * @param id ID do veículo a ser deletado.
      * @throws RuntimeException se o veículo não for encontrado.
      */
+    @Transactional
+    @Compartimento(ClasseCarga.ESCRITA)
     public void deleteById(Long id) {
-        if (veiculoRepository.existsById(id)) {
-            veiculoRepository.deleteById(id);
-        } else {
-            throw new RuntimeException("Veículo não encontrado com id: " + id);
-        }
+        Veiculo veiculo = veiculoRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Veículo não encontrado com id: " + id));
+        UnidadeContexto.verificar(veiculo.getUnidadeId());
+        veiculoRepository.delete(veiculo);
+        outboxService.registrar(OutboxService.VEICULO_EXCLUIDO, id, Map.of("id", id, "placa", veiculo.getPlaca()));
+        relatorioService.registrarAlteracao();
+        leituras.invalidar(veiculo.getUnidadeId());
+        projecaoPatio.registrarExclusao(id);
+        indicePlacas.remover(id);
     }
 }
@@ -0,0 +1,206 @@
+package com.controle.Controle_veiculo.services;
+
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.model.Viagem;
+import com.controle.Controle_veiculo.repository.MovimentacaoRepository;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.repository.ViagemRepository;
+import com.controle.Controle_veiculo.services.transacao.TransacaoLeitura;
+
+import jakarta.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Camada de serviço responsável por manter as viagens materializadas (saída → entrada).
+ *
+ * Regras de pareamento, aplicadas tanto no modo incremental quanto na reconstrução:
+ * - Uma SAÍDA abre uma nova viagem. Se já existir uma viagem aberta para o veículo,
+ *   ela é descartada (a saída anterior ficou sem entrada correspondente).
+ * - Uma ENTRADA fecha a viagem aberta do veículo, calculando duração e distância.
+ *   Entradas sem viagem aberta são ignoradas.
+ */
+@Service
+public class ViagemService {
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private MovimentacaoRepository movimentacaoRepository;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Atualiza as viagens com uma movimentação recém-registrada.
+     *
+     * Deve ser chamado dentro da transação de registro (ex: {@code registrarMovimentacao}),
+     * para que a viagem e a movimentação sejam gravadas de forma atômica.
+     * Se a movimentação for anterior à última viagem conhecida (registro retroativo),
+     * o pareamento do veículo é refeito por completo.
+     *
+     * @param movimentacao Movimentação já persistida.
+     */
+    @Transactional
+    public void registrarMovimentacao(Movimentacao movimentacao) {
+        Veiculo veiculo = movimentacao.getVeiculo();
+        Viagem ultima = viagemRepository.findTopByVeiculoOrderByDataSaidaDescIdDesc(veiculo);
+
+        if (ultima != null && isRetroativa(ultima, movimentacao)) {
+            reparearVeiculo(veiculo);
+            return;
+        }
+
+        if (movimentacao.getTipoMovimento() == TipoMovimento.SAIDA) {
+            if (ultima != null && ultima.isAberta()) {
+                viagemRepository.delete(ultima);
+            }
+            viagemRepository.save(new Viagem(movimentacao));
+        } else if (movimentacao.getTipoMovimento() == TipoMovimento.ENTRADA) {
+            if (ultima != null && ultima.isAberta()) {
+                ultima.fechar(movimentacao);
+                viagemRepository.save(ultima);
+            }
+        }
+    }
+
+    /**
+     * Refaz todas as viagens de um veículo a partir do seu histórico de movimentações.
+     *
+     * Usado após edições de movimentações ({@code atualizarMovimentacao}), quando a
+     * data ou o tipo de um registro antigo pode ter mudado o pareamento.
+     *
+     * @param veiculo Veículo cujas viagens serão refeitas.
+     * @return Quantidade de viagens geradas.
+     */
+    @Transactional
+    public int reparearVeiculo(Veiculo veiculo) {
+        viagemRepository.deleteByVeiculo(veiculo);
+        List<Viagem> viagens = parear(movimentacaoRepository.findByVeiculoOrderByDataHoraAscIdAsc(veiculo));
+        viagemRepository.saveAll(viagens);
+        return viagens.size();
+    }
+
+    /**
+     * Regenera todas as viagens a partir do histórico, processando os veículos em paralelo.
+     *
+     * Cada veículo é refeito em sua própria transação, então uma falha em um veículo
+     * não desfaz o trabalho já concluído nos demais.
+     *
+     * @return Quantidade total de viagens geradas.
+     */
+    public int reconstruirTodas() {
+        List<Long> ids = veiculoRepository.findAllIds();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+        try {
+            List<Future<Integer>> tarefas = new ArrayList<>();
+            for (Long id : ids) {
+                tarefas.add(executor.submit(() -> transactionTemplate.execute(status ->
+                        veiculoRepository.findById(id).map(this::reparearVeiculo).orElse(0))));
+            }
+
+            int total = 0;
+            for (Future<Integer> tarefa : tarefas) {
+                total += tarefa.get();
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Reconstrução das viagens interrompida.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Falha ao reconstruir as viagens: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Lista as viagens abertas (veículos que saíram e ainda não retornaram).
+     */
+    @TransacaoLeitura
+    public List<Viagem> listarAbertas() {
+        return viagemRepository.findByDataEntradaIsNullOrderByDataSaidaAsc();
+    }
+
+    /**
+     * Lista as viagens concluídas mais longas.
+     *
+     * @param limite Quantidade máxima de viagens retornadas.
+     */
+    @TransacaoLeitura
+    public List<Viagem> listarMaisLongas(int limite) {
+        return viagemRepository.findByDuracaoSegundosIsNotNullOrderByDuracaoSegundosDesc(PageRequest.of(0, limite));
+    }
+
+    /**
+     * Lista as viagens de um motorista de forma paginada.
+     */
+    @TransacaoLeitura
+    public Page<Viagem> listarPorMotorista(String motorista, int page, int size) {
+        return viagemRepository.findByMotoristaOrderByDataSaidaDesc(motorista, PageRequest.of(page, size));
+    }
+
+    /**
+     * Lista as viagens de um veículo de forma paginada.
+     */
+    @TransacaoLeitura
+    public Page<Viagem> listarPorVeiculo(Long veiculoId, int page, int size) {
+        return viagemRepository.findByVeiculoIdOrderByDataSaidaDesc(veiculoId, PageRequest.of(page, size));
+    }
+
+    /**
+     * Pareia um histórico cronológico de movimentações de um único veículo em viagens.
+     *
+     * @param historico Movimentações ordenadas por data/hora.
+     * @return Viagens resultantes (a última pode estar aberta).
+     */
+    static List<Viagem> parear(List<Movimentacao> historico) {
+        List<Viagem> viagens = new ArrayList<>();
+        Viagem aberta = null;
+
+        for (Movimentacao movimentacao : historico) {
+            if (movimentacao.getTipoMovimento() == TipoMovimento.SAIDA) {
+                aberta = new Viagem(movimentacao);
+            } else if (movimentacao.getTipoMovimento() == TipoMovimento.ENTRADA && aberta != null) {
+                aberta.fechar(movimentacao);
+                viagens.add(aberta);
+                aberta = null;
+            }
+        }
+
+        if (aberta != null) {
+            viagens.add(aberta);
+        }
+        return viagens;
+    }
+
+    /**
+     * Verifica se a movimentação é anterior ao último evento já pareado do veículo.
+     */
+    private boolean isRetroativa(Viagem ultima, Movimentacao movimentacao) {
+        if (movimentacao.getDataHora().before(ultima.getDataSaida())) {
+            return true;
+        }
+        return ultima.getDataEntrada() != null && movimentacao.getDataHora().before(ultima.getDataEntrada());
+    }
+}
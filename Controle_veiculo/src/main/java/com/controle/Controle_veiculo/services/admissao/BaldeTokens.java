@@ -0,0 +1,57 @@
+package com.controle.Controle_veiculo.services.admissao;
+
+/**
+ * Balde de tokens de um cliente: acumula {@code taxaPorSegundo} tokens por segundo até a
+ * {@code capacidade} (rajada) e cada requisição admitida consome um token.
+ *
+ * A reposição é calculada no momento do consumo, a partir do tempo decorrido, então nenhum
+ * balde precisa de uma tarefa em segundo plano.
+ */
+class BaldeTokens {
+
+    private final double capacidade;
+
+    private final double tokensPorNano;
+
+    private double tokens;
+
+    private long ultimaReposicao;
+
+    BaldeTokens(double taxaPorSegundo, double capacidade, long agora) {
+        this.capacidade = capacidade;
+        this.tokensPorNano = taxaPorSegundo / 1_000_000_000d;
+        this.tokens = capacidade;
+        this.ultimaReposicao = agora;
+    }
+
+    /**
+     * Tenta consumir um token.
+     *
+     * @param agora Instante atual ({@link System#nanoTime()}).
+     * @return 0 se o token foi consumido, ou o tempo em nanossegundos até o próximo token.
+     */
+    synchronized long consumir(long agora) {
+        repor(agora);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPorNano);
+    }
+
+    /**
+     * @param agora Instante atual ({@link System#nanoTime()}).
+     * @return true se o balde está cheio (o cliente não fez requisições recentes e pode ser descartado).
+     */
+    synchronized boolean cheio(long agora) {
+        repor(agora);
+        return tokens >= capacidade;
+    }
+
+    private void repor(long agora) {
+        if (agora > ultimaReposicao) {
+            tokens = Math.min(capacidade, tokens + (agora - ultimaReposicao) * tokensPorNano);
+            ultimaReposicao = agora;
+        }
+    }
+}
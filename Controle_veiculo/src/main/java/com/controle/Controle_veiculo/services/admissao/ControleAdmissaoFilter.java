@@ -0,0 +1,391 @@
+package com.controle.Controle_veiculo.services.admissao;
+
+import com.controle.Controle_veiculo.services.compartimento.ClasseCarga;
+import com.controle.Controle_veiculo.services.compartimento.RoteadorConexoes;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
+import com.controle.Controle_veiculo.services.unidade.UnidadeService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+/**
+ * Controle de admissão das requisições da API, executado depois do Spring Security (o usuário já
+ * autenticado identifica o cliente sem verificar o token de novo).
+ *
+ * Protege o registro de movimentações na portaria contra clientes que consultam a API sem parar
+ * (ex: uma aba do painel ou um script de integração em loop):
+ * 1. Cada cliente tem um balde de tokens para as leituras e outro para os registros da portaria, com
+ *    limites separados. O cliente é o usuário autenticado em um dispositivo (cabeçalho
+ *    {@code X-Dispositivo} ou, sem ele, o endereço de origem, já com os cabeçalhos do proxy reverso
+ *    aplicados por {@code server.forward-headers-strategy}); sem autenticação, só o endereço. Assim
+ *    portarias que compartilham o mesmo usuário não dividem o limite. Acima do limite a requisição
+ *    recebe 429 (Too Many Requests) com o cabeçalho Retry-After. Com {@code admissao.clientes-maximo}
+ *    clientes acompanhados, os clientes novos dividem um único balde de leitura até a limpeza (em
+ *    segundo plano) liberar espaço; os registros da portaria sempre ganham um balde próprio.
+ * 2. As leituras nunca ocupam as últimas {@code admissao.conexoes-reservadas} conexões do pool em que
+ *    são executadas: com compartimentos, o interativo (as reservadas ficam para cadastros e login, já
+ *    que a portaria tem o pool de escrita); sem compartimentos, o pool único (ficam para a portaria).
+ *    Sem uma vaga livre, ou com requisições já aguardando conexão no pool das leituras ou no da
+ *    portaria (banco sem dar conta dos registros), a leitura é descartada com 503 (Service
+ *    Unavailable) em vez de entrar na fila.
+ * 3. Os registros da portaria nunca são descartados por saturação, apenas pelo limite do próprio cliente.
+ * 4. Com mais de uma unidade (pátio) cadastrada, as leituras de uma unidade ocupam no máximo
+ *    {@code admissao.leitura.fracao-por-unidade} das vagas de leitura: o pico de uma unidade recebe 503
+ *    sem esgotar as vagas das outras.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 10)
+@ConditionalOnProperty(name = "admissao.habilitada", havingValue = "true", matchIfMissing = true)
+public class ControleAdmissaoFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ControleAdmissaoFilter.class);
+
+    /**
+     * Cabeçalho com o identificador do dispositivo (ex: terminal da portaria) que faz a requisição.
+     */
+    public static final String CABECALHO_DISPOSITIVO = "X-Dispositivo";
+
+    // Tamanho máximo do identificador do dispositivo usado na chave do balde
+    private static final int TAMANHO_MAXIMO_DISPOSITIVO = 64;
+
+    /**
+     * Classes de requisição, em ordem de prioridade.
+     */
+    public enum Classe {
+        /** Registro de movimentações (portaria e sincronização do modo edge). */
+        PORTARIA,
+        /** Consultas (GET/HEAD). */
+        LEITURA,
+        /** Demais escritas (cadastros, edições, login), sem limite. */
+        OUTRAS
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UnidadeService unidadeService;
+
+    @Value("${admissao.leitura.taxa-por-segundo:20}")
+    private double taxaLeitura;
+
+    @Value("${admissao.leitura.rajada:40}")
+    private double rajadaLeitura;
+
+    @Value("${admissao.portaria.taxa-por-segundo:5}")
+    private double taxaPortaria;
+
+    @Value("${admissao.portaria.rajada:20}")
+    private double rajadaPortaria;
+
+    @Value("${admissao.conexoes-reservadas:2}")
+    private int conexoesReservadas;
+
+    @Value("${admissao.clientes-maximo:10000}")
+    private int clientesMaximo;
+
+    @Value("${admissao.leitura.fracao-por-unidade:0.5}")
+    private double fracaoPorUnidade;
+
+    // Baldes por classe e cliente (ex: "LEITURA|usuario:porteiro@dispositivo:portaria-norte")
+    private final Map<String, BaldeTokens> baldes = new ConcurrentHashMap<>();
+
+    // Balde de leitura dividido pelos clientes novos enquanto o mapa está cheio
+    private BaldeTokens excedente;
+
+    private final AtomicBoolean limpezaAgendada = new AtomicBoolean();
+
+    private final AtomicLong ultimaLimpeza = new AtomicLong(System.nanoTime());
+
+    private final Map<Classe, Metricas> metricas = new EnumMap<>(Classe.class);
+
+    // Pool das leituras (interativo) e dos registros da portaria (escrita); sem compartimentos, o mesmo pool
+    private HikariDataSource poolLeitura;
+
+    private HikariDataSource poolPortaria;
+
+    // Vagas do pool disponíveis para as leituras
+    private Semaphore vagasLeitura;
+
+    // Vagas de leitura de cada unidade (com mais de uma unidade cadastrada)
+    private final Map<Long, Semaphore> vagasPorUnidade = new ConcurrentHashMap<>();
+
+    private int vagasUnidade;
+
+    @PostConstruct
+    public void inicializar() {
+        for (Classe classe : Classe.values()) {
+            metricas.put(classe, new Metricas());
+        }
+        excedente = novoBalde(Classe.LEITURA);
+        int conexoes = 10;
+        if (dataSource instanceof RoteadorConexoes roteador) {
+            poolLeitura = roteador.pool(ClasseCarga.INTERATIVA);
+            poolPortaria = roteador.pool(ClasseCarga.ESCRITA);
+        } else {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    poolLeitura = dataSource.unwrap(HikariDataSource.class);
+                    poolPortaria = poolLeitura;
+                }
+            } catch (SQLException e) {
+                logger.warn("Pool de conexões não identificado; considerando {} conexões: {}", conexoes, e.getMessage());
+            }
+        }
+        if (poolLeitura != null) {
+            conexoes = poolLeitura.getMaximumPoolSize();
+        }
+        int vagas = Math.max(1, conexoes - conexoesReservadas);
+        vagasLeitura = new Semaphore(vagas);
+        vagasUnidade = Math.max(1, (int) Math.ceil(vagas * fracaoPorUnidade));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !caminho(request).startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Classe classe = classificar(request);
+        Metricas m = metricas.get(classe);
+        if (classe == Classe.OUTRAS) {
+            m.admitidas.incrementAndGet();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long espera = balde(classe, cliente(request)).consumir(System.nanoTime());
+        if (espera > 0) {
+            m.limitadas.incrementAndGet();
+            recusar(response, 429, TimeUnit.NANOSECONDS.toSeconds(espera) + 1,
+                    "Limite de requisições excedido. Tente novamente em instantes.");
+            return;
+        }
+
+        if (classe == Classe.PORTARIA) {
+            m.admitidas.incrementAndGet();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean saturado = aguardando(poolLeitura) > 0 || (poolPortaria != poolLeitura && aguardando(poolPortaria) > 0);
+        Semaphore daUnidade = unidadeService.listar().size() > 1
+                ? vagasPorUnidade.computeIfAbsent(UnidadeContexto.obter(), u -> new Semaphore(vagasUnidade))
+                : null;
+        if (saturado || !reservarVaga(daUnidade)) {
+            m.descartadas.incrementAndGet();
+            recusar(response, 503, 1, "Servidor ocupado. Tente novamente em instantes.");
+            return;
+        }
+        m.admitidas.incrementAndGet();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            vagasLeitura.release();
+            if (daUnidade != null) {
+                daUnidade.release();
+            }
+        }
+    }
+
+    /**
+     * Métricas por classe (admitidas, limitadas por cliente, descartadas por saturação), ocupação dos
+     * pools das leituras e da portaria e quantidade de clientes acompanhados.
+     *
+     * @return Mapa com o estado do controle de admissão.
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        for (Map.Entry<Classe, Metricas> entrada : metricas.entrySet()) {
+            Map<String, Object> porClasse = new LinkedHashMap<>();
+            porClasse.put("admitidas", entrada.getValue().admitidas.get());
+            porClasse.put("limitadas", entrada.getValue().limitadas.get());
+            porClasse.put("descartadas", entrada.getValue().descartadas.get());
+            estado.put(entrada.getKey().name().toLowerCase(), porClasse);
+        }
+
+        Map<String, Object> conexoes = new LinkedHashMap<>();
+        conexoes.put("leitura", estadoDo(poolLeitura));
+        conexoes.put("portaria", estadoDo(poolPortaria));
+        conexoes.put("vagasLeitura", vagasLeitura.availablePermits());
+        Map<Long, Integer> porUnidade = new LinkedHashMap<>();
+        vagasPorUnidade.forEach((unidade, vagas) -> porUnidade.put(unidade, vagas.availablePermits()));
+        conexoes.put("vagasLeituraPorUnidade", porUnidade);
+        estado.put("conexoes", conexoes);
+        estado.put("clientes", baldes.size());
+        return estado;
+    }
+
+    /**
+     * Descarta os baldes cheios (clientes sem requisições recentes), para que a memória não cresça
+     * com cada endereço ou usuário que já acessou a API.
+     */
+    @Scheduled(fixedDelayString = "${admissao.limpeza-ms:60000}")
+    public void limparBaldes() {
+        long agora = System.nanoTime();
+        baldes.values().removeIf(balde -> balde.cheio(agora));
+        ultimaLimpeza.set(agora);
+    }
+
+    /**
+     * Reserva uma vaga de leitura da unidade (se houver limite por unidade) e uma do pool.
+     */
+    private boolean reservarVaga(Semaphore daUnidade) {
+        if (daUnidade != null && !daUnidade.tryAcquire()) {
+            return false;
+        }
+        if (vagasLeitura.tryAcquire()) {
+            return true;
+        }
+        if (daUnidade != null) {
+            daUnidade.release();
+        }
+        return false;
+    }
+
+    private static int aguardando(HikariDataSource pool) {
+        HikariPoolMXBean mxBean = pool != null ? pool.getHikariPoolMXBean() : null;
+        return mxBean != null ? mxBean.getThreadsAwaitingConnection() : 0;
+    }
+
+    private static Map<String, Object> estadoDo(HikariDataSource pool) {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        HikariPoolMXBean mxBean = pool != null ? pool.getHikariPoolMXBean() : null;
+        if (mxBean != null) {
+            estado.put("pool", pool.getPoolName());
+            estado.put("ativas", mxBean.getActiveConnections());
+            estado.put("ociosas", mxBean.getIdleConnections());
+            estado.put("aguardando", mxBean.getThreadsAwaitingConnection());
+            estado.put("maximo", pool.getMaximumPoolSize());
+        }
+        return estado;
+    }
+
+    private Classe classificar(HttpServletRequest request) {
+        String metodo = request.getMethod();
+        if ("GET".equals(metodo) || "HEAD".equals(metodo)) {
+            return Classe.LEITURA;
+        }
+        String caminho = caminho(request);
+        if ("POST".equals(metodo)
+                && (caminho.equals("/api/movimentacoes") || caminho.equals("/api/sincronizacao/movimentacoes"))) {
+            return Classe.PORTARIA;
+        }
+        return Classe.OUTRAS;
+    }
+
+    /**
+     * Identifica o cliente: o usuário autenticado pelo Spring Security no dispositivo (cabeçalho
+     * {@code X-Dispositivo} ou endereço de origem) ou, sem autenticação, o endereço de origem.
+     */
+    static String cliente(HttpServletRequest request) {
+        String endereco = "ip:" + request.getRemoteAddr();
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao == null || !autenticacao.isAuthenticated() || autenticacao instanceof AnonymousAuthenticationToken) {
+            return endereco;
+        }
+        String dispositivo = request.getHeader(CABECALHO_DISPOSITIVO);
+        if (dispositivo == null || dispositivo.isBlank()) {
+            return "usuario:" + autenticacao.getName() + "@" + endereco;
+        }
+        dispositivo = dispositivo.strip();
+        if (dispositivo.length() > TAMANHO_MAXIMO_DISPOSITIVO) {
+            dispositivo = dispositivo.substring(0, TAMANHO_MAXIMO_DISPOSITIVO);
+        }
+        return "usuario:" + autenticacao.getName() + "@dispositivo:" + dispositivo;
+    }
+
+    /**
+     * Balde do cliente. Com o mapa cheio, uma leitura de cliente novo usa o balde dividido e a limpeza
+     * dos baldes parados é agendada em segundo plano (no máximo uma por segundo). Os registros da
+     * portaria sempre ganham um balde próprio: uma portaria nunca recebe 429 pelo consumo de outros
+     * clientes (são poucos, e a limpeza os descarta quando param).
+     */
+    private BaldeTokens balde(Classe classe, String cliente) {
+        String chave = classe + "|" + cliente;
+        BaldeTokens balde = baldes.get(chave);
+        if (balde != null) {
+            return balde;
+        }
+        if (baldes.size() >= clientesMaximo) {
+            agendarLimpeza();
+            if (classe == Classe.LEITURA) {
+                return excedente;
+            }
+        }
+        return baldes.computeIfAbsent(chave, c -> novoBalde(classe));
+    }
+
+    private BaldeTokens novoBalde(Classe classe) {
+        return classe == Classe.PORTARIA
+                ? new BaldeTokens(taxaPortaria, rajadaPortaria, System.nanoTime())
+                : new BaldeTokens(taxaLeitura, rajadaLeitura, System.nanoTime());
+    }
+
+    private void agendarLimpeza() {
+        if (System.nanoTime() - ultimaLimpeza.get() < TimeUnit.SECONDS.toNanos(1) || !limpezaAgendada.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                limparBaldes();
+            } finally {
+                limpezaAgendada.set(false);
+            }
+        });
+    }
+
+    private void recusar(HttpServletResponse response, int status, long segundos, String mensagem) throws IOException {
+        response.setStatus(status);
+        response.setHeader("Retry-After", String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"" + mensagem + "\"}");
+    }
+
+    private static String caminho(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static class Metricas {
+        final AtomicLong admitidas = new AtomicLong();
+        final AtomicLong limitadas = new AtomicLong();
+        final AtomicLong descartadas = new AtomicLong();
+    }
+}
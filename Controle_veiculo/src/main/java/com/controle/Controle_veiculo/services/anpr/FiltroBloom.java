@@ -0,0 +1,89 @@
+package com.controle.Controle_veiculo.services.anpr;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom das placas cadastradas: responde "com certeza não cadastrada" ou "talvez
+ * cadastrada" testando alguns bits, sem tocar no índice nem no banco.
+ *
+ * Dimensionado para a quantidade esperada de placas e a taxa de falso positivo desejada. As
+ * consultas e inclusões não usam locks (bits em um {@link AtomicLongArray}); não há exclusão,
+ * então placas removidas continuam "talvez cadastradas" até o filtro ser reconstruído.
+ */
+class FiltroBloom {
+
+    private final AtomicLongArray bits;
+
+    private final long quantidadeBits;
+
+    private final int funcoes;
+
+    FiltroBloom(int elementosEsperados, double taxaFalsoPositivo) {
+        int n = Math.max(1, elementosEsperados);
+        long m = (long) Math.ceil(-n * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        quantidadeBits = Math.max(64, (m + 63) / 64 * 64);
+        funcoes = Math.max(1, (int) Math.round((double) quantidadeBits / n * Math.log(2)));
+        bits = new AtomicLongArray((int) (quantidadeBits / 64));
+    }
+
+    void adicionar(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcoes; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % quantidadeBits;
+            long mascara = 1L << bit;
+            bits.getAndAccumulate((int) (bit >>> 6), mascara, (atual, novo) -> atual | novo);
+        }
+    }
+
+    boolean talvezContem(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcoes; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % quantidadeBits;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getQuantidadeBits() {
+        return quantidadeBits;
+    }
+
+    int getFuncoes() {
+        return funcoes;
+    }
+
+    /**
+     * @return Fração dos bits ligados (a taxa de falso positivo real é aproximadamente ela elevada a {@code funcoes}).
+     */
+    double ocupacao() {
+        long ligados = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            ligados += Long.bitCount(bits.get(i));
+        }
+        return (double) ligados / quantidadeBits;
+    }
+
+    /**
+     * FNV-1a de 64 bits seguido da mistura final do MurmurHash3, para espalhar bem placas parecidas.
+     */
+    private static long hash(String valor) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.US_ASCII)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
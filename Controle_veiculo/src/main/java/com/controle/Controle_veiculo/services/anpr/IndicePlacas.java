@@ -0,0 +1,251 @@
+package com.controle.Controle_veiculo.services.anpr;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice em memória das placas cadastradas (forma canônica → ID do veículo), usado pela ingestão
+ * das leituras das câmeras.
+ *
+ * Cada consulta passa primeiro pelo {@link FiltroBloom}: a maior parte das leituras de placas
+ * desconhecidas (visitantes, ruído do OCR) é descartada sem consultar o mapa nem o banco. Quando
+ * a placa exata não existe, tenta as variações com um caractere parecido trocado e aceita se
+ * apenas um veículo corresponder.
+ *
+ * Os cadastros feitos pela aplicação atualizam o índice depois do COMMIT (um cadastro desfeito nunca
+ * chega às câmeras); o índice inteiro (e o filtro, que não aceita exclusões) é reconstruído a partir
+ * do banco periodicamente e na inicialização.
+ */
+@Component
+public class IndicePlacas {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndicePlacas.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${anpr.bloom.taxa-falso-positivo:0.01}")
+    private double taxaFalsoPositivo;
+
+    /**
+     * Resultado de uma busca: o veículo e se a placa precisou de correção aproximada.
+     */
+    public record Correspondencia(Long veiculoId, boolean aproximada) {
+    }
+
+    /**
+     * Estrutura publicada para as consultas; trocada inteira a cada reconstrução.
+     */
+    private record Indice(Map<String, Long> porPlaca, Map<Long, String> placaPorId, FiltroBloom filtro) {
+    }
+
+    private volatile Indice indice;
+
+    // Alterações recebidas enquanto a reconstrução lia o banco (reaplicadas no índice novo)
+    private List<Object[]> pendentes;
+
+    // Métricas
+    private final AtomicLong rejeitadasPeloFiltro = new AtomicLong();
+    private final AtomicLong falsosPositivos = new AtomicLong();
+    private final AtomicLong aproximadas = new AtomicLong();
+
+    public IndicePlacas() {
+        indice = new Indice(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new FiltroBloom(1024, 0.01));
+    }
+
+    /**
+     * Carrega o índice depois da inicialização da aplicação.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0) // antes do aquecimento, que consulta os dados já carregados
+    public void carregar() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            logger.warn("Índice de placas não carregado: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstrói o índice e o filtro a partir do banco (pega veículos alterados direto no banco e
+     * descarta do filtro as placas excluídas).
+     */
+    @Scheduled(initialDelayString = "${anpr.indice.reconstrucao-ms:600000}", fixedDelayString = "${anpr.indice.reconstrucao-ms:600000}")
+    public void reconstruir() {
+        synchronized (this) {
+            pendentes = new ArrayList<>();
+        }
+        List<Object[]> veiculos;
+        try {
+            veiculos = jdbcTemplate.query("SELECT id, placa FROM veiculos",
+                    (rs, i) -> new Object[] {rs.getLong("id"), rs.getString("placa")});
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendentes = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            Indice novo = new Indice(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(),
+                    new FiltroBloom(Math.max(1024, veiculos.size() * 2), taxaFalsoPositivo));
+            for (Object[] veiculo : veiculos) {
+                incluir(novo, (Long) veiculo[0], (String) veiculo[1]);
+            }
+            for (Object[] alteracao : pendentes) {
+                if (alteracao[1] == null) {
+                    excluir(novo, (Long) alteracao[0]);
+                } else {
+                    incluir(novo, (Long) alteracao[0], (String) alteracao[1]);
+                }
+            }
+            pendentes = null;
+            indice = novo;
+        }
+    }
+
+    /**
+     * Inclui ou atualiza a placa de um veículo depois do COMMIT da transação atual (ou na hora, fora de transação).
+     *
+     * @param veiculoId ID do veículo.
+     * @param placa     Placa cadastrada (em qualquer formato).
+     */
+    public void registrar(Long veiculoId, String placa) {
+        if (veiculoId == null) {
+            return;
+        }
+        depoisDoCommit(() -> aplicar(veiculoId, placa));
+    }
+
+    /**
+     * Remove a placa de um veículo excluído depois do COMMIT da transação atual (ou na hora, fora de transação).
+     *
+     * @param veiculoId ID do veículo.
+     */
+    public void remover(Long veiculoId) {
+        if (veiculoId == null) {
+            return;
+        }
+        depoisDoCommit(() -> aplicar(veiculoId, null));
+    }
+
+    /**
+     * Busca o veículo de uma placa lida, tolerando um caractere trocado pelo OCR.
+     *
+     * @param canonica Placa lida, já na forma canônica.
+     * @return O veículo encontrado, ou null se a placa não for cadastrada (ou se a correção for ambígua).
+     */
+    Correspondencia localizar(String canonica) {
+        Indice atual = indice;
+        Long exata = buscar(atual, canonica);
+        if (exata != null) {
+            return new Correspondencia(exata, false);
+        }
+        Long encontrada = null;
+        for (String variacao : Placas.parecidas(canonica)) {
+            Long id = buscar(atual, variacao);
+            if (id != null) {
+                if (encontrada != null && !encontrada.equals(id)) {
+                    return null;
+                }
+                encontrada = id;
+            }
+        }
+        if (encontrada == null) {
+            return null;
+        }
+        aproximadas.incrementAndGet();
+        return new Correspondencia(encontrada, true);
+    }
+
+    /**
+     * @return Placas indexadas, dimensões e ocupação do filtro e as contagens das buscas (inclusive das variações).
+     */
+    public Map<String, Object> estado() {
+        Indice atual = indice;
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("placas", atual.porPlaca().size());
+        estado.put("filtroBits", atual.filtro().getQuantidadeBits());
+        estado.put("filtroFuncoes", atual.filtro().getFuncoes());
+        estado.put("filtroOcupacao", atual.filtro().ocupacao());
+        estado.put("rejeitadasPeloFiltro", rejeitadasPeloFiltro.get());
+        estado.put("falsosPositivos", falsosPositivos.get());
+        estado.put("aproximadas", aproximadas.get());
+        return estado;
+    }
+
+    /**
+     * Aplica a alteração no índice publicado e, durante uma reconstrução, guarda-a para o índice novo.
+     *
+     * @param placa Placa nova, ou null para remover o veículo.
+     */
+    private synchronized void aplicar(Long veiculoId, String placa) {
+        if (placa == null) {
+            excluir(indice, veiculoId);
+        } else {
+            incluir(indice, veiculoId, placa);
+        }
+        if (pendentes != null) {
+            pendentes.add(new Object[] {veiculoId, placa});
+        }
+    }
+
+    private void depoisDoCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    private Long buscar(Indice atual, String canonica) {
+        if (!atual.filtro().talvezContem(canonica)) {
+            rejeitadasPeloFiltro.incrementAndGet();
+            return null;
+        }
+        Long id = atual.porPlaca().get(canonica);
+        if (id == null) {
+            falsosPositivos.incrementAndGet();
+        }
+        return id;
+    }
+
+    private static void incluir(Indice indice, Long veiculoId, String placa) {
+        excluir(indice, veiculoId);
+        String canonica = Placas.canonica(placa);
+        if (canonica != null) {
+            indice.porPlaca().put(canonica, veiculoId);
+            indice.placaPorId().put(veiculoId, canonica);
+            indice.filtro().adicionar(canonica);
+        }
+    }
+
+    private static void excluir(Indice indice, Long veiculoId) {
+        String anterior = indice.placaPorId().remove(veiculoId);
+        if (anterior != null) {
+            indice.porPlaca().remove(anterior, veiculoId);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.controle.Controle_veiculo.services.anpr;
+
+import com.controle.Controle_veiculo.dto.LeituraPlaca;
+import com.controle.Controle_veiculo.dto.ResultadoIngestao;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingestão das leituras de placas das câmeras da portaria (ANPR).
+ *
+ * Uma câmera envia dezenas de leituras por veículo que passa, algumas com ruído do OCR. Para cada
+ * lote recebido:
+ * 1. A placa é normalizada ({@link Placas}) e procurada no {@link IndicePlacas} (filtro de Bloom na
+ *    frente, busca aproximada quando a placa exata não existe). Placas desconhecidas param aqui.
+ * 2. As leituras do mesmo veículo são agrupadas numa passagem enquanto chegarem a menos de
+ *    {@code anpr.janela-segundos} umas das outras (janela deslizante, pelo relógio da câmera).
+ * 3. Só a primeira leitura de cada passagem chega ao banco: {@link MovimentacaoService#registrarPassagem}
+ *    deduz entrada/saída do status atual e aplica as regras de registro.
+ *
+ * Todo o trabalho por leitura é feito em memória; o banco só é acessado uma vez por passagem.
+ */
+@Service
+public class IngestaoAnprService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestaoAnprService.class);
+
+    @Autowired
+    private IndicePlacas indicePlacas;
+
+    @Autowired
+    private MovimentacaoService movimentacaoService;
+
+    @Value("${anpr.janela-segundos:60}")
+    private long janelaSegundos;
+
+    @Value("${anpr.confianca-minima:0.0}")
+    private double confiancaMinima;
+
+    @Value("${anpr.retencao-minutos:10}")
+    private long retencaoMinutos;
+
+    // Passagem em andamento por veículo
+    private final Map<Long, Passagem> passagens = new ConcurrentHashMap<>();
+
+    // Métricas
+    private final AtomicLong leituras = new AtomicLong();
+    private final AtomicLong agrupadas = new AtomicLong();
+    private final AtomicLong registradas = new AtomicLong();
+    private final AtomicLong conflitos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+
+    private enum Agrupamento { NOVA, AGRUPADA, ATRASADA }
+
+    /**
+     * Leituras de um veículo separadas por menos de uma janela.
+     */
+    private static class Passagem {
+        final long inicio;
+        volatile long ultima;
+
+        Passagem(long instante) {
+            this.inicio = instante;
+            this.ultima = instante;
+        }
+    }
+
+    /**
+     * Passagem nova a registrar.
+     */
+    private record NovaPassagem(Long veiculoId, long instante, String camera, Passagem passagem) {
+    }
+
+    /**
+     * Processa um lote de leituras.
+     *
+     * @param lote Leituras enviadas pelas câmeras (em qualquer ordem).
+     * @return Quantas leituras caíram em cada categoria e as movimentações registradas.
+     */
+    public ResultadoIngestao ingerir(List<LeituraPlaca> lote) {
+        long agora = System.currentTimeMillis();
+        long limiteAtraso = agora - retencaoMinutos * 60_000;
+        int invalidas = 0, baixaConfianca = 0, desconhecidas = 0, atrasadas = 0, agrupadasLote = 0, aproximadas = 0;
+        List<NovaPassagem> novas = new ArrayList<>();
+
+        for (LeituraPlaca leitura : lote) {
+            if (leitura == null) {
+                invalidas++;
+                continue;
+            }
+            if (leitura.getConfianca() != null && leitura.getConfianca() < confiancaMinima) {
+                baixaConfianca++;
+                continue;
+            }
+            String canonica = Placas.canonica(leitura.getPlaca());
+            if (canonica == null) {
+                invalidas++;
+                continue;
+            }
+            IndicePlacas.Correspondencia correspondencia = indicePlacas.localizar(canonica);
+            if (correspondencia == null) {
+                desconhecidas++;
+                continue;
+            }
+            if (correspondencia.aproximada()) {
+                aproximadas++;
+            }
+            long instante = leitura.getDataHora() != null ? leitura.getDataHora().getTime() : agora;
+            if (instante < limiteAtraso) {
+                atrasadas++;
+                continue;
+            }
+            Passagem[] nova = new Passagem[1];
+            switch (agrupar(correspondencia.veiculoId(), instante, nova)) {
+                case NOVA -> novas.add(new NovaPassagem(correspondencia.veiculoId(), instante, leitura.getCamera(), nova[0]));
+                case AGRUPADA -> agrupadasLote++;
+                case ATRASADA -> atrasadas++;
+            }
+        }
+
+        ResultadoIngestao resultado = new ResultadoIngestao();
+        novas.sort(Comparator.comparingLong(NovaPassagem::instante));
+        for (NovaPassagem passagem : novas) {
+            registrar(passagem, resultado);
+        }
+
+        leituras.addAndGet(lote.size());
+        agrupadas.addAndGet(agrupadasLote);
+        resultado.setRecebidas(lote.size());
+        resultado.setInvalidas(invalidas);
+        resultado.setBaixaConfianca(baixaConfianca);
+        resultado.setDesconhecidas(desconhecidas);
+        resultado.setAtrasadas(atrasadas);
+        resultado.setAgrupadas(agrupadasLote);
+        resultado.setAproximadas(aproximadas);
+        return resultado;
+    }
+
+    /**
+     * Totais desde a inicialização e o estado do índice de placas.
+     *
+     * @return Mapa com as métricas.
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("leituras", leituras.get());
+        estado.put("agrupadas", agrupadas.get());
+        estado.put("registradas", registradas.get());
+        estado.put("conflitos", conflitos.get());
+        estado.put("falhas", falhas.get());
+        estado.put("passagensEmAndamento", passagens.size());
+        estado.put("janelaSegundos", janelaSegundos);
+        estado.put("indice", indicePlacas.estado());
+        return estado;
+    }
+
+    /**
+     * Descarta as passagens sem leituras há mais que a retenção (leituras mais antigas são recusadas).
+     */
+    @Scheduled(fixedDelayString = "${anpr.limpeza-ms:60000}")
+    public void limpar() {
+        long limite = System.currentTimeMillis() - retencaoMinutos * 60_000;
+        passagens.values().removeIf(passagem -> passagem.ultima < limite);
+    }
+
+    /**
+     * Inclui a leitura na passagem do veículo, ou abre uma nova se a última leitura ficou mais de
+     * uma janela para trás. Atômico por veículo (câmeras diferentes podem enviar ao mesmo tempo).
+     */
+    private Agrupamento agrupar(Long veiculoId, long instante, Passagem[] nova) {
+        long janelaMs = janelaSegundos * 1000;
+        Agrupamento[] resultado = new Agrupamento[1];
+        passagens.compute(veiculoId, (id, atual) -> {
+            if (atual != null && instante <= atual.ultima + janelaMs) {
+                if (instante < atual.inicio - janelaMs) {
+                    // Pertence a uma passagem anterior, já encerrada
+                    resultado[0] = Agrupamento.ATRASADA;
+                } else {
+                    atual.ultima = Math.max(atual.ultima, instante);
+                    resultado[0] = Agrupamento.AGRUPADA;
+                }
+                return atual;
+            }
+            resultado[0] = Agrupamento.NOVA;
+            nova[0] = new Passagem(instante);
+            return nova[0];
+        });
+        return resultado[0];
+    }
+
+    private void registrar(NovaPassagem nova, ResultadoIngestao resultado) {
+        String camera = nova.camera() == null || nova.camera().isBlank() ? "ANPR" : "ANPR " + nova.camera().trim();
+        try {
+            Object registro = movimentacaoService.registrarPassagem(nova.veiculoId(), new Date(nova.instante()), camera);
+            if (registro instanceof Movimentacao movimentacao) {
+                registradas.incrementAndGet();
+                resultado.setRegistradas(resultado.getRegistradas() + 1);
+                resultado.getMovimentacoes().add(movimentacao.getId());
+            } else {
+                conflitos.incrementAndGet();
+                resultado.setConflitos(resultado.getConflitos() + 1);
+            }
+        } catch (RuntimeException e) {
+            // A próxima leitura do veículo abre a passagem de novo e tenta outra vez
+            passagens.remove(nova.veiculoId(), nova.passagem());
+            falhas.incrementAndGet();
+            resultado.setFalhas(resultado.getFalhas() + 1);
+            logger.warn("Passagem do veículo {} não registrada: {}", nova.veiculoId(), e.getMessage());
+        }
+    }
+}
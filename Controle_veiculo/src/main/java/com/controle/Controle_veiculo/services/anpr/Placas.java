@@ -0,0 +1,144 @@
+package com.controle.Controle_veiculo.services.anpr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Normalização das placas lidas pelas câmeras (OCR).
+ *
+ * As placas têm 7 posições: 3 letras, 1 dígito, 1 letra ou dígito e 2 dígitos (antiga ABC1234 e
+ * Mercosul ABC1D23). A forma canônica:
+ * - remove espaços, hífens e pontos e passa para maiúsculas;
+ * - corrige as trocas típicas do OCR conforme a posição (0 lido numa posição de letra vira O,
+ *   B numa posição de dígito vira 8, ...);
+ * - na 5ª posição, converte as letras A-J nos dígitos 0-9, então a placa antiga e a sua versão
+ *   Mercosul (ABC1234 e ABC1C34) têm a mesma forma canônica.
+ */
+final class Placas {
+
+    // Letras que o OCR costuma confundir entre si (para a busca aproximada)
+    private static final String[] LETRAS_PARECIDAS = {"ODQU", "IJLT", "MNHW", "EF", "PRB", "KX", "VY", "CG"};
+
+    // Dígitos que o OCR costuma confundir entre si
+    private static final String[] DIGITOS_PARECIDOS = {"0869", "38", "56", "17", "49"};
+
+    private Placas() {
+    }
+
+    /**
+     * @param lida Placa como veio da câmera (ou do cadastro).
+     * @return A forma canônica, ou null se não tiver o formato de uma placa.
+     */
+    static String canonica(String lida) {
+        if (lida == null) {
+            return null;
+        }
+        StringBuilder placa = new StringBuilder(7);
+        for (int i = 0; i < lida.length(); i++) {
+            char c = Character.toUpperCase(lida.charAt(i));
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                if (placa.length() == 7) {
+                    return null;
+                }
+                placa.append(c);
+            }
+        }
+        if (placa.length() != 7) {
+            return null;
+        }
+        for (int i = 0; i < 7; i++) {
+            char corrigido = corrigir(placa.charAt(i), i);
+            if (corrigido == 0) {
+                return null;
+            }
+            placa.setCharAt(i, corrigido);
+        }
+        return placa.toString();
+    }
+
+    /**
+     * Variações da placa canônica com um caractere trocado por outro parecido (busca aproximada).
+     *
+     * @param canonica Placa na forma canônica.
+     * @return As variações, também na forma canônica.
+     */
+    static String[] parecidas(String canonica) {
+        List<String> variacoes = new ArrayList<>();
+        char[] placa = canonica.toCharArray();
+        for (int i = 0; i < placa.length; i++) {
+            char original = placa[i];
+            String grupo = grupo(Character.isDigit(original) ? DIGITOS_PARECIDOS : LETRAS_PARECIDAS, original);
+            if (i == 4 && Character.isDigit(original)) {
+                // A letra Mercosul que virou este dígito pode ter sido, na verdade, um dígito parecido com ela (I → 1)
+                char comoDigito = digito((char) ('A' + (original - '0')));
+                if (comoDigito != 0) {
+                    grupo += comoDigito;
+                }
+            }
+            for (int j = 0; j < grupo.length(); j++) {
+                char troca = corrigir(grupo.charAt(j), i);
+                if (troca != 0 && troca != original) {
+                    placa[i] = troca;
+                    variacoes.add(new String(placa));
+                }
+            }
+            placa[i] = original;
+        }
+        return variacoes.toArray(String[]::new);
+    }
+
+    private static char corrigir(char c, int posicao) {
+        return switch (posicao) {
+            case 0, 1, 2 -> letra(c);
+            case 4 -> c >= 'A' && c <= 'J' ? (char) ('0' + (c - 'A')) : c;
+            default -> digito(c);
+        };
+    }
+
+    private static char letra(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c;
+        }
+        return switch (c) {
+            case '0' -> 'O';
+            case '1' -> 'I';
+            case '2' -> 'Z';
+            case '4' -> 'A';
+            case '5' -> 'S';
+            case '6' -> 'G';
+            case '7' -> 'T';
+            case '8' -> 'B';
+            default -> 0;
+        };
+    }
+
+    private static char digito(char c) {
+        if (c >= '0' && c <= '9') {
+            return c;
+        }
+        return switch (c) {
+            case 'O', 'Q', 'D', 'U' -> '0';
+            case 'I', 'L', 'J' -> '1';
+            case 'Z' -> '2';
+            case 'A' -> '4';
+            case 'S' -> '5';
+            case 'G' -> '6';
+            case 'T' -> '7';
+            case 'B' -> '8';
+            default -> 0;
+        };
+    }
+
+    /**
+     * @return Todos os caracteres que aparecem em algum grupo junto com {@code c}.
+     */
+    private static String grupo(String[] grupos, char c) {
+        StringBuilder parecidos = new StringBuilder();
+        for (String grupo : grupos) {
+            if (grupo.indexOf(c) >= 0) {
+                parecidos.append(grupo);
+            }
+        }
+        return parecidos.toString();
+    }
+}
@@ -0,0 +1,252 @@
+package com.controle.Controle_veiculo.services.aquecimento;
+
+import com.controle.Controle_veiculo.dto.ConsultaFrota;
+import com.controle.Controle_veiculo.dto.CorrectionRequiredResponse;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.MovimentacaoRepository;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.ConsultaFrotaService;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.ProjecaoPatioService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+import com.controle.Controle_veiculo.services.compartimento.ClasseCarga;
+import com.controle.Controle_veiculo.services.compartimento.RoteadorConexoes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aquecimento da aplicação antes de ela se declarar pronta para receber tráfego.
+ *
+ * Depois de um reinício, as primeiras requisições pagam a abertura das conexões, a tradução das
+ * consultas pelo Hibernate, a compilação do JIT e a geração dos serializadores do Jackson. O
+ * aquecimento faz esse trabalho no final da inicialização, depois da carga da projeção do pátio e do
+ * índice de placas:
+ * 1. Abre as conexões mínimas de cada pool.
+ * 2. Executa as consultas dos repositórios e os caminhos de leitura do painel e da portaria, várias vezes.
+ * 3. Registra uma vez a movimentação de um veículo existente numa transação desfeita no final. A
+ *    movimentação não fica gravada, mas o veículo fica bloqueado durante a transação e o contador de
+ *    IDs das movimentações avança.
+ * 4. Serializa e desserializa veículos e movimentações em cada formato de resposta (JSON, CBOR, Smile).
+ *
+ * O aquecimento roda no {@link ApplicationReadyEvent}; o Spring só passa a prontidão para
+ * ACCEPTING_TRAFFIC quando ele termina (ver {@code /saude/pronto}). Uma falha não impede a
+ * aplicação de ficar pronta: as requisições apenas voltam a pagar o primeiro acesso.
+ */
+@Service
+public class AquecimentoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AquecimentoService.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MovimentacaoRepository movimentacaoRepository;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private MovimentacaoService movimentacaoService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private ConsultaFrotaService consultaFrotaService;
+
+    @Autowired
+    private ProjecaoPatioService projecaoPatio;
+
+    @Autowired
+    private ObjectProvider<AbstractJackson2HttpMessageConverter> conversores;
+
+    @Value("${aquecimento.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${aquecimento.iteracoes:100}")
+    private int iteracoes;
+
+    private volatile boolean concluido;
+
+    private volatile Map<String, Object> resultado = Map.of();
+
+    /**
+     * Executa o aquecimento no final da inicialização (depois dos demais ouvintes de
+     * {@link ApplicationReadyEvent}).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void aquecer() {
+        if (!habilitado) {
+            concluido = true;
+            return;
+        }
+        long inicio = System.nanoTime();
+        Map<String, Object> etapas = new LinkedHashMap<>();
+        try {
+            long etapa = System.nanoTime();
+            etapas.put("conexoes", abrirConexoes());
+            etapas.put("conexoesMs", milissegundos(etapa));
+
+            Veiculo veiculo = veiculoRepository.findAll(PageRequest.of(0, 1)).stream().findFirst().orElse(null);
+            etapa = System.nanoTime();
+            for (int i = 0; i < iteracoes; i++) {
+                consultar(veiculo);
+            }
+            etapas.put("consultasMs", milissegundos(etapa));
+
+            etapa = System.nanoTime();
+            if (veiculo != null) {
+                // Uma vez só: o registro bloqueia um veículo real
+                simularRegistro(veiculo.getId());
+            }
+            etapas.put("registrosMs", milissegundos(etapa));
+
+            etapa = System.nanoTime();
+            List<Veiculo> veiculos = veiculoRepository.findAll(PageRequest.of(0, 20)).getContent();
+            for (int i = 0; i < iteracoes; i++) {
+                serializar(veiculos);
+            }
+            etapas.put("serializacaoMs", milissegundos(etapa));
+        } catch (RuntimeException | SQLException e) {
+            logger.warn("Aquecimento interrompido: {}", e.getMessage());
+            etapas.put("erro", e.getMessage());
+        }
+        etapas.put("iteracoes", iteracoes);
+        etapas.put("duracaoMs", milissegundos(inicio));
+        resultado = etapas;
+        concluido = true;
+        logger.info("Aquecimento concluído em {} ms: {}", etapas.get("duracaoMs"), etapas);
+    }
+
+    /**
+     * @return true depois que o aquecimento terminou (ou se ele estiver desabilitado).
+     */
+    public boolean isConcluido() {
+        return concluido;
+    }
+
+    /**
+     * @return Situação do aquecimento e o tempo de cada etapa.
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("habilitado", habilitado);
+        estado.put("concluido", concluido);
+        estado.putAll(resultado);
+        return estado;
+    }
+
+    private Object abrirConexoes() throws SQLException {
+        if (dataSource instanceof RoteadorConexoes roteador) {
+            return roteador.abrirConexoes();
+        }
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            return RoteadorConexoes.abrirConexoes(dataSource.unwrap(HikariDataSource.class));
+        }
+        return 0;
+    }
+
+    /**
+     * Consultas do painel, do histórico e da portaria (repositórios e serviços).
+     */
+    private void consultar(Veiculo veiculo) {
+        long unidade = Unidade.PADRAO;
+        Date agora = new Date();
+        Date inicioDoDia = new Date(agora.getTime() - 86_400_000L);
+        movimentacaoRepository.countByUnidadeIdAndDataHoraBetweenAndTipoMovimento(unidade, inicioDoDia, agora, TipoMovimento.ENTRADA);
+        movimentacaoRepository.findWithFilters(unidade, null, null, null, PageRequest.of(0, 20));
+        movimentacaoRepository.findWithFilters(unidade, "A", inicioDoDia, agora, PageRequest.of(0, 20));
+        movimentacaoRepository.findCorrecoesPendentes(unidade, PageRequest.of(0, 20));
+        veiculoRepository.countByUnidadeIdAndStatus(unidade, StatusVeiculo.PRESENTE);
+        veiculoRepository.findByUnidadeIdAndStatusOrderByUltimaMovimentacaoDesc(unidade, StatusVeiculo.PRESENTE);
+
+        movimentacaoService.countEntradasHoje();
+        movimentacaoService.countSaidasHoje();
+        movimentacaoService.listarTodas(null, null, null, 0, 20);
+        veiculoService.countAllVeiculos();
+        veiculoService.countVeiculosPresentes();
+        veiculoService.listarVeiculosPresentesOrdenados();
+        projecaoPatio.listarAusentes();
+        consultaFrotaService.pagina(new ConsultaFrota(), null, 20);
+        if (veiculo != null) {
+            veiculoRepository.findByPlaca(veiculo.getPlaca());
+            movimentacaoRepository.findTopByVeiculoOrderByDataHoraDescIdDesc(veiculo);
+            movimentacaoService.getUltimaQuilometragem(veiculo.getId());
+            movimentacaoService.getUltimoMotorista(veiculo.getId());
+        }
+    }
+
+    /**
+     * Percorre o registro da portaria (validação, viagem, outbox, auditoria) numa transação do
+     * compartimento de escrita que é sempre desfeita.
+     */
+    private void simularRegistro(Long veiculoId) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        ClasseCarga.ESCRITA.executar(() -> transacao.executeWithoutResult(status -> {
+            Veiculo veiculo = veiculoRepository.findById(veiculoId).orElseThrow();
+            Movimentacao movimentacao = new Movimentacao();
+            movimentacao.setVeiculo(veiculo);
+            movimentacao.setTipoMovimento(veiculo.getStatus() == StatusVeiculo.PRESENTE ? TipoMovimento.SAIDA : TipoMovimento.ENTRADA);
+            movimentacao.setDataHora(new Date());
+            movimentacaoService.registrarMovimentacao(movimentacao);
+            status.setRollbackOnly();
+        }));
+    }
+
+    private void serializar(List<Veiculo> veiculos) {
+        Movimentacao movimentacao = new Movimentacao();
+        movimentacao.setTipoMovimento(TipoMovimento.ENTRADA);
+        movimentacao.setDataHora(new Date());
+        movimentacao.setMotorista("AQUECIMENTO");
+        movimentacao.setQuilometragem(0.0);
+        if (!veiculos.isEmpty()) {
+            movimentacao.setVeiculo(veiculos.get(0));
+        }
+        conversores.orderedStream().forEach(conversor -> {
+            ObjectMapper mapper = conversor.getObjectMapper();
+            try {
+                mapper.writeValueAsBytes(veiculos);
+                mapper.readValue(mapper.writeValueAsBytes(movimentacao), Movimentacao.class);
+                mapper.writeValueAsBytes(new CorrectionRequiredResponse("aquecimento", "entradaAutomatica"));
+            } catch (IOException e) {
+                throw new RuntimeException("Falha ao serializar no aquecimento: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    private static long milissegundos(long inicioNanos) {
+        return (System.nanoTime() - inicioNanos) / 1_000_000;
+    }
+}
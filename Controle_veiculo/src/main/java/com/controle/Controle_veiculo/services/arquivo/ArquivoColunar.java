@@ -0,0 +1,523 @@
+package com.controle.Controle_veiculo.services.arquivo;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arquivo colunar (somente leitura) com as movimentações de um mês de uma unidade.
+ *
+ * As linhas ficam em ordem de data e divididas em blocos. Em cada bloco, cada coluna é gravada
+ * separada das demais:
+ * - data/hora (epoch ms) e quilometragem (em centésimos de km, {@link #KM_AUSENTE} sem leitura):
+ *   primeiro valor e as diferenças para o valor anterior (zigzag), na menor largura fixa
+ *   (1, 2, 4 ou 8 bytes) que comporta todas as diferenças do bloco;
+ * - placa, motorista e tipo: código no dicionário do arquivo (1, 2 ou 4 bytes, conforme o tamanho do
+ *   dicionário).
+ *
+ * O rodapé traz os dicionários e, para cada bloco, a posição e os mínimos e máximos da data e da
+ * quilometragem. As leituras mapeiam o arquivo na memória ({@link FileChannel#map}), pulam os
+ * blocos fora do período pelas estatísticas e somam os valores em laços sobre arrays de primitivos, sem
+ * criar objetos por linha.
+ *
+ * Layout: blocos, rodapé, posição do rodapé (long) e assinatura (int).
+ */
+public final class ArquivoColunar {
+
+    /** Quilometragem não informada na movimentação. */
+    public static final long KM_AUSENTE = -1;
+
+    private static final int ASSINATURA = 0x4D564331; // "MVC1"
+
+    private static final int VERSAO = 1;
+
+    private static final long HORA_MS = 60L * 60 * 1000;
+
+    private static final long DIA_MS = 24 * HORA_MS;
+
+    private final Path caminho;
+    private final MappedByteBuffer dados;
+    private final int linhas;
+    private final String[] placas;
+    private final String[] motoristas;
+    private final String[] tipos;
+    private final int codigoEntrada;
+    private final int codigoSaida;
+
+    // Diretório de blocos
+    private final long[] posicaoBloco;
+    private final int[] linhasBloco;
+    private final long[] dataMinima;
+    private final long[] dataMaxima;
+    private final long[] kmMaximo;
+    private final int maiorBloco;
+
+    private ArquivoColunar(Path caminho, MappedByteBuffer dados) {
+        this.caminho = caminho;
+        this.dados = dados;
+        int tamanho = dados.capacity();
+        if (tamanho < 12 || dados.getInt(tamanho - 4) != ASSINATURA) {
+            throw new RuntimeException("Arquivo de movimentações inválido: " + caminho);
+        }
+        int posicao = (int) dados.getLong(tamanho - 12);
+        if (dados.getInt(posicao) != VERSAO) {
+            throw new RuntimeException("Versão não suportada do arquivo de movimentações: " + caminho);
+        }
+        linhas = dados.getInt(posicao + 4);
+        posicao += 8;
+
+        String[][] dicionarios = new String[3][];
+        for (int d = 0; d < dicionarios.length; d++) {
+            int quantidade = dados.getInt(posicao);
+            posicao += 4;
+            dicionarios[d] = new String[quantidade];
+            for (int i = 0; i < quantidade; i++) {
+                int bytes = dados.getShort(posicao) & 0xFFFF;
+                byte[] texto = new byte[bytes];
+                dados.get(posicao + 2, texto);
+                dicionarios[d][i] = bytes == 0 ? null : new String(texto, StandardCharsets.UTF_8);
+                posicao += 2 + bytes;
+            }
+        }
+        placas = dicionarios[0];
+        motoristas = dicionarios[1];
+        tipos = dicionarios[2];
+        codigoEntrada = Arrays.asList(tipos).indexOf("E");
+        codigoSaida = Arrays.asList(tipos).indexOf("S");
+
+        int blocos = dados.getInt(posicao);
+        posicao += 4;
+        posicaoBloco = new long[blocos];
+        linhasBloco = new int[blocos];
+        dataMinima = new long[blocos];
+        dataMaxima = new long[blocos];
+        kmMaximo = new long[blocos];
+        int maior = 0;
+        for (int b = 0; b < blocos; b++) {
+            posicaoBloco[b] = dados.getLong(posicao);
+            linhasBloco[b] = dados.getInt(posicao + 8);
+            dataMinima[b] = dados.getLong(posicao + 12);
+            dataMaxima[b] = dados.getLong(posicao + 20);
+            // posicao + 28: menor quilometragem do bloco (KM_AUSENTE se nenhuma linha tiver)
+            kmMaximo[b] = dados.getLong(posicao + 36);
+            maior = Math.max(maior, linhasBloco[b]);
+            posicao += 44;
+        }
+        maiorBloco = maior;
+    }
+
+    /**
+     * Abre um arquivo gravado pelo {@link Escritor}, mapeando-o na memória.
+     *
+     * @param caminho Caminho do arquivo.
+     * @return O arquivo aberto (as leituras podem ser feitas por várias threads ao mesmo tempo).
+     * @throws IOException se o arquivo não puder ser lido.
+     * @throws RuntimeException se o conteúdo não for um arquivo de movimentações válido.
+     */
+    public static ArquivoColunar abrir(Path caminho) throws IOException {
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ)) {
+            return new ArquivoColunar(caminho, canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()));
+        }
+    }
+
+    public Path getCaminho() { return caminho; }
+
+    public int getLinhas() { return linhas; }
+
+    public int getBlocos() { return linhasBloco.length; }
+
+    public long getBytes() { return dados.capacity(); }
+
+    /**
+     * Conta as entradas e saídas de cada hora do dia no período.
+     *
+     * @param inicio   Início do período (epoch ms, incluído).
+     * @param fim      Fim do período (epoch ms, excluído).
+     * @param zona     Fuso horário das horas do dia.
+     * @param entradas Contadores de entradas por hora (24 posições), acumulados.
+     * @param saidas   Contadores de saídas por hora (24 posições), acumulados.
+     * @return Quantidade de blocos lidos (os demais foram pulados pelas estatísticas).
+     */
+    public int contarPorHora(long inicio, long fim, ZoneId zona, long[] entradas, long[] saidas) {
+        ZoneRules regras = zona.getRules();
+        long[] datas = new long[maiorBloco];
+        int[] codigos = new int[maiorBloco];
+        int[] horas = new int[maiorBloco];
+        Espaco espaco = new Espaco(maiorBloco);
+        int lidos = 0;
+        for (int b = 0; b < linhasBloco.length; b++) {
+            if (dataMaxima[b] < inicio || dataMinima[b] >= fim) {
+                continue;
+            }
+            lidos++;
+            int n = linhasBloco[b];
+            int posicao = (int) posicaoBloco[b];
+            posicao = decodificarDeltas(posicao, n, datas, espaco);
+            posicao = pularDeltas(posicao, n);
+            posicao = pularCodigos(posicao, n, placas.length);
+            posicao = pularCodigos(posicao, n, motoristas.length);
+            decodificarCodigos(posicao, n, tipos.length, codigos, espaco);
+
+            long deslocamento = regras.getOffset(Instant.ofEpochMilli(dataMinima[b])).getTotalSeconds() * 1000L;
+            if (deslocamento == regras.getOffset(Instant.ofEpochMilli(dataMaxima[b])).getTotalSeconds() * 1000L) {
+                // Linhas em ordem de data: a hora só é recalculada quando a linha passa do fim da hora anterior
+                long fimDaHora = Long.MIN_VALUE;
+                int hora = 0;
+                for (int i = 0; i < n; i++) {
+                    if (datas[i] >= fimDaHora) {
+                        long horaLocal = Math.floorDiv(datas[i] + deslocamento, HORA_MS);
+                        hora = (int) Math.floorMod(horaLocal, 24L);
+                        fimDaHora = (horaLocal + 1) * HORA_MS - deslocamento;
+                    }
+                    horas[i] = hora;
+                }
+            } else {
+                // Bloco com mudança de horário de verão: deslocamento linha a linha
+                for (int i = 0; i < n; i++) {
+                    horas[i] = horaDoDia(datas[i], regras);
+                }
+            }
+
+            boolean inteiro = dataMinima[b] >= inicio && dataMaxima[b] < fim;
+            for (int i = 0; i < n; i++) {
+                if (inteiro || (datas[i] >= inicio && datas[i] < fim)) {
+                    if (codigos[i] == codigoEntrada) {
+                        entradas[horas[i]]++;
+                    } else if (codigos[i] == codigoSaida) {
+                        saidas[horas[i]]++;
+                    }
+                }
+            }
+        }
+        return lidos;
+    }
+
+    /**
+     * Hora do dia de um instante, no fuso das regras informadas. As linhas ainda na tabela usam a
+     * mesma conta, para que as horas não dependam do fuso da sessão do banco.
+     *
+     * @param dataHora Instante (epoch ms).
+     * @param regras   Regras do fuso horário.
+     * @return Hora do dia, de 0 a 23.
+     */
+    public static int horaDoDia(long dataHora, ZoneRules regras) {
+        long deslocamento = regras.getOffset(Instant.ofEpochMilli(dataHora)).getTotalSeconds() * 1000L;
+        return (int) (Math.floorMod(dataHora + deslocamento, DIA_MS) / HORA_MS);
+    }
+
+    /**
+     * Calcula a menor e a maior quilometragem registrada de cada placa no período.
+     *
+     * @param inicio     Início do período (epoch ms, incluído).
+     * @param fim        Fim do período (epoch ms, excluído).
+     * @param acumulados Por placa: {menor km, maior km, leituras}, em centésimos de km; os valores
+     *                   deste arquivo são somados aos já presentes.
+     * @return Quantidade de blocos lidos (os demais foram pulados pelas estatísticas).
+     */
+    public int somarKmPorPlaca(long inicio, long fim, Map<String, long[]> acumulados) {
+        int veiculos = placas.length;
+        long[] menor = new long[veiculos];
+        long[] maior = new long[veiculos];
+        long[] leituras = new long[veiculos];
+        Arrays.fill(menor, Long.MAX_VALUE);
+        Arrays.fill(maior, Long.MIN_VALUE);
+
+        long[] datas = new long[maiorBloco];
+        long[] kms = new long[maiorBloco];
+        int[] codigos = new int[maiorBloco];
+        Espaco espaco = new Espaco(maiorBloco);
+        int lidos = 0;
+        for (int b = 0; b < linhasBloco.length; b++) {
+            if (dataMaxima[b] < inicio || dataMinima[b] >= fim || kmMaximo[b] == KM_AUSENTE) {
+                continue;
+            }
+            lidos++;
+            int n = linhasBloco[b];
+            int posicao = decodificarDeltas((int) posicaoBloco[b], n, datas, espaco);
+            posicao = decodificarDeltas(posicao, n, kms, espaco);
+            decodificarCodigos(posicao, n, veiculos, codigos, espaco);
+
+            boolean inteiro = dataMinima[b] >= inicio && dataMaxima[b] < fim;
+            for (int i = 0; i < n; i++) {
+                long km = kms[i];
+                if (km != KM_AUSENTE && (inteiro || (datas[i] >= inicio && datas[i] < fim))) {
+                    int placa = codigos[i];
+                    menor[placa] = Math.min(menor[placa], km);
+                    maior[placa] = Math.max(maior[placa], km);
+                    leituras[placa]++;
+                }
+            }
+        }
+
+        for (int placa = 0; placa < veiculos; placa++) {
+            if (leituras[placa] > 0) {
+                long[] valores = acumulados.computeIfAbsent(placas[placa], p -> new long[] {Long.MAX_VALUE, Long.MIN_VALUE, 0});
+                valores[0] = Math.min(valores[0], menor[placa]);
+                valores[1] = Math.max(valores[1], maior[placa]);
+                valores[2] += leituras[placa];
+            }
+        }
+        return lidos;
+    }
+
+    /**
+     * Decodifica uma coluna de diferenças: copia os bytes do bloco de uma vez para um array (cópia em
+     * massa do buffer mapeado) e desfaz o zigzag e as diferenças em laços simples.
+     */
+    private int decodificarDeltas(int posicao, int n, long[] destino, Espaco espaco) {
+        long primeiro = dados.getLong(posicao);
+        int largura = dados.get(posicao + 8);
+        posicao += 9;
+        int m = n - 1;
+        switch (largura) {
+            case 1 -> {
+                dados.get(posicao, espaco.bytes, 0, m);
+                for (int i = 0; i < m; i++) {
+                    destino[i + 1] = espaco.bytes[i] & 0xFFL;
+                }
+            }
+            case 2 -> {
+                dados.slice(posicao, 2 * m).asShortBuffer().get(espaco.shorts, 0, m);
+                for (int i = 0; i < m; i++) {
+                    destino[i + 1] = espaco.shorts[i] & 0xFFFFL;
+                }
+            }
+            case 4 -> {
+                dados.slice(posicao, 4 * m).asIntBuffer().get(espaco.ints, 0, m);
+                for (int i = 0; i < m; i++) {
+                    destino[i + 1] = espaco.ints[i] & 0xFFFFFFFFL;
+                }
+            }
+            default -> dados.slice(posicao, 8 * m).asLongBuffer().get(destino, 1, m);
+        }
+        destino[0] = primeiro;
+        for (int i = 1; i < n; i++) {
+            long z = destino[i];
+            destino[i] = destino[i - 1] + ((z >>> 1) ^ -(z & 1));
+        }
+        return posicao + largura * m;
+    }
+
+    private int pularDeltas(int posicao, int n) {
+        return posicao + 9 + dados.get(posicao + 8) * (n - 1);
+    }
+
+    private void decodificarCodigos(int posicao, int n, int tamanhoDicionario, int[] destino, Espaco espaco) {
+        switch (larguraCodigo(tamanhoDicionario)) {
+            case 1 -> {
+                dados.get(posicao, espaco.bytes, 0, n);
+                for (int i = 0; i < n; i++) {
+                    destino[i] = espaco.bytes[i] & 0xFF;
+                }
+            }
+            case 2 -> {
+                dados.slice(posicao, 2 * n).asShortBuffer().get(espaco.shorts, 0, n);
+                for (int i = 0; i < n; i++) {
+                    destino[i] = espaco.shorts[i] & 0xFFFF;
+                }
+            }
+            default -> dados.slice(posicao, 4 * n).asIntBuffer().get(destino, 0, n);
+        }
+    }
+
+    private static int pularCodigos(int posicao, int n, int tamanhoDicionario) {
+        return posicao + larguraCodigo(tamanhoDicionario) * n;
+    }
+
+    private static int larguraCodigo(int tamanhoDicionario) {
+        return tamanhoDicionario <= 0x100 ? 1 : tamanhoDicionario <= 0x10000 ? 2 : 4;
+    }
+
+    /**
+     * Arrays de trabalho de uma leitura (um bloco por vez).
+     */
+    private static final class Espaco {
+        final byte[] bytes;
+        final short[] shorts;
+        final int[] ints;
+
+        Espaco(int linhas) {
+            bytes = new byte[linhas];
+            shorts = new short[linhas];
+            ints = new int[linhas];
+        }
+    }
+
+    /**
+     * Monta um arquivo colunar a partir das movimentações, recebidas em ordem de data.
+     */
+    public static final class Escritor {
+
+        private final int tamanhoBloco;
+        private final Map<String, Integer> placas = new LinkedHashMap<>();
+        private final Map<String, Integer> motoristas = new LinkedHashMap<>();
+        private final Map<String, Integer> tipos = new LinkedHashMap<>();
+
+        private long[] datas = new long[1024];
+        private long[] kms = new long[1024];
+        private int[] codigosPlaca = new int[1024];
+        private int[] codigosMotorista = new int[1024];
+        private int[] codigosTipo = new int[1024];
+        private int linhas;
+
+        /**
+         * @param tamanhoBloco Linhas por bloco (blocos menores pulam mais linhas fora do período, mas
+         *                     aumentam o rodapé).
+         */
+        public Escritor(int tamanhoBloco) {
+            this.tamanhoBloco = Math.max(1, tamanhoBloco);
+        }
+
+        /**
+         * Acrescenta uma movimentação (as datas devem vir em ordem crescente).
+         *
+         * @param dataHora  Data/hora (epoch ms).
+         * @param km        Quilometragem, ou null se não informada.
+         * @param placa     Placa do veículo.
+         * @param motorista Nome do motorista, ou null.
+         * @param tipo      "E", "S" ou null.
+         */
+        public void adicionar(long dataHora, Double km, String placa, String motorista, String tipo) {
+            if (linhas > 0 && dataHora < datas[linhas - 1]) {
+                throw new IllegalArgumentException("As movimentações devem ser adicionadas em ordem de data.");
+            }
+            if (linhas == datas.length) {
+                int capacidade = linhas * 2;
+                datas = Arrays.copyOf(datas, capacidade);
+                kms = Arrays.copyOf(kms, capacidade);
+                codigosPlaca = Arrays.copyOf(codigosPlaca, capacidade);
+                codigosMotorista = Arrays.copyOf(codigosMotorista, capacidade);
+                codigosTipo = Arrays.copyOf(codigosTipo, capacidade);
+            }
+            datas[linhas] = dataHora;
+            kms[linhas] = km != null ? Math.round(km * 100) : KM_AUSENTE;
+            codigosPlaca[linhas] = codificar(placas, placa);
+            codigosMotorista[linhas] = codificar(motoristas, motorista);
+            codigosTipo[linhas] = codificar(tipos, tipo);
+            linhas++;
+        }
+
+        public int getLinhas() { return linhas; }
+
+        /**
+         * Grava o arquivo. O conteúdo é escrito num arquivo temporário próprio desta gravação e só
+         * então substitui o destino, para que uma leitura nunca encontre um arquivo pela metade e duas
+         * gravações simultâneas do mesmo mês não escrevam no mesmo temporário.
+         *
+         * @param destino Caminho do arquivo.
+         * @throws IOException se o arquivo não puder ser gravado.
+         */
+        public void gravar(Path destino) throws IOException {
+            Files.createDirectories(destino.toAbsolutePath().getParent());
+            Path temporario = Files.createTempFile(destino.toAbsolutePath().getParent(), destino.getFileName() + ".", ".tmp");
+            try {
+                escrever(temporario);
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporario);
+            }
+        }
+
+        private void escrever(Path temporario) throws IOException {
+            int blocos = (linhas + tamanhoBloco - 1) / tamanhoBloco;
+            long[] posicoes = new long[blocos];
+            try (DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporario), 1 << 16))) {
+                for (int b = 0; b < blocos; b++) {
+                    int de = b * tamanhoBloco;
+                    int ate = Math.min(linhas, de + tamanhoBloco);
+                    posicoes[b] = saida.size();
+                    gravarDeltas(saida, datas, de, ate);
+                    gravarDeltas(saida, kms, de, ate);
+                    gravarCodigos(saida, codigosPlaca, de, ate, placas.size());
+                    gravarCodigos(saida, codigosMotorista, de, ate, motoristas.size());
+                    gravarCodigos(saida, codigosTipo, de, ate, tipos.size());
+                }
+
+                long rodape = saida.size();
+                saida.writeInt(VERSAO);
+                saida.writeInt(linhas);
+                for (Map<String, Integer> dicionario : List.of(placas, motoristas, tipos)) {
+                    saida.writeInt(dicionario.size());
+                    for (String valor : dicionario.keySet()) {
+                        byte[] texto = valor != null ? valor.getBytes(StandardCharsets.UTF_8) : new byte[0];
+                        saida.writeShort(Math.min(texto.length, 0xFFFF));
+                        saida.write(texto, 0, Math.min(texto.length, 0xFFFF));
+                    }
+                }
+                saida.writeInt(blocos);
+                for (int b = 0; b < blocos; b++) {
+                    int de = b * tamanhoBloco;
+                    int ate = Math.min(linhas, de + tamanhoBloco);
+                    long kmMinimo = Long.MAX_VALUE;
+                    long kmMaximo = KM_AUSENTE;
+                    for (int i = de; i < ate; i++) {
+                        if (kms[i] != KM_AUSENTE) {
+                            kmMinimo = Math.min(kmMinimo, kms[i]);
+                            kmMaximo = Math.max(kmMaximo, kms[i]);
+                        }
+                    }
+                    saida.writeLong(posicoes[b]);
+                    saida.writeInt(ate - de);
+                    saida.writeLong(datas[de]);
+                    saida.writeLong(datas[ate - 1]);
+                    saida.writeLong(kmMaximo == KM_AUSENTE ? KM_AUSENTE : kmMinimo);
+                    saida.writeLong(kmMaximo);
+                }
+                saida.writeLong(rodape);
+                saida.writeInt(ASSINATURA);
+            }
+        }
+
+        private static int codificar(Map<String, Integer> dicionario, String valor) {
+            return dicionario.computeIfAbsent(valor != null && !valor.isEmpty() ? valor : null, v -> dicionario.size());
+        }
+
+        private static void gravarDeltas(DataOutputStream saida, long[] valores, int de, int ate) throws IOException {
+            long maiorDelta = 0;
+            for (int i = de + 1; i < ate; i++) {
+                maiorDelta |= zigzag(valores[i] - valores[i - 1]);
+            }
+            int largura = maiorDelta >>> 8 == 0 ? 1 : maiorDelta >>> 16 == 0 ? 2 : maiorDelta >>> 32 == 0 ? 4 : 8;
+            saida.writeLong(valores[de]);
+            saida.writeByte(largura);
+            for (int i = de + 1; i < ate; i++) {
+                long delta = zigzag(valores[i] - valores[i - 1]);
+                switch (largura) {
+                    case 1 -> saida.writeByte((int) delta);
+                    case 2 -> saida.writeShort((int) delta);
+                    case 4 -> saida.writeInt((int) delta);
+                    default -> saida.writeLong(delta);
+                }
+            }
+        }
+
+        private static void gravarCodigos(DataOutputStream saida, int[] codigos, int de, int ate, int tamanhoDicionario) throws IOException {
+            int largura = larguraCodigo(tamanhoDicionario);
+            for (int i = de; i < ate; i++) {
+                switch (largura) {
+                    case 1 -> saida.writeByte(codigos[i]);
+                    case 2 -> saida.writeShort(codigos[i]);
+                    default -> saida.writeInt(codigos[i]);
+                }
+            }
+        }
+
+        private static long zigzag(long valor) {
+            return (valor << 1) ^ (valor >> 63);
+        }
+    }
+}
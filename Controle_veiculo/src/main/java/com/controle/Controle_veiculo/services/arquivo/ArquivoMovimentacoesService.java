@@ -0,0 +1,406 @@
+package com.controle.Controle_veiculo.services.arquivo;
+
+import com.controle.Controle_veiculo.services.compartimento.ClasseCarga;
+import com.controle.Controle_veiculo.services.compartimento.Compartimento;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Arquivo das movimentações de meses fechados em arquivos colunares ({@link ArquivoColunar}) no disco
+ * local, e análises de longo prazo (quilometragem por veículo, movimentações por hora do dia) sobre os
+ * arquivos e a tabela.
+ *
+ * Cada unidade tem um arquivo por mês ({@code arquivo.diretorio/unidade-<id>/<aaaa-mm>.mvc}). As
+ * análises leem dos arquivos os meses arquivados e da tabela {@code movimentacoes} só o restante do
+ * período, com os mesmos resultados de uma consulta SQL sobre o período inteiro. As movimentações
+ * arquivadas continuam na tabela (histórico do veículo, relatórios, sincronização).
+ *
+ * Só meses fechados são arquivados: os {@code arquivo.meses-abertos} meses mais recentes ainda recebem
+ * correções. Uma movimentação gravada ou editada depois num mês arquivado descarta o arquivo do mês
+ * ({@link #invalidar}): as análises voltam a ler o mês da tabela até ele ser arquivado de novo.
+ */
+@Service
+public class ArquivoMovimentacoesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArquivoMovimentacoesService.class);
+
+    private static final String EXTENSAO = ".mvc";
+
+    // Limites de um período sem início ou sem fim
+    private static final long INICIO_MINIMO = 0;
+    private static final long FIM_MAXIMO = LocalDate.of(9999, 1, 1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${arquivo.diretorio:./dados/arquivo}")
+    private String diretorio;
+
+    @Value("${arquivo.tamanho-bloco:4096}")
+    private int tamanhoBloco;
+
+    @Value("${arquivo.meses-abertos:1}")
+    private int mesesAbertos;
+
+    @Value("${arquivo.fetch-size:1000}")
+    private int fetchSize;
+
+    // Exportação dos meses, com fetch size para ler as linhas aos poucos
+    private JdbcTemplate leitura;
+
+    // Meses arquivados de cada unidade
+    private final Map<Long, NavigableMap<YearMonth, ArquivoColunar>> catalogo = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void inicializar() {
+        leitura = new JdbcTemplate(dataSource);
+        leitura.setFetchSize(fetchSize);
+        carregar();
+    }
+
+    /**
+     * Abre os arquivos existentes no diretório (arquivos inválidos são ignorados, com um aviso).
+     */
+    public void carregar() {
+        catalogo.clear();
+        Path raiz = Paths.get(diretorio);
+        if (!Files.isDirectory(raiz)) {
+            return;
+        }
+        try (Stream<Path> arquivos = Files.walk(raiz, 2)) {
+            arquivos.filter(caminho -> caminho.getFileName().toString().endsWith(EXTENSAO)).forEach(caminho -> {
+                String pasta = caminho.getParent().getFileName().toString();
+                String nome = caminho.getFileName().toString();
+                try {
+                    long unidade = Long.parseLong(pasta.substring(pasta.indexOf('-') + 1));
+                    YearMonth mes = YearMonth.parse(nome.substring(0, nome.length() - EXTENSAO.length()));
+                    catalogo.computeIfAbsent(unidade, u -> new ConcurrentSkipListMap<>()).put(mes, ArquivoColunar.abrir(caminho));
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Arquivo de movimentações ignorado ({}): {}", caminho, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o diretório de arquivos: " + e.getMessage(), e);
+        }
+        logger.info("Arquivo de movimentações: {} mês(es) arquivado(s) em {}.",
+                catalogo.values().stream().mapToInt(Map::size).sum(), raiz.toAbsolutePath());
+    }
+
+    /**
+     * Grava (ou regrava) o arquivo colunar de um mês fechado da unidade da requisição.
+     *
+     * @param mes Mês (aaaa-mm).
+     * @return Mês, linhas, blocos, tamanho em bytes, bytes por linha e duração.
+     * @throws RuntimeException se o mês for inválido ou ainda estiver aberto.
+     */
+    @Compartimento(ClasseCarga.LOTE)
+    public Map<String, Object> arquivar(String mes) {
+        return arquivar(UnidadeContexto.obter(), mes(mes));
+    }
+
+    /**
+     * Descarta o arquivo de um mês da unidade da requisição: as análises voltam a ler o mês da tabela.
+     *
+     * @param mes Mês (aaaa-mm).
+     * @return true se o mês estava arquivado.
+     * @throws RuntimeException se o mês for inválido.
+     */
+    public boolean descartar(String mes) {
+        return descartar(UnidadeContexto.obter(), mes(mes));
+    }
+
+    /**
+     * Descarta, depois do commit da transação em andamento, o arquivo do mês de uma movimentação gravada
+     * ou editada (a edição pode ter mudado o mês: informe a data anterior e a nova).
+     *
+     * @param unidade Unidade da movimentação.
+     * @param datas   Datas/horas da movimentação (nulas são ignoradas).
+     */
+    public void invalidar(Long unidade, Date... datas) {
+        NavigableMap<YearMonth, ArquivoColunar> meses = unidade != null ? catalogo.get(unidade) : null;
+        if (meses == null || meses.isEmpty()) {
+            return;
+        }
+        for (Date dataHora : datas) {
+            if (dataHora == null) {
+                continue;
+            }
+            YearMonth mes = YearMonth.from(dataHora.toInstant().atZone(ZoneId.systemDefault()));
+            if (meses.containsKey(mes)) {
+                depoisDoCommit(() -> {
+                    if (descartar(unidade, mes)) {
+                        logger.info("Mês {} da unidade {} alterado depois do arquivamento: arquivo descartado.", mes, unidade);
+                    }
+                });
+            }
+        }
+    }
+
+    private boolean descartar(long unidade, YearMonth mesArquivado) {
+        NavigableMap<YearMonth, ArquivoColunar> meses = catalogo.get(unidade);
+        ArquivoColunar arquivo = meses != null ? meses.remove(mesArquivado) : null;
+        try {
+            Files.deleteIfExists(caminho(unidade, mesArquivado));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao excluir o arquivo do mês " + mesArquivado + ": " + e.getMessage(), e);
+        }
+        return arquivo != null;
+    }
+
+    /**
+     * @return Os meses arquivados da unidade da requisição, com linhas, blocos e tamanho de cada um.
+     */
+    public List<Map<String, Object>> listar() {
+        List<Map<String, Object>> meses = new ArrayList<>();
+        catalogo.getOrDefault(UnidadeContexto.obter(), new ConcurrentSkipListMap<>()).forEach((mes, arquivo) -> meses.add(descrever(mes, arquivo)));
+        return meses;
+    }
+
+    /**
+     * Arquiva os meses fechados ainda não arquivados de todas as unidades
+     * (desabilitado por padrão: {@code arquivo.cron=-}).
+     */
+    @Scheduled(cron = "${arquivo.cron:-}")
+    @Compartimento(ClasseCarga.LOTE)
+    public void arquivarMesesFechados() {
+        YearMonth ultimoFechado = YearMonth.now().minusMonths(Math.max(1, mesesAbertos));
+        long limite = inicio(ultimoFechado.plusMonths(1));
+        try {
+            // Por unidade: ID e primeiro mês com movimentações
+            List<Object[]> unidades = jdbcTemplate.query(
+                    "SELECT unidade_id, MIN(data_hora) AS primeira FROM movimentacoes WHERE data_hora < ? GROUP BY unidade_id",
+                    (rs, i) -> new Object[] {rs.getLong("unidade_id"), YearMonth.from(rs.getTimestamp("primeira").toLocalDateTime())},
+                    new Timestamp(limite));
+            for (Object[] linha : unidades) {
+                long unidade = (Long) linha[0];
+                YearMonth mes = (YearMonth) linha[1];
+                for (; !mes.isAfter(ultimoFechado); mes = mes.plusMonths(1)) {
+                    NavigableMap<YearMonth, ArquivoColunar> meses = catalogo.get(unidade);
+                    if (meses == null || !meses.containsKey(mes)) {
+                        arquivar(unidade, mes);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao arquivar os meses fechados: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Quilometragem rodada por veículo no período (maior menos menor quilometragem registrada), na
+     * unidade da requisição.
+     *
+     * @param inicio Início do período (incluído), ou null para desde a primeira movimentação.
+     * @param fim    Fim do período (excluído), ou null para até a última movimentação.
+     * @return Uma linha por placa (placa, kmInicial, kmFinal, km, leituras), da maior quilometragem
+     *         rodada para a menor.
+     */
+    public List<Map<String, Object>> kmPorVeiculo(Date inicio, Date fim) {
+        long de = inicio != null ? inicio.getTime() : INICIO_MINIMO;
+        long ate = fim != null ? fim.getTime() : FIM_MAXIMO;
+        long unidade = UnidadeContexto.obter();
+
+        Map<String, long[]> acumulados = new HashMap<>();
+        for (long[] faixa : dividir(unidade, de, ate, (arquivo, faixa) -> arquivo.somarKmPorPlaca(faixa[0], faixa[1], acumulados))) {
+            jdbcTemplate.query("SELECT v.placa, MIN(m.quilometragem) AS km_minimo, MAX(m.quilometragem) AS km_maximo, COUNT(*) AS leituras " +
+                               "FROM movimentacoes m JOIN veiculos v ON v.id = m.veiculo_id " +
+                               "WHERE m.unidade_id = ? AND m.data_hora >= ? AND m.data_hora < ? AND m.quilometragem IS NOT NULL GROUP BY v.placa", rs -> {
+                long[] valores = acumulados.computeIfAbsent(rs.getString("placa"), p -> new long[] {Long.MAX_VALUE, Long.MIN_VALUE, 0});
+                valores[0] = Math.min(valores[0], Math.round(rs.getDouble("km_minimo") * 100));
+                valores[1] = Math.max(valores[1], Math.round(rs.getDouble("km_maximo") * 100));
+                valores[2] += rs.getLong("leituras");
+            }, unidade, new Timestamp(faixa[0]), new Timestamp(faixa[1]));
+        }
+
+        List<Map<String, Object>> linhas = new ArrayList<>();
+        acumulados.forEach((placa, valores) -> {
+            Map<String, Object> linha = new LinkedHashMap<>();
+            linha.put("placa", placa);
+            linha.put("kmInicial", valores[0] / 100.0);
+            linha.put("kmFinal", valores[1] / 100.0);
+            linha.put("km", (valores[1] - valores[0]) / 100.0);
+            linha.put("leituras", valores[2]);
+            linhas.add(linha);
+        });
+        linhas.sort(Comparator.comparing((Map<String, Object> linha) -> (Double) linha.get("km")).reversed()
+                .thenComparing(linha -> (String) linha.get("placa")));
+        return linhas;
+    }
+
+    /**
+     * Entradas e saídas por hora do dia no período, na unidade da requisição.
+     *
+     * @param inicio Início do período (incluído), ou null para desde a primeira movimentação.
+     * @param fim    Fim do período (excluído), ou null para até a última movimentação.
+     * @return 24 linhas (hora, entradas, saidas, total), da hora 0 à 23, no fuso horário da aplicação.
+     */
+    public List<Map<String, Object>> movimentacoesPorHora(Date inicio, Date fim) {
+        long de = inicio != null ? inicio.getTime() : INICIO_MINIMO;
+        long ate = fim != null ? fim.getTime() : FIM_MAXIMO;
+        long unidade = UnidadeContexto.obter();
+
+        long[] entradas = new long[24];
+        long[] saidas = new long[24];
+        ZoneId zona = ZoneId.systemDefault();
+        ZoneRules regras = zona.getRules();
+        for (long[] faixa : dividir(unidade, de, ate, (arquivo, faixa) -> arquivo.contarPorHora(faixa[0], faixa[1], zona, entradas, saidas))) {
+            // Hora calculada aqui, como nos arquivos (HOUR() usaria o fuso da sessão do banco)
+            leitura.query("SELECT m.data_hora, m.tipo FROM movimentacoes m " +
+                          "WHERE m.unidade_id = ? AND m.data_hora >= ? AND m.data_hora < ? AND m.tipo IS NOT NULL", rs -> {
+                long[] contadores = "E".equals(rs.getString("tipo")) ? entradas : saidas;
+                contadores[ArquivoColunar.horaDoDia(rs.getTimestamp("data_hora").getTime(), regras)]++;
+            }, unidade, new Timestamp(faixa[0]), new Timestamp(faixa[1]));
+        }
+
+        List<Map<String, Object>> linhas = new ArrayList<>();
+        for (int hora = 0; hora < 24; hora++) {
+            Map<String, Object> linha = new LinkedHashMap<>();
+            linha.put("hora", hora);
+            linha.put("entradas", entradas[hora]);
+            linha.put("saidas", saidas[hora]);
+            linha.put("total", entradas[hora] + saidas[hora]);
+            linhas.add(linha);
+        }
+        return linhas;
+    }
+
+    private Map<String, Object> arquivar(long unidade, YearMonth mes) {
+        if (mes.isAfter(YearMonth.now().minusMonths(Math.max(1, mesesAbertos)))) {
+            throw new RuntimeException("O mês " + mes + " ainda está aberto para correções e não pode ser arquivado.");
+        }
+        long inicio = System.currentTimeMillis();
+        ArquivoColunar.Escritor escritor = new ArquivoColunar.Escritor(tamanhoBloco);
+        leitura.query("SELECT m.data_hora, m.quilometragem, v.placa, mo.nome AS motorista, m.tipo FROM movimentacoes m " +
+                      "JOIN veiculos v ON v.id = m.veiculo_id LEFT JOIN motoristas mo ON mo.id = m.motorista_id " +
+                      "WHERE m.unidade_id = ? AND m.data_hora >= ? AND m.data_hora < ? ORDER BY m.data_hora, m.id", rs -> {
+            Number km = (Number) rs.getObject("quilometragem");
+            escritor.adicionar(rs.getTimestamp("data_hora").getTime(), km != null ? km.doubleValue() : null,
+                    rs.getString("placa"), rs.getString("motorista"), rs.getString("tipo"));
+        }, unidade, new Timestamp(inicio(mes)), new Timestamp(inicio(mes.plusMonths(1))));
+
+        Path caminho = caminho(unidade, mes);
+        ArquivoColunar arquivo;
+        try {
+            escritor.gravar(caminho);
+            arquivo = ArquivoColunar.abrir(caminho);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o arquivo do mês " + mes + ": " + e.getMessage(), e);
+        }
+        catalogo.computeIfAbsent(unidade, u -> new ConcurrentSkipListMap<>()).put(mes, arquivo);
+
+        Map<String, Object> resultado = descrever(mes, arquivo);
+        resultado.put("duracaoMs", System.currentTimeMillis() - inicio);
+        logger.info("Mês {} da unidade {} arquivado: {} movimentações em {} bytes.", mes, unidade, arquivo.getLinhas(), arquivo.getBytes());
+        return resultado;
+    }
+
+    /**
+     * Lê dos arquivos os meses arquivados do período e devolve as faixas restantes ([início, fim) em
+     * epoch ms), a consultar na tabela (cada faixa numa consulta própria, pelo índice de unidade e data).
+     */
+    private List<long[]> dividir(long unidade, long de, long ate, LeituraArquivo leitor) {
+        List<long[]> faixasTabela = new ArrayList<>();
+        long cursor = de;
+        NavigableMap<YearMonth, ArquivoColunar> meses = catalogo.get(unidade);
+        if (meses != null) {
+            for (Map.Entry<YearMonth, ArquivoColunar> arquivado : meses.entrySet()) {
+                long inicioMes = inicio(arquivado.getKey());
+                long fimMes = inicio(arquivado.getKey().plusMonths(1));
+                if (fimMes <= cursor || inicioMes >= ate) {
+                    continue;
+                }
+                if (inicioMes > cursor) {
+                    faixasTabela.add(new long[] {cursor, inicioMes});
+                }
+                leitor.ler(arquivado.getValue(), new long[] {Math.max(cursor, inicioMes), Math.min(ate, fimMes)});
+                cursor = fimMes;
+            }
+        }
+        if (cursor < ate) {
+            faixasTabela.add(new long[] {cursor, ate});
+        }
+        return faixasTabela;
+    }
+
+    private Map<String, Object> descrever(YearMonth mes, ArquivoColunar arquivo) {
+        Map<String, Object> descricao = new LinkedHashMap<>();
+        descricao.put("mes", mes.toString());
+        descricao.put("linhas", arquivo.getLinhas());
+        descricao.put("blocos", arquivo.getBlocos());
+        descricao.put("bytes", arquivo.getBytes());
+        descricao.put("bytesPorLinha", arquivo.getLinhas() > 0 ? Math.round(arquivo.getBytes() * 10.0 / arquivo.getLinhas()) / 10.0 : 0.0);
+        return descricao;
+    }
+
+    private void depoisDoCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    private Path caminho(long unidade, YearMonth mes) {
+        return Paths.get(diretorio, "unidade-" + unidade, mes + EXTENSAO);
+    }
+
+    private static long inicio(YearMonth mes) {
+        return mes.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static YearMonth mes(String valor) {
+        try {
+            return YearMonth.parse(valor.trim());
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new RuntimeException("Mês inválido (use aaaa-mm): " + valor);
+        }
+    }
+
+    @FunctionalInterface
+    private interface LeituraArquivo {
+        void ler(ArquivoColunar arquivo, long[] faixa);
+    }
+}
@@ -0,0 +1,35 @@
+package com.controle.Controle_veiculo.services.busca;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.pt.PortugueseAnalyzer;
+import org.apache.lucene.analysis.pt.PortugueseLightStemFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+/**
+ * Analisador usado tanto na indexação quanto na consulta da busca textual.
+ *
+ * Ignora maiúsculas, acentos ("José" = "jose") e palavras vazias ("a", "que", "de"), e reduz
+ * plural e gênero ("branca", "brancos" → "branc"), para que a busca do porteiro encontre o
+ * registro mesmo quando digitado de outro jeito.
+ */
+class AnalisadorPortugues extends Analyzer {
+
+    @Override
+    protected TokenStreamComponents createComponents(String campo) {
+        StandardTokenizer tokenizer = new StandardTokenizer();
+        TokenStream tokens = new LowerCaseFilter(tokenizer);
+        tokens = new StopFilter(tokens, PortugueseAnalyzer.getDefaultStopSet());
+        tokens = new ASCIIFoldingFilter(tokens);
+        tokens = new PortugueseLightStemFilter(tokens);
+        return new TokenStreamComponents(tokenizer, tokens);
+    }
+
+    @Override
+    protected TokenStream normalize(String campo, TokenStream entrada) {
+        return new ASCIIFoldingFilter(new LowerCaseFilter(entrada));
+    }
+}
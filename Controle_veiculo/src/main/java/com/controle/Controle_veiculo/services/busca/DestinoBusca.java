@@ -0,0 +1,50 @@
+package com.controle.Controle_veiculo.services.busca;
+
+import com.controle.Controle_veiculo.model.EventoOutbox;
+import com.controle.Controle_veiculo.services.outbox.DestinoEventos;
+import com.controle.Controle_veiculo.services.outbox.OutboxService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mantém o índice de busca atualizado a partir dos eventos da outbox.
+ *
+ * Os eventos só existem depois do commit da transação que os gerou, então o índice nunca vê
+ * alterações desfeitas. O lote inteiro é aplicado e confirmado no disco antes de retornar: se
+ * algo falhar, o relay reentrega o lote (reindexar é idempotente).
+ */
+@Component
+@ConditionalOnProperty(name = "busca.habilitada", havingValue = "true", matchIfMissing = true)
+public class DestinoBusca implements DestinoEventos {
+
+    @Autowired
+    private IndiceBuscaService indiceBuscaService;
+
+    @Override
+    public String getNome() {
+        return "busca";
+    }
+
+    @Override
+    public void enviar(List<EventoOutbox> lote) {
+        // Vários eventos da mesma movimentação no lote geram uma única reindexação
+        Set<Long> movimentacoes = new LinkedHashSet<>();
+        for (EventoOutbox evento : lote) {
+            switch (evento.getTipo()) {
+                case OutboxService.MOVIMENTACAO_REGISTRADA, OutboxService.MOVIMENTACAO_ATUALIZADA ->
+                        movimentacoes.add(evento.getAgregadoId());
+                case OutboxService.VEICULO_SALVO -> indiceBuscaService.indexarVeiculo(evento.getAgregadoId());
+                case OutboxService.VEICULO_EXCLUIDO -> indiceBuscaService.removerVeiculo(evento.getAgregadoId());
+                default -> { }
+            }
+        }
+        indiceBuscaService.indexarMovimentacoes(movimentacoes);
+        indiceBuscaService.confirmar();
+    }
+}
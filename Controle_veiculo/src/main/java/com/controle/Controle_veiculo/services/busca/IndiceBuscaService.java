@@ -0,0 +1,549 @@
+package com.controle.Controle_veiculo.services.busca;
+
+import com.controle.Controle_veiculo.dto.MovimentacaoEncontrada;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Índice de busca textual (Lucene) das movimentações, com os dados do veículo.
+ *
+ * Cada movimentação vira um documento com placa, modelo, marca, cor, motorista, porteiro e tipo,
+ * permitindo buscas como "strada branca roberto" combinadas com um período. O índice fica no disco
+ * local ({@code busca.diretorio}), lido por memory-mapping; sem diretório configurado, fica em memória.
+ *
+ * Manutenção:
+ * - Incremental: o {@link DestinoBusca} recebe da outbox os eventos de movimentações e veículos já
+ *   confirmados e atualiza o índice em lote, confirmando o índice antes de a entrega ser registrada.
+ * - Reconstrução ({@link #reconstruir()}): relê todas as movimentações do banco, em paralelo por faixas
+ *   de ID, para um índice novo; só a troca pelo índice atual é feita com as escritas bloqueadas. Buscas e
+ *   atualizações incrementais continuam sobre o índice anterior, e as atualizações recebidas durante a
+ *   reconstrução são reaplicadas sobre o novo. Roda automaticamente na inicialização quando o índice está
+ *   vazio e há movimentações no banco.
+ * - A paginação vai até {@code busca.maximo-resultados}: cada página coleta todos os resultados
+ *   anteriores a ela, então páginas mais distantes são recusadas.
+ */
+@Service
+@ConditionalOnProperty(name = "busca.habilitada", havingValue = "true", matchIfMissing = true)
+public class IndiceBuscaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndiceBuscaService.class);
+
+    static final String[] CAMPOS_TEXTO = {"placa", "modelo", "marca", "cor", "motorista", "porteiro", "tipo"};
+
+    // Texto com as posições dos termos gravadas, para o destaque não precisar reanalisar cada documento
+    private static final FieldType TEXTO = new FieldType(TextField.TYPE_STORED);
+
+    static {
+        TEXTO.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        TEXTO.freeze();
+    }
+
+    private static final Map<String, Float> PESOS = Map.of("placa", 3f, "modelo", 2f, "motorista", 2f);
+
+    private static final String CONSULTA =
+            "SELECT m.id, m.veiculo_id, m.data_hora, m.tipo, v.placa, v.modelo, v.marca, v.cor, " +
+            "       mo.nome AS motorista, p.nome AS porteiro " +
+            "FROM movimentacoes m " +
+            "JOIN veiculos v ON v.id = m.veiculo_id " +
+            "LEFT JOIN motoristas mo ON mo.id = m.motorista_id " +
+            "LEFT JOIN porteiros p ON p.id = m.porteiro_id ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${busca.diretorio:./dados/indice-busca}")
+    private String diretorio;
+
+    @Value("${busca.reconstrucao.tamanho-lote:5000}")
+    private int tamanhoLote;
+
+    @Value("${busca.maximo-resultados:10000}")
+    private int maximoResultados;
+
+    private final Analyzer analisador = new AnalisadorPortugues();
+
+    private Directory directory;
+
+    private IndexWriter writer;
+
+    private SearcherManager searcherManager;
+
+    // Serializa as escritas: a troca pelo índice reconstruído não pode ser confirmada pela metade por uma atualização incremental
+    private final Object escrita = new Object();
+
+    // Uma reconstrução por vez
+    private final Object reconstrucaoUnica = new Object();
+
+    // Movimentações e veículos atualizados durante uma reconstrução, reaplicados sobre o índice novo (null = sem reconstrução)
+    private Set<Long> movimentacoesDuranteReconstrucao;
+    private Set<Long> veiculosDuranteReconstrucao;
+
+    @PostConstruct
+    public void abrir() throws IOException {
+        directory = diretorio.isBlank() ? new ByteBuffersDirectory() : new MMapDirectory(Paths.get(diretorio));
+        abrirWriter();
+    }
+
+    @PreDestroy
+    public void fechar() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Na primeira inicialização (índice vazio), reconstrói o índice em segundo plano.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruirSeVazio() {
+        if (writer.getDocStats().numDocs > 0 || jdbcTemplate.queryForObject("SELECT MAX(id) FROM movimentacoes", Long.class) == null) {
+            return;
+        }
+        Thread reconstrucao = new Thread(() -> {
+            try {
+                reconstruir();
+            } catch (RuntimeException e) {
+                logger.warn("Falha ao reconstruir o índice de busca: {}", e.getMessage());
+            }
+        }, "busca-reconstrucao");
+        reconstrucao.setDaemon(true);
+        reconstrucao.start();
+    }
+
+    /**
+     * Busca movimentações por texto livre e período.
+     *
+     * O texto aceita a sintaxe do Lucene: todos os termos são obrigatórios por padrão, mas é possível
+     * usar {@code OR}, frases entre aspas, campos ({@code cor:branca}) e prefixos ({@code ABC*}).
+     *
+     * @param texto (opcional) Texto livre; sem ele, lista o período inteiro.
+     * @param dataInicio (opcional) Início do período.
+     * @param dataFim (opcional) Fim do período.
+     * @param page Número da página (base 0).
+     * @param size Resultados por página.
+     * @return Total encontrado, tempo da busca e os resultados da página (IDs e trechos destacados).
+     * @throws RuntimeException se a página ultrapassar {@code busca.maximo-resultados} resultados.
+     */
+    public Map<String, Object> buscar(String texto, Date dataInicio, Date dataFim, int page, int size) {
+        if (page < 0 || size < 1 || (long) page * size >= maximoResultados) {
+            throw new RuntimeException("Página fora do limite: a busca pagina apenas os primeiros " + maximoResultados
+                    + " resultados. Refine o texto ou o período.");
+        }
+        long inicio = System.nanoTime();
+        Query textual = texto == null || texto.isBlank() ? new MatchAllDocsQuery() : interpretar(texto);
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder().add(textual, BooleanClause.Occur.MUST);
+        if (dataInicio != null || dataFim != null) {
+            consulta.add(LongPoint.newRangeQuery("dataHora",
+                    dataInicio != null ? dataInicio.getTime() : Long.MIN_VALUE,
+                    dataFim != null ? dataFim.getTime() : Long.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+        Query query = consulta.build();
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                Sort ordem = new Sort(SortField.FIELD_SCORE, new SortField("dataHora", SortField.Type.LONG, true));
+                TopFieldDocs encontrados = searcher.search(query, Math.min((page + 1) * size, maximoResultados), ordem, true);
+                ScoreDoc[] pagina = Arrays.copyOfRange(encontrados.scoreDocs,
+                        Math.min(page * size, encontrados.scoreDocs.length), encontrados.scoreDocs.length);
+
+                Map<String, String[]> destaques = UnifiedHighlighter.builder(searcher, analisador)
+                        .withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", "… ", true))
+                        .withMaxNoHighlightPassages(0)
+                        // Destaca pelos termos (posições gravadas no índice), sem reexecutar a consulta por documento
+                        .withWeightMatches(false)
+                        .build()
+                        // Só o texto: o filtro de período seria reavaliado no segmento inteiro para cada documento e campo
+                        .highlightFields(CAMPOS_TEXTO, textual, new TopDocs(encontrados.totalHits, pagina));
+
+                List<MovimentacaoEncontrada> resultados = new ArrayList<>(pagina.length);
+                for (int i = 0; i < pagina.length; i++) {
+                    Document documento = searcher.storedFields().document(pagina[i].doc, Set.of("id", "dataHora", "placa"));
+                    Map<String, String> trechos = new LinkedHashMap<>();
+                    for (String campo : CAMPOS_TEXTO) {
+                        String trecho = destaques.get(campo)[i];
+                        if (trecho != null) {
+                            trechos.put(campo, trecho);
+                        }
+                    }
+                    Number dataHora = documento.getField("dataHora") != null ? documento.getField("dataHora").numericValue() : null;
+                    resultados.add(new MovimentacaoEncontrada(
+                            Long.valueOf(documento.get("id")),
+                            dataHora != null ? new Date(dataHora.longValue()) : null,
+                            documento.get("placa"),
+                            pagina[i].score,
+                            trechos));
+                }
+
+                Map<String, Object> resposta = new LinkedHashMap<>();
+                resposta.put("total", encontrados.totalHits.value);
+                resposta.put("totalAproximado", encontrados.totalHits.relation == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+                resposta.put("tempoMs", (System.nanoTime() - inicio) / 1_000_000.0);
+                resposta.put("resultados", resultados);
+                return resposta;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha na busca: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reindexa movimentações (incluídas ou editadas); IDs que não existem mais são removidos do índice.
+     * As alterações só ficam visíveis depois de {@link #confirmar()}.
+     *
+     * @param ids IDs das movimentações.
+     */
+    public void indexarMovimentacoes(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        synchronized (escrita) {
+            if (movimentacoesDuranteReconstrucao != null) {
+                movimentacoesDuranteReconstrucao.addAll(ids);
+            }
+            Set<Long> pendentes = new HashSet<>(ids);
+            String marcadores = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+            jdbcTemplate.query(CONSULTA + "WHERE m.id IN (" + marcadores + ")", rs -> {
+                pendentes.remove(rs.getLong("id"));
+                atualizar(documento(rs));
+            }, ids.toArray());
+            for (Long removida : pendentes) {
+                excluir(new Term("id", removida.toString()));
+            }
+        }
+    }
+
+    /**
+     * Reindexa todas as movimentações de um veículo (ex: modelo ou cor alterados no cadastro).
+     *
+     * @param veiculoId ID do veículo.
+     */
+    public void indexarVeiculo(Long veiculoId) {
+        synchronized (escrita) {
+            if (veiculosDuranteReconstrucao != null) {
+                veiculosDuranteReconstrucao.add(veiculoId);
+            }
+            excluir(new Term("veiculoId", veiculoId.toString()));
+            jdbcTemplate.query(CONSULTA + "WHERE m.veiculo_id = ?", rs -> {
+                atualizar(documento(rs));
+            }, veiculoId);
+        }
+    }
+
+    /**
+     * Remove do índice as movimentações de um veículo excluído.
+     *
+     * @param veiculoId ID do veículo.
+     */
+    public void removerVeiculo(Long veiculoId) {
+        synchronized (escrita) {
+            if (veiculosDuranteReconstrucao != null) {
+                veiculosDuranteReconstrucao.add(veiculoId);
+            }
+            excluir(new Term("veiculoId", veiculoId.toString()));
+        }
+    }
+
+    /**
+     * Grava no disco as alterações pendentes e as torna visíveis para as buscas.
+     */
+    public void confirmar() {
+        synchronized (escrita) {
+            try {
+                writer.commit();
+                searcherManager.maybeRefresh();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao confirmar o índice de busca: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Reconstrói o índice inteiro a partir do banco, lendo faixas de ID em paralelo para um índice novo,
+     * que depois substitui o atual.
+     *
+     * @return Quantidade de documentos indexados e duração.
+     */
+    public Map<String, Object> reconstruir() {
+        synchronized (reconstrucaoUnica) {
+            long inicio = System.currentTimeMillis();
+            synchronized (escrita) {
+                movimentacoesDuranteReconstrucao = new HashSet<>();
+                veiculosDuranteReconstrucao = new HashSet<>();
+            }
+            Directory novo = null;
+            try {
+                novo = diretorio.isBlank() ? new ByteBuffersDirectory() : new MMapDirectory(Paths.get(diretorio + "-reconstrucao"));
+                long documentos = indexarTudo(novo);
+                trocar(novo);
+
+                long duracao = System.currentTimeMillis() - inicio;
+                logger.info("Índice de busca reconstruído: {} movimentações em {} ms.", documentos, duracao);
+                return Map.of("documentos", documentos, "duracaoMs", duracao);
+            } catch (IOException | ExecutionException | RuntimeException e) {
+                throw new RuntimeException("Falha ao reconstruir o índice de busca: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Reconstrução do índice de busca interrompida.", e);
+            } finally {
+                synchronized (escrita) {
+                    movimentacoesDuranteReconstrucao = null;
+                    veiculosDuranteReconstrucao = null;
+                }
+                if (novo != null) {
+                    apagar(novo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexa todas as movimentações do banco num índice vazio, sem bloquear as escritas no índice atual.
+     */
+    private long indexarTudo(Directory destino) throws IOException, ExecutionException, InterruptedException {
+        Map<String, Object> faixa = jdbcTemplate.queryForMap("SELECT MIN(id) AS menor, MAX(id) AS maior FROM movimentacoes");
+        long menor = faixa.get("menor") != null ? ((Number) faixa.get("menor")).longValue() : 0;
+        long maior = faixa.get("maior") != null ? ((Number) faixa.get("maior")).longValue() : 0;
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        long passo = Math.max(1, (maior - menor + threads) / threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (IndexWriter novo = new IndexWriter(destino, new IndexWriterConfig(analisador)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE)
+                .setRAMBufferSizeMB(64))) {
+            List<Future<Long>> tarefas = new ArrayList<>();
+            for (long de = menor - 1; de < maior; de += passo) {
+                long ate = Math.min(maior, de + passo);
+                long faixaInicio = de;
+                tarefas.add(executor.submit(() -> indexarFaixa(novo, faixaInicio, ate)));
+            }
+            long documentos = 0;
+            for (Future<Long> tarefa : tarefas) {
+                documentos += tarefa.get();
+            }
+            novo.commit();
+            return documentos;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Substitui o conteúdo do índice atual pelo reconstruído e reaplica as atualizações recebidas
+     * durante a reconstrução. Só esta etapa bloqueia as escritas.
+     */
+    private void trocar(Directory novo) throws IOException {
+        synchronized (escrita) {
+            Set<Long> movimentacoes = movimentacoesDuranteReconstrucao;
+            Set<Long> veiculos = veiculosDuranteReconstrucao;
+            movimentacoesDuranteReconstrucao = null;
+            veiculosDuranteReconstrucao = null;
+            try {
+                writer.deleteAll();
+                writer.addIndexes(novo);
+                for (Long veiculoId : veiculos) {
+                    indexarVeiculo(veiculoId);
+                }
+                indexarMovimentacoes(movimentacoes);
+                writer.commit();
+                searcherManager.maybeRefreshBlocking();
+            } catch (IOException | RuntimeException e) {
+                descartarAlteracoes();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Indexa as movimentações com ID em (de, ate], em páginas por chave (sem OFFSET).
+     */
+    private long indexarFaixa(IndexWriter destino, long de, long ate) {
+        long total = 0;
+        long ultimo = de;
+        while (true) {
+            List<Long> ids = new ArrayList<>();
+            jdbcTemplate.query(CONSULTA + "WHERE m.id > ? AND m.id <= ? ORDER BY m.id LIMIT ?", rs -> {
+                ids.add(rs.getLong("id"));
+                adicionar(destino, documento(rs));
+            }, ultimo, ate, tamanhoLote);
+            total += ids.size();
+            if (ids.size() < tamanhoLote) {
+                return total;
+            }
+            ultimo = ids.get(ids.size() - 1);
+        }
+    }
+
+    private Document documento(ResultSet rs) throws SQLException {
+        Document documento = new Document();
+        documento.add(new StringField("id", Long.toString(rs.getLong("id")), Field.Store.YES));
+        documento.add(new StringField("veiculoId", Long.toString(rs.getLong("veiculo_id")), Field.Store.NO));
+
+        Timestamp dataHora = rs.getTimestamp("data_hora");
+        if (dataHora != null) {
+            documento.add(new LongPoint("dataHora", dataHora.getTime()));
+            documento.add(new NumericDocValuesField("dataHora", dataHora.getTime()));
+            documento.add(new StoredField("dataHora", dataHora.getTime()));
+        }
+
+        texto(documento, "placa", rs.getString("placa"));
+        texto(documento, "modelo", rs.getString("modelo"));
+        texto(documento, "marca", rs.getString("marca"));
+        texto(documento, "cor", rs.getString("cor"));
+        texto(documento, "motorista", rs.getString("motorista"));
+        texto(documento, "porteiro", rs.getString("porteiro"));
+        TipoMovimento tipo = TipoMovimento.de(rs.getString("tipo"));
+        if (tipo != null) {
+            // Inclui o verbo, para buscas como "saiu" ou "entrou"
+            texto(documento, "tipo", tipo == TipoMovimento.ENTRADA ? "entrada entrou" : "saída saiu");
+        }
+        return documento;
+    }
+
+    private static void texto(Document documento, String campo, String valor) {
+        if (valor != null && !valor.isBlank()) {
+            documento.add(new Field(campo, valor, TEXTO));
+        }
+    }
+
+    private Query interpretar(String texto) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(CAMPOS_TEXTO, analisador, PESOS);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(texto);
+        } catch (ParseException e) {
+            // Texto com caracteres especiais soltos (ex: "ABC-1234 ("): busca literal
+            try {
+                return parser.parse(QueryParser.escape(texto));
+            } catch (ParseException literal) {
+                throw new RuntimeException("Busca inválida: " + texto, literal);
+            }
+        }
+    }
+
+    private void atualizar(Document documento) {
+        try {
+            writer.updateDocument(new Term("id", documento.get("id")), documento);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void adicionar(IndexWriter destino, Document documento) {
+        try {
+            destino.addDocument(documento);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void excluir(Term termo) {
+        try {
+            writer.deleteDocuments(termo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void abrirWriter() throws IOException {
+        IndexWriterConfig config = new IndexWriterConfig(analisador)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setRAMBufferSizeMB(64);
+        writer = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     * Remove os arquivos do índice reconstruído (já copiados para o índice atual).
+     */
+    private static void apagar(Directory diretorio) {
+        try (diretorio) {
+            for (String arquivo : diretorio.listAll()) {
+                diretorio.deleteFile(arquivo);
+            }
+        } catch (IOException e) {
+            logger.warn("Não foi possível apagar o índice reconstruído: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Desfaz as alterações não confirmadas (o rollback fecha o writer, que é reaberto no último commit).
+     */
+    private void descartarAlteracoes() {
+        try {
+            searcherManager.close();
+            writer.rollback();
+            abrirWriter();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao reabrir o índice de busca: " + e.getMessage(), e);
+        }
+    }
+}
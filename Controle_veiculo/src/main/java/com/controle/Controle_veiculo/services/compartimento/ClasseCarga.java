@@ -0,0 +1,59 @@
+package com.controle.Controle_veiculo.services.compartimento;
+
+/**
+ * Classes de carga do banco de dados, cada uma com o seu próprio pool de conexões.
+ *
+ * A classe vale para a thread enquanto um método marcado com {@link Compartimento} (ou uma tarefa
+ * passada a {@link #executar}) está em execução. A primeira classe definida prevalece: um relatório
+ * em lote que chama um método interativo continua usando as conexões do lote.
+ */
+public enum ClasseCarga {
+    /** Registros da portaria e demais escritas. */
+    ESCRITA,
+    /** Consultas curtas das telas; também usada pelo código sem classe definida. */
+    INTERATIVA,
+    /** Exportações, históricos completos, relatórios e tarefas em segundo plano. */
+    LOTE;
+
+    private static final ThreadLocal<ClasseCarga> ATUAL = new ThreadLocal<>();
+
+    /**
+     * @return A classe da thread atual, ou null se nenhuma foi definida.
+     */
+    public static ClasseCarga atual() {
+        return ATUAL.get();
+    }
+
+    /**
+     * Executa a tarefa nesta classe (se a thread ainda não tiver uma).
+     *
+     * @param tarefa Código que acessa o banco.
+     */
+    public void executar(Runnable tarefa) {
+        boolean definida = definir(this);
+        try {
+            tarefa.run();
+        } finally {
+            if (definida) {
+                limpar();
+            }
+        }
+    }
+
+    /**
+     * Define a classe da thread, se ainda não houver uma.
+     *
+     * @return true se a classe foi definida (e deve ser limpa depois).
+     */
+    static boolean definir(ClasseCarga classe) {
+        if (ATUAL.get() != null) {
+            return false;
+        }
+        ATUAL.set(classe);
+        return true;
+    }
+
+    static void limpar() {
+        ATUAL.remove();
+    }
+}
@@ -0,0 +1,21 @@
+package com.controle.Controle_veiculo.services.compartimento;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca a classe de carga de um método de serviço: as conexões abertas durante a sua execução
+ * (inclusive a da transação, aberta depois) vêm do pool dessa classe.
+ *
+ * Só vale para chamadas vindas de outro bean (o método passa pelo proxy do Spring).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Compartimento {
+
+    ClasseCarga value();
+}
@@ -0,0 +1,36 @@
+package com.controle.Controle_veiculo.services.compartimento;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Define a classe de carga da thread durante os métodos marcados com {@link Compartimento}.
+ *
+ * Executado antes do interceptor de transações, para que a conexão da transação já venha do pool
+ * da classe.
+ */
+public class CompartimentoInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (ClasseCarga.atual() != null) {
+            return invocation.proceed();
+        }
+        Class<?> alvo = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        Method metodo = AopUtils.getMostSpecificMethod(invocation.getMethod(), alvo);
+        Compartimento compartimento = AnnotationUtils.findAnnotation(metodo, Compartimento.class);
+        if (compartimento == null) {
+            return invocation.proceed();
+        }
+        ClasseCarga.definir(compartimento.value());
+        try {
+            return invocation.proceed();
+        } finally {
+            ClasseCarga.limpar();
+        }
+    }
+}
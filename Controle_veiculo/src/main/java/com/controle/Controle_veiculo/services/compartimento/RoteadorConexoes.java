@@ -0,0 +1,156 @@
+package com.controle.Controle_veiculo.services.compartimento;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataSource da aplicação com um pool de conexões por {@link ClasseCarga} ("bulkheads").
+ *
+ * Cada conexão vem do pool da classe da thread (sem classe, do pool interativo). Um relatório ou
+ * uma exportação lenta pode ocupar todas as conexões do lote, mas nunca as da portaria. O tempo de
+ * espera por conexão é medido por classe.
+ */
+public class RoteadorConexoes extends AbstractRoutingDataSource implements Closeable {
+
+    private final Map<ClasseCarga, HikariDataSource> pools;
+
+    private final Map<ClasseCarga, Espera> esperas = new EnumMap<>(ClasseCarga.class);
+
+    /**
+     * @param pools Um pool para cada classe de carga.
+     */
+    public RoteadorConexoes(Map<ClasseCarga, HikariDataSource> pools) {
+        this.pools = new EnumMap<>(pools);
+        for (ClasseCarga classe : ClasseCarga.values()) {
+            if (!this.pools.containsKey(classe)) {
+                throw new IllegalArgumentException("Pool não configurado para a classe " + classe);
+            }
+            esperas.put(classe, new Espera());
+        }
+        setTargetDataSources(new HashMap<>(this.pools));
+        setDefaultTargetDataSource(this.pools.get(ClasseCarga.INTERATIVA));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return classeAtual();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ClasseCarga classe = classeAtual();
+        long inicio = System.nanoTime();
+        Connection conexao = pools.get(classe).getConnection();
+        esperas.get(classe).registrar(System.nanoTime() - inicio);
+        return conexao;
+    }
+
+    /**
+     * @param classe Classe de carga.
+     * @return O pool de conexões da classe.
+     */
+    public HikariDataSource pool(ClasseCarga classe) {
+        return pools.get(classe);
+    }
+
+    /**
+     * Por classe: conexões ativas, ociosas e threads aguardando no pool, e o tempo de espera
+     * (médio e máximo) para obter uma conexão.
+     *
+     * @return Mapa com o estado de cada pool.
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        for (ClasseCarga classe : ClasseCarga.values()) {
+            HikariDataSource pool = pools.get(classe);
+            Espera espera = esperas.get(classe);
+            Map<String, Object> porClasse = new LinkedHashMap<>();
+            porClasse.put("maximo", pool.getMaximumPoolSize());
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            if (mxBean != null) {
+                porClasse.put("ativas", mxBean.getActiveConnections());
+                porClasse.put("ociosas", mxBean.getIdleConnections());
+                porClasse.put("aguardando", mxBean.getThreadsAwaitingConnection());
+            }
+            long aquisicoes = espera.aquisicoes.get();
+            porClasse.put("aquisicoes", aquisicoes);
+            porClasse.put("esperaMediaMs", aquisicoes == 0 ? 0.0 : espera.totalNanos.get() / 1_000_000.0 / aquisicoes);
+            porClasse.put("esperaMaximaMs", espera.maximaNanos.get() / 1_000_000.0);
+            estado.put(classe.name().toLowerCase(), porClasse);
+        }
+        return estado;
+    }
+
+    /**
+     * Abre de uma vez as conexões ociosas mínimas de cada pool (por exemplo, no aquecimento), para
+     * que as primeiras requisições não paguem o estabelecimento das conexões.
+     *
+     * @return Conexões abertas, por classe.
+     * @throws SQLException se um pool não conseguir abrir as conexões no tempo limite.
+     */
+    public Map<String, Integer> abrirConexoes() throws SQLException {
+        Map<String, Integer> abertas = new LinkedHashMap<>();
+        for (ClasseCarga classe : ClasseCarga.values()) {
+            abertas.put(classe.name().toLowerCase(), abrirConexoes(pools.get(classe)));
+        }
+        return abertas;
+    }
+
+    /**
+     * Obtém ao mesmo tempo as conexões ociosas mínimas do pool (o que obriga o Hikari a abri-las)
+     * e as devolve.
+     *
+     * @param pool Pool de conexões.
+     * @return Quantidade de conexões obtidas.
+     * @throws SQLException se o pool não conseguir abrir as conexões no tempo limite.
+     */
+    public static int abrirConexoes(HikariDataSource pool) throws SQLException {
+        int quantidade = Math.min(pool.getMinimumIdle() < 0 ? pool.getMaximumPoolSize() : pool.getMinimumIdle(), pool.getMaximumPoolSize());
+        List<Connection> conexoes = new ArrayList<>();
+        try {
+            for (int i = 0; i < quantidade; i++) {
+                conexoes.add(pool.getConnection());
+            }
+        } finally {
+            for (Connection conexao : conexoes) {
+                conexao.close();
+            }
+        }
+        return conexoes.size();
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+
+    private static ClasseCarga classeAtual() {
+        ClasseCarga classe = ClasseCarga.atual();
+        return classe != null ? classe : ClasseCarga.INTERATIVA;
+    }
+
+    private static class Espera {
+        final AtomicLong aquisicoes = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maximaNanos = new AtomicLong();
+
+        void registrar(long nanos) {
+            aquisicoes.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maximaNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.controle.Controle_veiculo.services.correcao;
+
+/**
+ * O que fazer quando o tipo informado na portaria não combina com o status do veículo
+ * (ex: SAÍDA de um veículo que consta como AUSENTE).
+ */
+public enum PoliticaCorrecao {
+    /** Devolve 409 para o porteiro confirmar a correção e reenviar com {@code forceCorrection=true}. */
+    PERGUNTAR,
+    /** Registra a correção (entrada/saída automática) na mesma requisição e a marca para revisão. */
+    AUTOMATICA
+}
@@ -0,0 +1,201 @@
+package com.controle.Controle_veiculo.services.correcao;
+
+import com.controle.Controle_veiculo.repository.MovimentacaoRepository;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Política de correção automática dos registros fora de sequência e métricas das correções.
+ *
+ * A política vale, em ordem de prioridade, para o usuário do token, para a portaria (o porteiro ou a
+ * câmera informada na movimentação), para a unidade e, por fim, o padrão:
+ * <pre>
+ * correcao.politica.padrao=perguntar
+ * correcao.politica.unidades.2=automatica
+ * correcao.politica.porteiros[Portaria 2]=automatica
+ * correcao.politica.usuarios.supervisor=perguntar
+ * </pre>
+ * Com a política automática, o registro fora de sequência grava a correção na mesma requisição,
+ * sem o 409 e o reenvio; a movimentação automática fica marcada para revisão posterior.
+ */
+@Service
+public class PoliticaCorrecaoService {
+
+    /**
+     * Resultado de cada tentativa de registro na portaria.
+     */
+    public enum Resultado {
+        /** Tipo compatível com o status do veículo. */
+        SEM_CONFLITO,
+        /** Conflito devolvido ao porteiro (409). */
+        PERGUNTADA,
+        /** Correção confirmada pelo porteiro (reenvio com {@code forceCorrection=true}). */
+        CONFIRMADA,
+        /** Correção aplicada pela política automática, sem ida e volta. */
+        AUTOMATICA
+    }
+
+    @Autowired
+    private Environment ambiente;
+
+    @Autowired
+    private MovimentacaoRepository movimentacaoRepository;
+
+    @Value("${correcao.politica.padrao:perguntar}")
+    private PoliticaCorrecao padrao;
+
+    private Map<Long, PoliticaCorrecao> porUnidade = Map.of();
+
+    private Map<String, PoliticaCorrecao> porPorteiro = Map.of();
+
+    private Map<String, PoliticaCorrecao> porUsuario = Map.of();
+
+    // Tentativas por unidade e resultado (índice = ordinal do resultado)
+    private final Map<Long, AtomicLongArray> resultados = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void inicializar() {
+        Binder binder = Binder.get(ambiente);
+        porUnidade = Map.copyOf(binder.bind("correcao.politica.unidades", Bindable.mapOf(Long.class, PoliticaCorrecao.class))
+                .orElse(Map.of()));
+        porPorteiro = normalizar(binder.bind("correcao.politica.porteiros", Bindable.mapOf(String.class, PoliticaCorrecao.class))
+                .orElse(Map.of()));
+        porUsuario = normalizar(binder.bind("correcao.politica.usuarios", Bindable.mapOf(String.class, PoliticaCorrecao.class))
+                .orElse(Map.of()));
+    }
+
+    /**
+     * Política que vale para o registro.
+     *
+     * @param unidade  Unidade do veículo.
+     * @param porteiro Porteiro ou câmera informada na movimentação (pode ser nulo).
+     * @param usuario  Usuário autenticado (pode ser nulo).
+     * @return A política do usuário, da portaria, da unidade ou a padrão, nessa ordem.
+     */
+    public PoliticaCorrecao politica(long unidade, String porteiro, String usuario) {
+        PoliticaCorrecao politica = usuario != null ? porUsuario.get(chave(usuario)) : null;
+        if (politica == null && porteiro != null) {
+            politica = porPorteiro.get(chave(porteiro));
+        }
+        if (politica == null) {
+            politica = porUnidade.get(unidade);
+        }
+        return politica != null ? politica : padrao;
+    }
+
+    /**
+     * @param unidade  Unidade do veículo.
+     * @param porteiro Porteiro ou câmera informada na movimentação.
+     * @return true se o conflito deve ser corrigido sem perguntar, para o usuário da requisição atual.
+     */
+    public boolean corrigirAutomaticamente(long unidade, String porteiro) {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        String usuario = autenticacao != null && autenticacao.isAuthenticated() ? autenticacao.getName() : null;
+        return politica(unidade, porteiro, usuario) == PoliticaCorrecao.AUTOMATICA;
+    }
+
+    /**
+     * Contabiliza o resultado de uma tentativa de registro depois do commit da transação atual
+     * (registros desfeitos não entram nas métricas).
+     *
+     * @param unidade   Unidade do veículo.
+     * @param resultado Resultado da tentativa.
+     */
+    public void registrar(long unidade, Resultado resultado) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    contabilizar(unidade, resultado);
+                }
+            });
+        } else {
+            contabilizar(unidade, resultado);
+        }
+    }
+
+    private void contabilizar(long unidade, Resultado resultado) {
+        resultados.computeIfAbsent(unidade, u -> new AtomicLongArray(Resultado.values().length))
+                .incrementAndGet(resultado.ordinal());
+    }
+
+    /**
+     * Métricas das correções: tentativas por resultado, taxa de conflito (conflitos / registros
+     * gravados), parcela das correções feitas sem ida e volta, e correções aguardando revisão. Totais
+     * e por unidade.
+     *
+     * @return Mapa com as métricas.
+     */
+    public Map<String, Object> estado() {
+        long[] total = new long[Resultado.values().length];
+        Map<Long, Object> unidades = new LinkedHashMap<>();
+        resultados.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entrada -> {
+            long[] contagens = new long[total.length];
+            for (int i = 0; i < contagens.length; i++) {
+                contagens[i] = entrada.getValue().get(i);
+                total[i] += contagens[i];
+            }
+            unidades.put(entrada.getKey(), metricas(contagens));
+        });
+
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("politicaPadrao", padrao);
+        estado.put("politicasPorUnidade", porUnidade);
+        estado.putAll(metricas(total));
+        estado.put("pendentesRevisao", movimentacaoRepository.countByCorrecaoPendenteTrue());
+        estado.put("unidades", unidades);
+        return estado;
+    }
+
+    private static Map<String, Object> metricas(long[] contagens) {
+        Map<Resultado, Long> porResultado = new EnumMap<>(Resultado.class);
+        for (Resultado resultado : Resultado.values()) {
+            porResultado.put(resultado, contagens[resultado.ordinal()]);
+        }
+        long semConflito = porResultado.get(Resultado.SEM_CONFLITO);
+        long perguntadas = porResultado.get(Resultado.PERGUNTADA);
+        long confirmadas = porResultado.get(Resultado.CONFIRMADA);
+        long automaticas = porResultado.get(Resultado.AUTOMATICA);
+        long gravadas = semConflito + confirmadas + automaticas;
+        long corrigidas = confirmadas + automaticas;
+
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("tentativas", gravadas + perguntadas);
+        metricas.put("semConflito", semConflito);
+        metricas.put("perguntadas", perguntadas);
+        metricas.put("confirmadas", confirmadas);
+        metricas.put("automaticas", automaticas);
+        metricas.put("taxaCorrecao", gravadas == 0 ? 0.0 : (double) corrigidas / gravadas);
+        metricas.put("taxaAutomatica", corrigidas == 0 ? 0.0 : (double) automaticas / corrigidas);
+        return metricas;
+    }
+
+    private static Map<String, PoliticaCorrecao> normalizar(Map<String, PoliticaCorrecao> politicas) {
+        Map<String, PoliticaCorrecao> normalizadas = new HashMap<>();
+        politicas.forEach((nome, politica) -> normalizadas.put(chave(nome), politica));
+        return Map.copyOf(normalizadas);
+    }
+
+    private static String chave(String nome) {
+        return nome.trim().toLowerCase(Locale.ROOT);
+    }
+}
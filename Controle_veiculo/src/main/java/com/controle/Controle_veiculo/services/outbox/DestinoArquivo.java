@@ -0,0 +1,67 @@
+package com.controle.Controle_veiculo.services.outbox;
+
+import com.controle.Controle_veiculo.model.EventoOutbox;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Acrescenta os eventos a um arquivo JSON Lines (um evento por linha).
+ *
+ * O arquivo é sincronizado com o disco antes de a entrega ser registrada, então um evento
+ * confirmado não se perde numa queda de energia. Ativado por {@code outbox.arquivo.caminho}.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.arquivo.caminho")
+public class DestinoArquivo implements DestinoEventos {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${outbox.arquivo.caminho}")
+    private String caminho;
+
+    @Override
+    public String getNome() {
+        return "arquivo";
+    }
+
+    @Override
+    public void enviar(List<EventoOutbox> lote) {
+        try {
+            ByteArrayOutputStream linhas = new ByteArrayOutputStream();
+            for (EventoOutbox evento : lote) {
+                linhas.write(objectMapper.writeValueAsBytes(evento));
+                linhas.write('\n');
+            }
+
+            Path arquivo = Paths.get(caminho);
+            if (arquivo.getParent() != null) {
+                Files.createDirectories(arquivo.getParent());
+            }
+            try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer conteudo = ByteBuffer.wrap(linhas.toByteArray());
+                while (conteudo.hasRemaining()) {
+                    canal.write(conteudo);
+                }
+                canal.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar eventos em " + caminho, e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.controle.Controle_veiculo.services.outbox;
+
+import com.controle.Controle_veiculo.model.EventoOutbox;
+
+import java.util.List;
+
+/**
+ * Destino para o qual o {@link RelayOutboxService} entrega os eventos da outbox.
+ *
+ * Para adicionar uma integração, basta declarar um bean que implemente esta interface.
+ */
+public interface DestinoEventos {
+
+    /**
+     * @return Nome do destino, usado no registro das entregas (não deve mudar entre versões).
+     */
+    String getNome();
+
+    /**
+     * Entrega um lote de eventos, em ordem de ID.
+     *
+     * O lote só é considerado entregue se o método retornar normalmente; qualquer exceção faz o
+     * mesmo lote ser reenviado depois, então a entrega deve ser idempotente pelo ID do evento.
+     *
+     * @param lote Eventos a entregar.
+     */
+    void enviar(List<EventoOutbox> lote);
+}
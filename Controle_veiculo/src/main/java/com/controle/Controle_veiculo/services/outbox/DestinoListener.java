@@ -0,0 +1,35 @@
+package com.controle.Controle_veiculo.services.outbox;
+
+import com.controle.Controle_veiculo.model.EventoOutbox;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publica os eventos para ouvintes dentro da própria aplicação.
+ *
+ * Qualquer bean pode recebê-los com {@code @EventListener} em um método que receba
+ * {@link EventoOutbox}. Os ouvintes rodam na thread do relay, fora da transação do registro;
+ * se um deles lançar exceção, o lote é reentregue a todos.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.listener.habilitado", havingValue = "true", matchIfMissing = true)
+public class DestinoListener implements DestinoEventos {
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Override
+    public String getNome() {
+        return "listener";
+    }
+
+    @Override
+    public void enviar(List<EventoOutbox> lote) {
+        lote.forEach(publisher::publishEvent);
+    }
+}
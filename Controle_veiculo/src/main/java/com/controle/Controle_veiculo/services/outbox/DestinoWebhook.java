@@ -0,0 +1,60 @@
+package com.controle.Controle_veiculo.services.outbox;
+
+import com.controle.Controle_veiculo.model.EventoOutbox;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import jakarta.annotation.PostConstruct;
+
+import java.util.List;
+
+/**
+ * Entrega os eventos por HTTP: cada lote é um {@code POST} com um array JSON de eventos.
+ *
+ * Qualquer resposta diferente de 2xx (ou um timeout) faz o lote ser reenviado.
+ * Ativado quando {@code outbox.webhook.url} está configurado.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.webhook.url")
+public class DestinoWebhook implements DestinoEventos {
+
+    @Autowired
+    private RestClient.Builder restClientBuilder;
+
+    @Value("${outbox.webhook.url}")
+    private String url;
+
+    @Value("${outbox.webhook.timeout-ms:5000}")
+    private int timeoutMs;
+
+    private RestClient cliente;
+
+    @PostConstruct
+    public void inicializar() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.cliente = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public String getNome() {
+        return "webhook";
+    }
+
+    @Override
+    public void enviar(List<EventoOutbox> lote) {
+        cliente.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(lote)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -0,0 +1,57 @@
+package com.controle.Controle_veiculo.services.outbox;
+
+import com.controle.Controle_veiculo.model.EventoOutbox;
+import com.controle.Controle_veiculo.repository.EventoOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Grava eventos na outbox transacional.
+ *
+ * As integrações (folha de pagamento dos motoristas, manutenção da frota pela quilometragem etc.)
+ * não são chamadas dentro da transação do registro: o evento é apenas gravado na tabela
+ * "outbox_eventos", junto com a alteração, e o {@link RelayOutboxService} o entrega depois.
+ * Assim a latência e as falhas das integrações não chegam ao clique do porteiro.
+ */
+@Service
+public class OutboxService {
+
+    public static final String MOVIMENTACAO_REGISTRADA = "MOVIMENTACAO_REGISTRADA";
+    public static final String MOVIMENTACAO_ATUALIZADA = "MOVIMENTACAO_ATUALIZADA";
+    public static final String VEICULO_SALVO = "VEICULO_SALVO";
+    public static final String VEICULO_EXCLUIDO = "VEICULO_EXCLUIDO";
+
+    @Autowired
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${outbox.habilitado:true}")
+    private boolean habilitado;
+
+    /**
+     * Grava um evento na outbox. Precisa ser chamado dentro da transação da alteração.
+     *
+     * @param tipo Tipo do evento (ver constantes desta classe).
+     * @param agregadoId ID da movimentação ou do veículo alterado.
+     * @param conteudo Objeto serializado em JSON como conteúdo do evento.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void registrar(String tipo, Long agregadoId, Object conteudo) {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            eventoOutboxRepository.save(new EventoOutbox(tipo, agregadoId, objectMapper.writeValueAsString(conteudo)));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Não foi possível serializar o evento " + tipo + ": " + e.getMessage(), e);
+        }
+    }
+}
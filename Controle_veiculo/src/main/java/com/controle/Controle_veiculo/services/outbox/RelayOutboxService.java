@@ -0,0 +1,213 @@
+package com.controle.Controle_veiculo.services.outbox;
+
+import com.controle.Controle_veiculo.model.EventoOutbox;
+import com.controle.Controle_veiculo.repository.EntregaOutboxRepository;
+import com.controle.Controle_veiculo.repository.EventoOutboxRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Entrega os eventos da outbox aos destinos configurados ({@link DestinoEventos}).
+ *
+ * Funcionamento:
+ * 1. Para cada destino, lê os eventos ainda não entregues a ele em lotes de
+ *    {@code outbox.relay.tamanho-lote}, em ordem de ID.
+ * 2. Se o destino aceitar o lote, a entrega de cada evento é registrada ({@code outbox_entregas});
+ *    se falhar, o destino fica em espera com backoff exponencial e o mesmo lote é reenviado na
+ *    próxima tentativa.
+ * 3. Eventos já entregues a todos os destinos são removidos da tabela, com os seus registros de entrega.
+ *
+ * Os IDs são atribuídos no INSERT e não no COMMIT, então uma transação mais lenta pode confirmar um
+ * ID menor depois de um maior já ter sido entregue. Como a entrega é registrada por evento, esse
+ * evento continua pendente e sai no lote seguinte (fora da ordem de ID, mas nunca perdido). Um evento
+ * só é lido depois de {@code outbox.relay.atraso-minimo-ms} da sua criação, o que torna esses casos raros.
+ */
+@Service
+@ConditionalOnProperty(name = "outbox.habilitado", havingValue = "true", matchIfMissing = true)
+public class RelayOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelayOutboxService.class);
+
+    @Autowired
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    @Autowired
+    private EntregaOutboxRepository entregaOutboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired(required = false)
+    private List<DestinoEventos> destinos = List.of();
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${outbox.relay.tamanho-lote:100}")
+    private int tamanhoLote;
+
+    @Value("${outbox.relay.atraso-minimo-ms:1000}")
+    private long atrasoMinimoMs;
+
+    @Value("${outbox.relay.backoff-inicial-ms:1000}")
+    private long backoffInicialMs;
+
+    @Value("${outbox.relay.backoff-maximo-ms:60000}")
+    private long backoffMaximoMs;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Métricas e controle de tentativas, por destino
+    private final Map<String, Metricas> metricas = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void inicializar() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        destinos.forEach(destino -> metricas.put(destino.getNome(), new Metricas()));
+    }
+
+    /**
+     * Executa a entrega periodicamente, no intervalo de {@code outbox.relay.intervalo-ms}.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.intervalo-ms:1000}")
+    public void drenarPeriodicamente() {
+        try {
+            drenar();
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao entregar os eventos da outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Entrega aos destinos todos os eventos disponíveis e remove os já entregues a todos.
+     *
+     * @return Quantidade de eventos entregues (somando todos os destinos).
+     */
+    public synchronized int drenar() {
+        int entregues = 0;
+        for (DestinoEventos destino : destinos) {
+            entregues += drenar(destino);
+        }
+        limparEntregues();
+        return entregues;
+    }
+
+    /**
+     * @return Métricas de cada destino: pendências, entregas, falhas e último erro.
+     */
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        for (DestinoEventos destino : destinos) {
+            Metricas m = metricas.get(destino.getNome());
+            Map<String, Object> porDestino = new LinkedHashMap<>();
+            porDestino.put("pendentes", eventoOutboxRepository.countPendentes(destino.getNome()));
+            porDestino.put("eventosEntregues", m.eventosEntregues);
+            porDestino.put("lotesEntregues", m.lotesEntregues);
+            porDestino.put("falhas", m.falhas);
+            porDestino.put("falhasConsecutivas", m.falhasConsecutivas);
+            porDestino.put("duracaoUltimoLoteMs", m.duracaoUltimoLoteMs);
+            porDestino.put("proximaTentativa", m.proximaTentativa > 0 ? new Date(m.proximaTentativa) : null);
+            porDestino.put("ultimoErro", m.ultimoErro);
+            estado.put(destino.getNome(), porDestino);
+        }
+        return estado;
+    }
+
+    private int drenar(DestinoEventos destino) {
+        Metricas m = metricas.get(destino.getNome());
+        if (System.currentTimeMillis() < m.proximaTentativa) {
+            return 0;
+        }
+
+        int entregues = 0;
+        while (true) {
+            Date limite = new Date(System.currentTimeMillis() - atrasoMinimoMs);
+            List<EventoOutbox> lote = eventoOutboxRepository.findPendentes(destino.getNome(), limite, PageRequest.of(0, tamanhoLote));
+            if (lote.isEmpty()) {
+                return entregues;
+            }
+
+            long inicio = System.nanoTime();
+            try {
+                destino.enviar(lote);
+            } catch (RuntimeException e) {
+                m.falhas++;
+                m.falhasConsecutivas++;
+                m.ultimoErro = e.getMessage();
+                long espera = Math.min(backoffMaximoMs, backoffInicialMs << Math.min(m.falhasConsecutivas - 1, 20));
+                m.proximaTentativa = System.currentTimeMillis() + espera;
+                logger.warn("Destino {} recusou o lote a partir do evento {} (tentativa {}, nova tentativa em {} ms): {}",
+                        destino.getNome(), lote.get(0).getId(), m.falhasConsecutivas, espera, e.getMessage());
+                return entregues;
+            }
+
+            registrarEntrega(destino, lote);
+
+            m.duracaoUltimoLoteMs = (System.nanoTime() - inicio) / 1_000_000;
+            m.eventosEntregues += lote.size();
+            m.lotesEntregues++;
+            m.falhasConsecutivas = 0;
+            m.proximaTentativa = 0;
+            m.ultimoErro = null;
+            entregues += lote.size();
+
+            if (lote.size() < tamanhoLote) {
+                return entregues;
+            }
+        }
+    }
+
+    /**
+     * Registra a entrega de cada evento do lote ao destino, em um único INSERT em lote.
+     */
+    private void registrarEntrega(DestinoEventos destino, List<EventoOutbox> lote) {
+        Timestamp agora = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_entregas (destino, evento_id, entregue_em) VALUES (?, ?, ?)",
+                lote.stream().map(evento -> new Object[] {destino.getNome(), evento.getId(), agora}).toList());
+    }
+
+    /**
+     * Remove os eventos que todos os destinos já receberam. Sem destinos ativos, nada é removido
+     * (um destino configurado depois recebe o histórico acumulado).
+     */
+    private void limparEntregues() {
+        if (destinos.isEmpty()) {
+            return;
+        }
+        List<String> nomes = destinos.stream().map(DestinoEventos::getNome).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (eventoOutboxRepository.deleteEntregues(nomes, nomes.size()) > 0) {
+                entregaOutboxRepository.deleteOrfas();
+            }
+        });
+    }
+
+    private static class Metricas {
+        volatile long eventosEntregues;
+        volatile long lotesEntregues;
+        volatile long falhas;
+        volatile int falhasConsecutivas;
+        volatile long duracaoUltimoLoteMs;
+        volatile long proximaTentativa;
+        volatile String ultimoErro;
+    }
+}
@@ -0,0 +1,343 @@
+package com.controle.Controle_veiculo.services.relatorio;
+
+import com.controle.Controle_veiculo.dto.DefinicaoRelatorio;
+import com.controle.Controle_veiculo.dto.LinhaRelatorio;
+import com.controle.Controle_veiculo.services.compartimento.ClasseCarga;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Execução assíncrona dos relatórios de movimentações (por veículo, motorista, porteiro ou dia).
+ *
+ * Fluxo: {@link #submeter} devolve na hora um {@link TrabalhoRelatorio} com o ID; o período é
+ * dividido em partições de {@code relatorio.particao-dias} dias, e cada partição lê as suas
+ * movimentações por uma consulta em streaming (fetch size) e soma os totais localmente. A última
+ * partição a terminar junta tudo e publica o resultado.
+ *
+ * Para não disputar com os registros da portaria, as partições rodam num pool próprio e pequeno
+ * ({@code relatorio.threads}, abaixo do tamanho do pool de conexões), com threads de prioridade
+ * mínima e fila limitada: com a fila cheia, novos pedidos são recusados em vez de acumular.
+ *
+ * Resultados ficam em cache por (definição, versão dos dados). A versão muda a cada movimentação
+ * registrada, editada ou sincronizada e a cada veículo alterado ou excluído pela aplicação (depois
+ * do commit), e também quando surgem movimentações novas inseridas direto no banco (maior ID).
+ * Edições feitas direto no banco só são vistas depois de uma alteração pela aplicação.
+ */
+@Service
+public class RelatorioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatorioService.class);
+
+    private static final String NAO_INFORMADO = "(não informado)";
+
+    private static final long DIA_MS = 24L * 60 * 60 * 1000;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${relatorio.threads:2}")
+    private int threads;
+
+    @Value("${relatorio.fila.capacidade:1000}")
+    private int capacidadeFila;
+
+    @Value("${relatorio.particao-dias:7}")
+    private int diasPorParticao;
+
+    @Value("${relatorio.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${relatorio.cache.tamanho:50}")
+    private int tamanhoCache;
+
+    @Value("${relatorio.retencao-minutos:60}")
+    private long retencaoMinutos;
+
+    // Consultas das partições, com fetch size para ler as linhas aos poucos
+    private JdbcTemplate leitura;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong alteracoes = new AtomicLong();
+
+    private final Map<String, TrabalhoRelatorio> trabalhos = new ConcurrentHashMap<>();
+
+    // Trabalhos em andamento por chave de cache: pedidos iguais simultâneos compartilham o mesmo trabalho
+    private final Map<String, TrabalhoRelatorio> emAndamento = new ConcurrentHashMap<>();
+
+    private final Map<String, List<LinhaRelatorio>> cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<LinhaRelatorio>> maisAntigo) {
+            return size() > tamanhoCache;
+        }
+    });
+
+    @PostConstruct
+    public void inicializar() {
+        leitura = new JdbcTemplate(dataSource);
+        leitura.setFetchSize(fetchSize);
+
+        AtomicInteger contador = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacidadeFila), tarefa -> {
+            // Conexões das partições sempre do pool de lote
+            Thread thread = new Thread(() -> ClasseCarga.LOTE.executar(tarefa), "relatorio-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Registra um pedido de relatório e inicia o cálculo em segundo plano.
+     *
+     * @param definicao Agrupamento e período.
+     * @return O trabalho criado (já concluído se o resultado estava em cache), ou o trabalho em
+     *         andamento de um pedido idêntico.
+     * @throws RejectedExecutionException se a fila de relatórios estiver cheia.
+     * @throws RuntimeException se a definição for inválida.
+     */
+    public TrabalhoRelatorio submeter(DefinicaoRelatorio definicao) {
+        if (definicao.getAgrupamento() == null) {
+            throw new RuntimeException("Informe o agrupamento do relatório (VEICULO, MOTORISTA, PORTEIRO ou DIA).");
+        }
+        if (definicao.getDataInicio() != null && definicao.getDataFim() != null && !definicao.getDataInicio().before(definicao.getDataFim())) {
+            throw new RuntimeException("A data de início deve ser anterior à data de fim.");
+        }
+        removerExpirados();
+
+        String chave = definicao.chave() + "@" + versaoDados();
+        List<LinhaRelatorio> emCache = cache.get(chave);
+        if (emCache != null) {
+            return registrar(new TrabalhoRelatorio(UUID.randomUUID().toString(), definicao, 0, emCache));
+        }
+
+        synchronized (emAndamento) {
+            TrabalhoRelatorio existente = emAndamento.get(chave);
+            if (existente != null) {
+                return existente;
+            }
+
+            List<Date[]> particoes = particionar(definicao);
+            if (executor.getQueue().remainingCapacity() < particoes.size()) {
+                throw new RejectedExecutionException("Muitos relatórios em andamento; tente novamente em instantes.");
+            }
+
+            TrabalhoRelatorio trabalho = registrar(new TrabalhoRelatorio(UUID.randomUUID().toString(), definicao, particoes.size(), null));
+            if (particoes.isEmpty()) {
+                // Nenhuma movimentação no banco
+                trabalho.concluir(List.of());
+                return trabalho;
+            }
+            emAndamento.put(chave, trabalho);
+            try {
+                for (Date[] particao : particoes) {
+                    executor.execute(() -> calcularParticao(trabalho, chave, particao[0], particao[1]));
+                }
+            } catch (RejectedExecutionException e) {
+                falhar(trabalho, chave, "Fila de relatórios cheia.");
+                throw e;
+            }
+            return trabalho;
+        }
+    }
+
+    /**
+     * @param id ID do trabalho.
+     * @return O trabalho, se existir (trabalhos concluídos são mantidos por {@code relatorio.retencao-minutos}).
+     */
+    public Optional<TrabalhoRelatorio> buscar(String id) {
+        return Optional.ofNullable(trabalhos.get(id));
+    }
+
+    /**
+     * Acompanha o andamento de um trabalho por Server-Sent Events: envia o estado atual e, depois,
+     * um evento "progresso" por partição concluída e um evento final "concluido" ou "falhou".
+     *
+     * @param trabalho Trabalho acompanhado.
+     * @return Emissor que é encerrado quando o trabalho termina.
+     */
+    public SseEmitter acompanhar(TrabalhoRelatorio trabalho) {
+        SseEmitter emissor = new SseEmitter(TimeUnit.MINUTES.toMillis(retencaoMinutos));
+        emissor.onCompletion(() -> trabalho.ouvintes.remove(emissor));
+        emissor.onTimeout(() -> trabalho.ouvintes.remove(emissor));
+        trabalho.ouvintes.add(emissor);
+
+        // Se terminou antes do registro do ouvinte, o evento final é enviado aqui
+        enviar(emissor, trabalho, trabalho.getEstado() == TrabalhoRelatorio.Estado.EXECUTANDO ? "progresso" : nomeEventoFinal(trabalho));
+        return emissor;
+    }
+
+    /**
+     * Avisa que os dados dos relatórios mudaram (invalida o cache depois do commit da transação atual).
+     */
+    public void registrarAlteracao() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    alteracoes.incrementAndGet();
+                }
+            });
+        } else {
+            alteracoes.incrementAndGet();
+        }
+    }
+
+    private void calcularParticao(TrabalhoRelatorio trabalho, String chave, Date de, Date ate) {
+        if (trabalho.getEstado() != TrabalhoRelatorio.Estado.EXECUTANDO) {
+            return;
+        }
+        try {
+            DefinicaoRelatorio.Agrupamento agrupamento = trabalho.getDefinicao().getAgrupamento();
+            Map<String, LinhaRelatorio> linhas = new HashMap<>();
+            leitura.query(consulta(agrupamento), rs -> {
+                Timestamp dataHora = rs.getTimestamp("data_hora");
+                String valor = agrupamento == DefinicaoRelatorio.Agrupamento.DIA
+                        ? dataHora.toLocalDateTime().toLocalDate().toString()
+                        : rs.getString("chave");
+                linhas.computeIfAbsent(valor != null ? valor : NAO_INFORMADO, LinhaRelatorio::new)
+                        .contar("E".equals(rs.getString("tipo")), dataHora);
+            }, new Timestamp(de.getTime()), new Timestamp(ate.getTime()));
+
+            linhas.forEach((valor, linha) -> trabalho.parciais.merge(valor, linha, LinhaRelatorio::somar));
+            if (!trabalho.particaoConcluida()) {
+                notificar(trabalho, "progresso");
+                return;
+            }
+
+            List<LinhaRelatorio> resultado = new ArrayList<>(trabalho.parciais.values());
+            resultado.sort(agrupamento == DefinicaoRelatorio.Agrupamento.DIA
+                    ? Comparator.comparing(LinhaRelatorio::getChave)
+                    : Comparator.comparingLong(LinhaRelatorio::getTotal).reversed().thenComparing(LinhaRelatorio::getChave));
+            trabalho.parciais.clear();
+            trabalho.concluir(Collections.unmodifiableList(resultado));
+            cache.put(chave, trabalho.getResultado());
+            emAndamento.remove(chave, trabalho);
+            logger.info("Relatório {} ({}) concluído em {} ms.", trabalho.getId(), agrupamento, trabalho.getDuracaoMs());
+            notificar(trabalho, "concluido");
+        } catch (RuntimeException e) {
+            String mensagem = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            logger.warn("Falha no relatório {}: {}", trabalho.getId(), mensagem);
+            falhar(trabalho, chave, mensagem);
+        }
+    }
+
+    /**
+     * Divide o período em faixas de {@code relatorio.particao-dias} dias ([início, fim)).
+     * Sem datas na definição, usa a primeira e a última movimentação do banco.
+     */
+    private List<Date[]> particionar(DefinicaoRelatorio definicao) {
+        Date inicio = definicao.getDataInicio();
+        Date fim = definicao.getDataFim();
+        if (inicio == null || fim == null) {
+            Map<String, Object> limites = jdbcTemplate.queryForMap("SELECT MIN(data_hora) AS primeira, MAX(data_hora) AS ultima FROM movimentacoes");
+            if (limites.get("primeira") == null) {
+                return List.of();
+            }
+            inicio = inicio != null ? inicio : (Date) limites.get("primeira");
+            fim = fim != null ? fim : new Date(((Date) limites.get("ultima")).getTime() + 1);
+        }
+
+        List<Date[]> particoes = new ArrayList<>();
+        long passo = Math.max(1, diasPorParticao) * DIA_MS;
+        for (long de = inicio.getTime(); de < fim.getTime(); de += passo) {
+            particoes.add(new Date[] {new Date(de), new Date(Math.min(de + passo, fim.getTime()))});
+        }
+        return particoes;
+    }
+
+    private static String consulta(DefinicaoRelatorio.Agrupamento agrupamento) {
+        String chave;
+        String juncao;
+        switch (agrupamento) {
+            case VEICULO -> { chave = "v.placa"; juncao = "JOIN veiculos v ON v.id = m.veiculo_id "; }
+            case MOTORISTA -> { chave = "mo.nome"; juncao = "LEFT JOIN motoristas mo ON mo.id = m.motorista_id "; }
+            case PORTEIRO -> { chave = "p.nome"; juncao = "LEFT JOIN porteiros p ON p.id = m.porteiro_id "; }
+            default -> { chave = "NULL"; juncao = ""; }
+        }
+        return "SELECT m.tipo, m.data_hora, " + chave + " AS chave FROM movimentacoes m " + juncao +
+               "WHERE m.tipo IS NOT NULL AND m.data_hora >= ? AND m.data_hora < ?";
+    }
+
+    private String versaoDados() {
+        Long maiorId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM movimentacoes", Long.class);
+        return alteracoes.get() + "." + maiorId;
+    }
+
+    private TrabalhoRelatorio registrar(TrabalhoRelatorio trabalho) {
+        trabalhos.put(trabalho.getId(), trabalho);
+        return trabalho;
+    }
+
+    private void falhar(TrabalhoRelatorio trabalho, String chave, String mensagem) {
+        trabalho.falhar(mensagem);
+        emAndamento.remove(chave, trabalho);
+        notificar(trabalho, "falhou");
+    }
+
+    private void removerExpirados() {
+        long limite = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retencaoMinutos);
+        trabalhos.values().removeIf(t -> t.getConcluidoEm() != null && t.getConcluidoEm().getTime() < limite);
+    }
+
+    private void notificar(TrabalhoRelatorio trabalho, String evento) {
+        for (SseEmitter emissor : trabalho.ouvintes) {
+            enviar(emissor, trabalho, evento);
+        }
+    }
+
+    private void enviar(SseEmitter emissor, TrabalhoRelatorio trabalho, String evento) {
+        try {
+            emissor.send(SseEmitter.event().name(evento).data(trabalho));
+            if (!"progresso".equals(evento)) {
+                emissor.complete();
+            }
+        } catch (Exception e) {
+            // Cliente desconectado
+            trabalho.ouvintes.remove(emissor);
+        }
+    }
+
+    private static String nomeEventoFinal(TrabalhoRelatorio trabalho) {
+        return trabalho.getEstado() == TrabalhoRelatorio.Estado.CONCLUIDO ? "concluido" : "falhou";
+    }
+}
@@ -0,0 +1,115 @@
+package com.controle.Controle_veiculo.services.relatorio;
+
+import com.controle.Controle_veiculo.dto.DefinicaoRelatorio;
+import com.controle.Controle_veiculo.dto.LinhaRelatorio;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Um pedido de relatório e o seu andamento (é o JSON devolvido pelos endpoints de status).
+ *
+ * As partições concluídas somam os seus totais em {@link #parciais}; a última a terminar
+ * ordena as linhas e publica o resultado.
+ */
+public class TrabalhoRelatorio {
+
+    public enum Estado { EXECUTANDO, CONCLUIDO, FALHOU }
+
+    private final String id;
+
+    private final DefinicaoRelatorio definicao;
+
+    private volatile Estado estado = Estado.EXECUTANDO;
+
+    private final int particoes;
+
+    private final AtomicInteger particoesConcluidas = new AtomicInteger();
+
+    // Resultado servido do cache, sem consultar o banco
+    private final boolean emCache;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
+    private final Date criadoEm = new Date();
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", timezone = "GMT")
+    private volatile Date concluidoEm;
+
+    private volatile String erro;
+
+    private volatile List<LinhaRelatorio> resultado;
+
+    final Map<String, LinhaRelatorio> parciais = new ConcurrentHashMap<>();
+
+    final List<SseEmitter> ouvintes = new CopyOnWriteArrayList<>();
+
+    TrabalhoRelatorio(String id, DefinicaoRelatorio definicao, int particoes, List<LinhaRelatorio> emCache) {
+        this.id = id;
+        this.definicao = definicao;
+        this.particoes = particoes;
+        this.emCache = emCache != null;
+        if (emCache != null) {
+            concluir(emCache);
+        }
+    }
+
+    /**
+     * Registra uma partição concluída.
+     *
+     * @return true se era a última.
+     */
+    boolean particaoConcluida() {
+        return particoesConcluidas.incrementAndGet() == particoes;
+    }
+
+    void concluir(List<LinhaRelatorio> linhas) {
+        resultado = linhas;
+        concluidoEm = new Date();
+        estado = Estado.CONCLUIDO;
+    }
+
+    void falhar(String mensagem) {
+        erro = mensagem;
+        concluidoEm = new Date();
+        estado = Estado.FALHOU;
+    }
+
+    public String getId() { return id; }
+
+    public DefinicaoRelatorio getDefinicao() { return definicao; }
+
+    public Estado getEstado() { return estado; }
+
+    public int getParticoes() { return particoes; }
+
+    public int getParticoesConcluidas() { return particoesConcluidas.get(); }
+
+    public boolean isEmCache() { return emCache; }
+
+    public Date getCriadoEm() { return criadoEm; }
+
+    public Date getConcluidoEm() { return concluidoEm; }
+
+    public Long getDuracaoMs() {
+        Date fim = concluidoEm;
+        return fim != null ? fim.getTime() - criadoEm.getTime() : null;
+    }
+
+    public String getErro() { return erro; }
+
+    public Integer getLinhas() {
+        List<LinhaRelatorio> linhas = resultado;
+        return linhas != null ? linhas.size() : null;
+    }
+
+    @JsonIgnore
+    public List<LinhaRelatorio> getResultado() { return resultado; }
+}
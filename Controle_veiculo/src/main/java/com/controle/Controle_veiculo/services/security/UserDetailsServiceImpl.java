@@ -1,26 +1,50 @@
-/*package com.controle.Controle_veiculo.services.security;
+package com.controle.Controle_veiculo.services.security;
 
+import com.controle.Controle_veiculo.model.Papel;
 import com.controle.Controle_veiculo.model.Usuario;
 import com.controle.Controle_veiculo.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Carrega os usuários do banco para o Spring Security.
+ *
+ * É usado apenas no login ({@code /api/auth/login}); nas demais requisições o
+ * {@code AuthTokenFilter} monta a autenticação a partir das claims do token, sem consultar o banco.
+ */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
+
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${jwt.admin.username:admin}")
+    private String adminUsername;
+
+    @Value("${jwt.admin.password:}")
+    private String adminPassword;
+
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -30,10 +54,29 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         // 2. Converte os papéis (roles) do seu usuário para o formato que o Spring Security entende
         Collection<? extends GrantedAuthority> authorities = usuario.getPapeis().stream()
-                .map(papel -> new SimpleGrantedAuthority(papel.getNome().name()))
+                .map(papel -> new SimpleGrantedAuthority(papel.name()))
                 .collect(Collectors.toList());
 
-        // 3. Retorna um objeto UserDetails que contém todas as informações necessárias
-        return new User(usuario.getUsername(), usuario.getSenha(), authorities);
+        // 3. Retorna um objeto UserDetails que contém todas as informações necessárias (inclusive a unidade do usuário)
+        return new UsuarioDetalhes(usuario.getUsername(), usuario.getSenha(), authorities, usuario.getUnidadeId());
+    }
+
+    /**
+     * Cria o usuário administrador inicial quando não há nenhum usuário cadastrado.
+     * A senha vem da propriedade {@code jwt.admin.password}, que não tem valor padrão; sem ela, nenhum
+     * usuário é criado (não existe senha conhecida de fábrica).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void criarAdministradorInicial() {
+        if (usuarioRepository.count() > 0) {
+            return;
+        }
+        if (adminPassword == null || adminPassword.isBlank()) {
+            logger.warn("Nenhum usuário cadastrado e 'jwt.admin.password' não definido: login indisponível.");
+            return;
+        }
+        usuarioRepository.save(new Usuario(adminUsername, passwordEncoder.encode(adminPassword),
+                Set.of(Papel.ROLE_ADMIN, Papel.ROLE_PORTEIRO)));
+        logger.info("Usuário administrador inicial '{}' criado.", adminUsername);
     }
-}*/
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.controle.Controle_veiculo.services.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Usuário autenticado no login, com a unidade (pátio) a que está vinculado.
+ *
+ * A unidade vai para o token JWT (claim "unidade") junto com os papéis; usuários sem unidade
+ * (administração central) escolhem a unidade de cada requisição pelo cabeçalho {@code X-Unidade}.
+ */
+public class UsuarioDetalhes extends User {
+
+    private final Long unidadeId;
+
+    /**
+     * @param username    O nome de login.
+     * @param senha       O hash da senha.
+     * @param autoridades Os papéis do usuário.
+     * @param unidadeId   A unidade do usuário, ou null se ele tiver acesso a todas.
+     */
+    public UsuarioDetalhes(String username, String senha, Collection<? extends GrantedAuthority> autoridades, Long unidadeId) {
+        super(username, senha, autoridades);
+        this.unidadeId = unidadeId;
+    }
+
+    public Long getUnidadeId() {
+        return unidadeId;
+    }
+}
@@ -1,13 +1,10 @@
-/*package com.controle.Controle_veiculo.services.security.jwt;
+package com.controle.Controle_veiculo.services.security.jwt;
 
-import com.controle.Controle_veiculo.services.security.UserDetailsServiceImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -16,15 +13,19 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Optional;
 
+/**
+ * Filtro que autentica cada requisição a partir do token JWT do cabeçalho Authorization.
+ *
+ * Os papéis vêm das claims do próprio token (validado pelo {@link JwtUtils}, com cache),
+ * então o caminho por requisição não faz nenhuma consulta ao banco de dados.
+ */
 public class AuthTokenFilter extends OncePerRequestFilter {
 
     @Autowired
     private JwtUtils jwtUtils;
 
-    @Autowired
-    private UserDetailsServiceImpl userDetailsService;
-
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -32,15 +33,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (jwt != null) {
+                Optional<TokenValidado> token = jwtUtils.validarToken(jwt);
+                if (token.isPresent()) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            token.get().username(), null, token.get().autoridades());
+                    // A unidade do usuário, para o UnidadeFilter
+                    authentication.setDetails(token.get());
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception e) {
             logger.error("Não foi possível definir a autenticação do usuário: {}", e.getMessage());
@@ -49,7 +50,13 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String parseJwt(HttpServletRequest request) {
+    /**
+     * Extrai o token do cabeçalho {@code Authorization: Bearer <token>}.
+     *
+     * @param request Requisição HTTP.
+     * @return O token, ou null se o cabeçalho não estiver presente.
+     */
+    public static String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
@@ -58,4 +65,4 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
         return null;
     }
-}*/
\ No newline at end of file
+}
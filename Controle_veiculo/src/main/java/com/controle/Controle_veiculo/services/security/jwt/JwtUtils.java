@@ -1,6 +1,8 @@
-/*package com.controle.Controle_veiculo.services.security.jwt;
+package com.controle.Controle_veiculo.services.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -8,58 +10,208 @@ import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
+import com.controle.Controle_veiculo.services.security.UsuarioDetalhes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Geração e validação dos tokens JWT.
+ *
+ * A chave de assinatura e o {@link JwtParser} são criados uma única vez na inicialização
+ * (ambos são imutáveis e seguros para uso concorrente). Os papéis e a unidade do usuário vão no
+ * próprio token (claims "roles" e "unidade"), então validar uma requisição não exige consulta ao banco.
+ *
+ * Como os papéis e a unidade vêm do token, a chave precisa ser secreta e forte: com {@code jwt.enabled=true}
+ * a inicialização falha se {@code jwt.secret} estiver ausente, tiver menos de 256 bits ou for o antigo
+ * valor de exemplo do repositório. Com a autenticação desligada, uma chave inválida é trocada por uma
+ * chave aleatória da instância, para que tokens forjados com ela não sejam aceitos.
+ *
+ * Tokens já validados ficam em um cache limitado, evitando refazer a verificação da assinatura
+ * a cada requisição. Tokens revogados (logout) são guardados pelo "jti" até expirarem.
+ * Cache e lista de revogação ficam em memória, por instância da aplicação.
+ */
 @Component
 public class JwtUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${jwt.secret}")
+    private static final String CLAIM_PAPEIS = "roles";
+
+    private static final String CLAIM_UNIDADE = "unidade";
+
+    // Segredo que já esteve publicado no repositório: não pode mais assinar tokens
+    private static final String SEGREDO_DE_EXEMPLO = "ProjetoParaControleDeEntradaESaidaDeVeiculos";
+
+    private static final int BITS_MINIMOS = 256;
+
+    @Value("${jwt.secret:}")
     private String jwtSecret;
 
+    @Value("${jwt.enabled:false}")
+    private boolean jwtEnabled;
+
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
+    @Value("${jwt.cache.tamanho-maximo:10000}")
+    private int tamanhoMaximoCache;
+
+    private Key chave;
+
+    private JwtParser parser;
+
+    // Token → resultado da validação
+    private final Map<String, TokenValidado> cache = new ConcurrentHashMap<>();
+
+    // jti → instante de expiração do token revogado
+    private final Map<String, Long> revogados = new ConcurrentHashMap<>();
+
+    /**
+     * Valida e decodifica a chave e monta o parser uma única vez.
+     *
+     * @throws IllegalStateException se a autenticação estiver ligada e a chave for inválida.
+     */
+    @PostConstruct
+    public void inicializar() {
+        String problema = validarSegredo(jwtSecret);
+        if (problema == null) {
+            this.chave = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret.trim()));
+        } else if (jwtEnabled) {
+            throw new IllegalStateException("jwt.secret inválido (" + problema + "). Defina a variável JWT_SECRET com uma chave "
+                    + "Base64 de no mínimo " + BITS_MINIMOS + " bits, ex: openssl rand -base64 48");
+        } else {
+            logger.warn("jwt.secret inválido ({}); usando uma chave aleatória desta instância.", problema);
+            this.chave = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        }
+        this.parser = Jwts.parserBuilder().setSigningKey(chave).build();
+    }
+
+    /**
+     * Verifica se o segredo pode assinar os tokens.
+     *
+     * @param segredo Valor de {@code jwt.secret} (Base64).
+     * @return A descrição do problema, ou null se o segredo for válido.
+     */
+    static String validarSegredo(String segredo) {
+        if (segredo == null || segredo.isBlank()) {
+            return "ausente";
+        }
+        if (SEGREDO_DE_EXEMPLO.equals(segredo.trim())) {
+            return "é o valor de exemplo publicado no repositório";
+        }
+        byte[] bytes;
+        try {
+            bytes = Decoders.BASE64.decode(segredo.trim());
+        } catch (RuntimeException e) {
+            return "não é Base64 válido";
+        }
+        if (bytes.length * 8 < BITS_MINIMOS) {
+            return "tem " + bytes.length * 8 + " bits";
+        }
+        return null;
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        List<String> papeis = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        Long unidade = userPrincipal instanceof UsuarioDetalhes usuario ? usuario.getUnidadeId() : null;
+        Date agora = new Date();
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS512)
+                .claim(CLAIM_PAPEIS, papeis)
+                .claim(CLAIM_UNIDADE, unidade)
+                .setIssuedAt(agora)
+                .setExpiration(new Date(agora.getTime() + jwtExpirationMs))
+                .signWith(chave)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
-
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
+        return validarToken(authToken).isPresent();
+    }
+
+    /**
+     * Valida o token e devolve os dados necessários para autenticar a requisição.
+     *
+     * Primeiro consulta o cache; só em caso de ausência a assinatura é verificada.
+     * Tokens expirados ou revogados são recusados mesmo que estejam no cache.
+     *
+     * @param token Token recebido no cabeçalho Authorization.
+     * @return Os dados do token, ou vazio se ele for inválido, expirado ou revogado.
+     */
+    public Optional<TokenValidado> validarToken(String token) {
+        long agora = System.currentTimeMillis();
+        TokenValidado validado = cache.get(token);
+
+        if (validado == null) {
+            validado = verificarAssinatura(token);
+            if (validado == null) {
+                return Optional.empty();
+            }
+            guardarNoCache(token, validado, agora);
+        }
+
+        if (validado.expirado(agora)) {
+            cache.remove(token);
+            return Optional.empty();
+        }
+        if (!revogados.isEmpty() && revogados.containsKey(validado.id())) {
+            return Optional.empty();
+        }
+        return Optional.of(validado);
+    }
+
+    /**
+     * Revoga o token (logout). Ele passa a ser recusado até a sua expiração.
+     *
+     * @param token Token a revogar.
+     * @return true se o token era válido e foi revogado.
+     */
+    public boolean revogar(String token) {
+        Optional<TokenValidado> validado = validarToken(token);
+        if (validado.isEmpty()) {
+            return false;
+        }
+        long agora = System.currentTimeMillis();
+        revogados.values().removeIf(expiraEm -> expiraEm <= agora);
+        revogados.put(validado.get().id(), validado.get().expiraEm());
+        cache.remove(token);
+        return true;
+    }
+
+    private TokenValidado verificarAssinatura(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parse(authToken);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            List<?> papeis = claims.get(CLAIM_PAPEIS, List.class);
+            List<GrantedAuthority> autoridades = papeis == null ? List.of() : papeis.stream()
+                    .map(papel -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(papel)))
+                    .toList();
+            return new TokenValidado(claims.getSubject(), claims.getId(), autoridades, claims.get(CLAIM_UNIDADE, Long.class),
+                    claims.getExpiration().getTime());
         } catch (SignatureException e) {
             logger.error("Assinatura do token JWT inválida: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -71,6 +223,22 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             logger.error("A string do token JWT está vazia: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * Guarda o token no cache; ao atingir o limite, descarta primeiro os expirados
+     * e, se ainda estiver cheio, uma parte arbitrária das entradas.
+     */
+    private void guardarNoCache(String token, TokenValidado validado, long agora) {
+        if (cache.size() >= tamanhoMaximoCache) {
+            cache.values().removeIf(t -> t.expirado(agora));
+            Iterator<String> chaves = cache.keySet().iterator();
+            for (int i = cache.size() - tamanhoMaximoCache * 9 / 10; i >= 0 && chaves.hasNext(); i--) {
+                chaves.next();
+                chaves.remove();
+            }
+        }
+        cache.put(token, validado);
     }
-}*/
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.controle.Controle_veiculo.services.security.jwt;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Resultado da validação de um token JWT, mantido no cache do {@link JwtUtils}.
+ *
+ * Contém tudo o que o {@link AuthTokenFilter} precisa para autenticar a requisição
+ * sem consultar o banco de dados.
+ *
+ * @param username     Nome de login (claim "sub").
+ * @param id           Identificador do token (claim "jti"), usado na revogação.
+ * @param autoridades  Papéis do usuário (claim "roles").
+ * @param unidade      Unidade a que o usuário está vinculado (claim "unidade"), ou null se ele acessa todas.
+ * @param expiraEm     Instante de expiração, em milissegundos desde a época.
+ */
+public record TokenValidado(String username, String id, List<GrantedAuthority> autoridades, Long unidade, long expiraEm) {
+
+    /**
+     * @param agora Instante atual em milissegundos.
+     * @return true se o token já expirou.
+     */
+    public boolean expirado(long agora) {
+        return expiraEm <= agora;
+    }
+}
@@ -0,0 +1,77 @@
+package com.controle.Controle_veiculo.services.transacao;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Leitura de tabelas inteiras (ex: todos os veículos, na carga da projeção do pátio ou na
+ * sincronização das portarias) por uma sessão sem estado do Hibernate.
+ *
+ * A sessão sem estado não mantém contexto de persistência: as entidades saem desanexadas, sem
+ * entrada no contexto nem cópia do estado, e nada é verificado ou gravado no final. A conexão,
+ * do pool da classe de carga da thread, fica em modo somente leitura durante a consulta.
+ */
+@Component
+public class LeituraEmLote {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${leitura.lote.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Carrega todas as linhas de uma entidade.
+     *
+     * @param entidade Classe da entidade.
+     * @return Entidades desanexadas (alterações nelas não são gravadas).
+     */
+    public <T> List<T> listar(Class<T> entidade) {
+        return listar(entidade, null);
+    }
+
+    /**
+     * Carrega as linhas de uma entidade que pertencem a uma unidade (atributo {@code unidadeId}).
+     *
+     * @param entidade Classe da entidade.
+     * @param unidade  ID da unidade.
+     * @return Entidades desanexadas (alterações nelas não são gravadas).
+     */
+    public <T> List<T> listarDaUnidade(Class<T> entidade, long unidade) {
+        return listar(entidade, unidade);
+    }
+
+    private <T> List<T> listar(Class<T> entidade, Long unidade) {
+        String nome = entityManagerFactory.getMetamodel().entity(entidade).getName();
+        SessionFactory fabrica = entityManagerFactory.unwrap(SessionFactory.class);
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setReadOnly(true);
+            try (StatelessSession sessao = fabrica.withStatelessOptions().connection(conexao).openStatelessSession()) {
+                if (unidade == null) {
+                    return sessao.createSelectionQuery("from " + nome, entidade)
+                            .setFetchSize(fetchSize)
+                            .getResultList();
+                }
+                return sessao.createSelectionQuery("from " + nome + " where unidadeId = :unidade", entidade)
+                        .setParameter("unidade", unidade)
+                        .setFetchSize(fetchSize)
+                        .getResultList();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Falha ao ler " + nome + ": " + e.getMessage(), e);
+        }
+    }
+}
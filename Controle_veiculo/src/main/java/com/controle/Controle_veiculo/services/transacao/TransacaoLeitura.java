@@ -0,0 +1,28 @@
+package com.controle.Controle_veiculo.services.transacao;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um método de serviço que apenas consulta o banco: executa numa transação somente leitura
+ * do Spring. Na transação:
+ * - A conexão JDBC fica em modo somente leitura (no MySQL, a transação não recebe ID nem grava undo).
+ * - A sessão do Hibernate carrega as entidades como somente leitura (sem cópia do estado para
+ *   a verificação de alterações) e usa FlushMode.MANUAL (nada é enviado ao banco no commit).
+ *
+ * As escritas continuam com {@code jakarta.transaction.Transactional}; chamado dentro de uma
+ * escrita, o método participa da transação dela. Para carregar tabelas inteiras, ver {@link LeituraEmLote}.
+ *
+ * Só vale para chamadas vindas de outro bean (o método passa pelo proxy do Spring).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+public @interface TransacaoLeitura {
+}
@@ -0,0 +1,78 @@
+package com.controle.Controle_veiculo.services.unidade;
+
+import com.controle.Controle_veiculo.model.Unidade;
+
+import java.util.function.Supplier;
+
+/**
+ * Unidade (pátio) da requisição em andamento.
+ *
+ * Definida pelo {@link UnidadeFilter} em toda requisição da API (cabeçalho {@code X-Unidade}, unidade
+ * do usuário ou unidade padrão) e válida para a thread enquanto a requisição é processada. Sem unidade
+ * definida (tarefas em segundo plano) vale a {@link Unidade#PADRAO unidade padrão}.
+ */
+public final class UnidadeContexto {
+
+    private static final ThreadLocal<Long> ATUAL = new ThreadLocal<>();
+
+    private UnidadeContexto() {
+    }
+
+    /**
+     * @return A unidade definida para a thread atual, ou null se nenhuma foi definida.
+     */
+    public static Long atual() {
+        return ATUAL.get();
+    }
+
+    /**
+     * @return A unidade da thread atual ou, se nenhuma foi definida, a unidade padrão.
+     */
+    public static long obter() {
+        Long unidade = ATUAL.get();
+        return unidade != null ? unidade : Unidade.PADRAO;
+    }
+
+    /**
+     * Executa a tarefa na unidade informada, restaurando a anterior no final.
+     *
+     * @param unidade ID da unidade.
+     * @param tarefa  Código que consulta ou grava dados da unidade.
+     * @return Resultado da tarefa.
+     */
+    public static <T> T executar(Long unidade, Supplier<T> tarefa) {
+        Long anterior = ATUAL.get();
+        ATUAL.set(unidade);
+        try {
+            return tarefa.get();
+        } finally {
+            if (anterior != null) {
+                ATUAL.set(anterior);
+            } else {
+                ATUAL.remove();
+            }
+        }
+    }
+
+    static void definir(Long unidade) {
+        ATUAL.set(unidade);
+    }
+
+    static void limpar() {
+        ATUAL.remove();
+    }
+
+    /**
+     * Garante que o registro pertence à unidade da requisição. Tarefas em segundo plano (sem unidade
+     * definida) acessam todas as unidades.
+     *
+     * @param unidadeDoRegistro Unidade do veículo ou da movimentação.
+     * @throws RuntimeException se o registro pertencer a outra unidade.
+     */
+    public static void verificar(Long unidadeDoRegistro) {
+        Long unidade = ATUAL.get();
+        if (unidade != null && unidadeDoRegistro != null && !unidade.equals(unidadeDoRegistro)) {
+            throw new RuntimeException("O registro pertence a outra unidade (" + unidadeDoRegistro + ").");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.controle.Controle_veiculo.services.unidade;
+
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.services.security.jwt.TokenValidado;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Define a unidade (pátio) das requisições da API, depois do Spring Security (a unidade do usuário
+ * vem do token já validado) e antes do controle de admissão (que divide as vagas por unidade).
+ *
+ * O cabeçalho {@code X-Unidade} (ID ou código da unidade) escolhe a unidade; sem ele vale a unidade
+ * do usuário ou, para usuários sem unidade, a unidade padrão. Toda requisição tem uma unidade
+ * definida, então os registros de outra unidade são sempre recusados ({@link UnidadeContexto#verificar}).
+ * Uma unidade inexistente é recusada com 400 (Bad Request); uma unidade diferente da do usuário, com
+ * 403 (Forbidden).
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 5)
+public class UnidadeFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO = "X-Unidade";
+
+    @Autowired
+    private UnidadeService unidadeService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().substring(request.getContextPath().length()).startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Long doUsuario = unidadeDoUsuario();
+        String valor = request.getHeader(CABECALHO);
+        Long unidade;
+        if (valor == null || valor.isBlank()) {
+            unidade = doUsuario != null ? doUsuario : Unidade.PADRAO;
+        } else {
+            unidade = unidadeService.resolver(valor);
+            if (unidade == null) {
+                recusar(response, HttpServletResponse.SC_BAD_REQUEST, "Unidade não encontrada.");
+                return;
+            }
+            if (doUsuario != null && !doUsuario.equals(unidade)) {
+                recusar(response, HttpServletResponse.SC_FORBIDDEN, "Usuário sem acesso a esta unidade.");
+                return;
+            }
+        }
+        UnidadeContexto.definir(unidade);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            UnidadeContexto.limpar();
+        }
+    }
+
+    /**
+     * @return A unidade a que o usuário autenticado está vinculado (claim do token), ou null.
+     */
+    private static Long unidadeDoUsuario() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        return autenticacao != null && autenticacao.getDetails() instanceof TokenValidado token ? token.unidade() : null;
+    }
+
+    private static void recusar(HttpServletResponse response, int status, String mensagem) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"" + mensagem + "\"}");
+    }
+}
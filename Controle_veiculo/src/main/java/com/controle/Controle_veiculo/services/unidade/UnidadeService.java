@@ -0,0 +1,207 @@
+package com.controle.Controle_veiculo.services.unidade;
+
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.model.Usuario;
+import com.controle.Controle_veiculo.repository.UnidadeRepository;
+import com.controle.Controle_veiculo.repository.UsuarioRepository;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.ProjecaoPatioService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.transaction.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cadastro das unidades (pátios) e visão consolidada entre elas.
+ *
+ * As unidades ficam em memória (são poucas e mudam raramente): o {@link UnidadeFilter} valida o
+ * cabeçalho de cada requisição sem consultar o banco. Uma unidade desconhecida (talvez cadastrada em
+ * outra instância) recarrega as unidades no máximo uma vez a cada {@code unidades.recarga-minima-ms}. A visão consolidada ({@link #resumo()}) soma os
+ * totais de cada unidade, cada um calculado só com os dados da própria unidade.
+ */
+@Service
+public class UnidadeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnidadeService.class);
+
+    @Autowired
+    private UnidadeRepository unidadeRepository;
+
+    @Autowired
+    private ProjecaoPatioService projecaoPatio;
+
+    @Autowired
+    private MovimentacaoService movimentacaoService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Value("${unidades.recarga-minima-ms:1000}")
+    private long recargaMinimaMs;
+
+    // Unidades cadastradas, por ID (substituído por inteiro a cada alteração)
+    private volatile Map<Long, Unidade> porId = Map.of();
+
+    private volatile long ultimaRecarga;
+
+    /**
+     * Cria a unidade padrão quando não há nenhuma cadastrada (os registros anteriores às unidades
+     * pertencem a ela) e carrega as unidades em memória.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (unidadeRepository.count() == 0) {
+            Unidade padrao = unidadeRepository.save(new Unidade("PADRAO", "Unidade padrão"));
+            if (padrao.getId() != Unidade.PADRAO) {
+                logger.warn("Unidade padrão criada com o ID {} (esperado {}).", padrao.getId(), Unidade.PADRAO);
+            }
+        }
+        recarregar();
+    }
+
+    /**
+     * @return As unidades cadastradas, em ordem de ID.
+     */
+    public List<Unidade> listar() {
+        return porId.values().stream().sorted(Comparator.comparing(Unidade::getId)).toList();
+    }
+
+    /**
+     * Cadastra uma nova unidade.
+     *
+     * @param unidade Código e nome da unidade.
+     * @return A unidade cadastrada.
+     * @throws RuntimeException se o código estiver vazio ou já existir.
+     */
+    public Unidade criar(Unidade unidade) {
+        String codigo = unidade.getCodigo() != null ? unidade.getCodigo().trim().toUpperCase() : "";
+        if (codigo.isEmpty()) {
+            throw new RuntimeException("O código da unidade é obrigatório.");
+        }
+        if (unidadeRepository.findByCodigo(codigo).isPresent()) {
+            throw new RuntimeException("Já existe uma unidade com o código " + codigo + ".");
+        }
+        Unidade nova = new Unidade(codigo, unidade.getNome());
+        Unidade salva = unidadeRepository.save(nova);
+        recarregar();
+        return salva;
+    }
+
+    /**
+     * Identifica a unidade informada pelo cliente, pelo ID ou pelo código.
+     *
+     * @param valor ID numérico ou código da unidade (ex: "2" ou "SP01").
+     * @return ID da unidade, ou null se não houver unidade com esse ID ou código.
+     */
+    public Long resolver(String valor) {
+        String texto = valor.trim();
+        Long id = buscarEmMemoria(texto);
+        return id != null ? id : recarregarEBuscar(texto);
+    }
+
+    /**
+     * Vincula o usuário a uma unidade: ele passa a acessar só os dados dela (a partir do próximo login).
+     *
+     * @param username  Nome de login do usuário.
+     * @param unidadeId ID da unidade, ou null para liberar o acesso a todas as unidades.
+     * @throws RuntimeException se o usuário ou a unidade não existirem.
+     */
+    @Transactional
+    public void vincularUsuario(String username, Long unidadeId) {
+        Usuario usuario = usuarioRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado: " + username));
+        if (unidadeId != null) {
+            exigir(unidadeId);
+        }
+        usuario.setUnidadeId(unidadeId);
+        usuarioRepository.save(usuario);
+    }
+
+    /**
+     * Garante que a unidade existe.
+     *
+     * @param id ID da unidade.
+     * @throws RuntimeException se a unidade não existir.
+     */
+    public void exigir(Long id) {
+        if (id == null || resolver(String.valueOf(id)) == null) {
+            throw new RuntimeException("Unidade não encontrada com o ID: " + id);
+        }
+    }
+
+    /**
+     * Visão consolidada do pátio: presentes, ausentes, entradas e saídas do dia de cada unidade e os
+     * totais, somados a partir dos números de cada unidade.
+     *
+     * @return Mapa com a lista "unidades" e o "total".
+     */
+    public Map<String, Object> resumo() {
+        List<Map<String, Object>> unidades = new ArrayList<>();
+        Map<String, Long> total = new LinkedHashMap<>();
+        for (Unidade unidade : listar()) {
+            long id = unidade.getId();
+            Map<String, Long> numeros = new LinkedHashMap<>();
+            numeros.put("presentes", projecaoPatio.contarPresentes(id));
+            numeros.put("ausentes", projecaoPatio.contarAusentes(id));
+            numeros.put("entradasHoje", movimentacaoService.countEntradasHoje(id));
+            numeros.put("saidasHoje", movimentacaoService.countSaidasHoje(id));
+            numeros.forEach((nome, valor) -> total.merge(nome, valor, Long::sum));
+
+            Map<String, Object> linha = new LinkedHashMap<>();
+            linha.put("id", id);
+            linha.put("codigo", unidade.getCodigo());
+            linha.put("nome", unidade.getNome());
+            linha.putAll(numeros);
+            unidades.add(linha);
+        }
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("unidades", unidades);
+        resumo.put("total", total);
+        return resumo;
+    }
+
+    private Long buscarEmMemoria(String texto) {
+        Map<Long, Unidade> atuais = porId;
+        if (!texto.isEmpty() && texto.length() < 19 && texto.chars().allMatch(Character::isDigit)) {
+            Long id = Long.valueOf(texto);
+            return atuais.containsKey(id) ? id : null;
+        }
+        return atuais.values().stream()
+                .filter(unidade -> unidade.getCodigo().equalsIgnoreCase(texto))
+                .map(Unidade::getId)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Unidade fora da memória (talvez cadastrada em outra instância da aplicação): recarrega, se a
+     * última recarga não foi recente, e busca de novo. Cabeçalhos com unidades inexistentes não
+     * consultam o banco a cada requisição.
+     */
+    private synchronized Long recarregarEBuscar(String texto) {
+        if (System.currentTimeMillis() - ultimaRecarga >= recargaMinimaMs) {
+            recarregar();
+        }
+        return buscarEmMemoria(texto);
+    }
+
+    private void recarregar() {
+        porId = unidadeRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Unidade::getId, Function.identity()));
+        ultimaRecarga = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,134 @@
+package com.controle.Controle_veiculo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Sobe cada artefato gerado pelo build (jar executável, jar AOT + CDS e imagem nativa), mede o tempo
+ * até a primeira resposta de {@code /api/veiculos} e a memória residente (RSS) do processo.
+ *
+ * Executado pelo failsafe nos perfis "cds" e "native" ({@code mvn -Pcds verify}). Artefatos que não
+ * foram gerados no build atual são ignorados. Por padrão os processos usam um H2 em memória; para
+ * medir contra o MySQL, informe {@code -Dit.datasource.url}, {@code -Dit.datasource.username} e
+ * {@code -Dit.datasource.password}.
+ */
+class InicializacaoArtefatosIT {
+
+	private static final Path TARGET = Path.of("target");
+
+	private static final Pattern INICIADO_EM = Pattern.compile("Started \\w+ in ([0-9.]+) seconds");
+
+	private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+	@Test
+	void jvm() throws Exception {
+		Path jar = TARGET.resolve("Controle_veiculo-0.0.1-SNAPSHOT.jar");
+		assumeTrue(Files.exists(jar), "jar executável não gerado");
+		medir("JVM", List.of("java", "-cp", jar + File.pathSeparator + jarDoH2(),
+				"org.springframework.boot.loader.launch.JarLauncher"));
+	}
+
+	@Test
+	void jvmComCds() throws Exception {
+		Path jar = TARGET.resolve("cds/Controle_veiculo-0.0.1-SNAPSHOT-cds.jar");
+		Path arquivo = TARGET.resolve("cds/aplicacao.jsa");
+		assumeTrue(Files.exists(jar) && Files.exists(arquivo), "perfil cds não executado");
+		medir("JVM+AOT+CDS", List.of("java", "-XX:SharedArchiveFile=" + arquivo, "-Dspring.aot.enabled=true",
+				"-cp", jar + File.pathSeparator + jarDoH2(), ControleVeiculoApplication.class.getName()));
+	}
+
+	@Test
+	void nativo() throws Exception {
+		Path executavel = TARGET.resolve("controle-veiculo");
+		assumeTrue(Files.isExecutable(executavel), "imagem nativa não gerada");
+		// O executável nativo não inclui o H2: precisa do banco informado em it.datasource.url
+		assumeTrue(System.getProperty("it.datasource.url") != null, "informe -Dit.datasource.url para a imagem nativa");
+		medir("Nativo", List.of(executavel.toString()));
+	}
+
+	private void medir(String nome, List<String> comandoBase) throws Exception {
+		int porta = portaLivre();
+		List<String> comando = new ArrayList<>(comandoBase);
+		comando.addAll(List.of(
+				"--server.port=" + porta,
+				"--jwt.enabled=false",
+				"--spring.datasource.url=" + System.getProperty("it.datasource.url",
+						"jdbc:h2:mem:it;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"),
+				"--spring.datasource.username=" + System.getProperty("it.datasource.username", "sa"),
+				"--spring.datasource.password=" + System.getProperty("it.datasource.password", "")));
+		if (System.getProperty("it.datasource.url") == null) {
+			comando.add("--spring.datasource.driver-class-name=org.h2.Driver");
+			comando.add("--spring.jpa.hibernate.ddl-auto=create-drop");
+		}
+
+		Path log = Files.createTempFile("inicializacao-", ".log");
+		long inicio = System.nanoTime();
+		Process processo = new ProcessBuilder(comando).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+		try {
+			int status = aguardarPrimeiraResposta(processo, porta);
+			long primeiraResposta = (System.nanoTime() - inicio) / 1_000_000;
+
+			Matcher iniciado = INICIADO_EM.matcher(Files.readString(log));
+			System.out.printf("%-12s iniciado em %5s s | primeira resposta em %5d ms | RSS %4d MB%n", nome,
+					iniciado.find() ? iniciado.group(1) : "?", primeiraResposta, rssEmMb(processo.pid()));
+			assertEquals(200, status, "Resposta de /api/veiculos (log em " + log + ")");
+		} finally {
+			processo.destroy();
+			processo.waitFor();
+		}
+	}
+
+	private int aguardarPrimeiraResposta(Process processo, int porta) throws Exception {
+		HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/api/veiculos")).build();
+		long limite = System.nanoTime() + Duration.ofSeconds(120).toNanos();
+		while (System.nanoTime() < limite && processo.isAlive()) {
+			try {
+				return http.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+			} catch (IOException e) {
+				Thread.sleep(20);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Lê a memória residente do processo em /proc (Linux); -1 em outros sistemas.
+	 */
+	private long rssEmMb(long pid) throws IOException {
+		Path status = Path.of("/proc", String.valueOf(pid), "status");
+		if (!Files.exists(status)) {
+			return -1;
+		}
+		return Files.readAllLines(status).stream()
+				.filter(linha -> linha.startsWith("VmRSS:"))
+				.mapToLong(linha -> Long.parseLong(linha.replaceAll("\\D", "")) / 1024)
+				.findFirst().orElse(-1);
+	}
+
+	private String jarDoH2() throws Exception {
+		return Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+	}
+
+	private int portaLivre() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.controle.Controle_veiculo.config;
+
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compara, para o histórico (página de 20 movimentações) e a lista de veículos, o tempo de CPU
+ * de serialização e os bytes trafegados em JSON, JSON+gzip, CBOR e Smile. Roda só com
+ * {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class FormatosRespostaBenchmarkTest {
+
+	private static final int REPETICOES = 2_000;
+
+	@Test
+	void comparaFormatosDoHistoricoEDaListaDeVeiculos() throws Exception {
+		List<Veiculo> veiculos = new ArrayList<>();
+		for (long i = 1; i <= 300; i++) {
+			Veiculo v = new Veiculo("ABC" + (1000 + i), "Strada", "Fiat", null, "Branco");
+			v.setId(i);
+			v.setStatus(i % 2 == 0 ? StatusVeiculo.PRESENTE : StatusVeiculo.AUSENTE);
+			v.setUltimaMovimentacao(new Date(1_700_000_000_000L + i * 60_000));
+			veiculos.add(v);
+		}
+		List<Movimentacao> movimentacoes = new ArrayList<>();
+		for (long i = 1; i <= 20; i++) {
+			Movimentacao m = new Movimentacao();
+			m.setId(i);
+			m.setVeiculo(veiculos.get((int) i));
+			m.setTipoMovimento(i % 2 == 0 ? TipoMovimento.ENTRADA : TipoMovimento.SAIDA);
+			m.setDataHora(new Date(1_700_000_000_000L + i * 60_000));
+			m.setQuilometragem(10_000.0 + i);
+			m.setMotorista("ROBERTO ELIAS");
+			m.setPorteiro("JOSÉ");
+			movimentacoes.add(m);
+		}
+		Object historico = new PageImpl<>(movimentacoes, PageRequest.of(0, 20), 5_000);
+
+		Map<String, ObjectMapper> formatos = new LinkedHashMap<>();
+		formatos.put("json", mapper(null));
+		formatos.put("cbor", mapper(new CBORFactory()));
+		formatos.put("smile", mapper(new SmileFactory()));
+
+		for (Map.Entry<String, Object> carga : Map.of("historico", historico, "veiculos", (Object) veiculos).entrySet()) {
+			for (Map.Entry<String, ObjectMapper> formato : formatos.entrySet()) {
+				byte[] bytes = formato.getValue().writeValueAsBytes(carga.getValue());
+				for (int i = 0; i < REPETICOES; i++) {
+					formato.getValue().writeValueAsBytes(carga.getValue());
+				}
+				long inicio = System.nanoTime();
+				for (int i = 0; i < REPETICOES; i++) {
+					formato.getValue().writeValueAsBytes(carga.getValue());
+				}
+				long microssegundos = (System.nanoTime() - inicio) / REPETICOES / 1_000;
+
+				System.out.printf("%-9s %-6s %6d µs %7d bytes %7d bytes gzip%n", carga.getKey(), formato.getKey(),
+						microssegundos, bytes.length, gzip(bytes).length);
+			}
+		}
+	}
+
+	private ObjectMapper mapper(com.fasterxml.jackson.core.JsonFactory factory) {
+		Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder().modulesToInstall(new BlackbirdModule());
+		if (factory != null) {
+			builder.factory(factory);
+		}
+		return builder.build();
+	}
+
+	private byte[] gzip(byte[] bytes) throws Exception {
+		ByteArrayOutputStream saida = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+			gzip.write(bytes);
+		}
+		return saida.toByteArray();
+	}
+}
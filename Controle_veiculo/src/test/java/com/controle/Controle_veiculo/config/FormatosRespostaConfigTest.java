@@ -0,0 +1,71 @@
+package com.controle.Controle_veiculo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.services.VeiculoService;
+import com.controle.Controle_veiculo.services.security.jwt.JwtUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Negociação do formato da resposta pelo cabeçalho Accept: CBOR e Smile trazem o mesmo conteúdo do JSON.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class FormatosRespostaConfigTest {
+
+	private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+	private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Test
+	void formatosBinariosTrazemOMesmoConteudoDoJson() throws Exception {
+		for (int i = 1; i <= 5; i++) {
+			veiculoService.salvarVeiculo(new Veiculo("FMT000" + i, "Strada", "Fiat", null, "Branco"));
+		}
+
+		byte[] json = consultar(MediaType.APPLICATION_JSON);
+		byte[] cbor = consultar(CBOR);
+		byte[] smile = consultar(SMILE);
+
+		ObjectMapper leitorJson = new ObjectMapper();
+		assertEquals(leitorJson.readTree(json), new ObjectMapper(new CBORFactory()).readTree(cbor));
+		assertEquals(leitorJson.readTree(json), new ObjectMapper(new SmileFactory()).readTree(smile));
+		assertTrue(cbor.length < json.length && smile.length < json.length);
+	}
+
+	private byte[] consultar(MediaType formato) throws Exception {
+		User usuario = new User("formatos", "", List.of(new SimpleGrantedAuthority("ROLE_PORTEIRO")));
+		String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()));
+		return mockMvc.perform(get("/api/veiculos").param("size", "50").accept(formato).header("Authorization", "Bearer " + token))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(formato))
+				.andReturn().getResponse().getContentAsByteArray();
+	}
+}
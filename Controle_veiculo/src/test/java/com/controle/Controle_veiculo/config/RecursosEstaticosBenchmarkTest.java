@@ -0,0 +1,100 @@
+package com.controle.Controle_veiculo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+/**
+ * Mede o primeiro carregamento do front-end (HTML da rota + bundle JS + CSS): bytes enviados e
+ * tempo de CPU do servidor por carregamento, servindo as variantes pré-comprimidas (.br/.gz)
+ * ou comprimindo com gzip a cada requisição (como faz a compressão do Tomcat). As variantes não
+ * são versionadas: copie antes o build do front-end ({@code npm run build}) para o static. Roda só com
+ * {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class RecursosEstaticosBenchmarkTest {
+
+	private static final int REPETICOES = 100;
+
+	private static final List<String> PRIMEIRO_CARREGAMENTO = List.of("historico", "main-4MVY72FX.js", "styles-5INURTSO.css");
+
+	@Test
+	void comparaPreComprimidoComCompressaoPorRequisicao() throws Exception {
+		assumeTrue(new ClassPathResource("static/" + PRIMEIRO_CARREGAMENTO.get(1) + ".br").exists(), "variantes .br/.gz não geradas");
+		ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+		handler.setServletContext(new MockServletContext());
+		handler.setLocations(List.of(new ClassPathResource("static/")));
+		handler.setResourceResolvers(List.of(
+				new SpaFallbackResourceResolver(new ClassPathResource("static/index.html")),
+				new EncodedResourceResolver(),
+				new PathResourceResolver()));
+		handler.afterPropertiesSet();
+
+		long bytesIdentidade = carregar(handler, "", false);
+		long bytesBrotli = carregar(handler, "br", false);
+		long bytesGzipPorRequisicao = carregar(handler, "", true);
+
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		for (String[] cenario : new String[][] { { "br", "pré-comprimido br" }, { "", "gzip por requisição" } }) {
+			boolean comprimir = cenario[0].isEmpty();
+			for (int i = 0; i < REPETICOES / 10; i++) {
+				carregar(handler, cenario[0], comprimir);
+			}
+			long cpuInicio = threads.getCurrentThreadCpuTime();
+			long inicio = System.nanoTime();
+			for (int i = 0; i < REPETICOES; i++) {
+				carregar(handler, cenario[0], comprimir);
+			}
+			System.out.printf("%-20s %6d µs CPU %6d µs por carregamento%n", cenario[1],
+					(threads.getCurrentThreadCpuTime() - cpuInicio) / REPETICOES / 1_000,
+					(System.nanoTime() - inicio) / REPETICOES / 1_000);
+		}
+		System.out.printf("bytes: identidade %d, br %d, gzip por requisição %d%n",
+				bytesIdentidade, bytesBrotli, bytesGzipPorRequisicao);
+	}
+
+	/**
+	 * Requisita os arquivos do primeiro carregamento e devolve o total de bytes enviados.
+	 */
+	private long carregar(ResourceHttpRequestHandler handler, String acceptEncoding, boolean comprimirNaHora) throws Exception {
+		long total = 0;
+		for (String caminho : PRIMEIRO_CARREGAMENTO) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", "/" + caminho);
+			request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, caminho);
+			if (!acceptEncoding.isEmpty()) {
+				request.addHeader("Accept-Encoding", acceptEncoding);
+			}
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			handler.handleRequest(request, response);
+			assertEquals(200, response.getStatus(), caminho);
+
+			byte[] corpo = response.getContentAsByteArray();
+			total += comprimirNaHora ? gzip(corpo).length : corpo.length;
+		}
+		return total;
+	}
+
+	private byte[] gzip(byte[] bytes) throws Exception {
+		ByteArrayOutputStream saida = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+			gzip.write(bytes);
+		}
+		return saida.toByteArray();
+	}
+}
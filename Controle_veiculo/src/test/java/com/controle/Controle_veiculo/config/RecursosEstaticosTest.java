@@ -0,0 +1,114 @@
+package com.controle.Controle_veiculo.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+/**
+ * Front-end servido com as variantes pré-comprimidas e as rotas da SPA resolvidas para o HTML certo.
+ *
+ * As variantes não são versionadas (o build do front-end as gera), então o teste monta a sua própria
+ * pasta de estáticos.
+ */
+class RecursosEstaticosTest {
+
+	@TempDir
+	Path estaticos;
+
+	private ResourceHttpRequestHandler handler;
+
+	@BeforeEach
+	void configurar() throws Exception {
+		byte[] bundle = "console.log('controle de veículos');\n".repeat(200).getBytes(StandardCharsets.UTF_8);
+		byte[] gzip = gzip(bundle);
+		Files.write(estaticos.resolve("main-4MVY72FX.js"), bundle);
+		Files.write(estaticos.resolve("main-4MVY72FX.js.gz"), gzip);
+		// O conteúdo do .br não é lido pelo servidor: basta ser menor que o .gz, como o brotli real
+		Files.write(estaticos.resolve("main-4MVY72FX.js.br"), Arrays.copyOf(gzip, gzip.length / 2));
+		Files.writeString(estaticos.resolve("index.html"), "<app-root>raiz</app-root>");
+		Files.createDirectories(estaticos.resolve("historico"));
+		Files.writeString(estaticos.resolve("historico/index.html"), "<app-root>histórico pré-renderizado</app-root>");
+
+		handler = new ResourceHttpRequestHandler();
+		handler.setServletContext(new MockServletContext());
+		handler.setLocations(List.of(new FileSystemResource(estaticos.toAbsolutePath() + "/")));
+		handler.setResourceResolvers(List.of(
+				new SpaFallbackResourceResolver(new FileSystemResource(estaticos.resolve("index.html"))),
+				new EncodedResourceResolver(),
+				new PathResourceResolver()));
+		handler.afterPropertiesSet();
+	}
+
+	@Test
+	void enviaAVariantePreComprimidaAceitaPeloNavegador() throws Exception {
+		MockHttpServletResponse identidade = requisitar("main-4MVY72FX.js", null);
+		MockHttpServletResponse brotli = requisitar("main-4MVY72FX.js", "br");
+		MockHttpServletResponse gzip = requisitar("main-4MVY72FX.js", "gzip");
+
+		assertNull(identidade.getHeader("Content-Encoding"));
+		assertEquals("br", brotli.getHeader("Content-Encoding"));
+		assertEquals("gzip", gzip.getHeader("Content-Encoding"));
+		assertTrue(brotli.getContentAsByteArray().length < gzip.getContentAsByteArray().length);
+		assertTrue(gzip.getContentAsByteArray().length < identidade.getContentAsByteArray().length);
+		assertTrue(brotli.getHeader("Vary").contains("Accept-Encoding"));
+	}
+
+	@Test
+	void rotaDaSpaUsaAPaginaPreRenderizada() throws Exception {
+		MockHttpServletResponse historico = requisitar("historico", null);
+		MockHttpServletResponse semPreRenderizacao = requisitar("rota-sem-pagina", null);
+
+		assertEquals(200, historico.getStatus());
+		assertArrayEquals(Files.readAllBytes(estaticos.resolve("historico/index.html")), historico.getContentAsByteArray());
+		assertEquals(200, semPreRenderizacao.getStatus());
+		assertArrayEquals(Files.readAllBytes(estaticos.resolve("index.html")), semPreRenderizacao.getContentAsByteArray());
+	}
+
+	@Test
+	void apiEArquivosInexistentesNaoCaemNaSpa() throws Exception {
+		assertThrows(NoResourceFoundException.class, () -> requisitar("api/nao-existe", null));
+		assertThrows(NoResourceFoundException.class, () -> requisitar("nao-existe.js", null));
+	}
+
+	private MockHttpServletResponse requisitar(String caminho, String acceptEncoding) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/" + caminho);
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, caminho);
+		if (acceptEncoding != null) {
+			request.addHeader("Accept-Encoding", acceptEncoding);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		return response;
+	}
+
+	private static byte[] gzip(byte[] bytes) throws Exception {
+		ByteArrayOutputStream saida = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+			gzip.write(bytes);
+		}
+		return saida.toByteArray();
+	}
+}
@@ -0,0 +1,84 @@
+package com.controle.Controle_veiculo.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.controle.Controle_veiculo.services.security.jwt.JwtUtils;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Autorização da API pelos papéis do token (claim "roles").
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class WebSecurityConfigTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Test
+	void apiExigeToken() throws Exception {
+		mockMvc.perform(get("/api/veiculos/count")).andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/api/auth/login").contentType("application/json").content("{\"username\":\"ninguem\",\"password\":\"x\"}"))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void porteiroUsaAPortariaMasNaoAAdministracao() throws Exception {
+		String porteiro = token("ROLE_PORTEIRO");
+
+		mockMvc.perform(get("/api/veiculos/count").header("Authorization", porteiro)).andExpect(status().isOk());
+		mockMvc.perform(post("/api/outbox/drenar").header("Authorization", porteiro)).andExpect(status().isForbidden());
+		mockMvc.perform(delete("/api/veiculos/999999").header("Authorization", porteiro)).andExpect(status().isForbidden());
+		mockMvc.perform(get("/api/admissao/estado").header("Authorization", porteiro)).andExpect(status().isForbidden());
+	}
+
+	@Test
+	void administradorAcessaAAdministracao() throws Exception {
+		String admin = token("ROLE_ADMIN");
+
+		mockMvc.perform(get("/api/veiculos/count").header("Authorization", admin)).andExpect(status().isOk());
+		mockMvc.perform(get("/api/admissao/estado").header("Authorization", admin)).andExpect(status().isOk());
+	}
+
+	@Test
+	void sincronizacaoExigeOPapelDeSincronizacao() throws Exception {
+		String porteiro = token("ROLE_PORTEIRO");
+		String sincronizacao = token("ROLE_SINCRONIZACAO");
+
+		mockMvc.perform(get("/api/sincronizacao/veiculos").header("Authorization", porteiro)).andExpect(status().isForbidden());
+		mockMvc.perform(post("/api/sincronizacao/movimentacoes").header("Authorization", porteiro)
+				.contentType("application/json").content("[]")).andExpect(status().isForbidden());
+
+		mockMvc.perform(get("/api/sincronizacao/veiculos").header("Authorization", sincronizacao)).andExpect(status().isOk());
+		mockMvc.perform(post("/api/sincronizacao/movimentacoes").header("Authorization", sincronizacao)
+				.contentType("application/json").content("[]")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/veiculos/count").header("Authorization", sincronizacao)).andExpect(status().isForbidden());
+	}
+
+	@Test
+	void tokenSemPapelNaoAcessaAApi() throws Exception {
+		mockMvc.perform(get("/api/veiculos/count").header("Authorization", token())).andExpect(status().isForbidden());
+	}
+
+	private String token(String... papeis) {
+		User usuario = new User("usuario-" + String.join("-", papeis), "",
+				List.of(papeis).stream().map(SimpleGrantedAuthority::new).toList());
+		return "Bearer " + jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()));
+	}
+}
@@ -0,0 +1,49 @@
+package com.controle.Controle_veiculo.model.converter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+
+import org.junit.jupiter.api.Test;
+
+class ConversoresTest {
+
+	private final StatusVeiculoConverter status = new StatusVeiculoConverter();
+
+	private final TipoMovimentoConverter tipo = new TipoMovimentoConverter();
+
+	@Test
+	void statusIdaEVoltaPeloBanco() {
+		assertEquals("P", status.convertToDatabaseColumn(StatusVeiculo.PRESENTE));
+		assertEquals("A", status.convertToDatabaseColumn(StatusVeiculo.AUSENTE));
+		for (StatusVeiculo valor : StatusVeiculo.values()) {
+			assertEquals(valor, status.convertToEntityAttribute(status.convertToDatabaseColumn(valor)));
+		}
+		assertNull(status.convertToDatabaseColumn(null));
+		assertNull(status.convertToEntityAttribute(null));
+		assertNull(status.convertToEntityAttribute(" "));
+		assertThrows(RuntimeException.class, () -> status.convertToEntityAttribute("X"));
+	}
+
+	@Test
+	void tipoIdaEVoltaPeloBanco() {
+		assertEquals("E", tipo.convertToDatabaseColumn(TipoMovimento.ENTRADA));
+		assertEquals("S", tipo.convertToDatabaseColumn(TipoMovimento.SAIDA));
+		for (TipoMovimento valor : TipoMovimento.values()) {
+			assertEquals(valor, tipo.convertToEntityAttribute(tipo.convertToDatabaseColumn(valor)));
+		}
+		assertNull(tipo.convertToDatabaseColumn(null));
+		assertNull(tipo.convertToEntityAttribute(null));
+		assertThrows(RuntimeException.class, () -> tipo.convertToEntityAttribute("X"));
+	}
+
+	@Test
+	void codigoDoBancoAceitaMinusculasEEspacos() {
+		// CHAR(1) de bancos antigos pode voltar com espaços ou em minúsculas
+		assertEquals(StatusVeiculo.AUSENTE, status.convertToEntityAttribute("a "));
+		assertEquals(TipoMovimento.SAIDA, tipo.convertToEntityAttribute(" s"));
+	}
+}
@@ -0,0 +1,84 @@
+package com.controle.Controle_veiculo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.RegistroAuditoria;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Trilha de auditoria das edições de movimentações, no modo assíncrono (padrão).
+ */
+@SpringBootTest
+class AuditoriaServiceTest {
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MovimentacaoService movimentacaoService;
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Test
+    void registraApenasOsCamposAlteradosEmOrdemDecrescente() throws InterruptedException {
+        Veiculo veiculo = veiculoService.salvarVeiculo(new Veiculo("AUD1T23", "Saveiro", "VW", null, "Branco"));
+        Date dataHora = new Date(1_700_000_000_000L);
+        Movimentacao registrada = (Movimentacao) movimentacaoService.registrarMovimentacao(
+                movimentacao(veiculo, 1000.0, "ROBERTO ELIAS", dataHora));
+
+        movimentacaoService.atualizarMovimentacao(registrada.getId(), movimentacao(veiculo, 1100.0, "ROBERTO ELIAS", dataHora));
+        movimentacaoService.atualizarMovimentacao(registrada.getId(), movimentacao(veiculo, 1100.0, "MARIA SOUZA", dataHora));
+        // Sem mudanças: não gera registro
+        movimentacaoService.atualizarMovimentacao(registrada.getId(), movimentacao(veiculo, 1100.0, "MARIA SOUZA", dataHora));
+
+        assertTrue(auditoriaService.aguardarGravacao(5_000));
+        List<RegistroAuditoria> edicoes = movimentacaoService.listarEdicoes(registrada.getId(), 0, 20).getContent();
+        assertEquals(2, edicoes.size());
+        assertEquals("{\"motorista\":{\"antes\":\"ROBERTO ELIAS\",\"depois\":\"MARIA SOUZA\"}}", edicoes.get(0).getAlteracoes());
+        assertEquals("{\"quilometragem\":{\"antes\":1000.0,\"depois\":1100.0}}", edicoes.get(1).getAlteracoes());
+        assertNull(edicoes.get(0).getUsuario());
+    }
+
+    @Test
+    void edicaoSemTipoEhRecusadaEUltimoMotoristaPodeSerVazio() {
+        Veiculo veiculo = veiculoService.salvarVeiculo(new Veiculo("AUD2T34", "Saveiro", "VW", null, "Branco"));
+        Date dataHora = new Date(1_700_000_000_000L);
+        Movimentacao registrada = (Movimentacao) movimentacaoService.registrarMovimentacao(
+                movimentacao(veiculo, 1000.0, "ROBERTO ELIAS", dataHora));
+
+        Movimentacao semTipo = movimentacao(veiculo, 1000.0, "ROBERTO ELIAS", dataHora);
+        semTipo.setTipoMovimento(null);
+        assertThrows(RuntimeException.class, () -> movimentacaoService.atualizarMovimentacao(registrada.getId(), semTipo));
+        assertEquals("ROBERTO ELIAS", movimentacaoService.getUltimoMotorista(veiculo.getId()));
+
+        // A movimentação mais recente não tem motorista: não vale o da anterior
+        Movimentacao semMotorista = movimentacao(veiculo, 1000.0, null, new Date(dataHora.getTime() + 60_000));
+        semMotorista.setTipoMovimento(TipoMovimento.ENTRADA);
+        movimentacaoService.registrarMovimentacao(semMotorista);
+        assertNull(movimentacaoService.getUltimoMotorista(veiculo.getId()));
+    }
+
+    private Movimentacao movimentacao(Veiculo veiculo, double quilometragem, String motorista, Date dataHora) {
+        Movimentacao movimentacao = new Movimentacao();
+        movimentacao.setVeiculo(veiculo);
+        movimentacao.setTipoMovimento(TipoMovimento.SAIDA);
+        movimentacao.setDataHora(dataHora);
+        movimentacao.setQuilometragem(quilometragem);
+        movimentacao.setMotorista(motorista);
+        movimentacao.setPorteiro("JOSÉ");
+        return movimentacao;
+    }
+}
@@ -0,0 +1,117 @@
+package com.controle.Controle_veiculo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.dto.ConsultaFrota;
+import com.controle.Controle_veiculo.dto.PaginaFrota;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Listagem da frota: paginação por chave com filtros e ordenação, seleção de campos e transmissão
+ * da lista inteira em JSON.
+ */
+@SpringBootTest
+class ConsultaFrotaServiceTest {
+
+    private static final int VEICULOS = 1_000;
+
+    // Marca exclusiva deste teste, para não listar os veículos dos outros testes
+    private static final String MARCA = "FrotaTeste";
+
+    @Autowired
+    private ConsultaFrotaService consultaFrotaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void cadastrarFrota() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM veiculos WHERE marca = ?", Long.class, MARCA) > 0) {
+            return;
+        }
+        List<Object[]> veiculos = new ArrayList<>();
+        for (int i = 0; i < VEICULOS; i++) {
+            // Um terço sem movimentação (data nula), e muitas datas repetidas para exercitar o desempate pelo ID
+            Timestamp ultima = i % 3 == 0 ? null : new Timestamp(1_600_000_000_000L + (i % 50) * 60_000L);
+            // Só os que têm movimentação recebem status (sem movimentações gravadas, não entram na reconciliação)
+            String situacao = ultima == null ? null : i % 3 == 2 ? "P" : "A";
+            veiculos.add(new Object[] {String.format("FRT%04d", i), i % 2 == 0 ? "Strada" : "Toro", MARCA, i % 4 == 0 ? "Preto" : null, situacao, ultima});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO veiculos (placa, modelo, marca, cor, situacao, ultima_movimentacao) VALUES (?, ?, ?, ?, ?, ?)", veiculos);
+    }
+
+    @Test
+    void percorreAsPaginasPorChaveSemRepetirNemPular() {
+        for (String ordem : List.of("id", "placa", "ultimaMovimentacao", "cor")) {
+            for (String direcao : List.of("asc", "desc")) {
+                ConsultaFrota consulta = new ConsultaFrota(null, MARCA.toUpperCase(), null, null, ordem, direcao, null);
+                List<Map<String, Object>> todos = new ArrayList<>();
+                String cursor = null;
+                do {
+                    PaginaFrota pagina = consultaFrotaService.pagina(consulta, cursor, 70);
+                    todos.addAll(pagina.getItens());
+                    cursor = pagina.getProximo();
+                } while (cursor != null);
+
+                assertEquals(VEICULOS, todos.size(), ordem + " " + direcao);
+                Set<Object> ids = new HashSet<>();
+                todos.forEach(item -> ids.add(item.get("id")));
+                assertEquals(VEICULOS, ids.size(), ordem + " " + direcao);
+            }
+        }
+
+        // Filtros e campos: só os presentes da Strada, com três campos
+        ConsultaFrota presentes = new ConsultaFrota("Presente", MARCA, "strada", null, "ultimaMovimentacao", "desc", List.of("id", "placa", "status"));
+        PaginaFrota pagina = consultaFrotaService.pagina(presentes, null, 500);
+        assertNull(pagina.getProximo());
+        assertTrue(pagina.getItens().size() > 0);
+        for (Map<String, Object> item : pagina.getItens()) {
+            assertEquals(Set.of("id", "placa", "status"), item.keySet());
+            assertEquals(StatusVeiculo.PRESENTE, item.get("status"));
+        }
+
+        assertThrows(RuntimeException.class, () -> consultaFrotaService.pagina(presentes, "cursor-invalido", 10));
+        assertThrows(RuntimeException.class, () -> consultaFrotaService.validar(
+                new ConsultaFrota(null, null, null, null, "senha", null, null)));
+    }
+
+    @Test
+    void transmiteAFrotaInteiraEmJson() throws Exception {
+        ConsultaFrota consulta = new ConsultaFrota(null, MARCA, null, "preto", "placa", "asc", null);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        consultaFrotaService.transmitir(consulta, saida);
+
+        JsonNode lista = objectMapper.readTree(saida.toByteArray());
+        assertEquals(VEICULOS / 4, lista.size());
+        assertEquals("FRT0000", lista.get(0).get("placa").asText());
+        assertEquals("Preto", lista.get(0).get("cor").asText());
+        // Mesmos campos e formatos do JSON da entidade
+        assertTrue(lista.get(0).get("ultimaMovimentacao").isNull());
+        assertEquals("FRT0004", lista.get(1).get("placa").asText());
+        assertEquals(objectMapper.valueToTree(new Date(1_600_000_000_000L + 4 * 60_000L)), lista.get(1).get("ultimaMovimentacao"));
+        assertTrue(Set.of("Presente", "Ausente").contains(lista.get(1).get("status").asText()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.controle.Controle_veiculo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.dto.MotoristaSugestao;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class IndiceMotoristasTest {
+
+	private final IndiceMotoristas indice = new IndiceMotoristas(List.of(
+			new MotoristaSugestao(1L, "MÁRCIO"),
+			new MotoristaSugestao(2L, "MARCOS PAULO"),
+			new MotoristaSugestao(3L, "CÉSAR"),
+			new MotoristaSugestao(4L, "ROBERTO ELIAS"),
+			new MotoristaSugestao(5L, "MARCILÊNIO")));
+
+	@Test
+	void buscaIgnoraAcentosEMaiusculas() {
+		List<MotoristaSugestao> sugestoes = indice.buscar("marc", 10);
+
+		assertEquals(List.of("MARCILÊNIO", "MÁRCIO", "MARCOS PAULO"),
+				sugestoes.stream().map(MotoristaSugestao::getNome).toList());
+		assertEquals("CÉSAR", indice.buscar("Ces", 10).get(0).getNome());
+	}
+
+	@Test
+	void buscaPeloSobrenomeDepoisDoInicioDoNome() {
+		assertEquals(4L, indice.buscar("elias", 10).get(0).getId());
+		assertEquals(2, indice.buscar("marc", 2).size());
+		assertTrue(indice.buscar("   ", 10).isEmpty());
+	}
+
+	@Test
+	void resolveNomeDigitadoParaCadastro() {
+		assertEquals(1L, indice.buscarExato(" marcio ").orElseThrow().getId());
+		assertTrue(indice.buscarExato("MARCIO X").isEmpty());
+	}
+}
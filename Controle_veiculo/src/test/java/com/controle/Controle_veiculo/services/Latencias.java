@@ -0,0 +1,22 @@
+package com.controle.Controle_veiculo.services;
+
+import java.util.Arrays;
+
+/**
+ * Percentis das latências medidas nos benchmarks.
+ */
+public final class Latencias {
+
+	private Latencias() {
+	}
+
+	/**
+	 * @param latencias Latências medidas, em qualquer unidade.
+	 * @return O percentil 99 das latências.
+	 */
+	public static long p99(long[] latencias) {
+		long[] ordenadas = latencias.clone();
+		Arrays.sort(ordenadas);
+		return ordenadas[(int) Math.ceil(ordenadas.length * 0.99) - 1];
+	}
+}
@@ -0,0 +1,62 @@
+package com.controle.Controle_veiculo.services;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Mede a troca de turno (chamadas simultâneas à contagem de entradas do dia) com e sem o compartilhamento
+ * das leituras, cada um no seu contexto. Roda só com {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class LeituraCompartilhadaBenchmarkTest {
+
+	private static final int CHAMADORES = 64;
+
+	private static final int RODADAS = 10;
+
+	@Nested
+	@TestPropertySource(properties = "leituras.compartilhadas.habilitado=false")
+	class SemCompartilhar {
+
+		@Autowired
+		private LeituraCompartilhadaService leituras;
+
+		@Autowired
+		private MovimentacaoService movimentacaoService;
+
+		@Test
+		void trocaDeTurno() throws Exception {
+			medir("sem compartilhar", leituras, movimentacaoService);
+		}
+	}
+
+	@Nested
+	class Compartilhando {
+
+		@Autowired
+		private LeituraCompartilhadaService leituras;
+
+		@Autowired
+		private MovimentacaoService movimentacaoService;
+
+		@Test
+		void trocaDeTurno() throws Exception {
+			medir("compartilhando", leituras, movimentacaoService);
+		}
+	}
+
+	private static void medir(String modo, LeituraCompartilhadaService leituras, MovimentacaoService movimentacaoService)
+			throws Exception {
+		long consultasAntes = (Long) leituras.estado().get("consultas");
+		long inicio = System.nanoTime();
+		LeituraCompartilhadaServiceTest.rodadas(leituras, movimentacaoService, CHAMADORES, RODADAS);
+		System.out.printf("Troca de turno %s (%d chamadas simultâneas x %d rodadas): %d consultas em %d ms%n", modo,
+				CHAMADORES, RODADAS, (Long) leituras.estado().get("consultas") - consultasAntes,
+				(System.nanoTime() - inicio) / 1_000_000);
+	}
+}
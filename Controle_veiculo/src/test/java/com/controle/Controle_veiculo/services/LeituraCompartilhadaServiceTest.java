@@ -0,0 +1,172 @@
+package com.controle.Controle_veiculo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Leituras compartilhadas: chamadas simultâneas iguais executam uma única consulta, escritas
+ * invalidam o resultado na hora e falhas chegam a todos que esperavam. O TTL longo faz cada resultado
+ * valer até a próxima escrita, para que as contagens de consultas sejam exatas.
+ */
+@SpringBootTest(properties = "leituras.compartilhadas.ttl-ms=60000")
+class LeituraCompartilhadaServiceTest {
+
+	private static final int CHAMADORES = 64;
+
+	private static final int RODADAS = 10;
+
+	@Autowired
+	private LeituraCompartilhadaService leituras;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Test
+	void trocaDeTurnoExecutaUmaConsultaPorRodada() throws Exception {
+		long consultasAntes = (Long) leituras.estado().get("consultas");
+		long chamadasAntes = (Long) leituras.estado().get("chamadas");
+
+		rodadas(leituras, movimentacaoService, CHAMADORES, RODADAS);
+
+		assertEquals((long) CHAMADORES * RODADAS, (Long) leituras.estado().get("chamadas") - chamadasAntes);
+		assertEquals(RODADAS, (Long) leituras.estado().get("consultas") - consultasAntes);
+	}
+
+	@Test
+	void chamadasSimultaneasRecebemOMesmoResultado() throws Exception {
+		AtomicInteger execucoes = new AtomicInteger();
+		CountDownLatch largada = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		try {
+			List<Future<Integer>> resultados = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				resultados.add(executor.submit(() -> {
+					largada.await();
+					return leituras.obter("teste.lenta", () -> {
+						dormir(300);
+						return execucoes.incrementAndGet();
+					});
+				}));
+			}
+			largada.countDown();
+			for (Future<Integer> resultado : resultados) {
+				assertEquals(1, resultado.get(10, TimeUnit.SECONDS));
+			}
+			assertEquals(1, execucoes.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void falhaChegaATodosENaoEReaproveitada() throws Exception {
+		CountDownLatch largada = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		Supplier<Long> falha = () -> {
+			dormir(200);
+			throw new RuntimeException("banco indisponível");
+		};
+		try {
+			List<Future<Long>> resultados = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				resultados.add(executor.submit(() -> {
+					largada.await();
+					return leituras.obter("teste.falha", falha);
+				}));
+			}
+			largada.countDown();
+			for (Future<Long> resultado : resultados) {
+				ExecutionException erro = assertThrows(ExecutionException.class, () -> resultado.get(10, TimeUnit.SECONDS));
+				assertEquals("banco indisponível", erro.getCause().getMessage());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		// A próxima chamada consulta de novo
+		assertEquals(7L, leituras.obter("teste.falha", () -> 7L));
+	}
+
+	@Test
+	void escritaInvalidaOResultadoSemEsperarOTtl() {
+		Veiculo veiculo = veiculoService.salvarVeiculo(new Veiculo("LCP1A23", "Strada", "Fiat", null, "Prata"));
+		long veiculos = veiculoService.countAllVeiculos();
+		long entradas = movimentacaoService.countEntradasHoje();
+		assertEquals(entradas, movimentacaoService.countEntradasHoje());
+
+		Movimentacao movimentacao = new Movimentacao();
+		movimentacao.setVeiculo(veiculo);
+		movimentacao.setTipoMovimento(TipoMovimento.ENTRADA);
+		movimentacao.setDataHora(new Date());
+		movimentacao.setMotorista("LUCAS COMPARTILHADO");
+		movimentacao.setPorteiro("JOSÉ");
+		movimentacao.setForceCorrection(true);
+		movimentacaoService.registrarMovimentacao(movimentacao);
+
+		assertEquals(entradas + 1, movimentacaoService.countEntradasHoje());
+		assertEquals("LUCAS COMPARTILHADO", movimentacaoService.getUltimoMotorista(veiculo.getId()));
+
+		veiculoService.salvarVeiculo(new Veiculo("LCP1A24", "Strada", "Fiat", null, "Preto"));
+		assertEquals(veiculos + 1, veiculoService.countAllVeiculos());
+	}
+
+	/**
+	 * Executa as rodadas de chamadas simultâneas à contagem de entradas do dia, conferindo que todas as
+	 * chamadas de uma rodada recebem o mesmo resultado.
+	 */
+	static void rodadas(LeituraCompartilhadaService leituras, MovimentacaoService movimentacaoService, int chamadores, int rodadas)
+			throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(chamadores);
+		try {
+			for (int r = 0; r < rodadas; r++) {
+				// Cada rodada é uma nova troca de turno: o resultado anterior já não vale
+				leituras.invalidar();
+				CountDownLatch largada = new CountDownLatch(1);
+				List<Future<Long>> resultados = new ArrayList<>();
+				for (int c = 0; c < chamadores; c++) {
+					resultados.add(executor.submit(() -> {
+						largada.await();
+						return movimentacaoService.countEntradasHoje();
+					}));
+				}
+				largada.countDown();
+				long esperado = resultados.get(0).get(10, TimeUnit.SECONDS);
+				for (Future<Long> resultado : resultados) {
+					assertEquals(esperado, resultado.get(10, TimeUnit.SECONDS));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void dormir(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.controle.Controle_veiculo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.controle.Controle_veiculo.model.Veiculo;
+
+import jakarta.persistence.Column;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Migração a partir de um banco no formato da versão anterior: as tabelas têm as colunas antigas
+ * preenchidas, e as novas são acrescentadas como o {@code ddl-auto=update} faria, com a mesma
+ * definição das entidades.
+ */
+class MigracaoCompactaServiceTest {
+
+	private JdbcTemplate jdbcTemplate;
+
+	private MigracaoCompactaService migracao;
+
+	@BeforeEach
+	void criarBancoAntigo() throws Exception {
+		jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+				"jdbc:h2:mem:migracao-compacta;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", ""));
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+		jdbcTemplate.execute("CREATE TABLE veiculos (id BIGINT AUTO_INCREMENT PRIMARY KEY, placa VARCHAR(255) NOT NULL UNIQUE, "
+				+ "status VARCHAR(255) DEFAULT 'Presente')");
+		jdbcTemplate.execute("CREATE TABLE movimentacoes (id BIGINT AUTO_INCREMENT PRIMARY KEY, veiculo_id BIGINT NOT NULL, "
+				+ "tipo_movimento VARCHAR(255), motorista VARCHAR(255), porteiro VARCHAR(255))");
+		jdbcTemplate.update("INSERT INTO veiculos (placa, status) VALUES ('ANT0001', 'Presente'), ('ANT0002', 'Ausente'), ('ANT0003', ' ausente ')");
+		jdbcTemplate.update("INSERT INTO movimentacoes (veiculo_id, tipo_movimento, motorista, porteiro) VALUES "
+				+ "(1, 'entrada', 'JOÃO', 'PEDRO'), (2, 'saida', ' JOÃO ', NULL), (2, 'Entrada', 'MARIA', 'PEDRO'), (3, 'saida', '', 'ANA')");
+
+		// Colunas criadas pela versão atual
+		String situacao = Veiculo.class.getDeclaredField("status").getAnnotation(Column.class).columnDefinition();
+		jdbcTemplate.execute("ALTER TABLE veiculos ADD COLUMN situacao " + situacao);
+		jdbcTemplate.execute("CREATE TABLE motoristas (id BIGINT AUTO_INCREMENT PRIMARY KEY, nome VARCHAR(255) NOT NULL UNIQUE, ativo BOOLEAN NOT NULL)");
+		jdbcTemplate.execute("CREATE TABLE porteiros (id BIGINT AUTO_INCREMENT PRIMARY KEY, nome VARCHAR(255) NOT NULL UNIQUE)");
+		jdbcTemplate.execute("INSERT INTO motoristas (nome, ativo) VALUES ('MARIA', TRUE)");
+		jdbcTemplate.execute("ALTER TABLE movimentacoes ADD COLUMN tipo CHAR(1)");
+		jdbcTemplate.execute("ALTER TABLE movimentacoes ADD COLUMN motorista_id BIGINT");
+		jdbcTemplate.execute("ALTER TABLE movimentacoes ADD COLUMN porteiro_id BIGINT");
+
+		migracao = new MigracaoCompactaService();
+		ReflectionTestUtils.setField(migracao, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(migracao, "habilitada", true);
+		ReflectionTestUtils.setField(migracao, "tamanhoLote", 2);
+	}
+
+	@Test
+	void statusDosVeiculosVemDaColunaAntiga() {
+		migracao.run(null);
+
+		assertEquals(List.of("P", "A", "A"), jdbcTemplate.queryForList("SELECT situacao FROM veiculos ORDER BY id", String.class));
+	}
+
+	@Test
+	void novaExecucaoNaoSobrescreveOStatusAtual() {
+		migracao.run(null);
+		// Movimentação registrada depois da migração: só a coluna nova muda
+		jdbcTemplate.update("UPDATE veiculos SET situacao = 'P' WHERE placa = 'ANT0002'");
+
+		migracao.run(null);
+
+		assertEquals("P", jdbcTemplate.queryForObject("SELECT situacao FROM veiculos WHERE placa = 'ANT0002'", String.class));
+	}
+
+	@Test
+	void veiculoNovoContinuaSemStatus() {
+		migracao.run(null);
+		// Inclusão pela versão atual: a coluna antiga não é informada
+		jdbcTemplate.update("INSERT INTO veiculos (placa) VALUES ('NOV0001')");
+
+		migracao.run(null);
+
+		assertNull(jdbcTemplate.queryForObject("SELECT situacao FROM veiculos WHERE placa = 'NOV0001'", String.class));
+	}
+
+	@Test
+	void movimentacoesUsamCodigosEDicionarios() {
+		migracao.run(null);
+		migracao.run(null);
+
+		assertEquals(List.of("E", "S", "E", "S"), jdbcTemplate.queryForList("SELECT tipo FROM movimentacoes ORDER BY id", String.class));
+		assertEquals(List.of("JOÃO", "MARIA"), jdbcTemplate.queryForList(
+				"SELECT d.nome FROM movimentacoes m JOIN motoristas d ON d.id = m.motorista_id WHERE m.id IN (2, 3) ORDER BY m.id", String.class));
+		assertEquals(jdbcTemplate.queryForObject("SELECT motorista_id FROM movimentacoes WHERE id = 1", Long.class),
+				jdbcTemplate.queryForObject("SELECT motorista_id FROM movimentacoes WHERE id = 2", Long.class));
+		assertNull(jdbcTemplate.queryForObject("SELECT motorista_id FROM movimentacoes WHERE id = 4", Long.class));
+		// Nomes que só existiam nas movimentações entram como inativos; o cadastro existente é mantido
+		assertEquals(List.of("JOÃO", "MARIA"), jdbcTemplate.queryForList("SELECT nome FROM motoristas ORDER BY nome", String.class));
+		assertEquals(List.of(false, true), jdbcTemplate.queryForList("SELECT ativo FROM motoristas ORDER BY nome", Boolean.class));
+		assertEquals(List.of("ANA", "PEDRO"), jdbcTemplate.queryForList("SELECT nome FROM porteiros ORDER BY nome", String.class));
+		assertNull(jdbcTemplate.queryForObject("SELECT porteiro_id FROM movimentacoes WHERE id = 2", Long.class));
+	}
+}
@@ -0,0 +1,90 @@
+package com.controle.Controle_veiculo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.model.Motorista;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Dicionário de motoristas: nomes que diferem só em acentos ou caixa são o mesmo cadastro, e as
+ * alterações chegam ao índice em memória sem reler a tabela.
+ */
+@SpringBootTest
+class MotoristaServiceTest {
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void nomeNormalizadoIdenticoEhOMesmoMotorista() {
+        Long doDicionario = motoristaService.obterOuCriar("Éverton Souza").getId();
+        assertEquals(doDicionario, motoristaService.obterOuCriar("  EVERTON   souza ").getId());
+        assertTrue(motoristaService.resolverPorNome("everton souza").isEmpty());
+
+        // O cadastro oficial reaproveita a entrada inativa criada pela movimentação
+        Motorista ativado = motoristaService.salvarMotorista(new Motorista("EVERTON SOUZA"));
+        assertEquals(doDicionario, ativado.getId());
+        assertEquals(doDicionario, motoristaService.resolverPorNome("Éverton Souza").orElseThrow().getId());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM motoristas WHERE nome_normalizado = 'EVERTON SOUZA'", Integer.class));
+
+        // Já ativo: o mesmo nome com outra grafia é recusado, no cadastro e na edição
+        assertThrows(RuntimeException.class, () -> motoristaService.salvarMotorista(new Motorista("Everton Souza")));
+        Motorista outro = motoristaService.salvarMotorista(new Motorista("WAGNER SOUZA"));
+        assertThrows(RuntimeException.class, () -> motoristaService.atualizarMotorista(outro.getId(), new Motorista("éverton souza")));
+    }
+
+    @Test
+    void alteracoesChegamAoIndiceSemReconstrucao() {
+        Motorista salvo = motoristaService.salvarMotorista(new Motorista("Ígor Prado"));
+        assertEquals(salvo.getId(), motoristaService.autocompletar("igor", 5).get(0).getId());
+
+        motoristaService.atualizarMotorista(salvo.getId(), new Motorista("ÍGOR PRADO NETO"));
+        assertEquals("ÍGOR PRADO NETO", motoristaService.resolverPorNome("igor prado neto").orElseThrow().getNome());
+        assertTrue(motoristaService.resolverPorNome("igor prado").isEmpty());
+        // O nome antigo deixou de apontar para o cadastro: uma movimentação com ele cria outra entrada
+        assertFalse(salvo.getId().equals(motoristaService.obterOuCriar("Igor Prado").getId()));
+
+        motoristaService.desativar(salvo.getId());
+        assertTrue(motoristaService.autocompletar("igor", 5).isEmpty());
+    }
+
+    @Test
+    void nomeNovoSimultaneoGeraUmUnicoCadastro() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> tarefas = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                String grafia = i % 2 == 0 ? "Lázaro Nunes" : "LAZARO NUNES";
+                tarefas.add(executor.submit(() -> motoristaService.obterOuCriar(grafia).getId()));
+            }
+            Set<Long> ids = new HashSet<>();
+            for (Future<Long> tarefa : tarefas) {
+                ids.add(tarefa.get());
+            }
+            assertEquals(1, ids.size());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM motoristas WHERE nome_normalizado = 'LAZARO NUNES'", Integer.class));
+    }
+}
@@ -0,0 +1,154 @@
+package com.controle.Controle_veiculo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.dto.PontoOcupacao;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Série de ocupação: varredura hora a hora, checkpoints diários e descarte dos checkpoints
+ * quando surge uma movimentação retroativa.
+ */
+@SpringBootTest
+class OcupacaoServiceTest {
+
+	// Período anterior ao de todos os outros testes: a varredura sem checkpoint começa aqui
+	private static final LocalDateTime DIA_1 = LocalDateTime.of(2010, 3, 1, 0, 0);
+
+	@Autowired
+	private OcupacaoService ocupacaoService;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private VeiculoRepository veiculoRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void calculaAOcupacaoPorHoraEReaproveitaOsCheckpoints() {
+		long a = veiculo("OCP0A01", "A", 9, 15);
+		long b = veiculo("OCP0B02", "A", 24 + 7, 0);
+		long c = veiculo("OCP0C03", "P", 10, 30);
+		movimentacao(a, "E", 8, 0);
+		movimentacao(b, "E", 8, 30);
+		movimentacao(a, "S", 9, 15);
+		movimentacao(c, "E", 10, 0);
+		// Entrada repetida: não pode contar o veículo duas vezes
+		movimentacao(c, "E", 10, 30);
+		movimentacao(b, "S", 24 + 7, 0);
+
+		Map<String, Object> doisDias = ocupacaoService.calcularSerie(instante(0, 0), instante(48, 0));
+		List<PontoOcupacao> pontos = (List<PontoOcupacao>) doisDias.get("pontos");
+		assertEquals(48, pontos.size());
+
+		assertPonto(pontos.get(8), 0, 2, 1.5, 2, 0);
+		assertPonto(pontos.get(9), 2, 2, 1.25, 0, 1);
+		assertPonto(pontos.get(10), 1, 2, 2.0, 2, 0);
+		assertPonto(pontos.get(24 + 7), 2, 2, 1.0, 0, 1);
+		assertEquals(2, doisDias.get("pico"));
+		assertEquals(instante(8, 30), doisDias.get("picoEm"));
+		// Checkpoints das meias-noites do dia 2 e do dia 3
+		assertEquals(2, doisDias.get("checkpointsCriados"));
+
+		// O segundo dia parte do checkpoint (B e C presentes), sem reler o primeiro
+		Map<String, Object> diaDois = ocupacaoService.calcularSerie(instante(24, 0), instante(48, 0));
+		assertEquals(0, diaDois.get("checkpointsCriados"));
+		assertEquals(2, ((List<PontoOcupacao>) diaDois.get("pontos")).get(0).getOcupacaoInicial());
+
+		// Entrada retroativa no dia 1: os checkpoints seguintes são descartados e refeitos
+		Veiculo retroativo = veiculoRepository.save(new Veiculo("OCP0D04", "Uno", "Fiat", null, "Branco"));
+		Movimentacao entrada = new Movimentacao();
+		entrada.setVeiculo(retroativo);
+		entrada.setTipoMovimento(TipoMovimento.ENTRADA);
+		entrada.setDataHora(instante(12, 0));
+		entrada.setPorteiro("JOSÉ");
+		movimentacaoService.registrarMovimentacao(entrada);
+
+		Map<String, Object> recalculado = ocupacaoService.calcularSerie(instante(24, 0), instante(48, 0));
+		assertTrue((Integer) recalculado.get("checkpointsCriados") >= 1);
+		assertEquals(3, ((List<PontoOcupacao>) recalculado.get("pontos")).get(0).getOcupacaoInicial());
+	}
+
+	@Test
+	void checkpointsDeUmaVarreduraConcorrenteComUmDescarteSaoDescartados() throws Exception {
+		// Descarte numa transação ainda não confirmada: a varredura não vê a movimentação que o causou
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			ocupacaoService.invalidarAPartirDe(instante(24 * 9, 0));
+			ExecutorService executor = Executors.newSingleThreadExecutor();
+			try {
+				Map<String, Object> concorrente = executor.submit(
+						() -> ocupacaoService.calcularSerie(instante(24 * 10, 0), instante(24 * 12, 0))).get();
+				assertEquals(0, concorrente.get("checkpointsCriados"));
+			} catch (InterruptedException | ExecutionException e) {
+				throw new RuntimeException(e);
+			} finally {
+				executor.shutdown();
+			}
+		});
+		assertEquals(0, checkpointsEntre(10, 12));
+
+		// Sem descarte em andamento, a mesma consulta grava os checkpoints
+		Map<String, Object> depois = ocupacaoService.calcularSerie(instante(24 * 10, 0), instante(24 * 12, 0));
+		assertTrue((Integer) depois.get("checkpointsCriados") >= 2);
+		assertEquals(2, checkpointsEntre(10, 12));
+	}
+
+	private int checkpointsEntre(int diaDe, int diaAte) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ocupacao_checkpoints WHERE dia > ? AND dia <= ?", Integer.class,
+				java.sql.Date.valueOf(DIA_1.plusDays(diaDe).toLocalDate()), java.sql.Date.valueOf(DIA_1.plusDays(diaAte).toLocalDate()));
+	}
+
+	private void assertPonto(PontoOcupacao ponto, int inicial, int pico, double media, int entradas, int saidas) {
+		assertEquals(inicial, ponto.getOcupacaoInicial());
+		assertEquals(pico, ponto.getPico());
+		assertEquals(media, ponto.getMedia(), 0.001);
+		assertEquals(entradas, ponto.getEntradas());
+		assertEquals(saidas, ponto.getSaidas());
+	}
+
+	/**
+	 * Cadastra o veículo já com o status da sua última movimentação (não interfere na reconciliação).
+	 */
+	private long veiculo(String placa, String situacao, int hora, int minuto) {
+		jdbcTemplate.update("INSERT INTO veiculos (placa, situacao, ultima_movimentacao) VALUES (?, ?, ?)",
+				placa, situacao, new Timestamp(instante(hora, minuto).getTime()));
+		return jdbcTemplate.queryForObject("SELECT id FROM veiculos WHERE placa = ?", Long.class, placa);
+	}
+
+	private void movimentacao(long veiculoId, String tipo, int hora, int minuto) {
+		jdbcTemplate.update("INSERT INTO movimentacoes (veiculo_id, tipo, data_hora) VALUES (?, ?, ?)",
+				veiculoId, tipo, new Timestamp(instante(hora, minuto).getTime()));
+	}
+
+	private static Date instante(int hora, int minuto) {
+		return Date.from(DIA_1.plusHours(hora).plusMinutes(minuto).atZone(ZoneId.systemDefault()).toInstant());
+	}
+}
@@ -0,0 +1,246 @@
+package com.controle.Controle_veiculo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.MovimentacaoRepository;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.transacao.LeituraEmLote;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Projeção do pátio: listas servidas da memória, iguais ao banco depois de movimentações, edições,
+ * exclusões e transações concorrentes, e sempre ordenadas para quem lê durante as escritas.
+ */
+@SpringBootTest
+class ProjecaoPatioServiceTest {
+
+	private static final int VEICULOS = 24;
+
+	private static final int ESCRITORES = 6;
+
+	private static final int ALTERACOES_POR_VEICULO = 15;
+
+	// Período exclusivo deste teste
+	private static final LocalDateTime INICIO = LocalDateTime.of(2007, 5, 1, 6, 0);
+
+	@Autowired
+	private ProjecaoPatioService projecaoPatio;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private VeiculoRepository veiculoRepository;
+
+	@Autowired
+	private MovimentacaoRepository movimentacaoRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void acompanhaAsEscritasConcorrentesSemConsultarOBanco() throws Exception {
+		assertTrue(projecaoPatio.isCarregada());
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		List<Veiculo> veiculos = new ArrayList<>();
+		for (int i = 0; i < VEICULOS; i++) {
+			veiculos.add(veiculoService.salvarVeiculo(new Veiculo(String.format("PRJ%04d", i), "Gol", "Volkswagen", null, "Prata")));
+		}
+
+		// Uma movimentação por veículo pelo serviço (todos ficam presentes)
+		for (int v = 0; v < VEICULOS; v++) {
+			registrar(veiculos.get(v), TipoMovimento.ENTRADA, instante(v, 0));
+		}
+		assertIgualAoBanco();
+		assertTrue(placas(projecaoPatio.listarPresentes()).containsAll(veiculos.stream().map(Veiculo::getPlaca).toList()));
+
+		// Escritores alteram o status dos seus veículos em transações concorrentes, enquanto leitores conferem as listas
+		AtomicBoolean escrevendo = new AtomicBoolean(true);
+		ConcurrentLinkedQueue<String> problemas = new ConcurrentLinkedQueue<>();
+		ExecutorService executor = Executors.newFixedThreadPool(ESCRITORES + 2);
+		List<Future<?>> escritores = new ArrayList<>();
+		for (int e = 0; e < ESCRITORES; e++) {
+			int escritor = e;
+			escritores.add(executor.submit(() -> {
+				for (int n = 1; n <= ALTERACOES_POR_VEICULO; n++) {
+					for (int v = escritor; v < VEICULOS; v += ESCRITORES) {
+						long id = veiculos.get(v).getId();
+						StatusVeiculo status = n % 2 == 0 ? StatusVeiculo.PRESENTE : StatusVeiculo.AUSENTE;
+						Date dataHora = instante(v, n);
+						transactionTemplate.executeWithoutResult(tx -> {
+							Veiculo veiculo = veiculoRepository.findById(id).orElseThrow();
+							veiculo.setStatus(status);
+							veiculo.setUltimaMovimentacao(dataHora);
+							projecaoPatio.registrarAlteracao(veiculoRepository.save(veiculo));
+						});
+					}
+				}
+				return null;
+			}));
+		}
+		for (int l = 0; l < 2; l++) {
+			executor.submit(() -> {
+				while (escrevendo.get()) {
+					verificarOrdem(veiculoService.listarVeiculosPresentes(), problemas);
+					verificarOrdem(veiculoService.listarVeiculosAusentes(), problemas);
+				}
+				return null;
+			});
+		}
+		for (Future<?> escritor : escritores) {
+			escritor.get(60, TimeUnit.SECONDS);
+		}
+		escrevendo.set(false);
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+		assertTrue(problemas.isEmpty(), () -> String.join("; ", problemas));
+
+		// Número ímpar de alterações por veículo: todos terminam ausentes
+		assertIgualAoBanco();
+		assertTrue(placas(projecaoPatio.listarAusentes()).containsAll(veiculos.stream().map(Veiculo::getPlaca).toList()));
+
+		// Nova entrada pelo serviço, depois das alterações
+		Veiculo editado = veiculos.get(0);
+		registrar(editado, TipoMovimento.ENTRADA, instante(0, ALTERACOES_POR_VEICULO + 1));
+		assertTrue(placas(projecaoPatio.listarPresentes()).contains(editado.getPlaca()));
+
+		// Edição dessa movimentação (entrada -> saída): o veículo volta para os ausentes
+		Movimentacao ultima = movimentacaoRepository.findTopByVeiculoOrderByDataHoraDescIdDesc(editado);
+		Movimentacao dados = new Movimentacao();
+		dados.setDataHora(ultima.getDataHora());
+		dados.setTipoMovimento(TipoMovimento.SAIDA);
+		dados.setMotorista("PAULO PROJECAO");
+		dados.setPorteiro("JOSÉ");
+		movimentacaoService.atualizarMovimentacao(ultima.getId(), dados);
+		assertTrue(placas(projecaoPatio.listarAusentes()).contains(editado.getPlaca()));
+		assertFalse(placas(projecaoPatio.listarPresentes()).contains(editado.getPlaca()));
+		assertIgualAoBanco();
+
+		// Exclusão: o veículo sai da projeção
+		Veiculo excluido = veiculoService.salvarVeiculo(new Veiculo("PRJ9X99", "Uno", "Fiat", null, "Branco"));
+		registrar(excluido, TipoMovimento.ENTRADA, instante(99, 0));
+		long presentes = veiculoService.countVeiculosPresentes();
+		movimentacaoRepository.deleteAll(movimentacaoRepository.findByVeiculoOrderByDataHoraAscIdAsc(excluido));
+		veiculoService.deleteById(excluido.getId());
+		assertEquals(presentes - 1, veiculoService.countVeiculosPresentes());
+		assertFalse(placas(projecaoPatio.listarPresentes()).contains("PRJ9X99"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void recargaMantemOVeiculoGravadoDuranteALeitura() {
+		ProjecaoPatioService projecao = new ProjecaoPatioService();
+		Veiculo existente = veiculo(1L, "CRG0001", StatusVeiculo.PRESENTE, 0);
+		Veiculo atualizado = veiculo(1L, "CRG0001", StatusVeiculo.AUSENTE, 1);
+		Veiculo criado = veiculo(2L, "CRG0002", StatusVeiculo.PRESENTE, 1);
+		ReflectionTestUtils.setField(projecao, "leituraEmLote", new LeituraEmLote() {
+			@Override
+			public <T> List<T> listar(Class<T> entidade) {
+				// Confirmados depois que a leitura já tinha passado por eles
+				projecao.registrarAlteracao(atualizado);
+				projecao.registrarAlteracao(criado);
+				return (List<T>) List.of(existente);
+			}
+		});
+
+		projecao.recarregar();
+
+		assertEquals(List.of("CRG0002"), List.copyOf(placas(projecao.listarPresentes(Unidade.PADRAO))));
+		assertEquals(List.of("CRG0001"), List.copyOf(placas(projecao.listarAusentes(Unidade.PADRAO))));
+	}
+
+	/**
+	 * Compara os veículos deste teste na projeção com o status e a última movimentação gravados no banco.
+	 */
+	private void assertIgualAoBanco() {
+		Map<String, Veiculo> naProjecao = Stream.concat(projecaoPatio.listarPresentes().stream(), projecaoPatio.listarAusentes().stream())
+				.filter(v -> v.getPlaca().startsWith("PRJ"))
+				.collect(Collectors.toMap(Veiculo::getPlaca, Function.identity()));
+		List<Veiculo> noBanco = veiculoRepository.findAll().stream().filter(v -> v.getPlaca().startsWith("PRJ")).toList();
+		assertEquals(noBanco.size(), naProjecao.size());
+		for (Veiculo banco : noBanco) {
+			Veiculo projetado = naProjecao.get(banco.getPlaca());
+			assertEquals(banco.getStatus(), projetado.getStatus(), banco.getPlaca());
+			assertEquals(banco.getUltimaMovimentacao().getTime(), projetado.getUltimaMovimentacao().getTime(), banco.getPlaca());
+		}
+	}
+
+	private void verificarOrdem(List<Veiculo> lista, ConcurrentLinkedQueue<String> problemas) {
+		Set<Long> ids = new HashSet<>();
+		for (int i = 0; i < lista.size(); i++) {
+			if (!ids.add(lista.get(i).getId())) {
+				problemas.add("veículo repetido: " + lista.get(i).getPlaca());
+			}
+			Date anterior = i > 0 ? lista.get(i - 1).getUltimaMovimentacao() : null;
+			Date atual = lista.get(i).getUltimaMovimentacao();
+			if (anterior != null && atual != null && anterior.before(atual)) {
+				problemas.add("fora de ordem: " + lista.get(i).getPlaca());
+			}
+		}
+	}
+
+	private void registrar(Veiculo veiculo, TipoMovimento tipo, Date dataHora) {
+		Movimentacao movimentacao = new Movimentacao();
+		movimentacao.setVeiculo(veiculoRepository.findById(veiculo.getId()).orElseThrow());
+		movimentacao.setTipoMovimento(tipo);
+		movimentacao.setDataHora(dataHora);
+		movimentacao.setMotorista("PAULO PROJECAO");
+		movimentacao.setPorteiro("JOSÉ");
+		movimentacao.setForceCorrection(true);
+		movimentacaoService.registrarMovimentacao(movimentacao);
+	}
+
+	private static Veiculo veiculo(Long id, String placa, StatusVeiculo status, int alteracao) {
+		Veiculo veiculo = new Veiculo(placa, "Gol", "Volkswagen", null, "Prata");
+		veiculo.setId(id);
+		veiculo.setUnidadeId(Unidade.PADRAO);
+		veiculo.setStatus(status);
+		veiculo.setUltimaMovimentacao(instante(id.intValue(), alteracao));
+		veiculo.setAtualizadoEm(instante(id.intValue(), alteracao));
+		return veiculo;
+	}
+
+	private static Set<String> placas(List<Veiculo> veiculos) {
+		return veiculos.stream().map(Veiculo::getPlaca).collect(Collectors.toSet());
+	}
+
+	private static Date instante(int veiculo, int movimentacao) {
+		return Date.from(INICIO.plusHours(movimentacao).plusMinutes(veiculo).atZone(ZoneId.systemDefault()).toInstant());
+	}
+}
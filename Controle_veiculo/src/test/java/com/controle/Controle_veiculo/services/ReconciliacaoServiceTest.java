@@ -0,0 +1,114 @@
+package com.controle.Controle_veiculo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.dto.DivergenciaVeiculo;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.outbox.OutboxService;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Reconciliação do status dos veículos: frota inteira (função de janela) e por veículo (edição).
+ */
+@SpringBootTest
+class ReconciliacaoServiceTest {
+
+	private static final int VEICULOS = 2_000;
+
+	private static final int MOVIMENTACOES_POR_VEICULO = 10;
+
+	private static final long INICIO = 1_700_000_000_000L;
+
+	@Autowired
+	private ReconciliacaoService reconciliacaoService;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private VeiculoRepository veiculoRepository;
+
+	@Autowired
+	private ProjecaoPatioService projecaoPatio;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void corrigeApenasOsVeiculosDivergentesDaFrota() {
+		// Frota com histórico importado direto no banco; o status final de cada veículo é Ausente (última = saída)
+		List<Object[]> veiculos = new ArrayList<>();
+		for (int v = 0; v < VEICULOS; v++) {
+			Timestamp ultima = new Timestamp(INICIO + (MOVIMENTACOES_POR_VEICULO - 1) * 60_000L);
+			// Um em cada dez veículos fica com o status errado
+			veiculos.add(new Object[] {String.format("REC%04d", v), v % 10 == 0 ? "P" : "A", ultima});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO veiculos (placa, situacao, ultima_movimentacao) VALUES (?, ?, ?)", veiculos);
+
+		List<Object[]> movimentacoes = new ArrayList<>();
+		for (Long id : jdbcTemplate.queryForList("SELECT id FROM veiculos WHERE placa LIKE 'REC%'", Long.class)) {
+			for (int m = 0; m < MOVIMENTACOES_POR_VEICULO; m++) {
+				movimentacoes.add(new Object[] {id, m % 2 == 0 ? "E" : "S", new Timestamp(INICIO + m * 60_000L)});
+			}
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO movimentacoes (veiculo_id, tipo, data_hora) VALUES (?, ?, ?)", movimentacoes);
+
+		List<DivergenciaVeiculo> divergencias = divergenciasDoTeste(reconciliacaoService.relatorioDivergencias());
+		assertEquals(VEICULOS / 10, divergencias.size());
+		assertEquals(StatusVeiculo.PRESENTE, divergencias.get(0).getStatusAtual());
+		assertEquals(StatusVeiculo.AUSENTE, divergencias.get(0).getStatusCalculado());
+
+		Map<String, Object> resultado = reconciliacaoService.reconciliarFrota();
+
+		assertEquals(VEICULOS / 10, resultado.get("corrigidos"));
+		assertTrue(divergenciasDoTeste(reconciliacaoService.relatorioDivergencias()).isEmpty());
+		// Cada veículo corrigido é publicado como uma edição do cadastro
+		assertEquals(VEICULOS / 10, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_eventos e JOIN veiculos v ON v.id = e.agregado_id "
+				+ "WHERE e.tipo = ? AND v.placa LIKE 'REC%'", Integer.class, OutboxService.VEICULO_SALVO));
+		Veiculo corrigido = veiculoRepository.findByPlaca("REC0000").orElseThrow();
+		assertTrue(projecaoPatio.listarAusentes(Unidade.PADRAO).stream().anyMatch(v -> v.getId().equals(corrigido.getId())));
+	}
+
+	@Test
+	void edicaoDeMovimentacaoAntigaRecalculaOStatus() {
+		Veiculo veiculo = veiculoRepository.save(new Veiculo("REC9X99", "Gol", "VW", null, "Preto"));
+		Movimentacao saida = (Movimentacao) movimentacaoService.registrarMovimentacao(movimentacao(veiculo, TipoMovimento.SAIDA, INICIO));
+		assertEquals(StatusVeiculo.AUSENTE, veiculoRepository.findByPlaca("REC9X99").orElseThrow().getStatus());
+
+		// A saída era, na verdade, uma entrada
+		movimentacaoService.atualizarMovimentacao(saida.getId(), movimentacao(veiculo, TipoMovimento.ENTRADA, INICIO));
+
+		Veiculo reconciliado = veiculoRepository.findByPlaca("REC9X99").orElseThrow();
+		assertEquals(StatusVeiculo.PRESENTE, reconciliado.getStatus());
+		assertEquals(INICIO, reconciliado.getUltimaMovimentacao().getTime());
+	}
+
+	private List<DivergenciaVeiculo> divergenciasDoTeste(List<DivergenciaVeiculo> divergencias) {
+		return divergencias.stream().filter(d -> d.getPlaca().startsWith("REC")).toList();
+	}
+
+	private Movimentacao movimentacao(Veiculo veiculo, TipoMovimento tipo, long instante) {
+		Movimentacao movimentacao = new Movimentacao();
+		movimentacao.setVeiculo(veiculo);
+		movimentacao.setTipoMovimento(tipo);
+		movimentacao.setDataHora(new Date(instante));
+		movimentacao.setPorteiro("JOSÉ");
+		return movimentacao;
+	}
+}
@@ -0,0 +1,237 @@
+package com.controle.Controle_veiculo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.ControleVeiculoApplication;
+import com.controle.Controle_veiculo.dto.MovimentacaoSincronizada;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.CursorSincronizacaoRepository;
+import com.controle.Controle_veiculo.repository.MovimentacaoRepository;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
+import com.controle.Controle_veiculo.services.unidade.UnidadeService;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Sobe duas instâncias da aplicação na mesma máquina: o servidor central e uma portaria em modo
+ * edge, cada uma com o seu banco H2, e sincroniza uma com a outra pela API.
+ */
+class SincronizacaoEdgeTest {
+
+	private static final long INICIO = 1_700_000_000_000L;
+
+	private static ConfigurableApplicationContext central;
+
+	private static ConfigurableApplicationContext portaria;
+
+	@BeforeAll
+	static void subirInstancias() {
+		central = new SpringApplicationBuilder(ControleVeiculoApplication.class).run(
+				"--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:central;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+				"--jwt.admin.username=portaria",
+				"--jwt.admin.password=senha-da-portaria");
+		int porta = ((WebServerApplicationContext) central).getWebServer().getPort();
+
+		portaria = new SpringApplicationBuilder(ControleVeiculoApplication.class).run(
+				"--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:portaria;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+				"--edge.habilitado=true",
+				"--edge.servidor-central.url=http://localhost:" + porta,
+				"--edge.servidor-central.usuario=portaria",
+				"--edge.servidor-central.senha=senha-da-portaria",
+				"--edge.sincronizacao.intervalo-ms=3600000",
+				"--edge.sincronizacao.tamanho-lote=25");
+	}
+
+	@AfterAll
+	static void derrubarInstancias() {
+		portaria.close();
+		central.close();
+	}
+
+	@Test
+	void sincronizaMovimentacoesEVeiculosEntreAPortariaEOServidorCentral() {
+		Veiculo cadastrado = new Veiculo("EDG1A23", "Strada", "Fiat", null, "Branco");
+		cadastrado.setStatus(StatusVeiculo.PRESENTE);
+		central.getBean(VeiculoRepository.class).save(cadastrado);
+
+		// 1. A portaria baixa o cadastro do servidor central
+		SincronizacaoEdgeService sincronizacao = portaria.getBean(SincronizacaoEdgeService.class);
+		sincronizacao.sincronizar();
+		Veiculo local = portaria.getBean(VeiculoRepository.class).findByPlaca("EDG1A23").orElseThrow();
+		assertEquals(StatusVeiculo.PRESENTE, local.getStatus());
+		// A posição fica no banco local, para uma reinicialização não baixar o cadastro inteiro de novo
+		assertNotNull(portaria.getBean(CursorSincronizacaoRepository.class)
+				.findById(SincronizacaoEdgeService.CURSOR_VEICULOS).orElseThrow().getPosicao());
+
+		// 2. Registros locais, sem o servidor central
+		MovimentacaoService movimentacoes = portaria.getBean(MovimentacaoService.class);
+		int registros = 60;
+		for (int i = 0; i < registros; i++) {
+			movimentacoes.registrarMovimentacao(movimentacao(local, i % 2 == 0 ? TipoMovimento.SAIDA : TipoMovimento.ENTRADA,
+					INICIO + i * 60_000L));
+		}
+		movimentacoes.registrarMovimentacao(movimentacao(local, TipoMovimento.SAIDA, INICIO + registros * 60_000L));
+
+		// 3. Envio em lotes (de 25); reenviar não duplica
+		MovimentacaoRepository movimentacoesCentral = central.getBean(MovimentacaoRepository.class);
+		long noCentralAntes = movimentacoesCentral.count();
+		assertEquals(registros + 1, sincronizacao.sincronizar().get("movimentacoesEnviadas"));
+		assertEquals(0, sincronizacao.sincronizar().get("movimentacoesEnviadas"));
+		assertEquals(noCentralAntes + registros + 1, movimentacoesCentral.count());
+		Veiculo noCentral = central.getBean(VeiculoRepository.class).findByPlaca("EDG1A23").orElseThrow();
+		assertEquals(StatusVeiculo.AUSENTE, noCentral.getStatus());
+
+		// 4. Conflito: outra portaria registrou no central uma ENTRADA posterior; a portaria, uma SAÍDA anterior a ela
+		Movimentacao entradaCentral = movimentacao(noCentral, TipoMovimento.ENTRADA, INICIO + (registros + 10) * 60_000L);
+		central.getBean(MovimentacaoService.class).registrarMovimentacao(entradaCentral);
+		Movimentacao saidaAtrasada = movimentacao(local, TipoMovimento.SAIDA, INICIO + (registros + 5) * 60_000L);
+		saidaAtrasada.setForceCorrection(true);
+		movimentacoes.registrarMovimentacao(saidaAtrasada);
+
+		Map<String, Object> resultado = sincronizacao.sincronizar();
+		assertNotNull(resultado);
+		// Vale o evento mais recente (a entrada do central), nas duas pontas
+		assertEquals(StatusVeiculo.PRESENTE, central.getBean(VeiculoRepository.class).findByPlaca("EDG1A23").orElseThrow().getStatus());
+		assertEquals(StatusVeiculo.PRESENTE, portaria.getBean(VeiculoRepository.class).findByPlaca("EDG1A23").orElseThrow().getStatus());
+		assertEquals(0L, sincronizacao.estado().get("movimentacoesPendentes"));
+	}
+
+	@Test
+	void parDeCorrecaoTemOMesmoStatusNasDuasPontasENaReconciliacao() {
+		// Vários veículos: antes, o status do par dependia do desempate aleatório pelo UUID
+		int veiculos = 8;
+		for (int v = 0; v < veiculos; v++) {
+			Veiculo cadastrado = new Veiculo(String.format("COR%04d", v), "Strada", "Fiat", null, "Branco");
+			cadastrado.setStatus(StatusVeiculo.PRESENTE);
+			central.getBean(VeiculoRepository.class).save(cadastrado);
+		}
+		SincronizacaoEdgeService sincronizacao = portaria.getBean(SincronizacaoEdgeService.class);
+		sincronizacao.sincronizar();
+
+		// Veículo presente recebe outra entrada: a portaria grava a saída que faltava e a entrada
+		MovimentacaoService movimentacoes = portaria.getBean(MovimentacaoService.class);
+		VeiculoRepository veiculosPortaria = portaria.getBean(VeiculoRepository.class);
+		for (int v = 0; v < veiculos; v++) {
+			Veiculo local = veiculosPortaria.findByPlaca(String.format("COR%04d", v)).orElseThrow();
+			movimentacoes.registrarMovimentacao(movimentacao(local, TipoMovimento.ENTRADA, INICIO + 500 * 60_000L));
+		}
+		assertEquals(2 * veiculos, sincronizacao.sincronizar().get("movimentacoesEnviadas"));
+		// Próximo ciclo: a portaria recebe o status calculado pelo central
+		sincronizacao.sincronizar();
+
+		VeiculoRepository veiculosCentral = central.getBean(VeiculoRepository.class);
+		for (int v = 0; v < veiculos; v++) {
+			String placa = String.format("COR%04d", v);
+			assertEquals(StatusVeiculo.PRESENTE, veiculosCentral.findByPlaca(placa).orElseThrow().getStatus(), placa);
+			assertEquals(StatusVeiculo.PRESENTE, veiculosPortaria.findByPlaca(placa).orElseThrow().getStatus(), placa);
+		}
+		assertTrue(central.getBean(ReconciliacaoService.class).relatorioDivergencias().stream()
+				.noneMatch(divergencia -> divergencia.getPlaca().startsWith("COR")));
+		assertTrue(portaria.getBean(ReconciliacaoService.class).relatorioDivergencias().stream()
+				.noneMatch(divergencia -> divergencia.getPlaca().startsWith("COR")));
+	}
+
+	@Test
+	void edicaoDuranteOEnvioContinuaPendente() {
+		Veiculo local = portaria.getBean(VeiculoRepository.class).save(new Veiculo("REV1A23", "Strada", "Fiat", null, "Branco"));
+		MovimentacaoService movimentacoes = portaria.getBean(MovimentacaoService.class);
+		Movimentacao registrada = (Movimentacao) movimentacoes.registrarMovimentacao(
+				movimentacao(local, TipoMovimento.ENTRADA, INICIO + 900 * 60_000L));
+
+		// A revisão 0 foi enviada; antes da confirmação do central, o porteiro corrige a quilometragem
+		Movimentacao corrigida = movimentacao(local, TipoMovimento.ENTRADA, INICIO + 900 * 60_000L);
+		corrigida.setQuilometragem(12_345.0);
+		movimentacoes.atualizarMovimentacao(registrada.getId(), corrigida);
+
+		MovimentacaoRepository repositorio = portaria.getBean(MovimentacaoRepository.class);
+		TransactionTemplate transacao = new TransactionTemplate(portaria.getBean(PlatformTransactionManager.class));
+		List<String> uuids = List.of(registrada.getUuid());
+		// A confirmação da revisão enviada não cobre a edição: a movimentação continua pendente
+		assertEquals(Integer.valueOf(0), transacao.execute(status -> repositorio.marcarSincronizadas(uuids, 0, new Date())));
+		assertNull(repositorio.findById(registrada.getId()).orElseThrow().getSincronizadaEm());
+		assertEquals(Integer.valueOf(1), transacao.execute(status -> repositorio.marcarSincronizadas(uuids, 1, new Date())));
+	}
+
+	@Test
+	void servidorCentralRecebeEDevolveApenasAUnidadeDaPortaria() {
+		long outra = central.getBean(UnidadeService.class).criar(new Unidade("UN-EDGE-OUTRA", "Pátio Outro")).getId();
+		Veiculo deOutra = new Veiculo("OUT1A23", "Strada", "Fiat", null, "Branco");
+		deOutra.setUnidadeId(outra);
+		central.getBean(VeiculoRepository.class).save(deOutra);
+		central.getBean(VeiculoRepository.class).save(new Veiculo("PAD1A23", "Strada", "Fiat", null, "Branco"));
+
+		SincronizacaoService recebimento = central.getBean(SincronizacaoService.class);
+		assertTrue(UnidadeContexto.executar(Unidade.PADRAO, () -> recebimento.listarVeiculosAlterados(null)).stream()
+				.noneMatch(veiculo -> veiculo.getPlaca().equals("OUT1A23")));
+		assertTrue(UnidadeContexto.executar(outra, () -> recebimento.listarVeiculosAlterados(new Date(0))).stream()
+				.allMatch(veiculo -> veiculo.getUnidadeId() == outra));
+
+		// Movimentação de um veículo de outra unidade: o lote inteiro é recusado
+		MovimentacaoSincronizada daOutra = sincronizada("OUT1A23", "b7d3e0a2-0000-4000-8000-000000000001");
+		assertThrows(RuntimeException.class, () -> UnidadeContexto.executar(Unidade.PADRAO,
+				() -> recebimento.receberMovimentacoes(List.of(daOutra))));
+		assertEquals(List.of(daOutra.getUuid()), UnidadeContexto.executar(outra, () -> recebimento.receberMovimentacoes(List.of(daOutra))));
+
+		// O mesmo UUID com um veículo da própria unidade não sobrescreve a movimentação da outra
+		MovimentacaoSincronizada sobrescrita = sincronizada("PAD1A23", daOutra.getUuid());
+		assertThrows(RuntimeException.class, () -> UnidadeContexto.executar(Unidade.PADRAO,
+				() -> recebimento.receberMovimentacoes(List.of(sobrescrita))));
+		assertEquals("OUT1A23", central.getBean(MovimentacaoRepository.class).findByUuid(daOutra.getUuid())
+				.orElseThrow().getVeiculo().getPlaca());
+	}
+
+	@Test
+	void usuarioSemSenhaImpedeAInicializacao() {
+		SincronizacaoEdgeService sincronizacao = new SincronizacaoEdgeService();
+		ReflectionTestUtils.setField(sincronizacao, "usuario", "portaria");
+		ReflectionTestUtils.setField(sincronizacao, "senha", "");
+
+		assertThrows(RuntimeException.class, sincronizacao::inicializar);
+	}
+
+	private MovimentacaoSincronizada sincronizada(String placa, String uuid) {
+		MovimentacaoSincronizada dto = new MovimentacaoSincronizada();
+		dto.setUuid(uuid);
+		dto.setPlaca(placa);
+		dto.setTipoMovimento(TipoMovimento.SAIDA);
+		dto.setDataHora(new Date(INICIO + 2_000 * 60_000L));
+		dto.setMotorista("ROBERTO ELIAS");
+		dto.setPorteiro("JOSÉ");
+		return dto;
+	}
+
+	private Movimentacao movimentacao(Veiculo veiculo, TipoMovimento tipo, long instante) {
+		Movimentacao movimentacao = new Movimentacao();
+		movimentacao.setVeiculo(veiculo);
+		movimentacao.setTipoMovimento(tipo);
+		movimentacao.setDataHora(new Date(instante));
+		movimentacao.setQuilometragem(10_000.0 + instante / 60_000 % 1_000);
+		movimentacao.setMotorista("ROBERTO ELIAS");
+		movimentacao.setPorteiro("JOSÉ");
+		movimentacao.setForceCorrection(true);
+		return movimentacao;
+	}
+}
@@ -0,0 +1,205 @@
+package com.controle.Controle_veiculo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.model.Viagem;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Pareamento das viagens: a regra pura ({@code parear}) e a manutenção feita pelo serviço a cada
+ * registro, edição retroativa e reconstrução completa.
+ */
+@SpringBootTest
+class ViagemServiceTest {
+
+    private static final long INICIO = 1_600_000_000_000L;
+
+    private final Veiculo veiculo = new Veiculo("ABC1D23", "Strada", "Fiat", null, "Branco");
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private MovimentacaoService movimentacaoService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Movimentacao mov(TipoMovimento tipo, long minuto, double km) {
+        Movimentacao m = new Movimentacao();
+        m.setVeiculo(veiculo);
+        m.setTipoMovimento(tipo);
+        m.setDataHora(new Date(minuto * 60_000));
+        m.setQuilometragem(km);
+        return m;
+    }
+
+    @Test
+    void pareiaSaidaComEntradaSeguinte() {
+        List<Viagem> viagens = ViagemService.parear(List.of(
+                mov(TipoMovimento.ENTRADA, 0, 100),
+                mov(TipoMovimento.SAIDA, 10, 100),
+                mov(TipoMovimento.ENTRADA, 70, 145.5),
+                mov(TipoMovimento.SAIDA, 80, 145.5)));
+
+        assertEquals(2, viagens.size());
+        assertEquals(3600L, viagens.get(0).getDuracaoSegundos());
+        assertEquals(45.5, viagens.get(0).getDistancia());
+        assertTrue(viagens.get(1).isAberta());
+        assertNull(viagens.get(1).getDuracaoSegundos());
+    }
+
+    @Test
+    void saidaSemEntradaEhSubstituidaPelaSaidaSeguinte() {
+        List<Viagem> viagens = ViagemService.parear(List.of(
+                mov(TipoMovimento.SAIDA, 0, 10),
+                mov(TipoMovimento.SAIDA, 5, 20),
+                mov(TipoMovimento.ENTRADA, 15, 30)));
+
+        assertEquals(1, viagens.size());
+        assertEquals(600L, viagens.get(0).getDuracaoSegundos());
+        assertEquals(10.0, viagens.get(0).getDistancia());
+    }
+
+    @Test
+    void registroAbreEFechaAViagemIncrementalmente() {
+        Veiculo cadastrado = cadastrar("VIA0001");
+
+        registrar(cadastrado, TipoMovimento.SAIDA, 0, 100.0, false);
+        List<Viagem> abertas = viagens(cadastrado);
+        assertEquals(1, abertas.size());
+        assertTrue(abertas.get(0).isAberta());
+
+        registrar(cadastrado, TipoMovimento.ENTRADA, 45, 130.0, false);
+        List<Viagem> fechadas = viagens(cadastrado);
+        assertEquals(1, fechadas.size());
+        assertFalse(fechadas.get(0).isAberta());
+        assertEquals(2700L, fechadas.get(0).getDuracaoSegundos());
+        assertEquals(30.0, fechadas.get(0).getDistancia());
+
+        // Uma nova saída abre a viagem seguinte sem tocar na anterior
+        registrar(cadastrado, TipoMovimento.SAIDA, 60, 130.0, false);
+        List<Viagem> depois = viagens(cadastrado);
+        assertEquals(2, depois.size());
+        assertTrue(depois.get(0).isAberta());
+        assertEquals(2700L, depois.get(1).getDuracaoSegundos());
+    }
+
+    @Test
+    void parDeCorrecaoNoMesmoInstanteFechaAViagemSemDeixarOutraAberta() {
+        Veiculo cadastrado = cadastrar("VIA0002");
+        registrar(cadastrado, TipoMovimento.ENTRADA, 0, null, false);
+
+        // Veículo presente recebe outra entrada: a saída que faltava é gravada junto, confirmada pelo porteiro
+        registrar(cadastrado, TipoMovimento.ENTRADA, 30, null, true);
+
+        List<Viagem> viagens = viagens(cadastrado);
+        assertEquals(1, viagens.size());
+        assertFalse(viagens.get(0).isAberta());
+        assertEquals(0L, viagens.get(0).getDuracaoSegundos());
+
+        // O pareamento refeito do histórico chega ao mesmo resultado do incremental
+        viagemService.reparearVeiculo(cadastrado);
+        List<Viagem> refeitas = viagens(cadastrado);
+        assertEquals(1, refeitas.size());
+        assertFalse(refeitas.get(0).isAberta());
+        assertEquals(0L, refeitas.get(0).getDuracaoSegundos());
+    }
+
+    @Test
+    void edicaoRetroativaRefazOPareamentoDoVeiculo() {
+        Veiculo cadastrado = cadastrar("VIA0003");
+        registrar(cadastrado, TipoMovimento.SAIDA, 0, 100.0, false);
+        Movimentacao entrada = registrar(cadastrado, TipoMovimento.ENTRADA, 90, 150.0, false);
+        registrar(cadastrado, TipoMovimento.SAIDA, 120, 150.0, false);
+
+        // A entrada foi digitada com a hora errada: corrigida para 40 minutos após a saída
+        Movimentacao corrigida = copia(entrada);
+        corrigida.setDataHora(new Date(INICIO + 40 * 60_000L));
+        movimentacaoService.atualizarMovimentacao(entrada.getId(), corrigida);
+
+        List<Viagem> viagens = viagens(cadastrado);
+        assertEquals(2, viagens.size());
+        assertTrue(viagens.get(0).isAberta());
+        assertEquals(2400L, viagens.get(1).getDuracaoSegundos());
+
+        // Um registro anterior à última viagem também refaz o pareamento, em vez de fechar a viagem aberta
+        registrar(cadastrado, TipoMovimento.ENTRADA, 20, 120.0, false);
+        List<Viagem> retroativas = viagens(cadastrado);
+        assertEquals(2, retroativas.size());
+        assertTrue(retroativas.get(0).isAberta());
+        assertEquals(1200L, retroativas.get(1).getDuracaoSegundos());
+        assertEquals(20.0, retroativas.get(1).getDistancia());
+    }
+
+    @Test
+    void reconstrucaoRegeneraAsViagensApagadas() {
+        Veiculo cadastrado = cadastrar("VIA0004");
+        registrar(cadastrado, TipoMovimento.SAIDA, 0, 10.0, false);
+        registrar(cadastrado, TipoMovimento.ENTRADA, 15, 25.0, false);
+        registrar(cadastrado, TipoMovimento.SAIDA, 30, 25.0, false);
+
+        jdbcTemplate.update("DELETE FROM viagens WHERE veiculo_id = ?", cadastrado.getId());
+        assertTrue(viagens(cadastrado).isEmpty());
+
+        assertTrue(viagemService.reconstruirTodas() >= 2);
+
+        List<Viagem> viagens = viagens(cadastrado);
+        assertEquals(2, viagens.size());
+        assertTrue(viagens.get(0).isAberta());
+        assertEquals(900L, viagens.get(1).getDuracaoSegundos());
+        assertEquals(15.0, viagens.get(1).getDistancia());
+    }
+
+    private Veiculo cadastrar(String placa) {
+        return veiculoService.salvarVeiculo(new Veiculo(placa, "Strada", "Fiat", null, "Branco"));
+    }
+
+    /**
+     * Registra uma movimentação {@code minuto} minutos após o início do teste.
+     */
+    private Movimentacao registrar(Veiculo cadastrado, TipoMovimento tipo, long minuto, Double km, boolean confirmada) {
+        Movimentacao movimentacao = new Movimentacao();
+        movimentacao.setVeiculo(cadastrado);
+        movimentacao.setTipoMovimento(tipo);
+        movimentacao.setDataHora(new Date(INICIO + minuto * 60_000L));
+        movimentacao.setQuilometragem(km);
+        movimentacao.setMotorista("VALTER VIAGEM");
+        movimentacao.setPorteiro("JOSÉ");
+        movimentacao.setForceCorrection(confirmada);
+        return (Movimentacao) movimentacaoService.registrarMovimentacao(movimentacao);
+    }
+
+    private Movimentacao copia(Movimentacao original) {
+        Movimentacao copia = new Movimentacao();
+        copia.setTipoMovimento(original.getTipoMovimento());
+        copia.setDataHora(original.getDataHora());
+        copia.setQuilometragem(original.getQuilometragem());
+        copia.setMotorista(original.getMotorista());
+        copia.setPorteiro(original.getPorteiro());
+        return copia;
+    }
+
+    /**
+     * Viagens do veículo, das mais recentes para as mais antigas.
+     */
+    private List<Viagem> viagens(Veiculo cadastrado) {
+        return viagemService.listarPorVeiculo(cadastrado.getId(), 0, 20).getContent();
+    }
+}
@@ -0,0 +1,140 @@
+package com.controle.Controle_veiculo.services.admissao;
+
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.services.Latencias;
+import com.controle.Controle_veiculo.services.VeiculoService;
+import com.controle.Controle_veiculo.services.security.jwt.JwtUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Mede a latência (p99) dos registros da portaria com a API inundada de leituras, pelo servidor HTTP.
+ * Roda só com {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.hikari.maximum-pool-size=4",
+		"admissao.conexoes-reservadas=2",
+		"admissao.leitura.taxa-por-segundo=50",
+		"admissao.leitura.rajada=50",
+		"admissao.portaria.taxa-por-segundo=200",
+		"admissao.portaria.rajada=200"
+})
+class ControleAdmissaoBenchmarkTest {
+
+	private static final int CLIENTES_LEITURA = 24;
+
+	private static final int REGISTROS = 100;
+
+	@LocalServerPort
+	private int porta;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private ControleAdmissaoFilter controleAdmissao;
+
+	private final HttpClient http = HttpClient.newHttpClient();
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void registrosDaPortariaResistemAUmaInundacaoDeLeituras() throws Exception {
+		// Lista de veículos grande o bastante para que cada leitura ocupe uma conexão por alguns milissegundos
+		List<Object[]> veiculos = new ArrayList<>();
+		for (int i = 0; i < 2_000; i++) {
+			veiculos.add(new Object[] {String.format("ADM%04d", i), "Onix", "Chevrolet"});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO veiculos (placa, modelo, marca) VALUES (?, ?, ?)", veiculos);
+		long veiculoPortaria = veiculoService.salvarVeiculo(new Veiculo("ADM9P99", "Saveiro", "Volkswagen", null, "Branco")).getId();
+		String porteiro = token("porteiro-admissao");
+
+		long[] semCarga = registrar(porteiro, veiculoPortaria, 0, REGISTROS);
+
+		AtomicBoolean inundando = new AtomicBoolean(true);
+		ExecutorService leitores = Executors.newFixedThreadPool(CLIENTES_LEITURA);
+		for (int c = 0; c < CLIENTES_LEITURA; c++) {
+			String painel = token("painel-" + c);
+			leitores.submit(() -> {
+				while (inundando.get()) {
+					get("/api/veiculos", painel);
+				}
+				return null;
+			});
+		}
+		Thread.sleep(500);
+		long[] comCarga = registrar(porteiro, veiculoPortaria, REGISTROS, REGISTROS);
+		inundando.set(false);
+		leitores.shutdown();
+		leitores.awaitTermination(30, TimeUnit.SECONDS);
+
+		Map<String, Object> estado = controleAdmissao.estado();
+		Map<String, Object> leitura = (Map<String, Object>) estado.get("leitura");
+		Map<String, Object> portaria = (Map<String, Object>) estado.get("portaria");
+		System.out.printf("Registro da portaria, p99: %d ms sem carga, %d ms com %d clientes lendo (%s leituras admitidas, %s descartadas, %s limitadas)%n",
+				Latencias.p99(semCarga), Latencias.p99(comCarga), CLIENTES_LEITURA,
+				leitura.get("admitidas"), leitura.get("descartadas"), leitura.get("limitadas"));
+		System.out.printf("Portaria: %s registros limitados, %s descartados%n", portaria.get("limitadas"), portaria.get("descartadas"));
+	}
+
+	/**
+	 * Registra movimentações alternando saída e entrada e devolve a latência de cada uma, em ms.
+	 */
+	private long[] registrar(String token, long veiculoId, int primeira, int quantidade) throws Exception {
+		long[] latencias = new long[quantidade];
+		for (int i = 0; i < quantidade; i++) {
+			int n = primeira + i;
+			String corpo = String.format("{\"veiculo\":{\"id\":%d},\"tipoMovimento\":\"%s\",\"dataHora\":\"2008-01-01T%02d:%02d:00.000Z\","
+					+ "\"motorista\":\"ADEMAR PORTARIA\",\"porteiro\":\"JOSÉ\",\"forceCorrection\":true}",
+					veiculoId, n % 2 == 0 ? "saida" : "entrada", n / 60, n % 60);
+			HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/api/movimentacoes"))
+					.header("Authorization", "Bearer " + token)
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(corpo))
+					.build();
+			long inicio = System.nanoTime();
+			http.send(requisicao, HttpResponse.BodyHandlers.ofString());
+			latencias[i] = (System.nanoTime() - inicio) / 1_000_000;
+		}
+		return latencias;
+	}
+
+	private HttpResponse<String> get(String caminho, String token) throws Exception {
+		HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho))
+				.header("Authorization", "Bearer " + token)
+				.GET()
+				.build();
+		return http.send(requisicao, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private String token(String usuario) {
+		User principal = new User(usuario, "", List.of(new SimpleGrantedAuthority("ROLE_PORTEIRO")));
+		return jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+}
@@ -0,0 +1,105 @@
+package com.controle.Controle_veiculo.services.admissao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.controle.Controle_veiculo.services.compartimento.ClasseCarga;
+import com.controle.Controle_veiculo.services.compartimento.RoteadorConexoes;
+import com.controle.Controle_veiculo.services.security.jwt.JwtUtils;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Controle de admissão com os compartimentos de conexões: as vagas de leitura vêm do pool interativo
+ * e a fila no pool de escrita (portaria) também descarta as leituras.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ControleAdmissaoConexoesTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private ControleAdmissaoFilter controleAdmissao;
+
+	@Autowired
+	private RoteadorConexoes roteador;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void acompanhaOsPoolsDaLeituraEDaPortaria() {
+		Map<String, Object> conexoes = (Map<String, Object>) controleAdmissao.estado().get("conexoes");
+		Map<String, Object> leitura = (Map<String, Object>) conexoes.get("leitura");
+		Map<String, Object> portaria = (Map<String, Object>) conexoes.get("portaria");
+		assertEquals(roteador.pool(ClasseCarga.INTERATIVA).getPoolName(), leitura.get("pool"));
+		assertEquals(roteador.pool(ClasseCarga.ESCRITA).getPoolName(), portaria.get("pool"));
+		assertEquals(roteador.pool(ClasseCarga.INTERATIVA).getMaximumPoolSize() - 2, conexoes.get("vagasLeitura"));
+	}
+
+	@Test
+	void filaNoPoolDaPortariaDescartaAsLeituras() throws Exception {
+		String painel = token("painel-conexoes");
+		HikariDataSource escrita = roteador.pool(ClasseCarga.ESCRITA);
+		List<Connection> ocupadas = new ArrayList<>();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<?> registro;
+		try {
+			for (int i = 0; i < escrita.getMaximumPoolSize(); i++) {
+				ocupadas.add(escrita.getConnection());
+			}
+			// Um registro da portaria esperando conexão
+			registro = executor.submit(() -> {
+				try (Connection conexao = escrita.getConnection()) {
+					return conexao.isValid(1);
+				}
+			});
+			long limite = System.currentTimeMillis() + 10_000;
+			while (escrita.getHikariPoolMXBean().getThreadsAwaitingConnection() == 0) {
+				assertTrue(System.currentTimeMillis() < limite, "nenhuma thread aguardando o pool de escrita");
+				Thread.sleep(10);
+			}
+
+			assertEquals(503, consultar(painel));
+		} finally {
+			for (Connection conexao : ocupadas) {
+				conexao.close();
+			}
+			executor.shutdown();
+		}
+		registro.get(10, TimeUnit.SECONDS);
+
+		// Fila esvaziada: a leitura volta a ser admitida
+		assertEquals(200, consultar(painel));
+	}
+
+	private int consultar(String token) throws Exception {
+		return mockMvc.perform(get("/api/veiculos/count").header("Authorization", "Bearer " + token)).andReturn().getResponse().getStatus();
+	}
+
+	private String token(String usuario) {
+		User principal = new User(usuario, "", List.of(new SimpleGrantedAuthority("ROLE_PORTEIRO")));
+		return jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+}
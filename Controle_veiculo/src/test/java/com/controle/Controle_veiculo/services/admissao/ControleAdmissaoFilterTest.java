@@ -0,0 +1,134 @@
+package com.controle.Controle_veiculo.services.admissao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.controle.Controle_veiculo.services.security.jwt.JwtUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Controle de admissão: limite por cliente autenticado (em cada dispositivo) e balde dividido pelas
+ * leituras dos clientes novos quando o limite de clientes acompanhados é atingido.
+ */
+@SpringBootTest(properties = {
+		"admissao.leitura.taxa-por-segundo=0.001",
+		"admissao.leitura.rajada=5",
+		"admissao.portaria.taxa-por-segundo=0.001",
+		"admissao.portaria.rajada=2",
+		"admissao.clientes-maximo=3",
+		"admissao.limpeza-ms=3600000"
+})
+@AutoConfigureMockMvc
+class ControleAdmissaoFilterTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private ControleAdmissaoFilter controleAdmissao;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void limitaCadaClienteEDivideUmBaldeQuandoOLimiteDeClientesEAtingido() throws Exception {
+		// Cada cliente tem a própria rajada; acima dela, 429 com Retry-After
+		String painel = token("painel-limite");
+		for (int i = 0; i < 5; i++) {
+			assertEquals(200, consultar(painel).getStatus());
+		}
+		MockHttpServletResponse limitada = consultar(painel);
+		assertEquals(429, limitada.getStatus());
+		assertNotNull(limitada.getHeader("Retry-After"));
+
+		// Outro cliente continua sendo atendido normalmente
+		assertEquals(200, consultar(token("outro-cliente")).getStatus());
+		assertEquals(200, consultar(token("terceiro-cliente")).getStatus());
+
+		// Limite de clientes atingido: os novos dividem uma única rajada, sem novos baldes
+		int atendidos = 0;
+		for (int i = 0; i < 8; i++) {
+			atendidos += consultar(token("novo-" + i)).getStatus() == 200 ? 1 : 0;
+		}
+		assertEquals(5, atendidos);
+		assertEquals(3, controleAdmissao.estado().get("clientes"));
+		Map<String, Object> leitura = (Map<String, Object>) controleAdmissao.estado().get("leitura");
+		assertTrue((Long) leitura.get("limitadas") >= 4);
+	}
+
+	@Test
+	@DirtiesContext
+	void portariasComOMesmoUsuarioTemBaldesPropriosMesmoComOLimiteDeClientesAtingido() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			consultar(token("enchendo-" + i));
+		}
+		assertTrue((Integer) controleAdmissao.estado().get("clientes") >= 3);
+
+		// Mesmo usuário em dois terminais: cada um com a própria rajada, nada dividido com outros clientes
+		String portaria = token("portaria-compartilhada");
+		for (int i = 0; i < 2; i++) {
+			assertNotEquals(429, registrar(portaria, "portaria-norte").getStatus());
+		}
+		assertEquals(429, registrar(portaria, "portaria-norte").getStatus());
+		assertNotEquals(429, registrar(portaria, "portaria-sul").getStatus());
+
+		// Sem o cabeçalho do dispositivo, o endereço de origem separa os terminais
+		assertNotEquals(429, registrar(portaria, null, "10.0.0.1").getStatus());
+		assertNotEquals(429, registrar(portaria, null, "10.0.0.1").getStatus());
+		assertEquals(429, registrar(portaria, null, "10.0.0.1").getStatus());
+		assertNotEquals(429, registrar(portaria, null, "10.0.0.2").getStatus());
+	}
+
+	private MockHttpServletResponse registrar(String token, String dispositivo) throws Exception {
+		return registrar(token, dispositivo, "127.0.0.1");
+	}
+
+	private MockHttpServletResponse registrar(String token, String dispositivo, String endereco) throws Exception {
+		return mockMvc.perform(post("/api/movimentacoes")
+				.header("Authorization", "Bearer " + token)
+				.headers(cabecalhos(dispositivo))
+				.with(requisicao -> {
+					requisicao.setRemoteAddr(endereco);
+					return requisicao;
+				})
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{}")).andReturn().getResponse();
+	}
+
+	private static HttpHeaders cabecalhos(String dispositivo) {
+		HttpHeaders cabecalhos = new HttpHeaders();
+		if (dispositivo != null) {
+			cabecalhos.add(ControleAdmissaoFilter.CABECALHO_DISPOSITIVO, dispositivo);
+		}
+		return cabecalhos;
+	}
+
+	private MockHttpServletResponse consultar(String token) throws Exception {
+		return mockMvc.perform(get("/api/veiculos/count").header("Authorization", "Bearer " + token)).andReturn().getResponse();
+	}
+
+	private String token(String usuario) {
+		User principal = new User(usuario, "", List.of(new SimpleGrantedAuthority("ROLE_PORTEIRO")));
+		return jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+}
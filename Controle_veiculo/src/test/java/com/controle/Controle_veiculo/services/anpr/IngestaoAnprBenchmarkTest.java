@@ -0,0 +1,56 @@
+package com.controle.Controle_veiculo.services.anpr;
+
+import com.controle.Controle_veiculo.dto.LeituraPlaca;
+import com.controle.Controle_veiculo.dto.ResultadoIngestao;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Mede a vazão da ingestão das câmeras (leituras por segundo) e a eficácia do filtro de Bloom.
+ * Roda só com {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class IngestaoAnprBenchmarkTest {
+
+	private static final int VEICULOS = 300;
+
+	private static final int LEITURAS = 100_000;
+
+	@Autowired
+	private IngestaoAnprService ingestao;
+
+	@Autowired
+	private IndicePlacas indicePlacas;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void leiturasPorSegundo() {
+		List<LeituraPlaca> leituras = IngestaoAnprServiceTest.rajadas(jdbcTemplate, indicePlacas, "ANB", VEICULOS, LEITURAS);
+
+		int registradas = 0, desconhecidas = 0;
+		long inicio = System.nanoTime();
+		for (int i = 0; i < LEITURAS; i += 500) {
+			ResultadoIngestao resultado = ingestao.ingerir(leituras.subList(i, i + 500));
+			registradas += resultado.getRegistradas();
+			desconhecidas += resultado.getDesconhecidas();
+		}
+		long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+		Map<String, Object> indice = (Map<String, Object>) ingestao.estado().get("indice");
+		System.out.printf("Ingestão ANPR: %d leituras em %d ms (%d leituras/s), %d movimentações, %d desconhecidas; "
+						+ "filtro de Bloom: %s bits, %s rejeições, %s falsos positivos%n",
+				LEITURAS, ms, LEITURAS * 1000L / Math.max(1, ms), registradas, desconhecidas,
+				indice.get("filtroBits"), indice.get("rejeitadasPeloFiltro"), indice.get("falsosPositivos"));
+	}
+}
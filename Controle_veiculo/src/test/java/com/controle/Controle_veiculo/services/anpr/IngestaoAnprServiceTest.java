@@ -0,0 +1,174 @@
+package com.controle.Controle_veiculo.services.anpr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.dto.LeituraPlaca;
+import com.controle.Controle_veiculo.dto.ResultadoIngestao;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.MovimentacaoRepository;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.VeiculoService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Ingestão das câmeras: leituras com ruído do OCR viram uma movimentação por passagem, com
+ * entrada/saída deduzida do status, e o índice de placas só recebe os cadastros confirmados.
+ */
+@SpringBootTest
+class IngestaoAnprServiceTest {
+
+	private static final int VEICULOS = 300;
+
+	private static final int LEITURAS = 10_000;
+
+	@Autowired
+	private IngestaoAnprService ingestao;
+
+	@Autowired
+	private IndicePlacas indicePlacas;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private VeiculoRepository veiculoRepository;
+
+	@Autowired
+	private MovimentacaoRepository movimentacaoRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void leiturasComRuidoViramUmaMovimentacaoPorPassagem() {
+		Veiculo veiculo = veiculoService.salvarVeiculo(new Veiculo("ANP1A23", "Delivery", "Volkswagen", null, "Branco"));
+		long agora = System.currentTimeMillis();
+
+		// Primeira passagem: 30 leituras em 20 segundos, com trocas típicas do OCR e a placa antiga equivalente
+		String[] variacoes = {"ANP1A23", "anp-1a23", "4NP1A23", "ANP1023", "ANP1A28", "AMP1A23"};
+		List<LeituraPlaca> entrada = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			entrada.add(new LeituraPlaca(variacoes[i % variacoes.length], new Date(agora - 300_000 + i * 700), "portaria-1", 0.9));
+		}
+		entrada.add(new LeituraPlaca("ZZZ9Z99", new Date(agora - 300_000), "portaria-1", 0.9));
+		entrada.add(new LeituraPlaca("ANP1A2", new Date(agora - 300_000), "portaria-1", 0.9));
+		ResultadoIngestao primeira = ingestao.ingerir(entrada);
+
+		assertEquals(1, primeira.getRegistradas());
+		assertEquals(29, primeira.getAgrupadas());
+		assertEquals(1, primeira.getDesconhecidas());
+		assertEquals(1, primeira.getInvalidas());
+		assertTrue(primeira.getAproximadas() > 0);
+		assertEquals(0, primeira.getConflitos() + primeira.getFalhas());
+		assertEquals(TipoMovimento.ENTRADA, movimentacaoRepository.findById(primeira.getMovimentacoes().get(0)).orElseThrow().getTipoMovimento());
+		assertEquals(StatusVeiculo.PRESENTE, veiculoRepository.findById(veiculo.getId()).orElseThrow().getStatus());
+
+		// Segunda passagem, mais de uma janela depois: saída, sem pedido de correção
+		List<LeituraPlaca> saida = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			saida.add(new LeituraPlaca("ANP 1A23", new Date(agora - 120_000 + i * 500), "portaria-2", 0.8));
+		}
+		// Leitura de uma passagem já encerrada e outra além da retenção
+		saida.add(new LeituraPlaca("ANP1A23", new Date(agora - 299_000), "portaria-1", 0.9));
+		saida.add(new LeituraPlaca("ANP1A23", new Date(agora - 3_600_000), "portaria-1", 0.9));
+		ResultadoIngestao segunda = ingestao.ingerir(saida);
+
+		assertEquals(1, segunda.getRegistradas());
+		assertEquals(9, segunda.getAgrupadas());
+		assertEquals(2, segunda.getAtrasadas());
+		assertEquals(TipoMovimento.SAIDA, movimentacaoRepository.findById(segunda.getMovimentacoes().get(0)).orElseThrow().getTipoMovimento());
+		assertEquals(StatusVeiculo.AUSENTE, veiculoRepository.findById(veiculo.getId()).orElseThrow().getStatus());
+	}
+
+	@Test
+	void cadastroSoEntraNoIndiceDepoisDoCommit() {
+		TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+		transacao.executeWithoutResult(status -> {
+			veiculoService.salvarVeiculo(new Veiculo("ANR1B23", "Saveiro", "Volkswagen", null, "Prata"));
+			// Ainda não confirmado: as câmeras não reconhecem a placa
+			assertNull(indicePlacas.localizar(Placas.canonica("ANR1B23")));
+			status.setRollbackOnly();
+		});
+		assertNull(indicePlacas.localizar(Placas.canonica("ANR1B23")));
+
+		Veiculo salvo = transacao.execute(status -> veiculoService.salvarVeiculo(new Veiculo("ANR1B23", "Saveiro", "Volkswagen", null, "Prata")));
+		assertEquals(salvo.getId(), indicePlacas.localizar(Placas.canonica("ANR1B23")).veiculoId());
+
+		// Exclusão desfeita: a placa continua no índice
+		transacao.executeWithoutResult(status -> {
+			veiculoService.deleteById(salvo.getId());
+			status.setRollbackOnly();
+		});
+		assertEquals(salvo.getId(), indicePlacas.localizar(Placas.canonica("ANR1B23")).veiculoId());
+	}
+
+	@Test
+	void rajadasDeLeiturasViramUmaMovimentacaoPorVeiculo() {
+		List<LeituraPlaca> leituras = rajadas(jdbcTemplate, indicePlacas, "ANQ", VEICULOS, LEITURAS);
+
+		int registradas = 0, falhas = 0, desconhecidas = 0;
+		for (int i = 0; i < LEITURAS; i += 500) {
+			ResultadoIngestao resultado = ingestao.ingerir(leituras.subList(i, i + 500));
+			registradas += resultado.getRegistradas();
+			falhas += resultado.getFalhas() + resultado.getConflitos();
+			desconhecidas += resultado.getDesconhecidas();
+		}
+
+		assertEquals(VEICULOS, registradas);
+		assertEquals(0, falhas);
+		assertEquals(leituras.stream().filter(l -> l.getPlaca().startsWith("WX")).count(), desconhecidas);
+	}
+
+	/**
+	 * Cadastra os veículos direto no banco (e reconstrói o índice) e gera as leituras de uma passagem de
+	 * cada um: 70% leituras de veículos cadastrados (rajadas com ruído), 30% placas desconhecidas.
+	 */
+	static List<LeituraPlaca> rajadas(JdbcTemplate jdbcTemplate, IndicePlacas indicePlacas, String prefixo, int veiculos, int quantidade) {
+		List<Object[]> cadastro = new ArrayList<>();
+		for (int i = 0; i < veiculos; i++) {
+			cadastro.add(new Object[] {String.format("%s%04d", prefixo, i), "Sprinter", "Mercedes-Benz"});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO veiculos (placa, modelo, marca) VALUES (?, ?, ?)", cadastro);
+		// Veículos inseridos direto no banco entram na próxima reconstrução do índice
+		indicePlacas.reconstruir();
+
+		Random aleatorio = new Random(45);
+		long agora = System.currentTimeMillis();
+		List<LeituraPlaca> leituras = new ArrayList<>(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			Date instante = new Date(agora - 60_000 + aleatorio.nextInt(10_000));
+			if (aleatorio.nextInt(10) < 7) {
+				String placa = String.format("%s%04d", prefixo, aleatorio.nextInt(veiculos));
+				if (aleatorio.nextBoolean()) {
+					// Ruído do OCR: "anq-O123"
+					placa = (placa.substring(0, 3) + "-" + placa.substring(3).replaceFirst("0", "O")).toLowerCase();
+				}
+				leituras.add(new LeituraPlaca(placa, instante, "portaria-3", 0.7));
+			} else {
+				leituras.add(new LeituraPlaca(String.format("WX%c%04d", (char) ('A' + aleatorio.nextInt(26)), aleatorio.nextInt(10_000)),
+						instante, "portaria-3", 0.7));
+			}
+		}
+		Collections.shuffle(leituras, aleatorio);
+		return leituras;
+	}
+}
@@ -0,0 +1,83 @@
+package com.controle.Controle_veiculo.services.aquecimento;
+
+import com.controle.Controle_veiculo.services.ConsultaFrotaService;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Mede a primeira requisição do painel logo depois da inicialização, sem e com o aquecimento, cada
+ * caso num contexto novo, e a compara com a mediana das requisições seguintes. Roda só com
+ * {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@DirtiesContext
+class AquecimentoBenchmarkTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(AquecimentoBenchmarkTest.class);
+
+	private static final int REGIME = 50;
+
+	@Nested
+	@TestPropertySource(properties = "aquecimento.habilitado=false")
+	class SemAquecimento {
+
+		@Autowired
+		private VeiculoService veiculoService;
+
+		@Autowired
+		private MovimentacaoService movimentacaoService;
+
+		@Autowired
+		private ConsultaFrotaService consultaFrotaService;
+
+		@Test
+		void primeiraRequisicao() {
+			medir("sem aquecimento", veiculoService, movimentacaoService, consultaFrotaService);
+		}
+	}
+
+	@Nested
+	@TestPropertySource(properties = "aquecimento.iteracoes=100")
+	class Aquecido {
+
+		@Autowired
+		private VeiculoService veiculoService;
+
+		@Autowired
+		private MovimentacaoService movimentacaoService;
+
+		@Autowired
+		private ConsultaFrotaService consultaFrotaService;
+
+		@Test
+		void primeiraRequisicao() {
+			medir("aquecido", veiculoService, movimentacaoService, consultaFrotaService);
+		}
+	}
+
+	private static void medir(String modo, VeiculoService veiculoService,
+			MovimentacaoService movimentacaoService, ConsultaFrotaService consultaFrotaService) {
+		// Primeira chamada logo depois da inicialização
+		long primeira = AquecimentoServiceTest.requisicaoDoPainel(movimentacaoService, consultaFrotaService, veiculoService);
+		long[] regime = new long[REGIME];
+		for (int i = 0; i < regime.length; i++) {
+			regime[i] = AquecimentoServiceTest.requisicaoDoPainel(movimentacaoService, consultaFrotaService, veiculoService);
+		}
+		Arrays.sort(regime);
+		logger.info("Painel {}: primeira requisição {} µs, mediana em regime {} µs", modo, primeira / 1_000,
+				regime[regime.length / 2] / 1_000);
+	}
+}
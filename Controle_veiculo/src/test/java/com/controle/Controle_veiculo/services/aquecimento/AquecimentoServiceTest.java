@@ -0,0 +1,112 @@
+package com.controle.Controle_veiculo.services.aquecimento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.controller.SaudeController;
+import com.controle.Controle_veiculo.dto.ConsultaFrota;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.ConsultaFrotaService;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+import com.controle.Controle_veiculo.services.compartimento.RoteadorConexoes;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Aquecimento na inicialização: a aplicação só fica pronta depois dele e o registro que ele simula
+ * não fica gravado.
+ */
+@SpringBootTest(properties = "aquecimento.iteracoes=5")
+class AquecimentoServiceTest {
+
+	@Autowired
+	private AquecimentoService aquecimentoService;
+
+	@Autowired
+	private SaudeController saudeController;
+
+	@Autowired
+	private ApplicationAvailability disponibilidade;
+
+	@Autowired
+	private RoteadorConexoes roteador;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private VeiculoRepository veiculoRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void prontidaoSoDepoisDoAquecimento() {
+		assertTrue(aquecimentoService.isConcluido());
+		assertEquals(ReadinessState.ACCEPTING_TRAFFIC, disponibilidade.getReadinessState());
+		assertEquals(HttpStatus.OK, saudeController.pronto().getStatusCode());
+		assertFalse(aquecimentoService.estado().containsKey("erro"), aquecimentoService.estado().toString());
+
+		// Conexões abertas antes da primeira requisição
+		@SuppressWarnings("unchecked")
+		Map<String, Object> interativa = (Map<String, Object>) roteador.estado().get("interativa");
+		assertTrue((Integer) interativa.get("ociosas") > 0, interativa.toString());
+
+		ReflectionTestUtils.setField(aquecimentoService, "concluido", false);
+		try {
+			assertEquals(HttpStatus.SERVICE_UNAVAILABLE, saudeController.pronto().getStatusCode());
+			// Durante o aquecimento a aplicação continua viva (não deve ser reiniciada)
+			assertEquals(HttpStatus.OK, saudeController.vivo().getStatusCode());
+		} finally {
+			ReflectionTestUtils.setField(aquecimentoService, "concluido", true);
+		}
+	}
+
+	@Test
+	void registroDoAquecimentoNaoFicaGravado() {
+		veiculoService.salvarVeiculo(new Veiculo("AQC0001", "Strada", "Fiat", null, "Prata"));
+		// Veículo usado pelo aquecimento: o primeiro cadastrado
+		Veiculo veiculo = veiculoRepository.findAll(PageRequest.of(0, 1)).getContent().get(0);
+		long ultimoEvento = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM outbox_eventos", Long.class);
+		long movimentacoes = movimentacoesDo(veiculo);
+
+		aquecimentoService.aquecer();
+
+		assertFalse(aquecimentoService.estado().containsKey("erro"), aquecimentoService.estado().toString());
+		assertEquals(movimentacoes, movimentacoesDo(veiculo));
+		assertEquals(veiculo.getStatus(), veiculoRepository.findById(veiculo.getId()).orElseThrow().getStatus());
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_eventos WHERE id > ?", Long.class, ultimoEvento));
+	}
+
+	private long movimentacoesDo(Veiculo veiculo) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimentacoes WHERE veiculo_id = ?", Long.class, veiculo.getId());
+	}
+
+	/**
+	 * Consultas da primeira tela do painel depois do login.
+	 *
+	 * @return Duração, em ns.
+	 */
+	static long requisicaoDoPainel(MovimentacaoService movimentacaoService, ConsultaFrotaService consultaFrotaService,
+			VeiculoService veiculoService) {
+		long inicio = System.nanoTime();
+		movimentacaoService.listarTodas(null, null, null, 0, 20);
+		consultaFrotaService.pagina(new ConsultaFrota(), null, 20);
+		veiculoService.buscarPorPlaca("AQC0001");
+		veiculoService.listarVeiculosPresentesOrdenados();
+		return System.nanoTime() - inicio;
+	}
+}
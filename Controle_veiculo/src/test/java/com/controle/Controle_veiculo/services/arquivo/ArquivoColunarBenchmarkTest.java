@@ -0,0 +1,90 @@
+package com.controle.Controle_veiculo.services.arquivo;
+
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.services.MotoristaService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
+import com.controle.Controle_veiculo.services.unidade.UnidadeService;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Date;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Compara o tempo das análises de longo prazo só pela tabela e com os meses arquivados (no H2 em
+ * memória dos testes), e o tamanho dos arquivos. Roda só com {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class ArquivoColunarBenchmarkTest {
+
+	private static final int REPETICOES = 50;
+
+	@Autowired
+	private ArquivoMovimentacoesService arquivoService;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private MotoristaService motoristaService;
+
+	@Autowired
+	private UnidadeService unidadeService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void analisesPelaTabelaEPeloArquivo() {
+		long unidade = unidadeService.criar(new Unidade("UN-ARQUIVO", "Pátio do arquivo")).getId();
+		ArquivoMovimentacoesServiceTest.popular(jdbcTemplate, veiculoService, motoristaService, unidade, 40);
+
+		UnidadeContexto.executar(unidade, () -> {
+			// Arquivos de execuções anteriores (o ID da unidade se repete a cada execução)
+			ArquivoMovimentacoesServiceTest.MESES.forEach(mes -> arquivoService.descartar(mes.toString()));
+			long kmSql = medir(fim -> arquivoService.kmPorVeiculo(null, fim));
+			long horaSql = medir(fim -> arquivoService.movimentacoesPorHora(null, fim));
+
+			long linhas = 0;
+			long bytes = 0;
+			for (YearMonth mes : ArquivoMovimentacoesServiceTest.MESES) {
+				Map<String, Object> arquivo = arquivoService.arquivar(mes.toString());
+				linhas += ((Number) arquivo.get("linhas")).longValue();
+				bytes += ((Number) arquivo.get("bytes")).longValue();
+			}
+			long kmArquivo = medir(fim -> arquivoService.kmPorVeiculo(null, fim));
+			long horaArquivo = medir(fim -> arquivoService.movimentacoesPorHora(null, fim));
+
+			System.out.printf("Arquivo colunar: %d movimentações em %d KB (%.1f bytes por movimentação)%n",
+					linhas, bytes / 1024, bytes / (double) linhas);
+			System.out.printf("Km por veículo: SQL %d µs, arquivo + tabela %d µs; movimentações por hora: SQL %d µs, arquivo + tabela %d µs%n",
+					kmSql, kmArquivo, horaSql, horaArquivo);
+			return null;
+		});
+	}
+
+	/**
+	 * Tempo médio (µs) de uma consulta do histórico inteiro, depois de uma rodada de aquecimento. O fim
+	 * do período muda a cada repetição, para o H2 não devolver o resultado da consulta anterior.
+	 */
+	private static long medir(Function<Date, ?> consulta) {
+		long amanha = ArquivoMovimentacoesServiceTest.data(LocalDate.now().plusDays(1)).getTime();
+		for (int i = 0; i < REPETICOES; i++) {
+			consulta.apply(new Date(amanha + i));
+		}
+		long inicio = System.nanoTime();
+		for (int i = 0; i < REPETICOES; i++) {
+			consulta.apply(new Date(amanha + REPETICOES + i));
+		}
+		return (System.nanoTime() - inicio) / REPETICOES / 1_000;
+	}
+}
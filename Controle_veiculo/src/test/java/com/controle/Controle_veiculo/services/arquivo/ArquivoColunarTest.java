@@ -0,0 +1,177 @@
+package com.controle.Controle_veiculo.services.arquivo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Formato do arquivo colunar: as contagens por hora e a quilometragem por placa lidas do arquivo são
+ * as mesmas calculadas linha a linha, os blocos fora do período são pulados, e gravações
+ * simultâneas do mesmo mês não se atrapalham.
+ */
+class ArquivoColunarTest {
+
+	// Fuso com horário de verão: março de 2023 tem a mudança (12/03), que cai no meio de um bloco
+	private static final ZoneId ZONA = ZoneId.of("America/New_York");
+
+	private static final String[] PLACAS = {"ARQ0001", "ARQ0002", "ARQ0003"};
+
+	@TempDir
+	Path diretorio;
+
+	private record Linha(long dataHora, Double km, String placa, String motorista, String tipo) {
+	}
+
+	@Test
+	void leiturasIguaisAsCalculadasLinhaALinha() throws IOException {
+		List<Linha> linhas = linhas(3_000);
+		Path caminho = diretorio.resolve("unidade-1").resolve("2023-03.mvc");
+		escritor(linhas).gravar(caminho);
+		ArquivoColunar arquivo = ArquivoColunar.abrir(caminho);
+		assertEquals(linhas.size(), arquivo.getLinhas());
+		assertEquals((linhas.size() + 99) / 100, arquivo.getBlocos());
+
+		long inicio = linhas.get(0).dataHora();
+		long fim = linhas.get(linhas.size() - 1).dataHora() + 1;
+		long[] entradas = new long[24];
+		long[] saidas = new long[24];
+		assertEquals(arquivo.getBlocos(), arquivo.contarPorHora(inicio, fim, ZONA, entradas, saidas));
+		long[][] esperado = contarPorHora(linhas, inicio, fim);
+		assertArrayEquals(esperado[0], entradas);
+		assertArrayEquals(esperado[1], saidas);
+
+		Map<String, long[]> acumulados = new HashMap<>();
+		arquivo.somarKmPorPlaca(inicio, fim, acumulados);
+		Map<String, long[]> kmEsperado = somarKmPorPlaca(linhas, inicio, fim);
+		assertEquals(kmEsperado.keySet(), acumulados.keySet());
+		kmEsperado.forEach((placa, valores) -> assertArrayEquals(valores, acumulados.get(placa), placa));
+	}
+
+	@Test
+	void periodoCurtoLeSoOsBlocosDoPeriodo() throws IOException {
+		List<Linha> linhas = linhas(3_000);
+		Path caminho = diretorio.resolve("2023-03.mvc");
+		escritor(linhas).gravar(caminho);
+		ArquivoColunar arquivo = ArquivoColunar.abrir(caminho);
+
+		// Um dia no meio do mês, começando no meio de um bloco
+		long inicio = linhas.get(1_050).dataHora();
+		long fim = inicio + 86_400_000L;
+		long[] entradas = new long[24];
+		long[] saidas = new long[24];
+		int lidos = arquivo.contarPorHora(inicio, fim, ZONA, entradas, saidas);
+
+		assertTrue(lidos > 0 && lidos < arquivo.getBlocos(), lidos + " de " + arquivo.getBlocos());
+		long[][] esperado = contarPorHora(linhas, inicio, fim);
+		assertArrayEquals(esperado[0], entradas);
+		assertArrayEquals(esperado[1], saidas);
+	}
+
+	@Test
+	void gravacoesSimultaneasDoMesmoMes() throws Exception {
+		List<Linha> linhas = linhas(2_000);
+		Path caminho = diretorio.resolve("unidade-1").resolve("2023-03.mvc");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> gravacoes = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				gravacoes.add(executor.submit(() -> {
+					escritor(linhas).gravar(caminho);
+					return null;
+				}));
+			}
+			for (Future<?> gravacao : gravacoes) {
+				gravacao.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(linhas.size(), ArquivoColunar.abrir(caminho).getLinhas());
+		// Nenhum temporário deixado para trás
+		try (Stream<Path> arquivos = Files.list(caminho.getParent())) {
+			assertEquals(List.of(caminho), arquivos.toList());
+		}
+	}
+
+	@Test
+	void recusaArquivoInvalidoEDatasForaDeOrdem() throws IOException {
+		Path invalido = Files.write(diretorio.resolve("invalido.mvc"), new byte[64]);
+		assertThrows(RuntimeException.class, () -> ArquivoColunar.abrir(invalido));
+
+		ArquivoColunar.Escritor escritor = new ArquivoColunar.Escritor(100);
+		escritor.adicionar(2_000, null, "ARQ0001", null, "E");
+		assertThrows(IllegalArgumentException.class, () -> escritor.adicionar(1_000, null, "ARQ0001", null, "S"));
+	}
+
+	/**
+	 * Movimentações de março de 2023 a cada 5 a 30 minutos, com km e motorista às vezes ausentes.
+	 */
+	private static List<Linha> linhas(int quantidade) {
+		Random aleatorio = new Random(50);
+		long dataHora = LocalDateTime.of(2023, 3, 1, 0, 0).atZone(ZONA).toInstant().toEpochMilli();
+		double[] km = {10_000, 20_000, 30_000};
+		List<Linha> linhas = new ArrayList<>();
+		for (int i = 0; i < quantidade; i++) {
+			dataHora += (5 + aleatorio.nextInt(26)) * 60_000L;
+			int veiculo = aleatorio.nextInt(PLACAS.length);
+			km[veiculo] += aleatorio.nextInt(800) / 10.0;
+			linhas.add(new Linha(dataHora, aleatorio.nextInt(20) == 0 ? null : km[veiculo], PLACAS[veiculo],
+					aleatorio.nextInt(5) == 0 ? null : "MOTORISTA " + aleatorio.nextInt(3), i % 2 == 0 ? "E" : "S"));
+		}
+		return linhas;
+	}
+
+	private static ArquivoColunar.Escritor escritor(List<Linha> linhas) {
+		ArquivoColunar.Escritor escritor = new ArquivoColunar.Escritor(100);
+		for (Linha linha : linhas) {
+			escritor.adicionar(linha.dataHora(), linha.km(), linha.placa(), linha.motorista(), linha.tipo());
+		}
+		return escritor;
+	}
+
+	private static long[][] contarPorHora(List<Linha> linhas, long inicio, long fim) {
+		long[][] contagens = new long[2][24];
+		for (Linha linha : linhas) {
+			if (linha.dataHora() >= inicio && linha.dataHora() < fim) {
+				int hora = Instant.ofEpochMilli(linha.dataHora()).atZone(ZONA).getHour();
+				contagens["E".equals(linha.tipo()) ? 0 : 1][hora]++;
+			}
+		}
+		return contagens;
+	}
+
+	private static Map<String, long[]> somarKmPorPlaca(List<Linha> linhas, long inicio, long fim) {
+		Map<String, long[]> acumulados = new HashMap<>();
+		for (Linha linha : linhas) {
+			if (linha.km() != null && linha.dataHora() >= inicio && linha.dataHora() < fim) {
+				long km = Math.round(linha.km() * 100);
+				long[] valores = acumulados.computeIfAbsent(linha.placa(), p -> new long[] {Long.MAX_VALUE, Long.MIN_VALUE, 0});
+				valores[0] = Math.min(valores[0], km);
+				valores[1] = Math.max(valores[1], km);
+				valores[2]++;
+			}
+		}
+		return acumulados;
+	}
+}
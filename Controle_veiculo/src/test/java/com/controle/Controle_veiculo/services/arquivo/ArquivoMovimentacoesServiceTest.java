@@ -0,0 +1,160 @@
+package com.controle.Controle_veiculo.services.arquivo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.MovimentacaoRepository;
+import com.controle.Controle_veiculo.services.MotoristaService;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
+import com.controle.Controle_veiculo.services.unidade.UnidadeService;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Análises de longo prazo com meses arquivados em arquivos colunares: os resultados são os mesmos da
+ * consulta SQL sobre a tabela, em períodos que cruzam meses arquivados e não arquivados.
+ */
+@SpringBootTest
+class ArquivoMovimentacoesServiceTest {
+
+	static final List<YearMonth> MESES = List.of(YearMonth.of(2023, 1), YearMonth.of(2023, 2), YearMonth.of(2023, 3));
+
+	private static final String[] MOTORISTAS = {"ANA ARQUIVO", "BRUNO ARQUIVO", "CARLA ARQUIVO", "DIEGO ARQUIVO", null};
+
+	@Autowired
+	private ArquivoMovimentacoesService arquivoService;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private MotoristaService motoristaService;
+
+	@Autowired
+	private UnidadeService unidadeService;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private MovimentacaoRepository movimentacaoRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void analisesComMesesArquivadosIguaisAoSql() throws Exception {
+		long unidade = unidadeService.criar(new Unidade("UN-ARQUIVO", "Pátio do arquivo")).getId();
+		int arquivaveis = popular(jdbcTemplate, veiculoService, motoristaService, unidade, 10);
+
+		UnidadeContexto.executar(unidade, () -> {
+			// Arquivos de execuções anteriores (o ID da unidade se repete a cada execução)
+			MESES.forEach(mes -> arquivoService.descartar(mes.toString()));
+
+			List<Date[]> periodos = List.of(
+					new Date[] {null, null},
+					new Date[] {data(LocalDate.of(2023, 2, 10)), data(LocalDate.now().plusDays(1))},
+					new Date[] {data(LocalDate.of(2023, 2, 10)), data(LocalDate.of(2023, 3, 20))});
+			List<Object> sql = new ArrayList<>();
+			for (Date[] periodo : periodos) {
+				sql.add(arquivoService.kmPorVeiculo(periodo[0], periodo[1]));
+				sql.add(arquivoService.movimentacoesPorHora(periodo[0], periodo[1]));
+			}
+
+			long linhas = 0;
+			for (YearMonth mes : MESES) {
+				linhas += ((Number) arquivoService.arquivar(mes.toString()).get("linhas")).longValue();
+			}
+			assertEquals(arquivaveis, linhas);
+			assertEquals(MESES.size(), arquivoService.listar().size());
+			assertThrows(RuntimeException.class, () -> arquivoService.arquivar(YearMonth.now().toString()));
+
+			List<Object> combinado = new ArrayList<>();
+			for (Date[] periodo : periodos) {
+				combinado.add(arquivoService.kmPorVeiculo(periodo[0], periodo[1]));
+				combinado.add(arquivoService.movimentacoesPorHora(periodo[0], periodo[1]));
+			}
+
+			assertEquals(sql, combinado);
+			// Descartado, o mês volta a ser lido da tabela
+			assertTrue(arquivoService.descartar(MESES.get(1).toString()));
+			assertEquals(sql.get(1), arquivoService.movimentacoesPorHora(null, null));
+
+			// Uma edição que muda a movimentação de mês descarta os arquivos dos dois meses
+			Long id = jdbcTemplate.queryForObject("SELECT id FROM movimentacoes WHERE unidade_id = ? ORDER BY data_hora LIMIT 1",
+					Long.class, unidade);
+			Movimentacao original = movimentacaoRepository.findById(id).orElseThrow();
+			Movimentacao editada = new Movimentacao();
+			editada.setTipoMovimento(original.getTipoMovimento());
+			editada.setQuilometragem(original.getQuilometragem());
+			editada.setDataHora(data(MESES.get(2).atDay(15)));
+			movimentacaoService.atualizarMovimentacao(id, editada);
+			assertTrue(arquivoService.listar().isEmpty());
+			return null;
+		});
+	}
+
+	/**
+	 * Veículos com movimentações alternadas a cada 1h30 (em média) nos meses arquivados e duas no dia
+	 * atual; o status de cada um corresponde à última.
+	 *
+	 * @return Quantidade de movimentações nos meses arquivados.
+	 */
+	static int popular(JdbcTemplate jdbcTemplate, VeiculoService veiculoService, MotoristaService motoristaService, long unidade,
+			int veiculos) {
+		Random aleatorio = new Random(50);
+		Long[] motoristas = new Long[MOTORISTAS.length];
+		for (int i = 0; i < MOTORISTAS.length; i++) {
+			motoristas[i] = MOTORISTAS[i] != null ? motoristaService.obterOuCriar(MOTORISTAS[i]).getId() : null;
+		}
+		LocalDateTime fimArquivo = MESES.get(MESES.size() - 1).plusMonths(1).atDay(1).atStartOfDay();
+		long agora = System.currentTimeMillis();
+		int arquivaveis = 0;
+		for (int v = 0; v < veiculos; v++) {
+			int numero = v;
+			Veiculo veiculo = UnidadeContexto.executar(unidade, () -> veiculoService.salvarVeiculo(
+					new Veiculo(String.format("ARQ%04d", numero), "Strada", "Fiat", null, "Prata")));
+			List<Object[]> linhas = new ArrayList<>();
+			double km = 10_000 + aleatorio.nextInt(50_000);
+			LocalDateTime dataHora = MESES.get(0).atDay(1).atStartOfDay().plusSeconds(aleatorio.nextInt(3600));
+			int m = 0;
+			for (; dataHora.isBefore(fimArquivo); m++) {
+				km += aleatorio.nextInt(800) / 10.0;
+				linhas.add(new Object[] {UUID.randomUUID().toString(), Timestamp.valueOf(dataHora), m % 2 == 0 ? "E" : "S", veiculo.getId(), unidade,
+						aleatorio.nextInt(20) == 0 ? null : km, motoristas[aleatorio.nextInt(motoristas.length)]});
+				dataHora = dataHora.plusSeconds(1800 + aleatorio.nextInt(7200));
+			}
+			arquivaveis += m;
+			linhas.add(new Object[] {UUID.randomUUID().toString(), new Timestamp(agora - 7_200_000L), m % 2 == 0 ? "E" : "S", veiculo.getId(), unidade, km + 12.5, motoristas[0]});
+			linhas.add(new Object[] {UUID.randomUUID().toString(), new Timestamp(agora - 3_600_000L), m % 2 == 0 ? "S" : "E", veiculo.getId(), unidade, km + 40, motoristas[1]});
+			jdbcTemplate.batchUpdate("INSERT INTO movimentacoes (uuid, data_hora, tipo, veiculo_id, unidade_id, quilometragem, motorista_id) VALUES (?, ?, ?, ?, ?, ?, ?)", linhas);
+			jdbcTemplate.update("UPDATE veiculos SET situacao = ?, ultima_movimentacao = ? WHERE id = ?",
+					m % 2 == 0 ? "A" : "P", new Timestamp(agora - 3_600_000L), veiculo.getId());
+		}
+		return arquivaveis;
+	}
+
+	static Date data(LocalDate dia) {
+		return Date.from(dia.atStartOfDay(ZoneId.systemDefault()).toInstant());
+	}
+}
@@ -0,0 +1,44 @@
+package com.controle.Controle_veiculo.services.busca;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Mede a reconstrução do índice de busca e uma busca textual com período sobre um histórico grande.
+ * Roda só com {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class IndiceBuscaBenchmarkTest {
+
+	private static final int MOVIMENTACOES = 50_000;
+
+	@Autowired
+	private IndiceBuscaService indiceBuscaService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void reconstrucaoEBusca() {
+		IndiceBuscaServiceTest.importarHistorico(jdbcTemplate, MOVIMENTACOES);
+
+		Map<String, Object> reconstrucao = indiceBuscaService.reconstruir();
+		System.out.printf("Reconstrução do índice de busca: %d movimentações em %d ms%n",
+				reconstrucao.get("documentos"), reconstrucao.get("duracaoMs"));
+
+		Date dataInicio = new Date(IndiceBuscaServiceTest.INICIO);
+		Date dataFim = new Date(IndiceBuscaServiceTest.INICIO + 10_000 * 60_000L);
+		for (int aquecimento = 0; aquecimento < 50; aquecimento++) {
+			indiceBuscaService.buscar("roberto strada brancas saiu", dataInicio, dataFim, 0, 20);
+		}
+		Map<String, Object> resposta = indiceBuscaService.buscar("roberto strada brancas saiu", dataInicio, dataFim, 0, 20);
+		System.out.printf("Busca textual com período: %d resultados em %.2f ms%n", resposta.get("total"), resposta.get("tempoMs"));
+	}
+}
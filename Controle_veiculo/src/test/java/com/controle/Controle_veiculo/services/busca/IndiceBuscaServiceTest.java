@@ -0,0 +1,151 @@
+package com.controle.Controle_veiculo.services.busca;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.dto.MovimentacaoEncontrada;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+import com.controle.Controle_veiculo.services.outbox.RelayOutboxService;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Busca textual: reconstrução paralela a partir do banco, texto + período com destaques e
+ * atualização incremental pelos eventos da outbox.
+ */
+@SpringBootTest
+class IndiceBuscaServiceTest {
+
+	private static final int MOVIMENTACOES = 2_000;
+
+	static final long INICIO = 1_700_000_000_000L;
+
+	private static final String[][] FROTA = {
+			{"Strada", "Fiat", "Branca"}, {"Strada", "Fiat", "Prata"}, {"Gol", "VW", "Branco"},
+			{"Hilux", "Toyota", "Preta"}, {"Uno", "Fiat", "Vermelho"}};
+
+	private static final String[] MOTORISTAS = {"ROBERTO ALVES", "MARCELA", "JOÃO VITOR", "ANTÔNIO CARLOS"};
+
+	@DynamicPropertySource
+	static void relayManual(DynamicPropertyRegistry registro) {
+		registro.add("outbox.relay.intervalo-ms", () -> "3600000");
+		registro.add("outbox.relay.atraso-minimo-ms", () -> "0");
+	}
+
+	@Autowired
+	private IndiceBuscaService indiceBuscaService;
+
+	@Autowired
+	private RelayOutboxService relay;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void reconstroiEBuscaTextoComPeriodo() {
+		importarHistorico(jdbcTemplate, MOVIMENTACOES);
+
+		Map<String, Object> reconstrucao = indiceBuscaService.reconstruir();
+		assertTrue((Long) reconstrucao.get("documentos") >= MOVIMENTACOES);
+
+		// Sem acento e no plural/masculino: "roberto strada brancas saiu" encontra "Strada Branca, ROBERTO ALVES, saída"
+		Date dataInicio = new Date(INICIO);
+		Date dataFim = new Date(INICIO + 10_000 * 60_000L);
+		Map<String, Object> resposta = indiceBuscaService.buscar("roberto strada brancas saiu", dataInicio, dataFim, 0, 20);
+
+		List<MovimentacaoEncontrada> resultados = (List<MovimentacaoEncontrada>) resposta.get("resultados");
+		assertEquals(20, resultados.size());
+		for (MovimentacaoEncontrada encontrada : resultados) {
+			assertTrue(encontrada.getPlaca().startsWith("BSC"));
+			assertFalse(encontrada.getDataHora().after(dataFim));
+			assertEquals("<mark>Strada</mark>", encontrada.getDestaques().get("modelo"));
+			assertEquals("<mark>Branca</mark>", encontrada.getDestaques().get("cor"));
+			assertEquals("<mark>ROBERTO</mark> ALVES", encontrada.getDestaques().get("motorista"));
+		}
+
+		// Empate de relevância: as mais recentes primeiro
+		assertTrue(resultados.get(0).getDataHora().after(resultados.get(1).getDataHora()));
+	}
+
+	@Test
+	void paginaAlemDoLimiteERecusada() {
+		assertEquals(0L, indiceBuscaService.buscar("inexistente", null, null, 99, 100).get("total"));
+		assertThrows(RuntimeException.class, () -> indiceBuscaService.buscar(null, null, null, 100, 100));
+		assertThrows(RuntimeException.class, () -> indiceBuscaService.buscar(null, null, null, Integer.MAX_VALUE, 100));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void atualizaOIndicePelosEventosDaOutbox() {
+		Veiculo veiculo = veiculoService.salvarVeiculo(new Veiculo("BSC9X99", "Saveiro", "VW", null, "Verde"));
+		Movimentacao movimentacao = new Movimentacao();
+		movimentacao.setVeiculo(veiculo);
+		movimentacao.setTipoMovimento(TipoMovimento.SAIDA);
+		movimentacao.setDataHora(new Date(INICIO));
+		movimentacao.setMotorista("CLEITON");
+		movimentacao.setPorteiro("JOSÉ");
+		movimentacao.setForceCorrection(true);
+		Movimentacao registrada = (Movimentacao) movimentacaoService.registrarMovimentacao(movimentacao);
+
+		relay.drenar();
+		List<MovimentacaoEncontrada> encontradas = (List<MovimentacaoEncontrada>) indiceBuscaService
+				.buscar("saveiro cleiton", null, null, 0, 20).get("resultados");
+		assertEquals(1, encontradas.size());
+		assertEquals(registrada.getId(), encontradas.get(0).getId());
+
+		// Alteração no cadastro do veículo reindexa suas movimentações
+		veiculoService.atualizarVeiculo(veiculo.getId(), new Veiculo("BSC9X99", "Saveiro", "VW", null, "Azul"));
+		relay.drenar();
+		assertEquals(1L, indiceBuscaService.buscar("saveiro azul", null, null, 0, 20).get("total"));
+		assertEquals(0L, indiceBuscaService.buscar("saveiro verde", null, null, 0, 20).get("total"));
+	}
+
+	/**
+	 * Histórico importado direto no banco: 20 veículos, 4 motoristas, uma movimentação por minuto.
+	 */
+	static void importarHistorico(JdbcTemplate jdbcTemplate, int quantidade) {
+		List<Object[]> veiculos = new ArrayList<>();
+		for (int v = 0; v < 20; v++) {
+			String[] dados = FROTA[v % FROTA.length];
+			veiculos.add(new Object[] {String.format("BSC%04d", v), dados[0], dados[1], dados[2]});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO veiculos (placa, modelo, marca, cor) VALUES (?, ?, ?, ?)", veiculos);
+		for (String motorista : MOTORISTAS) {
+			jdbcTemplate.update("INSERT INTO motoristas (nome, ativo) VALUES (?, TRUE)", motorista);
+		}
+		List<Long> idsVeiculos = jdbcTemplate.queryForList("SELECT id FROM veiculos WHERE placa LIKE 'BSC%' ORDER BY placa", Long.class);
+		List<Long> idsMotoristas = jdbcTemplate.queryForList(
+				"SELECT id FROM motoristas WHERE nome IN (?, ?, ?, ?) ORDER BY id", Long.class, (Object[]) MOTORISTAS);
+
+		List<Object[]> movimentacoes = new ArrayList<>(quantidade);
+		for (int m = 0; m < quantidade; m++) {
+			movimentacoes.add(new Object[] {idsVeiculos.get(m % idsVeiculos.size()), m % 2 == 0 ? "S" : "E",
+					new Timestamp(INICIO + m * 60_000L), idsMotoristas.get(m % idsMotoristas.size())});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO movimentacoes (veiculo_id, tipo, data_hora, motorista_id) VALUES (?, ?, ?, ?)", movimentacoes);
+	}
+}
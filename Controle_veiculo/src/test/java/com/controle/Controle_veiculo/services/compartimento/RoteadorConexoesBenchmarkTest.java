@@ -0,0 +1,72 @@
+package com.controle.Controle_veiculo.services.compartimento;
+
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.services.ConsultaFrotaService;
+import com.controle.Controle_veiculo.services.Latencias;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Mede a latência (p99) dos registros da portaria sem carga e com o pool de lote esgotado por
+ * exportações lentas. Roda só com {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+		"spring.datasource.hikari.maximum-pool-size=4",
+		"compartimentos.escrita.conexoes=2",
+		"compartimentos.lote.conexoes=2"
+})
+class RoteadorConexoesBenchmarkTest {
+
+	private static final int EXPORTACOES = 8;
+
+	private static final int REGISTROS = 40;
+
+	@Autowired
+	private RoteadorConexoes roteador;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private ConsultaFrotaService consultaFrotaService;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void registrosComOLoteEsgotado() throws Exception {
+		Veiculo veiculo = RoteadorConexoesTest.prepararFrota(jdbcTemplate, veiculoService);
+		RoteadorConexoesTest.registrar(movimentacaoService, veiculo, 0, REGISTROS); // aquecimento (pool de escrita, JIT)
+		long[] semCarga = RoteadorConexoesTest.registrar(movimentacaoService, veiculo, REGISTROS, REGISTROS);
+
+		ExecutorService exportadores = RoteadorConexoesTest.exportar(consultaFrotaService, EXPORTACOES);
+		long[] comCarga;
+		try {
+			RoteadorConexoesTest.aguardarLoteEsgotado(roteador);
+			comCarga = RoteadorConexoesTest.registrar(movimentacaoService, veiculo, 2 * REGISTROS, REGISTROS);
+		} finally {
+			RoteadorConexoesTest.parar(exportadores);
+		}
+
+		Map<String, Object> estado = roteador.estado();
+		Map<String, Object> escrita = (Map<String, Object>) estado.get("escrita");
+		Map<String, Object> lote = (Map<String, Object>) estado.get("lote");
+		System.out.printf("Registro da portaria, p99: %d ms sem carga, %d ms com %d exportações no pool de lote "
+						+ "(espera máxima por conexão: escrita %.1f ms, lote %.1f ms)%n",
+				Latencias.p99(semCarga), Latencias.p99(comCarga), EXPORTACOES, escrita.get("esperaMaximaMs"), lote.get("esperaMaximaMs"));
+	}
+}
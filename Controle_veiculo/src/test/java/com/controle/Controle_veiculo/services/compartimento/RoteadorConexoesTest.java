@@ -0,0 +1,203 @@
+package com.controle.Controle_veiculo.services.compartimento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.dto.ConsultaFrota;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.services.ConsultaFrotaService;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Compartimentos de conexões: com o pool de lote esgotado por exportações lentas, os registros da
+ * portaria continuam obtendo conexão do pool de escrita sem entrar na fila.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.hikari.maximum-pool-size=4",
+		"compartimentos.escrita.conexoes=2",
+		"compartimentos.lote.conexoes=2"
+})
+class RoteadorConexoesTest {
+
+	private static final int EXPORTACOES = 8;
+
+	private static final int REGISTROS = 40;
+
+	// Período exclusivo deste teste
+	static final LocalDateTime INICIO = LocalDateTime.of(2005, 3, 1, 6, 0);
+
+	@Autowired
+	private RoteadorConexoes roteador;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private ConsultaFrotaService consultaFrotaService;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void escritasIsoladasDasLeiturasEmLote() throws Exception {
+		Veiculo veiculo = prepararFrota(jdbcTemplate, veiculoService);
+		long aquisicoesEscrita = (Long) estadoDe("escrita").get("aquisicoes");
+
+		ExecutorService exportadores = exportar(consultaFrotaService, EXPORTACOES);
+		try {
+			aguardarLoteEsgotado(roteador);
+
+			registrar(movimentacaoService, veiculo, 0, REGISTROS);
+
+			// O lote continuou esgotado durante todos os registros
+			Map<String, Object> lote = estadoDe("lote");
+			assertEquals(2, lote.get("ativas"));
+			assertTrue((Integer) lote.get("aguardando") > 0);
+		} finally {
+			parar(exportadores);
+		}
+
+		Map<String, Object> estado = roteador.estado();
+		Map<String, Object> escrita = (Map<String, Object>) estado.get("escrita");
+		Map<String, Object> lote = (Map<String, Object>) estado.get("lote");
+		assertEquals(REGISTROS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimentacoes WHERE veiculo_id = ?", Integer.class, veiculo.getId()));
+		assertTrue((Long) escrita.get("aquisicoes") >= aquisicoesEscrita + REGISTROS);
+		assertEquals(0, escrita.get("aguardando"));
+		// Quem esperou pela conexão foi o lote, nunca a portaria
+		assertTrue((Double) escrita.get("esperaMaximaMs") < (Double) lote.get("esperaMaximaMs"),
+				escrita.get("esperaMaximaMs") + " >= " + lote.get("esperaMaximaMs"));
+	}
+
+	@Test
+	void tarefaProgramaticaUsaOPoolDaClasse() {
+		Map<String, Object> antes = estadoDe("lote");
+		ClasseCarga.LOTE.executar(() -> {
+			// Dentro do lote, uma chamada interativa continua no lote
+			veiculoService.existsById(-1L);
+			jdbcTemplate.queryForObject("SELECT COUNT(*) FROM veiculos", Long.class);
+		});
+		assertTrue((Long) estadoDe("lote").get("aquisicoes") >= (Long) antes.get("aquisicoes") + 2);
+		assertNull(ClasseCarga.atual());
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> estadoDe(String classe) {
+		return (Map<String, Object>) roteador.estado().get(classe);
+	}
+
+	/**
+	 * Cadastra 400 veículos da marca exportada e o veículo dos registros da portaria.
+	 */
+	static Veiculo prepararFrota(JdbcTemplate jdbcTemplate, VeiculoService veiculoService) {
+		List<Object[]> veiculos = new ArrayList<>();
+		for (int i = 0; i < 400; i++) {
+			veiculos.add(new Object[] {String.format("CMP%04d", i), "Hilux", "Compartimento"});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO veiculos (placa, modelo, marca) VALUES (?, ?, ?)", veiculos);
+		return veiculoService.salvarVeiculo(new Veiculo("CMP9W99", "Saveiro", "Volkswagen", null, "Branco"));
+	}
+
+	/**
+	 * Exportações lentas em laço, ocupando as conexões do lote até {@link #parar}.
+	 */
+	static ExecutorService exportar(ConsultaFrotaService consultaFrotaService, int exportacoes) {
+		ConsultaFrota exportacao = new ConsultaFrota();
+		exportacao.setMarca("Compartimento");
+		ExecutorService exportadores = Executors.newFixedThreadPool(exportacoes);
+		for (int e = 0; e < exportacoes; e++) {
+			exportadores.submit(() -> {
+				while (!Thread.currentThread().isInterrupted()) {
+					consultaFrotaService.transmitir(exportacao, new SaidaLenta());
+				}
+				return null;
+			});
+		}
+		return exportadores;
+	}
+
+	static void parar(ExecutorService exportadores) throws InterruptedException {
+		exportadores.shutdownNow();
+		assertTrue(exportadores.awaitTermination(30, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Espera todas as conexões do lote ocupadas e exportações na fila do pool.
+	 */
+	@SuppressWarnings("unchecked")
+	static void aguardarLoteEsgotado(RoteadorConexoes roteador) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 10_000;
+		while (true) {
+			Map<String, Object> lote = (Map<String, Object>) roteador.estado().get("lote");
+			if (lote.get("ativas").equals(lote.get("maximo")) && (Integer) lote.get("aguardando") > 0) {
+				return;
+			}
+			assertTrue(System.currentTimeMillis() < limite, "pool de lote não esgotado: " + lote);
+			Thread.sleep(10);
+		}
+	}
+
+	/**
+	 * Registra movimentações alternando saída e entrada e devolve a latência de cada uma, em ms.
+	 */
+	static long[] registrar(MovimentacaoService movimentacaoService, Veiculo veiculo, int primeira, int quantidade) {
+		long[] latencias = new long[quantidade];
+		for (int i = 0; i < quantidade; i++) {
+			int n = primeira + i;
+			Movimentacao movimentacao = new Movimentacao();
+			movimentacao.setVeiculo(veiculo);
+			movimentacao.setTipoMovimento(n % 2 == 0 ? TipoMovimento.SAIDA : TipoMovimento.ENTRADA);
+			movimentacao.setDataHora(Date.from(INICIO.plusMinutes(n).atZone(ZoneId.systemDefault()).toInstant()));
+			movimentacao.setMotorista("CARLOS COMPARTIMENTO");
+			movimentacao.setPorteiro("JOSÉ");
+			movimentacao.setForceCorrection(true);
+			long inicio = System.nanoTime();
+			movimentacaoService.registrarMovimentacao(movimentacao);
+			latencias[i] = (System.nanoTime() - inicio) / 1_000_000;
+		}
+		return latencias;
+	}
+
+	/**
+	 * Cliente lento: cada bloco escrito demora, e a exportação segura a conexão do lote enquanto isso.
+	 */
+	static class SaidaLenta extends OutputStream {
+
+		@Override
+		public void write(int b) {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			try {
+				Thread.sleep(30);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
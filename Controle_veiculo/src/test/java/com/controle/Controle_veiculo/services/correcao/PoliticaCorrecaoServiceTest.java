@@ -0,0 +1,117 @@
+package com.controle.Controle_veiculo.services.correcao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.dto.CorrectionRequiredResponse;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.StatusVeiculo;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Política de correção: a unidade com política automática registra a movimentação que faltava na
+ * primeira requisição e a deixa pendente de revisão; as demais continuam recebendo o 409.
+ */
+@SpringBootTest(properties = {
+		"correcao.politica.unidades.47=automatica",
+		"correcao.politica.porteiros[ANPR-PORTAO-1]=automatica",
+		"correcao.politica.usuarios.supervisor=perguntar",
+		// A unidade 47 é cadastrada pelo teste direto no banco
+		"unidades.recarga-minima-ms=0"
+})
+class PoliticaCorrecaoServiceTest {
+
+	private static final long AUTOMATICA = 47L;
+
+	@Autowired
+	private PoliticaCorrecaoService politicaCorrecao;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private VeiculoRepository veiculoRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void prioridadeUsuarioPorteiroUnidadePadrao() {
+		assertEquals(PoliticaCorrecao.PERGUNTAR, politicaCorrecao.politica(1L, null, null));
+		assertEquals(PoliticaCorrecao.AUTOMATICA, politicaCorrecao.politica(AUTOMATICA, "JOSÉ", "porteiro"));
+		assertEquals(PoliticaCorrecao.AUTOMATICA, politicaCorrecao.politica(1L, " ANPR-Portao-1 ", null));
+		assertEquals(PoliticaCorrecao.PERGUNTAR, politicaCorrecao.politica(AUTOMATICA, "ANPR-PORTAO-1", "Supervisor"));
+		assertEquals(Map.of(AUTOMATICA, PoliticaCorrecao.AUTOMATICA), politicaCorrecao.estado().get("politicasPorUnidade"));
+	}
+
+	@Test
+	void correcaoAutomaticaNaPrimeiraRequisicaoEPendenteDeRevisao() {
+		jdbcTemplate.update("INSERT INTO unidades (id, codigo, nome) VALUES (?, 'UN-CORRECAO', 'Pátio com correção automática')", AUTOMATICA);
+		Veiculo veiculo = UnidadeContexto.executar(AUTOMATICA,
+				() -> veiculoService.salvarVeiculo(new Veiculo("UNC0001", "Strada", "Fiat", null, "Branco")));
+		Veiculo outro = veiculoService.salvarVeiculo(new Veiculo("UNC0002", "Strada", "Fiat", null, "Branco"));
+		UnidadeContexto.executar(AUTOMATICA, () -> registrar(veiculo, TipoMovimento.ENTRADA));
+		registrar(outro, TipoMovimento.ENTRADA);
+
+		// Unidade padrão: o conflito continua sendo devolvido ao porteiro
+		assertInstanceOf(CorrectionRequiredResponse.class, registrar(outro, TipoMovimento.ENTRADA));
+
+		// Unidade automática: saída que faltava + entrada, na mesma requisição
+		Object resultado = UnidadeContexto.executar(AUTOMATICA, () -> registrar(veiculo, TipoMovimento.ENTRADA));
+		Movimentacao entrada = assertInstanceOf(Movimentacao.class, resultado);
+		assertEquals("saidaAutomatica", entrada.getCorrecaoAplicada());
+		assertNull(entrada.getCorrecaoPendente());
+		assertEquals(StatusVeiculo.PRESENTE, veiculoRepository.findById(veiculo.getId()).orElseThrow().getStatus());
+
+		List<Movimentacao> pendentes = UnidadeContexto.executar(AUTOMATICA,
+				() -> movimentacaoService.listarCorrecoesPendentes(0, 20).getContent());
+		assertEquals(1, pendentes.size());
+		assertEquals(TipoMovimento.SAIDA, pendentes.get(0).getTipoMovimento());
+		assertEquals(veiculo.getId(), pendentes.get(0).getVeiculo().getId());
+		assertTrue(movimentacaoService.listarCorrecoesPendentes(0, 20).getContent().stream()
+				.noneMatch(m -> m.getVeiculo().getPlaca().startsWith("UNC")));
+
+		@SuppressWarnings("unchecked")
+		Map<String, Object> daUnidade = (Map<String, Object>) ((Map<Long, Object>) politicaCorrecao.estado().get("unidades")).get(AUTOMATICA);
+		assertEquals(1L, daUnidade.get("automaticas"));
+		assertEquals(0L, daUnidade.get("perguntadas"));
+		assertEquals(1.0 / 2, (Double) daUnidade.get("taxaCorrecao"), 1e-9);
+
+		// Revisão: sai da lista e não pode ser revisada de novo
+		Long id = pendentes.get(0).getId();
+		UnidadeContexto.executar(AUTOMATICA, () -> movimentacaoService.revisarCorrecao(id));
+		assertTrue(UnidadeContexto.executar(AUTOMATICA, () -> movimentacaoService.listarCorrecoesPendentes(0, 20).isEmpty()));
+		assertThrows(RuntimeException.class, () -> movimentacaoService.revisarCorrecao(id));
+		assertThrows(RuntimeException.class, () -> movimentacaoService.revisarCorrecao(entrada.getId()));
+	}
+
+	private Object registrar(Veiculo veiculo, TipoMovimento tipo) {
+		Movimentacao movimentacao = new Movimentacao();
+		movimentacao.setVeiculo(veiculo);
+		movimentacao.setTipoMovimento(tipo);
+		movimentacao.setDataHora(new Date());
+		movimentacao.setMotorista("CÍCERO CORREÇÃO");
+		movimentacao.setPorteiro("JOSÉ");
+		return movimentacaoService.registrarMovimentacao(movimentacao);
+	}
+}
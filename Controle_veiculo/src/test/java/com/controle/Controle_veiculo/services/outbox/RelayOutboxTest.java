@@ -0,0 +1,196 @@
+package com.controle.Controle_veiculo.services.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.model.EventoOutbox;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.EventoOutboxRepository;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Entrega da outbox a um webhook local (stub HTTP que recusa a primeira chamada), a um arquivo
+ * JSON Lines e a um ouvinte interno.
+ */
+@SpringBootTest
+class RelayOutboxTest {
+
+	private static final HttpServer webhook;
+
+	private static final List<String> recebidosPeloWebhook = Collections.synchronizedList(new ArrayList<>());
+
+	private static final AtomicInteger chamadasAoWebhook = new AtomicInteger();
+
+	private static final Path arquivo;
+
+	static {
+		try {
+			webhook = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			webhook.createContext("/eventos", troca -> {
+				byte[] corpo = troca.getRequestBody().readAllBytes();
+				int status = chamadasAoWebhook.incrementAndGet() == 1 ? 500 : 200;
+				if (status == 200) {
+					recebidosPeloWebhook.add(new String(corpo, StandardCharsets.UTF_8));
+				}
+				troca.sendResponseHeaders(status, -1);
+				troca.close();
+			});
+			webhook.start();
+			arquivo = Files.createTempDirectory("outbox").resolve("eventos.jsonl");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void destinos(DynamicPropertyRegistry registro) {
+		registro.add("outbox.webhook.url", () -> "http://localhost:" + webhook.getAddress().getPort() + "/eventos");
+		registro.add("outbox.arquivo.caminho", arquivo::toString);
+		registro.add("outbox.relay.intervalo-ms", () -> "3600000");
+		registro.add("outbox.relay.atraso-minimo-ms", () -> "0");
+		registro.add("outbox.relay.backoff-inicial-ms", () -> "1");
+	}
+
+	@AfterAll
+	static void pararWebhook() {
+		webhook.stop(0);
+	}
+
+	@TestConfiguration
+	static class Ouvinte {
+		final List<EventoOutbox> recebidos = Collections.synchronizedList(new ArrayList<>());
+
+		@EventListener
+		public void receber(EventoOutbox evento) {
+			recebidos.add(evento);
+		}
+	}
+
+	@Autowired
+	private RelayOutboxService relay;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private EventoOutboxRepository eventoOutboxRepository;
+
+	@Autowired
+	private Ouvinte ouvinte;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void criarTransactionTemplate() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void entregaEmOrdemComRetentativaECheckpointPorDestino() throws Exception {
+		Veiculo veiculo = veiculoService.salvarVeiculo(new Veiculo("OUT1B23", "Hilux", "Toyota", null, "Prata"));
+		long inicio = 1_700_000_000_000L;
+		for (int i = 0; i < 3; i++) {
+			Movimentacao movimentacao = new Movimentacao();
+			movimentacao.setVeiculo(veiculo);
+			movimentacao.setTipoMovimento(i % 2 == 0 ? TipoMovimento.SAIDA : TipoMovimento.ENTRADA);
+			movimentacao.setDataHora(new Date(inicio + i * 60_000L));
+			movimentacao.setMotorista("ROBERTO ELIAS");
+			movimentacao.setPorteiro("JOSÉ");
+			movimentacao.setForceCorrection(true);
+			movimentacaoService.registrarMovimentacao(movimentacao);
+		}
+		// Cadastro do veículo + SAÍDA, ENTRADA e SAÍDA
+		long eventos = eventoOutboxRepository.count();
+		assertEquals(4, eventos);
+
+		// 1. O webhook recusa o primeiro lote; arquivo e ouvinte recebem normalmente
+		relay.drenar();
+		Map<String, Object> estado = relay.estado();
+		Map<String, Object> estadoWebhook = (Map<String, Object>) estado.get("webhook");
+		assertEquals(4L, estadoWebhook.get("pendentes"));
+		assertEquals(1L, estadoWebhook.get("falhas"));
+		assertEquals(4, Files.readAllLines(arquivo).size());
+		assertEquals(4, ouvinte.recebidos.size());
+		assertEquals("VEICULO_SALVO", ouvinte.recebidos.get(0).getTipo());
+		for (int i = 1; i < ouvinte.recebidos.size(); i++) {
+			assertTrue(ouvinte.recebidos.get(i - 1).getId() < ouvinte.recebidos.get(i).getId());
+		}
+
+		// 2. Nova tentativa (após o backoff): o webhook recebe o mesmo lote, em ordem
+		Thread.sleep(5);
+		relay.drenar();
+		assertEquals(1, recebidosPeloWebhook.size());
+		assertTrue(recebidosPeloWebhook.get(0).startsWith("[{\"id\":"));
+		assertTrue(recebidosPeloWebhook.get(0).contains("\"placa\":\"OUT1B23\""));
+		estadoWebhook = (Map<String, Object>) relay.estado().get("webhook");
+		assertEquals(0L, estadoWebhook.get("pendentes"));
+		assertEquals(4L, estadoWebhook.get("eventosEntregues"));
+
+		// 3. Entregues a todos os destinos, os eventos saem da tabela
+		assertEquals(0, eventoOutboxRepository.count());
+		assertEquals(4, Files.readAllLines(arquivo).size());
+
+		// 4. Evento confirmado depois de outro com ID maior já entregue: continua pendente e sai no lote seguinte
+		CountDownLatch gravado = new CountDownLatch(1);
+		CountDownLatch confirmar = new CountDownLatch(1);
+		Thread lenta = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+			eventoOutboxRepository.save(new EventoOutbox("TESTE_LENTO", null, "{}"));
+			gravado.countDown();
+			try {
+				confirmar.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		lenta.start();
+		gravado.await();
+		EventoOutbox rapido = eventoOutboxRepository.save(new EventoOutbox("TESTE_RAPIDO", null, "{}"));
+		relay.drenar();
+		confirmar.countDown();
+		lenta.join();
+		relay.drenar();
+
+		List<EventoOutbox> ultimos = ouvinte.recebidos.subList(4, ouvinte.recebidos.size());
+		assertEquals(List.of("TESTE_RAPIDO", "TESTE_LENTO"), ultimos.stream().map(EventoOutbox::getTipo).toList());
+		assertTrue(ultimos.get(1).getId() < rapido.getId());
+		assertEquals(3, recebidosPeloWebhook.size());
+		assertEquals(6, Files.readAllLines(arquivo).size());
+		assertEquals(0, eventoOutboxRepository.count());
+	}
+}
@@ -0,0 +1,38 @@
+package com.controle.Controle_veiculo.services.relatorio;
+
+import com.controle.Controle_veiculo.dto.DefinicaoRelatorio;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Mede o relatório por veículo, particionado por período, sobre um histórico grande.
+ * Roda só com {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class RelatorioBenchmarkTest {
+
+	private static final int MOVIMENTACOES = 30_000;
+
+	@Autowired
+	private RelatorioService relatorioService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void relatorioPorVeiculo() throws InterruptedException {
+		RelatorioServiceTest.importarHistorico(jdbcTemplate, MOVIMENTACOES);
+
+		TrabalhoRelatorio trabalho = RelatorioServiceTest.aguardar(relatorioService.submeter(new DefinicaoRelatorio(
+				DefinicaoRelatorio.Agrupamento.VEICULO, new Date(RelatorioServiceTest.INICIO), new Date(RelatorioServiceTest.FIM))));
+		System.out.printf("Relatório por veículo (%d movimentações, %d partições): %d ms%n",
+				MOVIMENTACOES, trabalho.getParticoes(), trabalho.getDuracaoMs());
+	}
+}
@@ -0,0 +1,143 @@
+package com.controle.Controle_veiculo.services.relatorio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.dto.DefinicaoRelatorio;
+import com.controle.Controle_veiculo.dto.LinhaRelatorio;
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Relatórios assíncronos: cálculo particionado por período, cache por versão dos dados e
+ * invalidação depois de uma nova movimentação.
+ */
+@SpringBootTest
+class RelatorioServiceTest {
+
+	static final int VEICULOS = 100;
+
+	private static final int MOVIMENTACOES = 3_000;
+
+	private static final int DIAS = 90;
+
+	// Período exclusivo deste teste (jan/2015), para não somar movimentações de outros testes
+	static final long INICIO = 1_420_070_400_000L;
+
+	static final long FIM = INICIO + DIAS * 24L * 60 * 60 * 1000;
+
+	@Autowired
+	private RelatorioService relatorioService;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private VeiculoRepository veiculoRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void calculaEmParticoesEReaproveitaOResultadoAteOsDadosMudarem() throws InterruptedException {
+		List<Timestamp> instantes = importarHistorico(jdbcTemplate, MOVIMENTACOES);
+
+		DefinicaoRelatorio porVeiculo = new DefinicaoRelatorio(DefinicaoRelatorio.Agrupamento.VEICULO, new Date(INICIO), new Date(FIM));
+		TrabalhoRelatorio trabalho = aguardar(relatorioService.submeter(porVeiculo));
+
+		assertEquals(TrabalhoRelatorio.Estado.CONCLUIDO, trabalho.getEstado());
+		assertEquals(13, trabalho.getParticoes());
+		assertFalse(trabalho.isEmCache());
+		List<LinhaRelatorio> linhas = trabalho.getResultado();
+		assertEquals(VEICULOS, linhas.size());
+		for (LinhaRelatorio linha : linhas) {
+			assertEquals(MOVIMENTACOES / VEICULOS, linha.getTotal());
+			assertEquals(linha.getEntradas(), linha.getSaidas());
+		}
+
+		// Por dia (no fuso do servidor): uma linha por dia com movimentações, em ordem cronológica
+		List<LinhaRelatorio> dias = aguardar(relatorioService.submeter(
+				new DefinicaoRelatorio(DefinicaoRelatorio.Agrupamento.DIA, new Date(INICIO), new Date(FIM)))).getResultado();
+		Map<String, Long> esperado = instantes.stream().collect(Collectors.groupingBy(
+				instante -> instante.toLocalDateTime().toLocalDate().toString(), TreeMap::new, Collectors.counting()));
+		assertEquals(List.copyOf(esperado.keySet()), dias.stream().map(LinhaRelatorio::getChave).toList());
+		assertEquals(List.copyOf(esperado.values()), dias.stream().map(LinhaRelatorio::getTotal).toList());
+
+		// Mesmo pedido, dados iguais: resposta imediata do cache
+		TrabalhoRelatorio repetido = relatorioService.submeter(porVeiculo);
+		assertEquals(TrabalhoRelatorio.Estado.CONCLUIDO, repetido.getEstado());
+		assertTrue(repetido.isEmCache());
+		assertSame(linhas, repetido.getResultado());
+
+		// Nova movimentação no período: o cache deixa de valer
+		Veiculo veiculo = veiculoRepository.findByPlaca("RPT0000").orElseThrow();
+		Movimentacao movimentacao = new Movimentacao();
+		movimentacao.setVeiculo(veiculo);
+		movimentacao.setTipoMovimento(TipoMovimento.ENTRADA);
+		movimentacao.setDataHora(new Date(FIM - 1000));
+		movimentacao.setPorteiro("JOSÉ");
+		movimentacao.setForceCorrection(true);
+		movimentacaoService.registrarMovimentacao(movimentacao);
+
+		// O veículo estava Presente: a entrada vem com a saída automática que faltava
+		TrabalhoRelatorio atualizado = aguardar(relatorioService.submeter(porVeiculo));
+		assertFalse(atualizado.isEmCache());
+		assertEquals(MOVIMENTACOES + 2, atualizado.getResultado().stream().mapToLong(LinhaRelatorio::getTotal).sum());
+		LinhaRelatorio primeiro = atualizado.getResultado().get(0);
+		assertEquals("RPT0000", primeiro.getChave());
+		assertEquals(MOVIMENTACOES / VEICULOS + 2, primeiro.getTotal());
+	}
+
+	/**
+	 * Histórico importado direto no banco, espalhado pelo período; cada veículo termina com uma entrada
+	 * (status Presente já reconciliado).
+	 *
+	 * @return Instantes das movimentações importadas.
+	 */
+	static List<Timestamp> importarHistorico(JdbcTemplate jdbcTemplate, int quantidade) {
+		long intervalo = (FIM - INICIO) / quantidade;
+		List<Object[]> veiculos = new ArrayList<>();
+		for (int v = 0; v < VEICULOS; v++) {
+			Timestamp ultima = new Timestamp(INICIO + (quantidade - VEICULOS + v) * intervalo);
+			veiculos.add(new Object[] {String.format("RPT%04d", v), ultima});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO veiculos (placa, situacao, ultima_movimentacao) VALUES (?, 'P', ?)", veiculos);
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM veiculos WHERE placa LIKE 'RPT%' ORDER BY placa", Long.class);
+
+		List<Timestamp> instantes = new ArrayList<>(quantidade);
+		List<Object[]> movimentacoes = new ArrayList<>(quantidade);
+		for (int m = 0; m < quantidade; m++) {
+			Timestamp instante = new Timestamp(INICIO + m * intervalo);
+			instantes.add(instante);
+			movimentacoes.add(new Object[] {ids.get(m % VEICULOS), (m / VEICULOS) % 2 == 0 ? "S" : "E", instante});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO movimentacoes (veiculo_id, tipo, data_hora) VALUES (?, ?, ?)", movimentacoes);
+		return instantes;
+	}
+
+	static TrabalhoRelatorio aguardar(TrabalhoRelatorio trabalho) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 30_000;
+		while (trabalho.getEstado() == TrabalhoRelatorio.Estado.EXECUTANDO && System.currentTimeMillis() < limite) {
+			Thread.sleep(10);
+		}
+		return trabalho;
+	}
+}
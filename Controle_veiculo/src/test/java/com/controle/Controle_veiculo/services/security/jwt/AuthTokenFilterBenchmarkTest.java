@@ -0,0 +1,66 @@
+package com.controle.Controle_veiculo.services.security.jwt;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Mede o custo por requisição do {@link AuthTokenFilter} (sem banco de dados) e compara o caminho com
+ * cache com a verificação completa da assinatura a cada requisição. Roda só com {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class AuthTokenFilterBenchmarkTest {
+
+	private static final int AQUECIMENTO = 20_000;
+	private static final int REQUISICOES = 100_000;
+
+	@AfterEach
+	void limpar() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void custoDoFiltroPorRequisicao() throws Exception {
+		JwtUtils jwtUtils = AuthTokenFilterTest.criarJwtUtils(AuthTokenFilterTest.SEGREDO);
+		AuthTokenFilter filtro = new AuthTokenFilter();
+		ReflectionTestUtils.setField(filtro, "jwtUtils", jwtUtils);
+		User usuario = new User("porteiro", "", List.of(new SimpleGrantedAuthority("ROLE_PORTEIRO")));
+		String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()));
+
+		for (int i = 0; i < AQUECIMENTO; i++) {
+			executarFiltro(filtro, token);
+			jwtUtils.getUserNameFromJwtToken(token);
+		}
+
+		long inicio = System.nanoTime();
+		for (int i = 0; i < REQUISICOES; i++) {
+			executarFiltro(filtro, token);
+		}
+		long comCache = (System.nanoTime() - inicio) / REQUISICOES;
+
+		inicio = System.nanoTime();
+		for (int i = 0; i < REQUISICOES; i++) {
+			jwtUtils.getUserNameFromJwtToken(token);
+		}
+		long assinaturaCompleta = (System.nanoTime() - inicio) / REQUISICOES;
+
+		System.out.printf("AuthTokenFilter: %d ns/requisição com cache; %d ns/requisição verificando a assinatura%n",
+				comCache, assinaturaCompleta);
+	}
+
+	private static void executarFiltro(AuthTokenFilter filtro, String token) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/veiculos");
+		request.addHeader("Authorization", "Bearer " + token);
+		filtro.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+	}
+}
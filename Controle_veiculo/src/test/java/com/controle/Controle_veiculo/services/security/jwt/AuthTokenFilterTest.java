@@ -0,0 +1,149 @@
+package com.controle.Controle_veiculo.services.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Autenticação das requisições pelo {@link AuthTokenFilter}, a partir das claims do token (sem banco de dados).
+ */
+class AuthTokenFilterTest {
+
+	static final String SEGREDO = "Q2hhdmVEZVRlc3RlRG9Db250cm9sZURlVmVpY3Vsb3MtVXNhZGFTb21lbnRlTm9zVGVzdGVz";
+
+	private JwtUtils jwtUtils;
+	private AuthTokenFilter filtro;
+	private Authentication autenticacao;
+	private String token;
+
+	@BeforeEach
+	void configurar() {
+		jwtUtils = criarJwtUtils(SEGREDO);
+
+		filtro = new AuthTokenFilter();
+		ReflectionTestUtils.setField(filtro, "jwtUtils", jwtUtils);
+
+		User usuario = new User("porteiro", "", List.of(new SimpleGrantedAuthority("ROLE_PORTEIRO")));
+		autenticacao = new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities());
+		token = jwtUtils.generateJwtToken(autenticacao);
+	}
+
+	@AfterEach
+	void limpar() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void autenticaPelasClaimsDoToken() throws Exception {
+		executarFiltro();
+
+		Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+		assertEquals("porteiro", autenticacao.getName());
+		assertTrue(autenticacao.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_PORTEIRO")));
+	}
+
+	@Test
+	void tokenRevogadoDeixaDeAutenticar() throws Exception {
+		assertTrue(jwtUtils.revogar(token));
+		SecurityContextHolder.clearContext();
+
+		executarFiltro();
+
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+		assertFalse(jwtUtils.validateJwtToken(token));
+	}
+
+	@Test
+	void tokenInvalidoNaoAutentica() throws Exception {
+		String adulterado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+		token = adulterado;
+
+		executarFiltro();
+
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	@Test
+	void tokenDeOutraChaveNaoAutentica() throws Exception {
+		JwtUtils outro = criarJwtUtils("T3V0cm9TZWdyZWRvUGFyYUFzc2luYXJUb2tlbnNEZVRlc3Rl");
+		token = outro.generateJwtToken(autenticacao);
+
+		executarFiltro();
+
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+		assertTrue(outro.validateJwtToken(token));
+	}
+
+	@Test
+	void chaveFracaImpedeAInicializacaoComAutenticacaoLigada() {
+		assertThrows(IllegalStateException.class, () -> criarJwtUtils(null));
+		assertThrows(IllegalStateException.class, () -> criarJwtUtils(""));
+		// O antigo valor de exemplo do repositório, mesmo tendo mais de 256 bits
+		assertThrows(IllegalStateException.class, () -> criarJwtUtils("ProjetoParaControleDeEntradaESaidaDeVeiculos"));
+		// 200 bits
+		assertThrows(IllegalStateException.class, () -> criarJwtUtils("Q2hhdmVDdXJ0YURlbWFpc1BhcmFIUzI1Ng=="));
+	}
+
+	@Test
+	void chaveInvalidaComAutenticacaoDesligadaViraChaveAleatoria() throws Exception {
+		JwtUtils desligado = new JwtUtils();
+		ReflectionTestUtils.setField(desligado, "jwtSecret", "ProjetoParaControleDeEntradaESaidaDeVeiculos");
+		ReflectionTestUtils.setField(desligado, "jwtExpirationMs", 60_000);
+		ReflectionTestUtils.setField(desligado, "tamanhoMaximoCache", 1_000);
+		desligado.inicializar();
+
+		// Um token assinado com o valor de exemplo não é aceito
+		JwtUtils comOExemplo = new JwtUtils();
+		ReflectionTestUtils.setField(comOExemplo, "chave", Keys.hmacShaKeyFor(
+				Decoders.BASE64.decode("ProjetoParaControleDeEntradaESaidaDeVeiculos")));
+		ReflectionTestUtils.setField(comOExemplo, "jwtExpirationMs", 60_000);
+		assertFalse(desligado.validateJwtToken(comOExemplo.generateJwtToken(autenticacao)));
+		assertTrue(desligado.validateJwtToken(desligado.generateJwtToken(autenticacao)));
+	}
+
+	@Test
+	void requisicaoSemTokenSegueSemAutenticacao() throws Exception {
+		MockFilterChain cadeia = new MockFilterChain();
+		filtro.doFilter(new MockHttpServletRequest("GET", "/api/veiculos"), new MockHttpServletResponse(), cadeia);
+
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+		assertNotNull(cadeia.getRequest());
+	}
+
+	private void executarFiltro() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/veiculos");
+		request.addHeader("Authorization", "Bearer " + token);
+		filtro.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+	}
+
+	static JwtUtils criarJwtUtils(String segredo) {
+		JwtUtils jwtUtils = new JwtUtils();
+		ReflectionTestUtils.setField(jwtUtils, "jwtSecret", segredo);
+		ReflectionTestUtils.setField(jwtUtils, "jwtEnabled", true);
+		ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+		ReflectionTestUtils.setField(jwtUtils, "tamanhoMaximoCache", 1_000);
+		jwtUtils.inicializar();
+		return jwtUtils;
+	}
+}
@@ -0,0 +1,107 @@
+package com.controle.Controle_veiculo.services.transacao;
+
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
+import com.controle.Controle_veiculo.services.unidade.UnidadeService;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compara, por requisição, a memória alocada e o tempo de CPU do histórico (página de 50
+ * movimentações) e da lista completa de veículos: numa transação comum (entidades com cópia para a
+ * verificação de alterações e flush no commit) e pelo caminho de leitura (transação somente leitura
+ * e sessão sem estado). Roda só com {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class TransacaoLeituraBenchmarkTest {
+
+	private static final int REPETICOES = 100;
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private VeiculoRepository veiculoRepository;
+
+	@Autowired
+	private UnidadeService unidadeService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private record Medida(long bytes, long cpuMicros) {
+	}
+
+	@Test
+	void memoriaECpuPorRequisicao() {
+		long unidade = unidadeService.criar(new Unidade("UN-LEITURA", "Pátio de leitura")).getId();
+		TransacaoLeituraTest.popular(jdbcTemplate, veiculoService, unidade, 300, 10);
+		TransactionTemplate transacaoComum = new TransactionTemplate(transactionManager);
+
+		Supplier<Integer> historico = () -> UnidadeContexto.executar(unidade,
+				() -> percorrer(movimentacaoService.listarTodas(null, null, null, 0, 50).getContent()));
+		Medida historicoAntes = medir(() -> transacaoComum.execute(status -> historico.get()));
+		Medida historicoDepois = medir(historico);
+
+		Medida veiculosAntes = medir(() -> transacaoComum.execute(status -> veiculoRepository.findAll().size()));
+		Medida veiculosDepois = medir(() -> veiculoService.listarTodos().size());
+
+		System.out.printf("Histórico (50): transação comum %d KB e %d µs; somente leitura %d KB e %d µs por requisição%n",
+				historicoAntes.bytes() / 1024, historicoAntes.cpuMicros(), historicoDepois.bytes() / 1024, historicoDepois.cpuMicros());
+		System.out.printf("Veículos (%d): transação comum %d KB e %d µs; sessão sem estado %d KB e %d µs por requisição%n",
+				veiculoRepository.count(), veiculosAntes.bytes() / 1024, veiculosAntes.cpuMicros(),
+				veiculosDepois.bytes() / 1024, veiculosDepois.cpuMicros());
+	}
+
+	/**
+	 * Memória alocada e CPU da thread por requisição, depois de uma rodada de aquecimento.
+	 */
+	private Medida medir(Supplier<Integer> requisicao) {
+		for (int i = 0; i < REPETICOES; i++) {
+			requisicao.get();
+		}
+		long bytes = THREADS.getCurrentThreadAllocatedBytes();
+		long cpu = THREADS.getCurrentThreadCpuTime();
+		for (int i = 0; i < REPETICOES; i++) {
+			requisicao.get();
+		}
+		return new Medida((THREADS.getCurrentThreadAllocatedBytes() - bytes) / REPETICOES,
+				(THREADS.getCurrentThreadCpuTime() - cpu) / REPETICOES / 1_000);
+	}
+
+	/**
+	 * Lê os campos que a serialização leria (veículo e motorista de cada movimentação).
+	 */
+	private static int percorrer(List<Movimentacao> movimentacoes) {
+		int total = 0;
+		for (Movimentacao movimentacao : movimentacoes) {
+			total += movimentacao.getVeiculo().getPlaca().length();
+			total += movimentacao.getMotorista() != null ? movimentacao.getMotorista().length() : 0;
+		}
+		return total;
+	}
+}
@@ -0,0 +1,156 @@
+package com.controle.Controle_veiculo.services.transacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.VeiculoRepository;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+import com.controle.Controle_veiculo.services.unidade.UnidadeContexto;
+import com.controle.Controle_veiculo.services.unidade.UnidadeService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Caminho de leitura: a transação de {@link TransacaoLeitura} é somente leitura e não grava as
+ * alterações das entidades carregadas, a sessão sem estado devolve entidades desanexadas, e as
+ * consultas devolvem o mesmo que numa transação comum.
+ */
+@SpringBootTest
+class TransacaoLeituraTest {
+
+	@TestConfiguration
+	static class Configuracao {
+
+		@Bean
+		Leitor leitor() {
+			return new Leitor();
+		}
+	}
+
+	/**
+	 * Serviço de teste com um método {@link TransacaoLeitura} que altera a entidade que carrega.
+	 */
+	static class Leitor {
+
+		@Autowired
+		private VeiculoRepository veiculoRepository;
+
+		@PersistenceContext
+		private EntityManager entityManager;
+
+		@TransacaoLeitura
+		public FlushMode alterarModelo(Long id, String modelo) {
+			assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+			veiculoRepository.findById(id).orElseThrow().setModelo(modelo);
+			return entityManager.unwrap(Session.class).getHibernateFlushMode();
+		}
+	}
+
+	@Autowired
+	private Leitor leitor;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private VeiculoRepository veiculoRepository;
+
+	@Autowired
+	private UnidadeService unidadeService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Test
+	void transacaoDeLeituraNaoGravaAlteracoes() {
+		Veiculo veiculo = veiculoService.salvarVeiculo(new Veiculo("TRL9A01", "Strada", "Fiat", null, "Cinza"));
+
+		assertEquals(FlushMode.MANUAL, leitor.alterarModelo(veiculo.getId(), "Alterado"));
+		assertEquals("Strada", veiculoRepository.findById(veiculo.getId()).orElseThrow().getModelo());
+	}
+
+	@Test
+	void sessaoSemEstadoDevolveEntidadesDesanexadas() {
+		Veiculo salvo = veiculoService.salvarVeiculo(new Veiculo("TRL9A02", "Strada", "Fiat", null, "Cinza"));
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			List<Veiculo> todos = veiculoService.listarTodos();
+			assertEquals(veiculoRepository.count(), todos.size());
+			Veiculo lido = todos.stream().filter(v -> v.getId().equals(salvo.getId())).findFirst().orElseThrow();
+			assertFalse(entityManager.contains(lido));
+			// Alteração numa entidade desanexada: o commit da transação externa não a grava
+			lido.setModelo("Alterado");
+		});
+		assertEquals("Strada", veiculoRepository.findById(salvo.getId()).orElseThrow().getModelo());
+	}
+
+	@Test
+	void historicoIgualAoDaTransacaoComum() {
+		long unidade = unidadeService.criar(new Unidade("UN-LEITURA", "Pátio de leitura")).getId();
+		popular(jdbcTemplate, veiculoService, unidade, 20, 5);
+
+		List<Long> pelaLeitura = UnidadeContexto.executar(unidade, () -> ids(movimentacaoService.listarTodas(null, null, null, 0, 50).getContent()));
+		List<Long> pelaTransacaoComum = new TransactionTemplate(transactionManager).execute(status -> UnidadeContexto.executar(unidade,
+				() -> ids(movimentacaoService.listarTodas(null, null, null, 0, 50).getContent())));
+
+		assertEquals(50, pelaLeitura.size());
+		assertEquals(pelaTransacaoComum, pelaLeitura);
+	}
+
+	private static List<Long> ids(List<Movimentacao> movimentacoes) {
+		return movimentacoes.stream().map(Movimentacao::getId).toList();
+	}
+
+	/**
+	 * Veículos da unidade com movimentações alternadas; o status de cada um corresponde à última.
+	 */
+	static void popular(JdbcTemplate jdbcTemplate, VeiculoService veiculoService, long unidade, int veiculos, int movimentacoesPorVeiculo) {
+		long agora = System.currentTimeMillis();
+		for (int v = 0; v < veiculos; v++) {
+			int numero = v;
+			Veiculo veiculo = UnidadeContexto.executar(unidade, () -> veiculoService.salvarVeiculo(
+					new Veiculo(String.format("TRL%04d", numero), "Strada", "Fiat", null, "Cinza")));
+			List<Object[]> linhas = new ArrayList<>();
+			for (int m = 0; m < movimentacoesPorVeiculo; m++) {
+				linhas.add(new Object[] {UUID.randomUUID().toString(), new Timestamp(agora - (movimentacoesPorVeiculo - m) * 60_000L),
+						m % 2 == 0 ? "E" : "S", veiculo.getId(), unidade});
+			}
+			jdbcTemplate.batchUpdate("INSERT INTO movimentacoes (uuid, data_hora, tipo, veiculo_id, unidade_id) VALUES (?, ?, ?, ?, ?)", linhas);
+			boolean presente = (movimentacoesPorVeiculo - 1) % 2 == 0;
+			jdbcTemplate.update("UPDATE veiculos SET situacao = ?, ultima_movimentacao = ? WHERE id = ?",
+					presente ? "P" : "A", new Timestamp(agora - 60_000L), veiculo.getId());
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.controle.Controle_veiculo.services.unidade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.controle.Controle_veiculo.model.Papel;
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.model.Usuario;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.UsuarioRepository;
+import com.controle.Controle_veiculo.services.VeiculoService;
+import com.controle.Controle_veiculo.services.security.jwt.JwtUtils;
+import com.jayway.jsonpath.JsonPath;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Unidade das requisições: sem o cabeçalho vale a unidade do usuário (ou a padrão), e o usuário
+ * vinculado a uma unidade não acessa as outras.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UnidadeFilterTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	@Autowired
+	private UnidadeService unidadeService;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Test
+	void usuarioVinculadoAcessaSoASuaUnidade() throws Exception {
+		long leste = unidadeService.criar(new Unidade("UN-LESTE", "Pátio Leste")).getId();
+		UnidadeContexto.executar(leste, () -> veiculoService.salvarVeiculo(new Veiculo("UNL0001", "Strada", "Fiat", null, "Branco")));
+		UnidadeContexto.executar(leste, () -> veiculoService.salvarVeiculo(new Veiculo("UNL0002", "Strada", "Fiat", null, "Preto")));
+		usuarioRepository.save(new Usuario("porteiro-leste", passwordEncoder.encode("senha-leste"), Set.of(Papel.ROLE_PORTEIRO)));
+		unidadeService.vincularUsuario("porteiro-leste", leste);
+		String porteiroLeste = login("porteiro-leste", "senha-leste");
+
+		// Sem cabeçalho: a unidade do usuário
+		assertEquals("2", contar(porteiroLeste, null).getContentAsString());
+		assertEquals("2", contar(porteiroLeste, "UN-LESTE").getContentAsString());
+		assertEquals(403, contar(porteiroLeste, String.valueOf(Unidade.PADRAO)).getStatus());
+		assertEquals(400, contar(porteiroLeste, "UN-INEXISTENTE").getStatus());
+	}
+
+	@Test
+	void semCabecalhoOsRegistrosDeOutraUnidadeSaoRecusados() throws Exception {
+		long oeste = unidadeService.criar(new Unidade("UN-OESTE", "Pátio Oeste")).getId();
+		Veiculo doOeste = UnidadeContexto.executar(oeste,
+				() -> veiculoService.salvarVeiculo(new Veiculo("UNO0001", "Strada", "Fiat", null, "Branco")));
+		String central = token("central");
+
+		// Usuário sem unidade e sem cabeçalho: unidade padrão, que não movimenta veículos do pátio oeste
+		assertEquals(400, registrarEntrada(central, doOeste, null).getStatus());
+		assertEquals(201, registrarEntrada(central, doOeste, "UN-OESTE").getStatus());
+	}
+
+	private MockHttpServletResponse contar(String token, String unidade) throws Exception {
+		MockHttpServletRequestBuilder requisicao = get("/api/veiculos/count").header("Authorization", "Bearer " + token);
+		if (unidade != null) {
+			requisicao.header(UnidadeFilter.CABECALHO, unidade);
+		}
+		return mockMvc.perform(requisicao).andReturn().getResponse();
+	}
+
+	private MockHttpServletResponse registrarEntrada(String token, Veiculo veiculo, String unidade) throws Exception {
+		MockHttpServletRequestBuilder requisicao = post("/api/movimentacoes")
+				.header("Authorization", "Bearer " + token)
+				.contentType("application/json")
+				.content(String.format("{\"veiculo\":{\"id\":%d},\"tipoMovimento\":\"entrada\",\"dataHora\":\"2009-02-01T08:00:00.000Z\","
+						+ "\"motorista\":\"OSVALDO OESTE\",\"porteiro\":\"JOSÉ\",\"forceCorrection\":true}", veiculo.getId()));
+		if (unidade != null) {
+			requisicao.header(UnidadeFilter.CABECALHO, unidade);
+		}
+		return mockMvc.perform(requisicao).andReturn().getResponse();
+	}
+
+	private String login(String usuario, String senha) throws Exception {
+		String resposta = mockMvc.perform(post("/api/auth/login").contentType("application/json")
+				.content(String.format("{\"username\":\"%s\",\"password\":\"%s\"}", usuario, senha)))
+				.andReturn().getResponse().getContentAsString();
+		return JsonPath.read(resposta, "$.token");
+	}
+
+	private String token(String usuario) {
+		User principal = new User(usuario, "", List.of(new SimpleGrantedAuthority("ROLE_PORTEIRO")));
+		return jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+}
@@ -0,0 +1,198 @@
+package com.controle.Controle_veiculo.services.unidade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.controle.Controle_veiculo.model.Movimentacao;
+import com.controle.Controle_veiculo.model.Papel;
+import com.controle.Controle_veiculo.model.TipoMovimento;
+import com.controle.Controle_veiculo.model.Unidade;
+import com.controle.Controle_veiculo.model.Usuario;
+import com.controle.Controle_veiculo.model.Veiculo;
+import com.controle.Controle_veiculo.repository.UsuarioRepository;
+import com.controle.Controle_veiculo.services.LeituraCompartilhadaService;
+import com.controle.Controle_veiculo.services.MovimentacaoService;
+import com.controle.Controle_veiculo.services.ProjecaoPatioService;
+import com.controle.Controle_veiculo.services.VeiculoService;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Várias unidades no mesmo banco: listas, contagens e leituras compartilhadas de uma unidade não
+ * incluem (nem são invalidadas por) dados de outra, e a visão consolidada soma as unidades.
+ */
+@SpringBootTest(properties = "leituras.compartilhadas.ttl-ms=60000")
+class UnidadeServiceTest {
+
+	@Autowired
+	private UnidadeService unidadeService;
+
+	@Autowired
+	private VeiculoService veiculoService;
+
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@Autowired
+	private ProjecaoPatioService projecaoPatio;
+
+	@Autowired
+	private LeituraCompartilhadaService leituras;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Test
+	void dadosEContagensSeparadosPorUnidade() {
+		long norte = unidadeService.criar(new Unidade("un-norte", "Pátio Norte")).getId();
+		long sul = unidadeService.criar(new Unidade("UN-SUL", "Pátio Sul")).getId();
+		assertEquals(norte, unidadeService.resolver("un-norte"));
+		assertEquals(sul, unidadeService.resolver(String.valueOf(sul)));
+		assertThrows(RuntimeException.class, () -> unidadeService.criar(new Unidade("UN-NORTE", "Duplicada")));
+
+		List<Veiculo> doNorte = cadastrar(norte, "UNN", 3);
+		List<Veiculo> doSul = cadastrar(sul, "UNS", 2);
+		doNorte.forEach(veiculo -> registrar(norte, veiculo));
+		registrar(sul, doSul.get(0));
+
+		assertEquals(3, movimentacaoService.countEntradasHoje(norte));
+		assertEquals(1, movimentacaoService.countEntradasHoje(sul));
+		assertEquals(3, projecaoPatio.contarPresentes(norte));
+		assertEquals(1, projecaoPatio.contarPresentes(sul));
+		assertTrue(projecaoPatio.listarPresentes(sul).stream().allMatch(v -> v.getPlaca().startsWith("UNS")));
+
+		// As consultas sem unidade explícita usam a unidade da requisição
+		UnidadeContexto.executar(sul, () -> {
+			assertEquals(1, movimentacaoService.countEntradasHoje());
+			assertEquals(2L, veiculoService.countAllVeiculos());
+			assertEquals(1, veiculoService.listarVeiculosPresentes().size());
+			assertTrue(movimentacaoService.listarTodas(null, null, null, 0, 50).getContent().stream()
+					.allMatch(m -> m.getVeiculo().getPlaca().startsWith("UNS")));
+			// A portaria do pátio sul não movimenta veículos do pátio norte
+			assertThrows(RuntimeException.class, () -> registrar(null, doNorte.get(0)));
+			return null;
+		});
+
+		// Visão consolidada: soma das unidades
+		Map<String, Object> resumo = unidadeService.resumo();
+		@SuppressWarnings("unchecked")
+		List<Map<String, Object>> linhas = (List<Map<String, Object>>) resumo.get("unidades");
+		@SuppressWarnings("unchecked")
+		Map<String, Long> total = (Map<String, Long>) resumo.get("total");
+		assertEquals(linhas.stream().mapToLong(l -> (Long) l.get("presentes")).sum(), total.get("presentes"));
+		assertEquals(linhas.stream().mapToLong(l -> (Long) l.get("entradasHoje")).sum(), total.get("entradasHoje"));
+		assertTrue(total.get("entradasHoje") >= 4);
+	}
+
+	@Test
+	void escritaDeUmaUnidadeNaoInvalidaAsLeiturasDasOutras() {
+		AtomicInteger consultas = new AtomicInteger();
+		leituras.obter(2L, "teste.unidade", consultas::incrementAndGet);
+		leituras.obter(2L, "teste.unidade", consultas::incrementAndGet);
+		assertEquals(1, consultas.get());
+
+		leituras.invalidar(3L);
+		leituras.obter(2L, "teste.unidade", consultas::incrementAndGet);
+		assertEquals(1, consultas.get());
+
+		leituras.invalidar(2L);
+		leituras.obter(2L, "teste.unidade", consultas::incrementAndGet);
+		assertEquals(2, consultas.get());
+	}
+
+	@Test
+	void contagemDeUmaUnidadeLeApenasOProprioTrechoDoIndice() {
+		long grande = unidadeService.criar(new Unidade("UN-GRANDE", "Pátio Grande")).getId();
+		long pequena = unidadeService.criar(new Unidade("UN-PEQUENA", "Pátio Pequeno")).getId();
+		Veiculo veiculo = cadastrar(grande, "UNG", 1).get(0);
+
+		// Volume alto de movimentações do dia em uma unidade
+		long agora = System.currentTimeMillis();
+		List<Object[]> linhas = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			linhas.add(new Object[] {UUID.randomUUID().toString(), new Timestamp(agora - i), i % 2 == 0 ? "E" : "S", veiculo.getId(), grande});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO movimentacoes (uuid, data_hora, tipo, veiculo_id, unidade_id) VALUES (?, ?, ?, ?, ?)", linhas);
+		// Status coerente com a última movimentação inserida (a reconciliação da frota não vê divergência)
+		jdbcTemplate.update("UPDATE veiculos SET situacao = 'P', ultima_movimentacao = ? WHERE id = ?", new Timestamp(agora), veiculo.getId());
+		leituras.invalidar();
+
+		String plano = jdbcTemplate.queryForObject(
+				"EXPLAIN SELECT COUNT(*) FROM movimentacoes WHERE unidade_id = ? AND data_hora BETWEEN ? AND ? AND tipo = 'E'",
+				String.class, pequena, new Timestamp(agora - 86_400_000L), new Timestamp(agora));
+
+		assertEquals(0, movimentacaoService.countEntradasHoje(pequena));
+		assertTrue(movimentacaoService.countEntradasHoje(grande) >= 10_000);
+		assertTrue(plano.toUpperCase().contains("IDX_MOVIMENTACOES_UNIDADE_DATA_TIPO"), plano);
+	}
+
+	@Test
+	void unidadeDesconhecidaNaoRecarregaACadaRequisicao() throws InterruptedException {
+		unidadeService.criar(new Unidade("UN-CACHE", "Pátio Cache"));
+		// Cadastrada por fora do serviço: só aparece na próxima recarga, limitada a uma por intervalo
+		jdbcTemplate.update("INSERT INTO unidades (codigo, nome) VALUES ('UN-EXTERNA', 'Pátio Externo')");
+		assertNull(unidadeService.resolver("UN-EXTERNA"));
+		assertNull(unidadeService.resolver("UN-EXTERNA"));
+
+		long limite = System.currentTimeMillis() + 10_000;
+		while (unidadeService.resolver("UN-EXTERNA") == null) {
+			assertTrue(System.currentTimeMillis() < limite, "unidade externa não recarregada");
+			Thread.sleep(100);
+		}
+	}
+
+	@Test
+	void vinculaUsuarioAUmaUnidadeExistente() {
+		long leste = unidadeService.criar(new Unidade("UN-VINCULO", "Pátio Vínculo")).getId();
+		usuarioRepository.save(new Usuario("porteiro-vinculo", "{noop}senha", Set.of(Papel.ROLE_PORTEIRO)));
+
+		unidadeService.vincularUsuario("porteiro-vinculo", leste);
+		assertEquals(leste, usuarioRepository.findByUsername("porteiro-vinculo").orElseThrow().getUnidadeId());
+		assertThrows(RuntimeException.class, () -> unidadeService.vincularUsuario("porteiro-vinculo", -1L));
+		assertThrows(RuntimeException.class, () -> unidadeService.vincularUsuario("inexistente", leste));
+	}
+
+	private List<Veiculo> cadastrar(long unidade, String prefixo, int quantidade) {
+		List<Veiculo> veiculos = new ArrayList<>();
+		for (int i = 0; i < quantidade; i++) {
+			Veiculo veiculo = new Veiculo(String.format("%s%04d", prefixo, i), "Strada", "Fiat", null, "Branco");
+			veiculos.add(UnidadeContexto.executar(unidade, () -> veiculoService.salvarVeiculo(veiculo)));
+		}
+		return veiculos;
+	}
+
+	/**
+	 * Registra uma entrada agora, na unidade informada (null = unidade já definida na thread).
+	 */
+	private void registrar(Long unidade, Veiculo veiculo) {
+		Movimentacao movimentacao = new Movimentacao();
+		movimentacao.setVeiculo(veiculo);
+		movimentacao.setTipoMovimento(TipoMovimento.ENTRADA);
+		movimentacao.setDataHora(new Date());
+		movimentacao.setMotorista("ULISSES UNIDADE");
+		movimentacao.setPorteiro("JOSÉ");
+		movimentacao.setForceCorrection(true);
+		if (unidade == null) {
+			movimentacaoService.registrarMovimentacao(movimentacao);
+		} else {
+			UnidadeContexto.executar(unidade, () -> movimentacaoService.registrarMovimentacao(movimentacao));
+		}
+	}
+}
@@ -0,0 +1,54 @@
+// Gera as variantes pré-comprimidas (.br e .gz) dos arquivos do build do Angular.
+//
+// O back-end (Spring Boot) serve esses arquivos diretamente quando o navegador aceita
+// brotli ou gzip, sem comprimir nada a cada requisição.
+//
+// Roda sozinho depois de cada "npm run build" (script postbuild), para que as variantes nunca fiquem
+// mais antigas que os arquivos do build. Elas não são versionadas: copie a pasta do build inteira
+// (arquivos e variantes) para o static do back-end.
+//
+// Uso: node scripts/comprimir-estaticos.mjs <pasta-do-build>
+// Ex.:  node scripts/comprimir-estaticos.mjs ../Controle_veiculo/src/main/resources/static
+
+import { readdirSync, readFileSync, statSync, writeFileSync } from 'node:fs';
+import { join } from 'node:path';
+import { brotliCompressSync, constants, gzipSync } from 'node:zlib';
+
+const EXTENSOES = ['.js', '.css', '.html', '.svg', '.json', '.ico', '.txt'];
+const TAMANHO_MINIMO = 1024;
+
+const pasta = process.argv[2];
+if (!pasta) {
+  console.error('Informe a pasta do build. Ex.: node scripts/comprimir-estaticos.mjs dist/controle-veiculo-app/browser');
+  process.exit(1);
+}
+
+function percorrer(diretorio) {
+  for (const nome of readdirSync(diretorio)) {
+    const caminho = join(diretorio, nome);
+    if (statSync(caminho).isDirectory()) {
+      percorrer(caminho);
+    } else if (EXTENSOES.some((ext) => nome.endsWith(ext))) {
+      comprimir(caminho);
+    }
+  }
+}
+
+function comprimir(caminho) {
+  const conteudo = readFileSync(caminho);
+  if (conteudo.length < TAMANHO_MINIMO) {
+    return;
+  }
+  const br = brotliCompressSync(conteudo, {
+    params: {
+      [constants.BROTLI_PARAM_QUALITY]: constants.BROTLI_MAX_QUALITY,
+      [constants.BROTLI_PARAM_SIZE_HINT]: conteudo.length,
+    },
+  });
+  const gz = gzipSync(conteudo, { level: 9 });
+  writeFileSync(caminho + '.br', br);
+  writeFileSync(caminho + '.gz', gz);
+  console.log(`${caminho}: ${conteudo.length} → br ${br.length} / gz ${gz.length} bytes`);
+}
+
+percorrer(pasta);
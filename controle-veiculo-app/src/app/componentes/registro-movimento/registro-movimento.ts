@@ -238,8 +238,13 @@ export class RegistroMovimento implements OnInit {
     };
 
     this.movimentacaoService.registrarMovimentacao(payload).subscribe({
-      next: () => {
-        this.mensagemSucesso = 'Movimentação registrada com sucesso!';
+      next: (registrada) => {
+        const correcao = registrada.correcaoAplicada;
+        this.mensagemSucesso = correcao === 'entradaAutomatica'
+          ? 'Movimentação registrada com sucesso! Uma ENTRADA automática foi registrada antes (pendente de revisão).'
+          : correcao === 'saidaAutomatica'
+            ? 'Movimentação registrada com sucesso! Uma SAÍDA automática foi registrada antes (pendente de revisão).'
+            : 'Movimentação registrada com sucesso!';
         this.mensagemErro = null;
         this.resetForm();
         this.movimentacaoService.notificarMovimentacaoRegistrada();
@@ -41,4 +41,10 @@ export interface Movimentacao {
    * Isso cria um relacionamento, aninhando os dados do veículo dentro do registro de movimentação.
    */
   veiculo: Veiculo;
+
+  /**
+   * Correção aplicada pela política automática da portaria junto com este registro
+   * ("entradaAutomatica" ou "saidaAutomatica"). Ausente quando não houve correção.
+   */
+  correcaoAplicada?: string;
 }
\ No newline at end of file
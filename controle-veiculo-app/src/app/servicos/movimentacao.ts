@@ -50,7 +50,7 @@ export class MovimentacaoService {
    * Registra uma nova movimentação no backend.
    * Após o sucesso, dispara o Subject para atualizar listas nos componentes que observam.
    */
-  registrarMovimentacao(dadosMovimentacao: MovimentacaoPayload): Observable<MovimentacaoPayload> {
+  registrarMovimentacao(dadosMovimentacao: MovimentacaoPayload): Observable<Movimentacao> {
     return this.http.post<any>(this.apiUrl, dadosMovimentacao).pipe( 
         tap(() => this.movimentacaoRegistradaSubject.next()) // 🔔 Gatilho para atualização automática
     );